@@ -81,6 +81,9 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String REMOTE_CONTENTS_CACHE_EXPIRATION = "nifi.remote.contents.cache.expiration";
     public static final String ADMINISTRATIVE_YIELD_DURATION = "nifi.administrative.yield.duration";
     public static final String BORED_YIELD_DURATION = "nifi.bored.yield.duration";
+    public static final String TIMER_DRIVEN_VIRTUAL_THREADS_ENABLED = "nifi.timer.driven.virtual.threads.enabled";
+    public static final String TIMER_DRIVEN_VIRTUAL_THREADS_COMPONENT_TYPES = "nifi.timer.driven.virtual.threads.component.types";
+    public static final String TIMER_DRIVEN_RUN_TO_COMPLETION_MAX_CHAIN_LENGTH = "nifi.timer.driven.run.to.completion.max.chain.length";
     public static final String PROCESSOR_SCHEDULING_TIMEOUT = "nifi.processor.scheduling.timeout";
     public static final String BACKPRESSURE_COUNT = "nifi.queue.backpressure.count";
     public static final String BACKPRESSURE_SIZE = "nifi.queue.backpressure.size";
@@ -95,6 +98,16 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String CONTENT_ARCHIVE_BACK_PRESSURE_PERCENTAGE = "nifi.content.repository.archive.backpressure.percentage";
     public static final String CONTENT_ARCHIVE_ENABLED = "nifi.content.repository.archive.enabled";
     public static final String CONTENT_ARCHIVE_CLEANUP_FREQUENCY = "nifi.content.repository.archive.cleanup.frequency";
+    public static final String CONTENT_READ_CACHE_SIZE = "nifi.content.repository.read.cache.size";
+    public static final String CONTENT_READ_CACHE_MAX_CLAIM_SIZE = "nifi.content.repository.read.cache.max.claim.size";
+    public static final String CONTENT_ASYNC_WRITE_ENABLED = "nifi.content.repository.async.write.enabled";
+    public static final String CONTENT_ASYNC_WRITE_MAX_PENDING_SIZE = "nifi.content.repository.async.write.max.pending.size";
+    public static final String CONTENT_COMPRESSION_CODEC = "nifi.content.repository.compression.codec";
+    public static final String CONTENT_DEDUPLICATION_ENABLED = "nifi.content.repository.deduplication.enabled";
+    public static final String CONTENT_DEDUPLICATION_MIN_CLAIM_SIZE = "nifi.content.repository.deduplication.min.claim.size";
+    public static final String CONTENT_COLD_TIER_DIRECTORY_PREFIX = "nifi.content.repository.cold.directory.";
+    public static final String CONTENT_COLD_TIER_MIGRATION_AGE = "nifi.content.repository.cold.migration.age";
+    public static final String CONTENT_COLD_TIER_MIGRATION_USAGE_PERCENTAGE = "nifi.content.repository.cold.migration.usage.percentage";
 
     // flowfile repository properties
     public static final String FLOWFILE_REPOSITORY_IMPLEMENTATION = "nifi.flowfile.repository.implementation";
@@ -104,6 +117,9 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String FLOWFILE_REPOSITORY_CHECKPOINT_INTERVAL = "nifi.flowfile.repository.checkpoint.interval";
     public static final String FLOWFILE_SWAP_MANAGER_IMPLEMENTATION = "nifi.swap.manager.implementation";
     public static final String QUEUE_SWAP_THRESHOLD = "nifi.queue.swap.threshold";
+    public static final String QUEUE_COMPACT_FLOWFILES = "nifi.queue.compact.flowfiles";
+    public static final String QUEUE_SWAP_ASYNC_THREADS = "nifi.queue.swap.async.threads";
+    public static final String QUEUE_SWAP_COMPRESSED = "nifi.queue.swap.compressed";
 
     // provenance properties
     public static final String PROVENANCE_REPO_IMPLEMENTATION_CLASS = "nifi.provenance.repository.implementation";
@@ -121,6 +137,7 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String PROVENANCE_INDEX_SHARD_SIZE = "nifi.provenance.repository.index.shard.size";
     public static final String PROVENANCE_JOURNAL_COUNT = "nifi.provenance.repository.journal.count";
     public static final String PROVENANCE_REPO_DEBUG_FREQUENCY = "nifi.provenance.repository.debug.frequency";
+    public static final String PROVENANCE_SAMPLING_RULES = "nifi.provenance.sampling.rules";
 
     public static final String ASSET_MANAGER_IMPLEMENTATION = "nifi.asset.manager.implementation";
     public static final String ASSET_MANAGER_PREFIX = "nifi.asset.manager.properties.";
@@ -353,12 +370,21 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String DEFAULT_NAR_LIBRARY_AUTOLOAD_DIR = "./extensions";
     public static final String DEFAULT_FLOWFILE_CHECKPOINT_INTERVAL = "20 secs";
     public static final String DEFAULT_MAX_APPENDABLE_CLAIM_SIZE = "50 KB";
+    public static final String DEFAULT_CONTENT_READ_CACHE_SIZE = "0 MB";
+    public static final String DEFAULT_CONTENT_READ_CACHE_MAX_CLAIM_SIZE = "16 KB";
+    public static final String DEFAULT_CONTENT_ASYNC_WRITE_MAX_PENDING_SIZE = "16 MB";
+    public static final String DEFAULT_CONTENT_COMPRESSION_CODEC = "none";
+    public static final String DEFAULT_CONTENT_DEDUPLICATION_MIN_CLAIM_SIZE = "4 KB";
+    public static final String DEFAULT_CONTENT_COLD_TIER_MIGRATION_AGE = "30 mins";
+    public static final String DEFAULT_CONTENT_COLD_TIER_MIGRATION_USAGE_PERCENTAGE = "80%";
     public static final int DEFAULT_QUEUE_SWAP_THRESHOLD = 20000;
+    public static final int DEFAULT_QUEUE_SWAP_ASYNC_THREADS = 0;
     public static final long DEFAULT_BACKPRESSURE_COUNT = 10_000L;
     public static final String DEFAULT_BACKPRESSURE_SIZE = "1 GB";
     public static final String DEFAULT_ADMINISTRATIVE_YIELD_DURATION = "30 sec";
     public static final String DEFAULT_COMPONENT_STATUS_SNAPSHOT_FREQUENCY = "5 mins";
     public static final String DEFAULT_BORED_YIELD_DURATION = "10 millis";
+    public static final int DEFAULT_TIMER_DRIVEN_RUN_TO_COMPLETION_MAX_CHAIN_LENGTH = 0;
     public static final String DEFAULT_ZOOKEEPER_CONNECT_TIMEOUT = "3 secs";
     public static final String DEFAULT_ZOOKEEPER_SESSION_TIMEOUT = "3 secs";
     public static final String DEFAULT_ZOOKEEPER_ROOT_NODE = "/nifi";
@@ -493,6 +519,27 @@ public class NiFiProperties extends ApplicationProperties {
         }
     }
 
+    /**
+     * @return <code>true</code> if queued FlowFiles should be held in a compact representation that requires less heap, <code>false</code> otherwise
+     */
+    public boolean isQueueCompactFlowFiles() {
+        return Boolean.parseBoolean(getProperty(QUEUE_COMPACT_FLOWFILES, "false"));
+    }
+
+    /**
+     * @return the number of background threads used to write and read ahead swap files, or 0 if swapping should be performed synchronously
+     */
+    public int getQueueSwapAsyncThreads() {
+        return getIntegerProperty(QUEUE_SWAP_ASYNC_THREADS, DEFAULT_QUEUE_SWAP_ASYNC_THREADS);
+    }
+
+    /**
+     * @return <code>true</code> if swap files should be written in the compressed, column-oriented encoding, <code>false</code> otherwise
+     */
+    public boolean isQueueSwapCompressed() {
+        return Boolean.parseBoolean(getProperty(QUEUE_SWAP_COMPRESSED, "false"));
+    }
+
     public Integer getIntegerProperty(final String propertyName, final Integer defaultValue) {
         final String value = getProperty(propertyName);
         if (value == null || value.trim().isEmpty()) {
@@ -1412,6 +1459,14 @@ public class NiFiProperties extends ApplicationProperties {
         return provenanceRepositoryPaths;
     }
 
+    /**
+     * @return the comma-separated rules that determine which Provenance Events are sampled or suppressed before they reach the Provenance Repository,
+     *         or an empty string if all events are retained
+     */
+    public String getProvenanceSamplingRules() {
+        return getProperty(PROVENANCE_SAMPLING_RULES, "").trim();
+    }
+
 
     /**
      * Returns the maximum size, in bytes, that claims should grow before writing a new file. This means that we won't continually write to one
@@ -1425,6 +1480,137 @@ public class NiFiProperties extends ApplicationProperties {
         return getProperty(MAX_APPENDABLE_CLAIM_SIZE, DEFAULT_MAX_APPENDABLE_CLAIM_SIZE);
     }
 
+    /**
+     * Returns the maximum number of bytes of content that the Content Repository should hold in memory
+     * in order to serve repeated reads of small Content Claims. A value of 0 disables the cache.
+     * <p>
+     * Default is {@link #DEFAULT_CONTENT_READ_CACHE_SIZE}
+     *
+     * @return the maximum size of the content read cache
+     */
+    public String getContentReadCacheSize() {
+        return getProperty(CONTENT_READ_CACHE_SIZE, DEFAULT_CONTENT_READ_CACHE_SIZE);
+    }
+
+    /**
+     * Returns the maximum size of a Content Claim that is eligible to be held in the content read cache.
+     * <p>
+     * Default is {@link #DEFAULT_CONTENT_READ_CACHE_MAX_CLAIM_SIZE}
+     *
+     * @return the maximum size of a cached Content Claim
+     */
+    public String getContentReadCacheMaxClaimSize() {
+        return getProperty(CONTENT_READ_CACHE_MAX_CLAIM_SIZE, DEFAULT_CONTENT_READ_CACHE_MAX_CLAIM_SIZE);
+    }
+
+    /**
+     * Returns whether or not the Content Repository should write content to disk on background threads rather than on the
+     * threads that produce the content.
+     *
+     * @return <code>true</code> if asynchronous writes are enabled, <code>false</code> otherwise
+     */
+    public boolean isContentAsyncWriteEnabled() {
+        return Boolean.parseBoolean(getProperty(CONTENT_ASYNC_WRITE_ENABLED, "false"));
+    }
+
+    /**
+     * Returns the maximum amount of content, per container, that may be waiting to be written to disk when asynchronous writes
+     * are enabled. Threads that produce content wait once this limit is reached.
+     * <p>
+     * Default is {@link #DEFAULT_CONTENT_ASYNC_WRITE_MAX_PENDING_SIZE}
+     *
+     * @return the maximum size of content pending write for each container
+     */
+    public String getContentAsyncWriteMaxPendingSize() {
+        return getProperty(CONTENT_ASYNC_WRITE_MAX_PENDING_SIZE, DEFAULT_CONTENT_ASYNC_WRITE_MAX_PENDING_SIZE);
+    }
+
+    /**
+     * Returns the name of the codec that the Content Repository uses to compress the content written to the given container.
+     * The codec may be configured for an individual container by appending the container name to the
+     * {@link #CONTENT_COMPRESSION_CODEC} property name; otherwise, the value of {@link #CONTENT_COMPRESSION_CODEC} is used.
+     * <p>
+     * Default is {@link #DEFAULT_CONTENT_COMPRESSION_CODEC}, which disables compression
+     *
+     * @param containerName the name of the content repository container
+     * @return the name of the compression codec for the container
+     */
+    public String getContentCompressionCodec(final String containerName) {
+        final String containerCodec = getProperty(CONTENT_COMPRESSION_CODEC + "." + containerName);
+        if (containerCodec != null && !containerCodec.isBlank()) {
+            return containerCodec.trim();
+        }
+
+        return getProperty(CONTENT_COMPRESSION_CODEC, DEFAULT_CONTENT_COMPRESSION_CODEC).trim();
+    }
+
+    /**
+     * Returns whether or not the Content Repository should store content that is identical to existing content
+     * by referencing the existing content rather than keeping another copy of it.
+     *
+     * @return <code>true</code> if content deduplication is enabled, <code>false</code> otherwise
+     */
+    public boolean isContentDeduplicationEnabled() {
+        return Boolean.parseBoolean(getProperty(CONTENT_DEDUPLICATION_ENABLED, "false"));
+    }
+
+    /**
+     * Returns the minimum size of content that the Content Repository considers for deduplication when deduplication is enabled.
+     * <p>
+     * Default is {@link #DEFAULT_CONTENT_DEDUPLICATION_MIN_CLAIM_SIZE}
+     *
+     * @return the minimum size of deduplicated content
+     */
+    public String getContentDeduplicationMinClaimSize() {
+        return getProperty(CONTENT_DEDUPLICATION_MIN_CLAIM_SIZE, DEFAULT_CONTENT_DEDUPLICATION_MIN_CLAIM_SIZE);
+    }
+
+    /**
+     * Returns the cold tier directories of the Content Repository. This method returns a mapping of content repository
+     * container name to the directory that content of the container is migrated to once it is no longer recently written.
+     * Containers without a configured cold tier directory are not included.
+     *
+     * @return the cold tier directory of each content repository container that has one
+     */
+    public Map<String, Path> getContentColdTierPaths() {
+        final Map<String, Path> coldTierPaths = new HashMap<>();
+
+        for (final String propertyName : getPropertyKeys()) {
+            if (StringUtils.startsWith(propertyName, CONTENT_COLD_TIER_DIRECTORY_PREFIX)) {
+                final String containerName = StringUtils.substringAfter(propertyName, CONTENT_COLD_TIER_DIRECTORY_PREFIX);
+                final String directory = getProperty(propertyName);
+                if (directory != null && !directory.isBlank()) {
+                    coldTierPaths.put(containerName, Paths.get(directory.trim()));
+                }
+            }
+        }
+
+        return coldTierPaths;
+    }
+
+    /**
+     * Returns how long content must remain in the fast tier of a Content Repository container before it is migrated to the container's cold tier.
+     * <p>
+     * Default is {@link #DEFAULT_CONTENT_COLD_TIER_MIGRATION_AGE}
+     *
+     * @return the age of content at which it is migrated to the cold tier
+     */
+    public String getContentColdTierMigrationAge() {
+        return getProperty(CONTENT_COLD_TIER_MIGRATION_AGE, DEFAULT_CONTENT_COLD_TIER_MIGRATION_AGE);
+    }
+
+    /**
+     * Returns the disk usage of the fast tier of a Content Repository container above which content is migrated to the container's
+     * cold tier regardless of its age.
+     * <p>
+     * Default is {@link #DEFAULT_CONTENT_COLD_TIER_MIGRATION_USAGE_PERCENTAGE}
+     *
+     * @return the disk usage percentage of the fast tier, in the format <code>XX%</code>
+     */
+    public String getContentColdTierMigrationUsagePercentage() {
+        return getProperty(CONTENT_COLD_TIER_MIGRATION_USAGE_PERCENTAGE, DEFAULT_CONTENT_COLD_TIER_MIGRATION_USAGE_PERCENTAGE);
+    }
+
     public String getProperty(final String key, final String defaultValue) {
         final String value = getProperty(key);
         return (value == null || value.trim().isEmpty()) ? defaultValue : value;
@@ -1434,6 +1620,31 @@ public class NiFiProperties extends ApplicationProperties {
         return getProperty(BORED_YIELD_DURATION, DEFAULT_BORED_YIELD_DURATION);
     }
 
+    /**
+     * @return <code>true</code> if Timer Driven components should be triggered on virtual threads instead of the Timer Driven thread pool, <code>false</code> otherwise
+     */
+    public boolean isTimerDrivenVirtualThreadsEnabled() {
+        return Boolean.parseBoolean(getProperty(TIMER_DRIVEN_VIRTUAL_THREADS_ENABLED, "false"));
+    }
+
+    /**
+     * @return the maximum number of downstream Processors that a thread triggers after triggering a Timer Driven component, or 0 if Processors are not chained
+     */
+    public int getTimerDrivenRunToCompletionMaxChainLength() {
+        return getIntegerProperty(TIMER_DRIVEN_RUN_TO_COMPLETION_MAX_CHAIN_LENGTH, DEFAULT_TIMER_DRIVEN_RUN_TO_COMPLETION_MAX_CHAIN_LENGTH);
+    }
+
+    /**
+     * @return the component types that should be triggered on virtual threads, or an empty Set if all Timer Driven components should be triggered on virtual threads
+     */
+    public Set<String> getTimerDrivenVirtualThreadsComponentTypes() {
+        final String componentTypes = getProperty(TIMER_DRIVEN_VIRTUAL_THREADS_COMPONENT_TYPES, "");
+        return Arrays.stream(componentTypes.split(","))
+            .map(String::trim)
+            .filter(componentType -> !componentType.isEmpty())
+            .collect(Collectors.toSet());
+    }
+
     public File getStateManagementConfigFile() {
         return new File(getProperty(STATE_MANAGEMENT_CONFIG_FILE, DEFAULT_STATE_MANAGEMENT_CONFIG_FILE));
     }
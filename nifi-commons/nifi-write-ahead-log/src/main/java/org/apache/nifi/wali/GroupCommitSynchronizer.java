@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>
+ * Coalesces the fsync requests of concurrent updates to a journal so that a single fsync makes all of them durable. The first thread
+ * to request a sync becomes the leader of a batch. It waits for the configured window to allow other updates to be written, then
+ * syncs the journal. Any thread that requests a sync while a batch is in progress waits for it to complete. If the batch did not cover
+ * that thread's transaction, the thread joins or leads the next batch. Each caller is blocked only until the transaction that it wrote is durable.
+ * </p>
+ *
+ * <p>
+ * A single instance must only be used with journals whose Transaction IDs increase monotonically, even as journals are rolled over.
+ * Callers must also ensure that the journal is not closed while a sync is in progress.
+ * </p>
+ */
+public class GroupCommitSynchronizer {
+    private final long windowNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchCompleted = lock.newCondition();
+
+    private final LongAdder syncRequests = new LongAdder();
+    private final LongAdder syncsPerformed = new LongAdder();
+
+    private long syncedThroughTransactionId = -1L; // guarded by lock
+    private boolean syncInProgress = false; // guarded by lock
+
+    public GroupCommitSynchronizer(final Duration window) {
+        this.windowNanos = (window == null || window.isNegative()) ? 0L : window.toNanos();
+    }
+
+    /**
+     * Blocks until all transactions that have been written to the given journal, up to and including the most recent transaction
+     * at the time that this method is called, have been synced to disk.
+     *
+     * @param journal the journal to sync
+     * @throws IOException if unable to sync the journal, or if interrupted while waiting for the sync to complete
+     */
+    public void sync(final WriteAheadJournal<?> journal) throws IOException {
+        final long transactionId = journal.getSummary().getLastTransactionId();
+        syncRequests.increment();
+
+        lock.lock();
+        try {
+            while (syncedThroughTransactionId < transactionId) {
+                if (syncInProgress) {
+                    batchCompleted.await();
+                    continue;
+                }
+
+                syncInProgress = true;
+                boolean synced = false;
+                long batchTransactionId = transactionId;
+                lock.unlock();
+                try {
+                    if (windowNanos > 0) {
+                        LockSupport.parkNanos(this, windowNanos);
+                    }
+
+                    batchTransactionId = Math.max(batchTransactionId, journal.getSummary().getLastTransactionId());
+                    journal.fsync();
+                    syncsPerformed.increment();
+
+                    if (!journal.isHealthy()) {
+                        throw new IOException("Failed to sync Write-Ahead Log journal to disk because the journal is no longer healthy");
+                    }
+
+                    synced = true;
+                } finally {
+                    lock.lock();
+                    syncInProgress = false;
+                    if (synced) {
+                        syncedThroughTransactionId = Math.max(syncedThroughTransactionId, batchTransactionId);
+                    }
+                    batchCompleted.signalAll();
+                }
+            }
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for Write-Ahead Log journal to be synced to disk");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of times that a sync has been requested
+     */
+    public long getSyncRequestCount() {
+        return syncRequests.sum();
+    }
+
+    /**
+     * @return the number of times that the journal has actually been synced to disk
+     */
+    public long getSyncCount() {
+        return syncsPerformed.sum();
+    }
+}
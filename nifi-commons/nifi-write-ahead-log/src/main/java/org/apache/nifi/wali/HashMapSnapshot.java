@@ -25,6 +25,7 @@ import org.wali.UpdateType;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
@@ -32,29 +33,67 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.file.Files;
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * A Snapshot that keeps the current state of every active record in memory and writes it to a single file on checkpoint.
+ * </p>
+ *
+ * <p>
+ * Beginning with encoding version 2, the records in the snapshot file are written in length-delimited blocks, and the
+ * header of the serializer/deserializer is length-delimited as well. This allows the blocks to be deserialized concurrently
+ * upon recovery, each by its own instance of the serializer/deserializer. Version 2 is written only if block encoding is enabled,
+ * because older versions are unable to read it; otherwise, snapshots are written using version 1. Snapshots written using
+ * version 1 are always recovered sequentially.
+ * </p>
+ */
 public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T> {
     private static final Logger logger = LoggerFactory.getLogger(HashMapSnapshot.class);
-    private static final int ENCODING_VERSION = 1;
+    private static final int ENCODING_VERSION = 2;
+    private static final int SEQUENTIAL_ENCODING_VERSION = 1;
+    private static final int FIRST_BLOCK_ENCODING_VERSION = 2;
+    private static final int TARGET_BLOCK_BYTES = 1024 * 1024;
+    private static final int MAX_BLOCK_RECORDS = 10_000;
 
     private final ConcurrentMap<Object, T> recordMap = new ConcurrentHashMap<>();
     private final SerDeFactory<T> serdeFactory;
     private final Set<String> swapLocations = Collections.synchronizedSet(new HashSet<>());
     private final File storageDirectory;
+    private final boolean blockEncoding;
 
     public HashMapSnapshot(final File storageDirectory, final SerDeFactory<T> serdeFactory) {
+        this(storageDirectory, serdeFactory, false);
+    }
+
+    /**
+     * @param storageDirectory the directory to write the snapshot to
+     * @param serdeFactory the factory for the serializer/deserializer
+     * @param blockEncoding whether to write snapshots in length-delimited blocks (encoding version 2) so that they can be recovered concurrently.
+     *            Snapshots written this way cannot be read by versions that predate encoding version 2.
+     */
+    public HashMapSnapshot(final File storageDirectory, final SerDeFactory<T> serdeFactory, final boolean blockEncoding) {
         this.serdeFactory = serdeFactory;
         this.storageDirectory = storageDirectory;
+        this.blockEncoding = blockEncoding;
     }
 
     private SnapshotHeader validateHeader(final DataInputStream dataIn) throws IOException {
@@ -85,9 +124,17 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         logger.debug("Number of Records for Snapshot at {} is {}", storageDirectory, numRecords);
 
         final SerDe<T> serde = serdeFactory.createSerDe(serdeEncoding);
-        serde.readHeader(dataIn);
+        final byte[] serdeHeader;
+        if (snapshotVersion >= FIRST_BLOCK_ENCODING_VERSION) {
+            serdeHeader = new byte[dataIn.readInt()];
+            dataIn.readFully(serdeHeader);
+            serde.readHeader(new DataInputStream(new ByteArrayInputStream(serdeHeader)));
+        } else {
+            serdeHeader = null;
+            serde.readHeader(dataIn);
+        }
 
-        return new SnapshotHeader(serde, serdeVersion, maxTransactionId, numRecords);
+        return new SnapshotHeader(serde, serdeEncoding, serdeVersion, serdeHeader, snapshotVersion, maxTransactionId, numRecords);
     }
 
     @Override
@@ -131,22 +178,24 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
             final long maxTransactionId = header.getMaxTransactionId();
 
             // Read all of the records that we expect to receive.
-            for (int i = 0; i < numRecords; i++) {
-                final T record = serde.deserializeRecord(dataIn, serdeVersion);
-                if (record == null) {
-                    throw new EOFException();
-                }
+            final long recordsStart = System.nanoTime();
+            if (header.getSnapshotVersion() >= FIRST_BLOCK_ENCODING_VERSION) {
+                recoverBlocks(dataIn, header);
+            } else {
+                for (int i = 0; i < numRecords; i++) {
+                    final T record = serde.deserializeRecord(dataIn, serdeVersion);
+                    if (record == null) {
+                        throw new EOFException();
+                    }
 
-                final UpdateType updateType = serde.getUpdateType(record);
-                if (updateType == UpdateType.DELETE) {
-                    logger.warn("While recovering from snapshot, found record with type 'DELETE'; this record will not be restored");
-                    continue;
+                    restoreRecord(serde, record);
                 }
-
-                logger.trace("Recovered from snapshot: {}", record);
-                recordMap.put(serde.getRecordIdentifier(record), record);
             }
 
+            final long recordsMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - recordsStart);
+            logger.info("{} deserialized {} Records from Snapshot in {} milliseconds ({} records/second)", this, numRecords, recordsMillis,
+                recordsMillis == 0 ? numRecords : numRecords * 1000L / recordsMillis);
+
             // Determine the location of any swap files.
             final int numSwapRecords = dataIn.readInt();
             final Set<String> swapLocations = new HashSet<>();
@@ -161,6 +210,114 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         }
     }
 
+    private void restoreRecord(final SerDe<T> serde, final T record) {
+        final UpdateType updateType = serde.getUpdateType(record);
+        if (updateType == UpdateType.DELETE) {
+            logger.warn("While recovering from snapshot, found record with type 'DELETE'; this record will not be restored");
+            return;
+        }
+
+        logger.trace("Recovered from snapshot: {}", record);
+        recordMap.put(serde.getRecordIdentifier(record), record);
+    }
+
+    /**
+     * Reads the length-delimited blocks of records from the snapshot and deserializes them. If the SerDe Factory indicates that
+     * {@link SerDeFactory#isConcurrentSerDeSupported() SerDes may be used concurrently}, the blocks are deserialized concurrently,
+     * as they are read. Otherwise, the blocks are deserialized sequentially.
+     */
+    private void recoverBlocks(final DataInputStream dataIn, final SnapshotHeader header) throws IOException {
+        final int numRecords = header.getNumRecords();
+        final int threadCount = serdeFactory.isConcurrentSerDeSupported() ? Math.max(1, Runtime.getRuntime().availableProcessors()) : 1;
+
+        if (threadCount == 1) {
+            int recordsRead = 0;
+            while (recordsRead < numRecords) {
+                final SnapshotBlock block = readBlock(dataIn);
+                deserializeBlock(header.getSerDe(), header.getSerDeVersion(), block);
+                recordsRead += block.recordCount();
+            }
+
+            return;
+        }
+
+        logger.debug("{} deserializing Snapshot blocks using {} threads", this, threadCount);
+        final AtomicInteger threadCounter = new AtomicInteger(0);
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount, r -> {
+            final Thread t = Executors.defaultThreadFactory().newThread(r);
+            t.setName("Recover Write-Ahead Log Snapshot-" + threadCounter.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+
+        // Limit the number of blocks that have been read but not yet deserialized, so that we do not buffer the entire snapshot in memory.
+        final int maxBlocksInFlight = threadCount * 2;
+        final Deque<Future<?>> futures = new ArrayDeque<>();
+        try {
+            int recordsRead = 0;
+            while (recordsRead < numRecords) {
+                final SnapshotBlock block = readBlock(dataIn);
+                recordsRead += block.recordCount();
+
+                futures.addLast(executor.submit(() -> {
+                    final SerDe<T> blockSerde = serdeFactory.createSerDe(header.getSerDeEncoding());
+                    blockSerde.readHeader(new DataInputStream(new ByteArrayInputStream(header.getSerDeHeader())));
+                    deserializeBlock(blockSerde, header.getSerDeVersion(), block);
+                    return null;
+                }));
+
+                if (futures.size() >= maxBlocksInFlight) {
+                    awaitBlock(futures.removeFirst());
+                }
+            }
+
+            while (!futures.isEmpty()) {
+                awaitBlock(futures.removeFirst());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void awaitBlock(final Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while recovering Write-Ahead Log Snapshot from " + storageDirectory);
+        } catch (final ExecutionException ee) {
+            final Throwable cause = ee.getCause();
+            if (cause instanceof IOException ioe) {
+                throw ioe;
+            }
+
+            throw new IOException("Failed to recover Write-Ahead Log Snapshot from " + storageDirectory, cause);
+        }
+    }
+
+    private SnapshotBlock readBlock(final DataInputStream dataIn) throws IOException {
+        final int recordCount = dataIn.readInt();
+        final int length = dataIn.readInt();
+        final byte[] data = new byte[length];
+        dataIn.readFully(data);
+        return new SnapshotBlock(recordCount, data);
+    }
+
+    private void deserializeBlock(final SerDe<T> serde, final int serdeVersion, final SnapshotBlock block) throws IOException {
+        final DataInputStream blockIn = new DataInputStream(new ByteArrayInputStream(block.data()));
+        for (int i = 0; i < block.recordCount(); i++) {
+            final T record = serde.deserializeRecord(blockIn, serdeVersion);
+            if (record == null) {
+                throw new EOFException("Expected " + block.recordCount() + " records in Snapshot block but encountered end of block after " + i + " records");
+            }
+
+            restoreRecord(serde, record);
+        }
+    }
+
+    private record SnapshotBlock(int recordCount, byte[] data) {
+    }
+
     @Override
     public void update(final Collection<T> records) {
         // This implementation of Snapshot keeps a ConcurrentHashMap of all 'active' records
@@ -266,17 +423,44 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
 
             // Write out the header
             dataOut.writeUTF(HashMapSnapshot.class.getName());
-            dataOut.writeInt(getVersion());
+            dataOut.writeInt(blockEncoding ? ENCODING_VERSION : SEQUENTIAL_ENCODING_VERSION);
             dataOut.writeUTF(serde.getClass().getName());
             dataOut.writeInt(serde.getVersion());
             dataOut.writeLong(snapshot.getMaxTransactionId());
             dataOut.writeInt(snapshot.getRecords().size());
-            serde.writeHeader(dataOut);
 
-            // Serialize each record
-            for (final T record : snapshot.getRecords().values()) {
-                logger.trace("Checkpointing {}", record);
-                serde.serializeRecord(record, dataOut);
+            if (blockEncoding) {
+                final ByteArrayDataOutputStream blockOut = new ByteArrayDataOutputStream(TARGET_BLOCK_BYTES + TARGET_BLOCK_BYTES / 4);
+                serde.writeHeader(blockOut.getDataOutputStream());
+                blockOut.getDataOutputStream().flush();
+                dataOut.writeInt(blockOut.getByteArrayOutputStream().size());
+                blockOut.getByteArrayOutputStream().writeTo(dataOut);
+                blockOut.getByteArrayOutputStream().reset();
+
+                // Serialize the records in length-delimited blocks so that they can be deserialized concurrently upon recovery
+                int blockRecords = 0;
+                for (final T record : snapshot.getRecords().values()) {
+                    logger.trace("Checkpointing {}", record);
+                    serde.serializeRecord(record, blockOut.getDataOutputStream());
+                    blockRecords++;
+
+                    if (blockRecords >= MAX_BLOCK_RECORDS || blockOut.getByteArrayOutputStream().size() >= TARGET_BLOCK_BYTES) {
+                        writeBlock(blockOut, blockRecords, dataOut);
+                        blockRecords = 0;
+                    }
+                }
+
+                if (blockRecords > 0) {
+                    writeBlock(blockOut, blockRecords, dataOut);
+                }
+            } else {
+                serde.writeHeader(dataOut);
+
+                // Serialize each record
+                for (final T record : snapshot.getRecords().values()) {
+                    logger.trace("Checkpointing {}", record);
+                    serde.serializeRecord(record, dataOut);
+                }
             }
 
             // Write out the number of swap locations, followed by the swap locations themselves.
@@ -305,6 +489,13 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         }
     }
 
+    private void writeBlock(final ByteArrayDataOutputStream blockOut, final int recordCount, final DataOutputStream dataOut) throws IOException {
+        blockOut.getDataOutputStream().flush();
+        dataOut.writeInt(recordCount);
+        dataOut.writeInt(blockOut.getByteArrayOutputStream().size());
+        blockOut.getByteArrayOutputStream().writeTo(dataOut);
+        blockOut.getByteArrayOutputStream().reset();
+    }
 
     public class Snapshot implements SnapshotCapture<T> {
         private final Map<Object, T> records;
@@ -335,13 +526,20 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
 
     private class SnapshotHeader {
         private final SerDe<T> serde;
+        private final String serdeEncoding;
         private final int serdeVersion;
+        private final byte[] serdeHeader;
+        private final int snapshotVersion;
         private final int numRecords;
         private final long maxTransactionId;
 
-        public SnapshotHeader(final SerDe<T> serde, final int serdeVersion, final long maxTransactionId, final int numRecords) {
+        public SnapshotHeader(final SerDe<T> serde, final String serdeEncoding, final int serdeVersion, final byte[] serdeHeader, final int snapshotVersion,
+                              final long maxTransactionId, final int numRecords) {
             this.serde = serde;
+            this.serdeEncoding = serdeEncoding;
             this.serdeVersion = serdeVersion;
+            this.serdeHeader = serdeHeader;
+            this.snapshotVersion = snapshotVersion;
             this.maxTransactionId = maxTransactionId;
             this.numRecords = numRecords;
         }
@@ -350,10 +548,22 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
             return serde;
         }
 
+        public String getSerDeEncoding() {
+            return serdeEncoding;
+        }
+
         public int getSerDeVersion() {
             return serdeVersion;
         }
 
+        public byte[] getSerDeHeader() {
+            return serdeHeader;
+        }
+
+        public int getSnapshotVersion() {
+            return snapshotVersion;
+        }
+
         public long getMaxTransactionId() {
             return maxTransactionId;
         }
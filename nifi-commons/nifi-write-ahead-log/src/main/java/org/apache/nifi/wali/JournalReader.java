@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wali.SerDeFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Reads the raw transactions from a sequence of journal files on a background thread and makes them available, in the order that
+ * they were read, through a bounded queue. This allows the journals to be read from disk while previously read transactions are
+ * being applied during recovery.
+ */
+class JournalReader<T> implements Callable<Void> {
+    private static final Logger logger = LoggerFactory.getLogger(JournalReader.class);
+    private static final int READ_AHEAD_TRANSACTIONS = 256;
+
+    private final String name;
+    private final List<File> journalFiles;
+    private final SerDeFactory<T> serdeFactory;
+    private final ObjectPool<ByteArrayDataOutputStream> streamPool;
+    private final BlockingQueue<JournalTransaction<T>> queue = new ArrayBlockingQueue<>(READ_AHEAD_TRANSACTIONS);
+    private final JournalTransaction<T> endOfJournals = new JournalTransaction<>(null, 0, Long.MAX_VALUE, new byte[0]);
+    private Future<Void> future;
+    private JournalTransaction<T> current;
+
+    JournalReader(final String name, final List<File> journalFiles, final SerDeFactory<T> serdeFactory, final ObjectPool<ByteArrayDataOutputStream> streamPool) {
+        this.name = name;
+        this.journalFiles = journalFiles;
+        this.serdeFactory = serdeFactory;
+        this.streamPool = streamPool;
+    }
+
+    /**
+     * Begins reading the journals using the given executor
+     *
+     * @param executor the executor to read the journals with
+     */
+    void start(final ExecutorService executor) {
+        future = executor.submit(this);
+    }
+
+    @Override
+    public Void call() throws IOException, InterruptedException {
+        try {
+            for (final File journalFile : journalFiles) {
+                final LengthDelimitedJournal<T> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L);
+                final JournalRecovery journalRecovery = journal.readTransactions(queue::put);
+                logger.debug("Read {} transactions from journal {} for {}", journalRecovery.getUpdateCount(), journalFile, name);
+            }
+        } finally {
+            queue.put(endOfJournals);
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the transaction that was most recently provided by {@link #advance()}
+     */
+    JournalTransaction<T> peek() {
+        return current;
+    }
+
+    /**
+     * Advances to the next transaction, waiting for it to be read if necessary
+     *
+     * @return <code>true</code> if there is another transaction, <code>false</code> if all transactions have been consumed
+     */
+    boolean advance() throws InterruptedException, IOException {
+        current = queue.take();
+        if (current == endOfJournals) {
+            awaitCompletion();
+            return false;
+        }
+
+        return true;
+    }
+
+    void awaitCompletion() throws InterruptedException, IOException {
+        try {
+            future.get();
+        } catch (final ExecutionException ee) {
+            throw new IOException("Failed to recover journals for " + name, ee.getCause());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import org.wali.SerDe;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A single transaction that has been read from a journal but not yet applied to a Record Map.
+ */
+public class JournalTransaction<T> {
+    private final SerDe<T> serde;
+    private final int serdeVersion;
+    private final long transactionId;
+    private final byte[] transactionData;
+
+    public JournalTransaction(final SerDe<T> serde, final int serdeVersion, final long transactionId, final byte[] transactionData) {
+        this.serde = serde;
+        this.serdeVersion = serdeVersion;
+        this.transactionId = transactionId;
+        this.transactionData = transactionData;
+    }
+
+    public long getTransactionId() {
+        return transactionId;
+    }
+
+    public int getLength() {
+        return transactionData.length;
+    }
+
+    /**
+     * Applies the updates in this transaction to the given Record Map and set of Swap Locations
+     *
+     * @param recordMap the map of record identifiers to the current state of each record
+     * @param swapLocations the set of active swap locations
+     * @return the number of updates that were applied
+     * @throws IOException if unable to deserialize the transaction
+     */
+    public int apply(final Map<Object, T> recordMap, final Set<String> swapLocations) throws IOException {
+        return LengthDelimitedJournal.applyTransaction(serde, serdeVersion, new ByteArrayInputStream(transactionData), transactionData.length, recordMap, swapLocations);
+    }
+}
@@ -48,6 +48,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.LongSupplier;
 
 public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
     private static final Logger logger = LoggerFactory.getLogger(LengthDelimitedJournal.class);
@@ -65,12 +66,14 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
     private final SerDeFactory<T> serdeFactory;
     private final ObjectPool<ByteArrayDataOutputStream> streamPool;
     private final int maxInHeapSerializationBytes;
+    private final LongSupplier transactionIdGenerator;
 
     private SerDe<T> serde;
     private FileOutputStream fileOut;
     private BufferedOutputStream bufferedOut;
 
     private long currentTransactionId;
+    private long lastTransactionId;
     private int transactionCount;
     private boolean headerWritten = false;
 
@@ -84,6 +87,23 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
 
     public LengthDelimitedJournal(final File journalFile, final SerDeFactory<T> serdeFactory, final ObjectPool<ByteArrayDataOutputStream> streamPool, final long initialTransactionId,
                                   final int maxInHeapSerializationBytes) {
+        this(journalFile, serdeFactory, streamPool, initialTransactionId, maxInHeapSerializationBytes, null);
+    }
+
+    /**
+     * Creates a journal whose Transaction IDs are obtained from the given generator rather than being assigned sequentially by the journal itself.
+     * This allows several journals to share a single, monotonically increasing sequence of Transaction IDs so that their transactions can be
+     * merged back into a single order upon recovery.
+     *
+     * @param journalFile the file to write to or recover from
+     * @param serdeFactory the factory for the serializer/deserializer
+     * @param streamPool the pool of buffers to use for serialization
+     * @param initialTransactionId the first Transaction ID that may be written to the journal
+     * @param maxInHeapSerializationBytes the number of bytes that may be serialized in heap before overflowing to an external file
+     * @param transactionIdGenerator the generator that provides the Transaction IDs, or <code>null</code> to assign them sequentially starting with the initial Transaction ID
+     */
+    public LengthDelimitedJournal(final File journalFile, final SerDeFactory<T> serdeFactory, final ObjectPool<ByteArrayDataOutputStream> streamPool, final long initialTransactionId,
+                                  final int maxInHeapSerializationBytes, final LongSupplier transactionIdGenerator) {
         this.journalFile = journalFile;
         this.overflowDirectory = new File(journalFile.getParentFile(), "overflow-" + getBaseFilename(journalFile));
         this.serdeFactory = serdeFactory;
@@ -92,7 +112,14 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
 
         this.initialTransactionId = initialTransactionId;
         this.currentTransactionId = initialTransactionId;
+        this.lastTransactionId = initialTransactionId - 1;
         this.maxInHeapSerializationBytes = maxInHeapSerializationBytes;
+        this.transactionIdGenerator = transactionIdGenerator;
+    }
+
+    public LengthDelimitedJournal(final File journalFile, final SerDeFactory<T> serdeFactory, final ObjectPool<ByteArrayDataOutputStream> streamPool, final long initialTransactionId,
+                                  final LongSupplier transactionIdGenerator) {
+        this(journalFile, serdeFactory, streamPool, initialTransactionId, DEFAULT_MAX_IN_HEAP_SERIALIZATION_BYTES, transactionIdGenerator);
     }
 
     public void dispose() {
@@ -307,7 +334,8 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
                 checkState();
 
                 try {
-                    transactionId = currentTransactionId++;
+                    transactionId = (transactionIdGenerator == null) ? currentTransactionId++ : transactionIdGenerator.getAsLong();
+                    lastTransactionId = transactionId;
                     transactionCount++;
 
                     transactionPreamble.clear();
@@ -375,15 +403,26 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
     }
 
     @Override
-    public synchronized void fsync() throws IOException {
-        checkState();
+    public void fsync() throws IOException {
+        // The journal's monitor is held only while obtaining the file handle and not while forcing data to disk, so that other
+        // threads are able to continue writing to the journal while a sync is in progress. All data that was flushed to the
+        // file before this method was called is guaranteed to be synced when it returns.
+        final FileOutputStream out;
+        synchronized (this) {
+            checkState();
+            out = fileOut;
+        }
+
+        if (out == null) {
+            return;
+        }
 
         try {
-            if (fileOut != null) {
-                fileOut.getChannel().force(false);
-            }
+            out.getChannel().force(false);
         } catch (final IOException ioe) {
-            poison(ioe);
+            synchronized (this) {
+                poison(ioe);
+            }
         }
     }
 
@@ -436,92 +475,14 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
 
                 long consumedAtLog = 0L;
 
-                // We don't want to apply the updates in a transaction until we've finished recovering the entire
-                // transaction. Otherwise, we could apply say 8 out of 10 updates and then hit an EOF. In such a case,
-                // we want to rollback the entire transaction. We handle this by not updating recordMap or swapLocations
-                // variables directly but instead keeping track of the things that occurred and then once we've read the
-                // entire transaction, we can apply those updates to the recordMap and swapLocations.
-                final Map<Object, T> transactionRecordMap = new HashMap<>();
-                final Set<Object> idsRemoved = new HashSet<>();
-                final Set<String> swapLocationsRemoved = new HashSet<>();
-                final Set<String> swapLocationsAdded = new HashSet<>();
-                int transactionUpdates = 0;
-
                 // While we have a transaction to recover, recover it
                 while (transactionIndicator == TRANSACTION_FOLLOWS) {
-                    transactionRecordMap.clear();
-                    idsRemoved.clear();
-                    swapLocationsRemoved.clear();
-                    swapLocationsAdded.clear();
-                    transactionUpdates = 0;
-
                     // Format is <Transaction ID: 8 bytes> <Transaction Length: 4 bytes> <Transaction data: # of bytes indicated by Transaction Length Field>
                     final long transactionId = in.readLong();
                     maxTransactionId = Math.max(maxTransactionId, transactionId);
                     final int transactionLength = in.readInt();
 
-                    // Use SerDe to deserialize the update. We use a LimitingInputStream to ensure that the SerDe is not able to read past its intended
-                    // length, in case there is a bug in the SerDe. We then use a ByteCountingInputStream so that we can ensure that all of the data has
-                    // been read and throw EOFException otherwise.
-                    final InputStream transactionLimitingIn = new LimitingInputStream(in, transactionLength);
-                    final ByteCountingInputStream transactionByteCountingIn = new ByteCountingInputStream(transactionLimitingIn);
-                    final DataInputStream transactionDis = new DataInputStream(transactionByteCountingIn);
-
-                    while (transactionByteCountingIn.getBytesConsumed() < transactionLength || serde.isMoreInExternalFile()) {
-                        final T record = serde.deserializeEdit(transactionDis, recordMap, serdeAndVersion.getVersion());
-
-                        // Update our RecordMap so that we have the most up-to-date version of the Record.
-                        final Object recordId = serde.getRecordIdentifier(record);
-                        final UpdateType updateType = serde.getUpdateType(record);
-
-                        switch (updateType) {
-                            case DELETE: {
-                                idsRemoved.add(recordId);
-                                transactionRecordMap.remove(recordId);
-                                break;
-                            }
-                            case SWAP_IN: {
-                                final String location = serde.getLocation(record);
-                                if (location == null) {
-                                    logger.error("Recovered SWAP_IN record from edit log, but it did not contain a Location; skipping record");
-                                } else {
-                                    swapLocationsRemoved.add(location);
-                                    swapLocationsAdded.remove(location);
-                                    transactionRecordMap.put(recordId, record);
-                                }
-                                break;
-                            }
-                            case SWAP_OUT: {
-                                final String location = serde.getLocation(record);
-                                if (location == null) {
-                                    logger.error("Recovered SWAP_OUT record from edit log, but it did not contain a Location; skipping record");
-                                } else {
-                                    swapLocationsRemoved.remove(location);
-                                    swapLocationsAdded.add(location);
-                                    idsRemoved.add(recordId);
-                                    transactionRecordMap.remove(recordId);
-                                }
-
-                                break;
-                            }
-                            default: {
-                                transactionRecordMap.put(recordId, record);
-                                idsRemoved.remove(recordId);
-                                break;
-                            }
-                        }
-
-                        transactionUpdates++;
-                    }
-
-                    // Apply the transaction
-                    for (final Object id : idsRemoved) {
-                        recordMap.remove(id);
-                    }
-                    recordMap.putAll(transactionRecordMap);
-                    swapLocations.removeAll(swapLocationsRemoved);
-                    swapLocations.addAll(swapLocationsAdded);
-                    updateCount += transactionUpdates;
+                    updateCount += applyTransaction(serde, serdeAndVersion.getVersion(), in, transactionLength, recordMap, swapLocations);
 
                     // Check if there is another transaction to read
                     transactionIndicator = in.read();
@@ -563,6 +524,157 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
         return new StandardJournalRecovery(updateCount, maxTransactionId, eofException);
     }
 
+    /**
+     * Reads each transaction from the journal, in the order in which it was written, and provides it to the given consumer without applying it
+     * to any Record Map. This allows the transactions of several journals that share a single sequence of Transaction IDs to be read concurrently
+     * and then applied by the caller in Transaction ID order. As with {@link #recoverRecords(Map, Set)}, an incomplete transaction at the end
+     * of the journal is ignored.
+     *
+     * @param consumer the consumer to provide each transaction to
+     * @return a JournalRecovery indicating how many transactions were read and the maximum Transaction ID that was encountered
+     * @throws IOException if unable to read from the journal
+     * @throws InterruptedException if interrupted while the consumer is waiting to accept a transaction
+     */
+    public JournalRecovery readTransactions(final JournalTransactionConsumer<T> consumer) throws IOException, InterruptedException {
+        long maxTransactionId = -1L;
+        int transactionCount = 0;
+        boolean eofException = false;
+
+        try (final InputStream fis = new FileInputStream(journalFile);
+            final InputStream bufferedIn = new BufferedInputStream(fis);
+            final ByteCountingInputStream byteCountingIn = new ByteCountingInputStream(bufferedIn);
+            final DataInputStream in = new DataInputStream(byteCountingIn)) {
+
+            try {
+                final SerDeAndVersion serdeAndVersion = validateHeader(in);
+
+                int transactionIndicator = in.read();
+                while (transactionIndicator == TRANSACTION_FOLLOWS) {
+                    final long transactionId = in.readLong();
+                    final int transactionLength = in.readInt();
+                    final byte[] transactionData = new byte[transactionLength];
+                    in.readFully(transactionData);
+
+                    maxTransactionId = Math.max(maxTransactionId, transactionId);
+                    transactionCount++;
+                    consumer.accept(new JournalTransaction<>(serdeAndVersion.getSerDe(), serdeAndVersion.getVersion(), transactionId, transactionData));
+
+                    transactionIndicator = in.read();
+                }
+
+                if (transactionIndicator != JOURNAL_COMPLETE && transactionIndicator != -1) {
+                    throw new IOException("After reading " + byteCountingIn.getBytesConsumed() + " bytes from " + journalFile + ", encountered unexpected value of "
+                        + transactionIndicator + " for the Transaction Indicator. This journal may have been corrupted.");
+                }
+            } catch (final EOFException eof) {
+                eofException = true;
+                logger.warn("Encountered unexpected End-of-File when reading journal file {}; assuming that NiFi was shutdown unexpectedly and continuing recovery", journalFile);
+            } catch (final IOException e) {
+                if (remainingBytesAllNul(in)) {
+                    logger.warn("Failed to recover some of the data from Write-Ahead Log Journal because encountered trailing NUL bytes. "
+                        + "This will sometimes happen after a sudden power loss. The rest of this journal file will be skipped for recovery purposes."
+                        + "The following Exception was encountered while recovering the updates to the journal:", e);
+                } else {
+                    throw e;
+                }
+            }
+        }
+
+        logger.debug("Read {} transactions from journal {}", transactionCount, journalFile);
+        return new StandardJournalRecovery(transactionCount, maxTransactionId, eofException);
+    }
+
+    /**
+     * Reads a single transaction from the given stream and, once the entire transaction has been read, applies its updates to the given
+     * Record Map and set of Swap Locations.
+     *
+     * @param serde the serializer/deserializer to use for reading the updates
+     * @param serdeVersion the version of the serializer/deserializer that was used to write the updates
+     * @param in the stream to read from, positioned at the beginning of the transaction data
+     * @param transactionLength the number of bytes in the transaction
+     * @param recordMap the map of record identifiers to the current state of each record, which will be updated
+     * @param swapLocations the set of active swap locations, which will be updated
+     * @return the number of updates that were applied
+     * @throws IOException if unable to read the entire transaction
+     */
+    static <T> int applyTransaction(final SerDe<T> serde, final int serdeVersion, final InputStream in, final int transactionLength,
+                                    final Map<Object, T> recordMap, final Set<String> swapLocations) throws IOException {
+        // We don't want to apply the updates in a transaction until we've finished recovering the entire
+        // transaction. Otherwise, we could apply say 8 out of 10 updates and then hit an EOF. In such a case,
+        // we want to rollback the entire transaction. We handle this by not updating recordMap or swapLocations
+        // variables directly but instead keeping track of the things that occurred and then once we've read the
+        // entire transaction, we can apply those updates to the recordMap and swapLocations.
+        final Map<Object, T> transactionRecordMap = new HashMap<>();
+        final Set<Object> idsRemoved = new HashSet<>();
+        final Set<String> swapLocationsRemoved = new HashSet<>();
+        final Set<String> swapLocationsAdded = new HashSet<>();
+        int transactionUpdates = 0;
+
+        // Use SerDe to deserialize the update. We use a LimitingInputStream to ensure that the SerDe is not able to read past its intended
+        // length, in case there is a bug in the SerDe. We then use a ByteCountingInputStream so that we can ensure that all of the data has
+        // been read and throw EOFException otherwise.
+        final InputStream transactionLimitingIn = new LimitingInputStream(in, transactionLength);
+        final ByteCountingInputStream transactionByteCountingIn = new ByteCountingInputStream(transactionLimitingIn);
+        final DataInputStream transactionDis = new DataInputStream(transactionByteCountingIn);
+
+        while (transactionByteCountingIn.getBytesConsumed() < transactionLength || serde.isMoreInExternalFile()) {
+            final T record = serde.deserializeEdit(transactionDis, recordMap, serdeVersion);
+
+            // Update our RecordMap so that we have the most up-to-date version of the Record.
+            final Object recordId = serde.getRecordIdentifier(record);
+            final UpdateType updateType = serde.getUpdateType(record);
+
+            switch (updateType) {
+                case DELETE: {
+                    idsRemoved.add(recordId);
+                    transactionRecordMap.remove(recordId);
+                    break;
+                }
+                case SWAP_IN: {
+                    final String location = serde.getLocation(record);
+                    if (location == null) {
+                        logger.error("Recovered SWAP_IN record from edit log, but it did not contain a Location; skipping record");
+                    } else {
+                        swapLocationsRemoved.add(location);
+                        swapLocationsAdded.remove(location);
+                        transactionRecordMap.put(recordId, record);
+                    }
+                    break;
+                }
+                case SWAP_OUT: {
+                    final String location = serde.getLocation(record);
+                    if (location == null) {
+                        logger.error("Recovered SWAP_OUT record from edit log, but it did not contain a Location; skipping record");
+                    } else {
+                        swapLocationsRemoved.remove(location);
+                        swapLocationsAdded.add(location);
+                        idsRemoved.add(recordId);
+                        transactionRecordMap.remove(recordId);
+                    }
+
+                    break;
+                }
+                default: {
+                    transactionRecordMap.put(recordId, record);
+                    idsRemoved.remove(recordId);
+                    break;
+                }
+            }
+
+            transactionUpdates++;
+        }
+
+        // Apply the transaction
+        for (final Object id : idsRemoved) {
+            recordMap.remove(id);
+        }
+        recordMap.putAll(transactionRecordMap);
+        swapLocations.removeAll(swapLocationsRemoved);
+        swapLocations.addAll(swapLocationsAdded);
+
+        return transactionUpdates;
+    }
+
     /**
      * In the case of a sudden power loss, it is common - at least in a Linux journaling File System -
      * that the partition file that is being written to will have many trailing "NUL bytes" (0's).
@@ -591,7 +703,7 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
             return INACTIVE_JOURNAL_SUMMARY;
         }
 
-        return new StandardJournalSummary(initialTransactionId, currentTransactionId - 1, transactionCount);
+        return new StandardJournalSummary(initialTransactionId, lastTransactionId, transactionCount);
     }
 
     private class SerDeAndVersion {
@@ -0,0 +1,568 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wali.SerDeFactory;
+import org.wali.SyncListener;
+import org.wali.WriteAheadRepository;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ * This implementation of WriteAheadRepository stripes updates across several journals, each of which is written sequentially
+ * in the same manner as the {@link SequentialAccessWriteAheadLog}. Each call to {@link #update(Collection, boolean)} is written in its
+ * entirety to a single partition, and the partition is chosen based on the updating thread, so that concurrent updates contend only
+ * with the other threads that are assigned to the same partition. Partitions may be spread across several directories, which allows
+ * the journals to be written to separate physical disks.
+ * </p>
+ *
+ * <p>
+ * All partitions share a single, monotonically increasing sequence of Transaction IDs and a single Snapshot, which is stored in the
+ * first of the configured directories. Upon recovery, the journals of each partition are read concurrently and their transactions are
+ * merged back into Transaction ID order before being applied, so that the recovered state is the same as if all updates had been written
+ * to a single journal. The first partition uses the same journal directory as the {@link SequentialAccessWriteAheadLog}, so a repository
+ * that was written using that implementation can be recovered by this implementation.
+ * </p>
+ *
+ * <p>
+ * As with the {@link SequentialAccessWriteAheadLog}, this implementation makes the assumption that only a single thread will ever issue
+ * updates for a given Record at any one time.
+ * </p>
+ *
+ * <p>
+ * If a group commit window is provided, each partition coalesces concurrent sync requests using its own {@link GroupCommitSynchronizer}.
+ * </p>
+ */
+public class PartitionedSequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T> {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedSequentialAccessWriteAheadLog.class);
+    private static final Pattern JOURNAL_FILENAME_PATTERN = Pattern.compile("\\d+\\.journal");
+    private static final Pattern PARTITION_DIRECTORY_PATTERN = Pattern.compile("partition-\\d+");
+    private static final int MAX_BUFFERS_PER_PARTITION = 16;
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final File storageDirectory;
+    private final List<File> storageDirectories;
+    private final SerDeFactory<T> serdeFactory;
+    private final SyncListener syncListener;
+    private final Partition<T>[] partitions;
+    private final Set<String> recoveredSwapLocations = new HashSet<>();
+    private final AtomicLong nextTransactionId = new AtomicLong(0L);
+    private final ObjectPool<ByteArrayDataOutputStream> streamPool;
+
+    private final WriteAheadSnapshot<T> snapshot;
+    private final RecordLookup<T> recordLookup;
+
+    private volatile boolean recovered = false;
+    private volatile RecoveryStatistics recoveryStatistics;
+
+    public PartitionedSequentialAccessWriteAheadLog(final List<File> storageDirectories, final int partitionCount, final SerDeFactory<T> serdeFactory) throws IOException {
+        this(storageDirectories, partitionCount, serdeFactory, SyncListener.NOP_SYNC_LISTENER);
+    }
+
+    public PartitionedSequentialAccessWriteAheadLog(final List<File> storageDirectories, final int partitionCount, final SerDeFactory<T> serdeFactory,
+                                                    final SyncListener syncListener) throws IOException {
+        this(storageDirectories, partitionCount, serdeFactory, syncListener, null);
+    }
+
+    /**
+     * @param storageDirectories the directories to store the journals in. The snapshot and first partition are stored in the first directory
+     * @param partitionCount the number of partitions to stripe updates across
+     * @param serdeFactory the factory for the serializer/deserializer
+     * @param syncListener the listener to notify when a partition or the entire repository is synced to disk
+     * @param groupCommitWindow how long to wait for concurrent updates to join a sync before syncing to disk, or <code>null</code> to sync each update individually
+     * @throws IOException if unable to create the storage directories
+     */
+    public PartitionedSequentialAccessWriteAheadLog(final List<File> storageDirectories, final int partitionCount, final SerDeFactory<T> serdeFactory,
+                                                    final SyncListener syncListener, final Duration groupCommitWindow) throws IOException {
+        this(storageDirectories, partitionCount, serdeFactory, syncListener, groupCommitWindow, false);
+    }
+
+    /**
+     * @param storageDirectories the directories to store the journals in. The snapshot and first partition are stored in the first directory
+     * @param partitionCount the number of partitions to stripe updates across
+     * @param serdeFactory the factory for the serializer/deserializer
+     * @param syncListener the listener to notify when a partition or the entire repository is synced to disk
+     * @param groupCommitWindow how long to wait for concurrent updates to join a sync before syncing to disk, or <code>null</code> to sync each update individually
+     * @param blockEncodedSnapshots whether snapshots should be written in length-delimited blocks so that they can be recovered in parallel
+     * @throws IOException if unable to create the storage directories
+     */
+    @SuppressWarnings("unchecked")
+    public PartitionedSequentialAccessWriteAheadLog(final List<File> storageDirectories, final int partitionCount, final SerDeFactory<T> serdeFactory,
+                                                    final SyncListener syncListener, final Duration groupCommitWindow, final boolean blockEncodedSnapshots) throws IOException {
+        if (storageDirectories == null || storageDirectories.isEmpty()) {
+            throw new IllegalArgumentException("At least one storage directory must be specified");
+        }
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("Partition Count must be at least 1 but was " + partitionCount);
+        }
+
+        for (final File directory : storageDirectories) {
+            ensureDirectoryExists(directory);
+        }
+
+        this.storageDirectory = storageDirectories.get(0);
+        this.storageDirectories = new ArrayList<>(storageDirectories);
+        this.serdeFactory = serdeFactory;
+        this.syncListener = (syncListener == null) ? SyncListener.NOP_SYNC_LISTENER : syncListener;
+
+        final HashMapSnapshot<T> hashMapSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, blockEncodedSnapshots);
+        this.snapshot = hashMapSnapshot;
+        this.recordLookup = hashMapSnapshot;
+
+        this.streamPool = new BlockingQueuePool<>(MAX_BUFFERS_PER_PARTITION * partitionCount,
+            () -> new ByteArrayDataOutputStream(BUFFER_SIZE),
+            stream -> stream.getByteArrayOutputStream().size() < BUFFER_SIZE,
+            stream -> stream.getByteArrayOutputStream().reset());
+
+        // The first partition uses the same journal directory as the SequentialAccessWriteAheadLog. Subsequent partitions are
+        // distributed across the storage directories in a round-robin fashion.
+        this.partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            final File journalsDirectory;
+            if (i == 0) {
+                journalsDirectory = new File(storageDirectory, "journals");
+            } else {
+                final File partitionDirectory = new File(storageDirectories.get(i % storageDirectories.size()), "partition-" + i);
+                journalsDirectory = new File(partitionDirectory, "journals");
+            }
+
+            ensureDirectoryExists(journalsDirectory);
+            final GroupCommitSynchronizer synchronizer = (groupCommitWindow == null) ? null : new GroupCommitSynchronizer(groupCommitWindow);
+            partitions[i] = new Partition<>(i, journalsDirectory, synchronizer);
+        }
+    }
+
+    private static void ensureDirectoryExists(final File directory) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Directory " + directory + " does not exist and cannot be created");
+        }
+        if (!directory.isDirectory()) {
+            throw new IOException("File " + directory + " is a regular file and not a directory");
+        }
+    }
+
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    @Override
+    public int update(final Collection<T> records, final boolean forceSync) throws IOException {
+        if (!recovered) {
+            throw new IllegalStateException("Cannot update repository until record recovery has been performed");
+        }
+
+        final Partition<T> partition = partitions[(int) Math.floorMod(Thread.currentThread().threadId(), (long) partitions.length)];
+
+        partition.readLock.lock();
+        try {
+            partition.journal.update(records, recordLookup);
+
+            if (forceSync) {
+                if (partition.groupCommitSynchronizer == null) {
+                    partition.journal.fsync();
+                } else {
+                    partition.groupCommitSynchronizer.sync(partition.journal);
+                }
+
+                syncListener.onSync(partition.index);
+            }
+
+            snapshot.update(records);
+        } finally {
+            partition.readLock.unlock();
+        }
+
+        return partition.index;
+    }
+
+    @Override
+    public synchronized Collection<T> recoverRecords() throws IOException {
+        if (recovered) {
+            throw new IllegalStateException("Cannot recover records from repository because record recovery has already commenced");
+        }
+
+        logger.info("Recovering records from Partitioned Write-Ahead Log at {} with {} partitions", storageDirectory, partitions.length);
+
+        final long recoverStart = System.nanoTime();
+        recovered = true;
+        final SnapshotRecovery<T> snapshotRecovery = snapshot.recover();
+        this.recoveredSwapLocations.addAll(snapshotRecovery.getRecoveredSwapLocations());
+
+        final Map<Object, T> recoveredRecords = snapshotRecovery.getRecords();
+        final Set<String> swapLocations = snapshotRecovery.getRecoveredSwapLocations();
+        final long snapshotTransactionId = snapshotRecovery.getMaxTransactionId();
+
+        final int snapshotRecords = recoveredRecords.size();
+        final long snapshotRecoveryNanos = System.nanoTime() - recoverStart;
+        final long snapshotRecoveryMillis = TimeUnit.NANOSECONDS.toMillis(snapshotRecoveryNanos);
+        if (snapshotRecovery.getRecoveryFile() == null) {
+            logger.info("No Snapshot File to recover from at {}. Now recovering records from journal files", storageDirectory);
+        } else {
+            logger.info("Successfully recovered {} records and {} swap files from Snapshot at {} with Max Transaction ID of {} in {} milliseconds. Now recovering records from journal files",
+                recoveredRecords.size(), swapLocations.size(), snapshotRecovery.getRecoveryFile(), snapshotTransactionId, snapshotRecoveryMillis);
+        }
+
+        // Each partition's journals are read by a separate thread, which provides the raw transactions through a bounded queue.
+        // The transactions are then applied on this thread in Transaction ID order, so that the result is the same as if all of the
+        // transactions had been written to a single journal.
+        final AtomicInteger threadCounter = new AtomicInteger(0);
+        final List<File> orphanedJournalsDirectories = findOrphanedJournalsDirectories();
+        final ExecutorService readExecutor = Executors.newFixedThreadPool(partitions.length + orphanedJournalsDirectories.size(), r -> {
+            final Thread t = Executors.defaultThreadFactory().newThread(r);
+            t.setName("Recover Write-Ahead Log Partition-" + threadCounter.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+
+        long maxTransactionId = snapshotTransactionId;
+        int totalUpdates = 0;
+        int totalTransactions = 0;
+
+        try {
+            final List<JournalReader<T>> readers = new ArrayList<>();
+            for (final Partition<T> partition : partitions) {
+                final List<File> journalFiles = getJournalsToRecover(partition.journalsDirectory, snapshotTransactionId);
+                readers.add(new JournalReader<>("Partition " + partition.index, journalFiles, serdeFactory, streamPool));
+            }
+
+            // If the number of partitions has been reduced since the repository was last written, the journals of the
+            // partitions that no longer exist must still be recovered. They will be removed upon the following checkpoint.
+            for (final File orphanedJournalsDirectory : orphanedJournalsDirectories) {
+                logger.info("Recovering journals from {}, which belongs to a partition that is no longer configured", orphanedJournalsDirectory);
+                final List<File> journalFiles = getJournalsToRecover(orphanedJournalsDirectory, snapshotTransactionId);
+                readers.add(new JournalReader<>(orphanedJournalsDirectory.getParentFile().getName(), journalFiles, serdeFactory, streamPool));
+            }
+
+            for (final JournalReader<T> reader : readers) {
+                reader.start(readExecutor);
+            }
+
+            final PriorityQueue<JournalReader<T>> mergeQueue = new PriorityQueue<>(Comparator.comparingLong(reader -> reader.peek().getTransactionId()));
+            for (final JournalReader<T> reader : readers) {
+                if (reader.advance()) {
+                    mergeQueue.add(reader);
+                }
+            }
+
+            while (!mergeQueue.isEmpty()) {
+                final JournalReader<T> reader = mergeQueue.poll();
+                final JournalTransaction<T> transaction = reader.peek();
+
+                totalUpdates += transaction.apply(recoveredRecords, swapLocations);
+                totalTransactions++;
+                maxTransactionId = Math.max(maxTransactionId, transaction.getTransactionId());
+
+                if (reader.advance()) {
+                    mergeQueue.add(reader);
+                }
+            }
+
+            for (final JournalReader<T> reader : readers) {
+                reader.awaitCompletion();
+            }
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while recovering records from Write-Ahead Log at " + storageDirectory, ie);
+        } finally {
+            readExecutor.shutdownNow();
+        }
+
+        logger.debug("Recovered {} updates in {} transactions from {} partitions", totalUpdates, totalTransactions, partitions.length);
+        nextTransactionId.set(maxTransactionId + 1);
+
+        final long recoverNanos = System.nanoTime() - recoverStart;
+        recoveryStatistics = new RecoveryStatistics(snapshotRecords, snapshotRecoveryNanos, totalTransactions, totalUpdates, recoverNanos - snapshotRecoveryNanos, recoveredRecords.size());
+        logger.info("Successfully recovered {} records in {} milliseconds ({}). Now checkpointing to ensure that Write-Ahead Log is in a consistent state",
+            recoveredRecords.size(), TimeUnit.NANOSECONDS.toMillis(recoverNanos), recoveryStatistics);
+
+        this.recoveredSwapLocations.addAll(swapLocations);
+
+        checkpoint(this.recoveredSwapLocations);
+
+        for (final File orphanedJournalsDirectory : orphanedJournalsDirectories) {
+            final File[] orphanedJournals = orphanedJournalsDirectory.listFiles(this::isJournalFile);
+            if (orphanedJournals != null) {
+                for (final File orphanedJournal : orphanedJournals) {
+                    new LengthDelimitedJournal<>(orphanedJournal, serdeFactory, streamPool, 0L).dispose();
+                }
+            }
+        }
+
+        return recoveredRecords.values();
+    }
+
+    private List<File> findOrphanedJournalsDirectories() {
+        final Set<File> configuredDirectories = new HashSet<>();
+        for (final Partition<T> partition : partitions) {
+            configuredDirectories.add(partition.journalsDirectory);
+        }
+
+        final List<File> orphaned = new ArrayList<>();
+        for (final File directory : new HashSet<>(storageDirectories)) {
+            final File[] partitionDirectories = directory.listFiles(file -> file.isDirectory() && PARTITION_DIRECTORY_PATTERN.matcher(file.getName()).matches());
+            if (partitionDirectories == null) {
+                continue;
+            }
+
+            for (final File partitionDirectory : partitionDirectories) {
+                final File journalsDirectory = new File(partitionDirectory, "journals");
+                if (journalsDirectory.isDirectory() && !configuredDirectories.contains(journalsDirectory)) {
+                    orphaned.add(journalsDirectory);
+                }
+            }
+        }
+
+        return orphaned;
+    }
+
+    private List<File> getJournalsToRecover(final File journalsDirectory, final long snapshotTransactionId) throws IOException {
+        final File[] journalFiles = journalsDirectory.listFiles(this::isJournalFile);
+        if (journalFiles == null) {
+            throw new IOException("Cannot access the list of files in directory " + journalsDirectory + "; please ensure that appropriate file permissions are set.");
+        }
+
+        final List<File> orderedJournalFiles = new ArrayList<>(Arrays.asList(journalFiles));
+        orderedJournalFiles.sort(Comparator.comparingLong(this::getMinTransactionId));
+
+        final List<File> toRecover = new ArrayList<>(orderedJournalFiles.size());
+        for (final File journalFile : orderedJournalFiles) {
+            final long journalMinTransactionId = getMinTransactionId(journalFile);
+            if (journalMinTransactionId < snapshotTransactionId) {
+                logger.debug("Will not recover records from journal file {} because the minimum Transaction ID for that journal is {} and the Transaction ID recovered from Snapshot was {}",
+                    journalFile, journalMinTransactionId, snapshotTransactionId);
+                continue;
+            }
+
+            toRecover.add(journalFile);
+        }
+
+        return toRecover;
+    }
+
+    private long getMinTransactionId(final File journalFile) {
+        final String filename = journalFile.getName();
+        final String numeral = filename.substring(0, filename.indexOf("."));
+        return Long.parseLong(numeral);
+    }
+
+    private boolean isJournalFile(final File file) {
+        if (!file.isFile()) {
+            return false;
+        }
+
+        final String filename = file.getName();
+        return JOURNAL_FILENAME_PATTERN.matcher(filename).matches();
+    }
+
+    @Override
+    public synchronized Set<String> getRecoveredSwapLocations() throws IOException {
+        if (!recovered) {
+            throw new IllegalStateException("Cannot retrieve the Recovered Swap Locations until record recovery has been performed");
+        }
+
+        return Collections.unmodifiableSet(this.recoveredSwapLocations);
+    }
+
+    /**
+     * @return statistics describing the recovery of records, or <code>null</code> if records have not yet been recovered
+     */
+    public RecoveryStatistics getRecoveryStatistics() {
+        return recoveryStatistics;
+    }
+
+    public SnapshotCapture<T> captureSnapshot() {
+        return snapshot.prepareSnapshot(nextTransactionId.get() - 1);
+    }
+
+    @Override
+    public int checkpoint() throws IOException {
+        return checkpoint(null);
+    }
+
+    private int checkpoint(final Set<String> swapLocations) throws IOException {
+        final SnapshotCapture<T> snapshotCapture;
+
+        final long startNanos = System.nanoTime();
+        final List<File> existingJournals = new ArrayList<>();
+        lockAllPartitions();
+        try {
+            if (!isUpdatedSinceCheckpoint()) {
+                logger.debug("Will not checkpoint Write-Ahead Log because no updates have occurred since last checkpoint");
+                syncListener.onGlobalSync();
+                return snapshot.getRecordCount();
+            }
+
+            for (final Partition<T> partition : partitions) {
+                final WriteAheadJournal<T> journal = partition.journal;
+                if (journal == null) {
+                    continue;
+                }
+
+                try {
+                    journal.fsync();
+                } catch (final Exception e) {
+                    logger.error("Failed to synch Write-Ahead Log's journal to disk at {}", partition.journalsDirectory, e);
+                }
+
+                try {
+                    journal.close();
+                } catch (final Exception e) {
+                    logger.error("Failed to close Journal while attempting to checkpoint Write-Ahead Log at {}", partition.journalsDirectory);
+                }
+            }
+
+            syncListener.onGlobalSync();
+
+            for (final Partition<T> partition : partitions) {
+                final File[] existingFiles = partition.journalsDirectory.listFiles(this::isJournalFile);
+                if (existingFiles != null) {
+                    existingJournals.addAll(Arrays.asList(existingFiles));
+                }
+            }
+
+            final long snapshotTransactionId = nextTransactionId.get() - 1;
+            if (swapLocations == null) {
+                snapshotCapture = snapshot.prepareSnapshot(snapshotTransactionId);
+            } else {
+                snapshotCapture = snapshot.prepareSnapshot(snapshotTransactionId, swapLocations);
+            }
+
+            // Each partition's new journal is named <next transaction id>.journal. If any partition already has a file with that name,
+            // we increment the Transaction ID and try again, so that we never create a journal on top of one that is about to be deleted.
+            long journalTransactionId = nextTransactionId.get();
+            while (journalExists(journalTransactionId)) {
+                journalTransactionId++;
+            }
+            nextTransactionId.set(journalTransactionId);
+
+            for (final Partition<T> partition : partitions) {
+                final File journalFile = new File(partition.journalsDirectory, journalTransactionId + ".journal");
+                final LengthDelimitedJournal<T> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, journalTransactionId, nextTransactionId::getAndIncrement);
+                journal.writeHeader();
+                partition.journal = journal;
+            }
+
+            logger.debug("Created new Journals for {} partitions starting with Transaction ID {}", partitions.length, journalTransactionId);
+        } finally {
+            unlockAllPartitions();
+        }
+
+        final long stopTheWorldMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        snapshot.writeSnapshot(snapshotCapture);
+
+        for (final File existingJournal : existingJournals) {
+            final WriteAheadJournal<T> journal = new LengthDelimitedJournal<>(existingJournal, serdeFactory, streamPool, 0L);
+            journal.dispose();
+        }
+
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        logger.info("Checkpointed Write-Ahead Log with {} Records and {} Swap Files across {} partitions in {} milliseconds (Stop-the-world time = {} milliseconds), max Transaction ID {}",
+            snapshotCapture.getRecords().size(), snapshotCapture.getSwapLocations().size(), partitions.length, millis, stopTheWorldMillis, snapshotCapture.getMaxTransactionId());
+
+        return snapshotCapture.getRecords().size();
+    }
+
+    private boolean isUpdatedSinceCheckpoint() {
+        for (final Partition<T> partition : partitions) {
+            final WriteAheadJournal<T> journal = partition.journal;
+            if (journal == null || !journal.isHealthy() || journal.getSummary().getTransactionCount() > 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean journalExists(final long transactionId) {
+        for (final Partition<T> partition : partitions) {
+            if (new File(partition.journalsDirectory, transactionId + ".journal").exists()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void lockAllPartitions() {
+        for (final Partition<T> partition : partitions) {
+            partition.writeLock.lock();
+        }
+    }
+
+    private void unlockAllPartitions() {
+        for (int i = partitions.length - 1; i >= 0; i--) {
+            partitions[i].writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void shutdown() throws IOException {
+        lockAllPartitions();
+        try {
+            for (final Partition<T> partition : partitions) {
+                if (partition.journal != null) {
+                    partition.journal.close();
+                }
+            }
+        } finally {
+            unlockAllPartitions();
+        }
+    }
+
+
+    private static class Partition<T> {
+        private final int index;
+        private final File journalsDirectory;
+        private final GroupCommitSynchronizer groupCommitSynchronizer;
+        private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
+        private final Lock readLock = rwLock.readLock();
+        private final Lock writeLock = rwLock.writeLock();
+
+        private volatile WriteAheadJournal<T> journal;
+
+        Partition(final int index, final File journalsDirectory, final GroupCommitSynchronizer groupCommitSynchronizer) {
+            this.index = index;
+            this.journalsDirectory = journalsDirectory;
+            this.groupCommitSynchronizer = groupCommitSynchronizer;
+        }
+    }
+}
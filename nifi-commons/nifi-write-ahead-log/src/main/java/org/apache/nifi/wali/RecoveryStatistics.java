@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Describes how much data was recovered from a Write-Ahead Log upon startup and how long it took.
+ */
+public class RecoveryStatistics {
+    private final int snapshotRecords;
+    private final long snapshotNanos;
+    private final int journalTransactions;
+    private final int journalUpdates;
+    private final long journalNanos;
+    private final int recoveredRecords;
+
+    public RecoveryStatistics(final int snapshotRecords, final long snapshotNanos, final int journalTransactions, final int journalUpdates, final long journalNanos,
+                              final int recoveredRecords) {
+        this.snapshotRecords = snapshotRecords;
+        this.snapshotNanos = snapshotNanos;
+        this.journalTransactions = journalTransactions;
+        this.journalUpdates = journalUpdates;
+        this.journalNanos = journalNanos;
+        this.recoveredRecords = recoveredRecords;
+    }
+
+    /**
+     * @return the number of records that were restored from the Snapshot
+     */
+    public int getSnapshotRecords() {
+        return snapshotRecords;
+    }
+
+    /**
+     * @return the amount of time that was taken to restore the Snapshot
+     */
+    public long getSnapshotMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(snapshotNanos);
+    }
+
+    /**
+     * @return the number of journal transactions that were replayed
+     */
+    public int getJournalTransactions() {
+        return journalTransactions;
+    }
+
+    /**
+     * @return the number of record updates that were replayed from the journals
+     */
+    public int getJournalUpdates() {
+        return journalUpdates;
+    }
+
+    /**
+     * @return the amount of time that was taken to replay the journals
+     */
+    public long getJournalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(journalNanos);
+    }
+
+    /**
+     * @return the number of records that were active once recovery completed
+     */
+    public int getRecoveredRecords() {
+        return recoveredRecords;
+    }
+
+    /**
+     * @return the number of records restored from the Snapshot per second
+     */
+    public long getSnapshotRecordsPerSecond() {
+        return perSecond(snapshotRecords, snapshotNanos);
+    }
+
+    /**
+     * @return the number of record updates replayed from the journals per second
+     */
+    public long getJournalUpdatesPerSecond() {
+        return perSecond(journalUpdates, journalNanos);
+    }
+
+    private static long perSecond(final long count, final long nanos) {
+        if (nanos <= 0) {
+            return count;
+        }
+
+        return (long) (count * (double) TimeUnit.SECONDS.toNanos(1) / nanos);
+    }
+
+    @Override
+    public String toString() {
+        return "RecoveryStatistics[snapshotRecords=" + snapshotRecords + ", snapshotMillis=" + getSnapshotMillis() + ", snapshotRecordsPerSecond=" + getSnapshotRecordsPerSecond()
+            + ", journalTransactions=" + journalTransactions + ", journalUpdates=" + journalUpdates + ", journalMillis=" + getJournalMillis()
+            + ", journalUpdatesPerSecond=" + getJournalUpdatesPerSecond() + ", recoveredRecords=" + recoveredRecords + "]";
+    }
+}
@@ -25,6 +25,8 @@ import org.wali.WriteAheadRepository;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -32,6 +34,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -53,6 +57,11 @@ import java.util.regex.Pattern;
  * that records are recovered correctly if two threads simultaneously update the write-ahead log
  * with updates for the same record.
  * </p>
+ *
+ * <p>
+ * If a group commit window is provided, updates that request a sync are not each synced individually. Instead, concurrent
+ * requests are coalesced by a {@link GroupCommitSynchronizer} so that a single sync makes all of them durable.
+ * </p>
  */
 public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T> {
     private static final int PARTITION_INDEX = 0;
@@ -65,6 +74,7 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
     private final File journalsDirectory;
     protected final SerDeFactory<T> serdeFactory;
     private final SyncListener syncListener;
+    private final GroupCommitSynchronizer groupCommitSynchronizer;
     private final Set<String> recoveredSwapLocations = new HashSet<>();
 
     private final ReadWriteLock journalRWLock = new ReentrantReadWriteLock();
@@ -80,6 +90,7 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
     private SnapshotRecovery<T> snapshotRecovery;
 
     private volatile boolean recovered = false;
+    private volatile RecoveryStatistics recoveryStatistics;
     private WriteAheadJournal<T> journal;
     private volatile long nextTransactionId = 0L;
 
@@ -88,6 +99,31 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
     }
 
     public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener) throws IOException {
+        this(storageDirectory, serdeFactory, syncListener, null);
+    }
+
+    /**
+     * @param storageDirectory the directory to store the snapshot and journals in
+     * @param serdeFactory the factory for the serializer/deserializer
+     * @param syncListener the listener to notify when the repository is synced to disk
+     * @param groupCommitWindow how long to wait for concurrent updates to join a sync before syncing to disk, or <code>null</code> to sync each update individually
+     * @throws IOException if unable to create the storage directory
+     */
+    public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener, final Duration groupCommitWindow)
+            throws IOException {
+        this(storageDirectory, serdeFactory, syncListener, groupCommitWindow, false);
+    }
+
+    /**
+     * @param storageDirectory the directory to store the snapshot and journals in
+     * @param serdeFactory the factory for the serializer/deserializer
+     * @param syncListener the listener to notify when the repository is synced to disk
+     * @param groupCommitWindow how long to wait for concurrent updates to join a sync before syncing to disk, or <code>null</code> to sync each update individually
+     * @param blockEncodedSnapshots whether snapshots should be written in length-delimited blocks so that they can be recovered in parallel
+     * @throws IOException if unable to create the storage directory
+     */
+    public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener, final Duration groupCommitWindow,
+                                         final boolean blockEncodedSnapshots) throws IOException {
         if (!storageDirectory.exists() && !storageDirectory.mkdirs()) {
             throw new IOException("Directory " + storageDirectory + " does not exist and cannot be created");
         }
@@ -95,7 +131,7 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             throw new IOException("File " + storageDirectory + " is a regular file and not a directory");
         }
 
-        final HashMapSnapshot<T> hashMapSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory);
+        final HashMapSnapshot<T> hashMapSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, blockEncodedSnapshots);
         this.snapshot = hashMapSnapshot;
         this.recordLookup = hashMapSnapshot;
 
@@ -109,6 +145,7 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
         this.serdeFactory = serdeFactory;
         this.syncListener = (syncListener == null) ? SyncListener.NOP_SYNC_LISTENER : syncListener;
+        this.groupCommitSynchronizer = (groupCommitWindow == null) ? null : new GroupCommitSynchronizer(groupCommitWindow);
     }
 
     @Override
@@ -122,7 +159,12 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             journal.update(records, recordLookup);
 
             if (forceSync) {
-                journal.fsync();
+                if (groupCommitSynchronizer == null) {
+                    journal.fsync();
+                } else {
+                    groupCommitSynchronizer.sync(journal);
+                }
+
                 syncListener.onSync(PARTITION_INDEX);
             }
 
@@ -147,10 +189,12 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
         snapshotRecovery = snapshot.recover();
         this.recoveredSwapLocations.addAll(snapshotRecovery.getRecoveredSwapLocations());
 
-        final long snapshotRecoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - recoverStart);
+        final long snapshotRecoveryNanos = System.nanoTime() - recoverStart;
+        final long snapshotRecoveryMillis = TimeUnit.NANOSECONDS.toMillis(snapshotRecoveryNanos);
 
         final Map<Object, T> recoveredRecords = snapshotRecovery.getRecords();
         final Set<String> swapLocations = snapshotRecovery.getRecoveredSwapLocations();
+        final int snapshotRecords = recoveredRecords.size();
 
         final File[] journalFiles = journalsDirectory.listFiles(this::isJournalFile);
         if (journalFiles == null) {
@@ -175,11 +219,8 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
         final long snapshotTransactionId = snapshotRecovery.getMaxTransactionId();
 
-        int totalUpdates = 0;
-        int journalFilesRecovered = 0;
+        final List<File> journalFilesToRecover = new ArrayList<>(orderedJournalFiles.size());
         int journalFilesSkipped = 0;
-        long maxTransactionId = snapshotTransactionId;
-
         for (final File journalFile : orderedJournalFiles) {
             final long journalMinTransactionId = getMinTransactionId(journalFile);
             if (journalMinTransactionId < snapshotTransactionId) {
@@ -191,25 +232,48 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             }
 
             logger.debug("Min Transaction ID for journal {} is {}, so will recover records from journal", journalFile, journalMinTransactionId);
-            journalFilesRecovered++;
+            journalFilesToRecover.add(journalFile);
+        }
 
-            try (final WriteAheadJournal<T> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
-                final JournalRecovery journalRecovery = journal.recoverRecords(recoveredRecords, swapLocations);
-                final int updates = journalRecovery.getUpdateCount();
+        // The journals are read from disk by a background thread while the transactions that have already been read are applied
+        // on this thread. The transactions must be applied in order, because each update may depend on the state of the record
+        // that was established by the updates before it.
+        final ExecutorService readExecutor = Executors.newSingleThreadExecutor(r -> {
+            final Thread t = Executors.defaultThreadFactory().newThread(r);
+            t.setName("Recover Write-Ahead Log Journals");
+            t.setDaemon(true);
+            return t;
+        });
 
-                logger.debug("Recovered {} updates from journal {}", updates, journalFile);
-                totalUpdates += updates;
-                maxTransactionId = Math.max(maxTransactionId, journalRecovery.getMaxTransactionId());
+        int totalUpdates = 0;
+        int totalTransactions = 0;
+        long maxTransactionId = snapshotTransactionId;
+        try {
+            final JournalReader<T> reader = new JournalReader<>("Write-Ahead Log at " + storageDirectory, journalFilesToRecover, serdeFactory, streamPool);
+            reader.start(readExecutor);
+
+            while (reader.advance()) {
+                final JournalTransaction<T> transaction = reader.peek();
+                totalUpdates += transaction.apply(recoveredRecords, swapLocations);
+                totalTransactions++;
+                maxTransactionId = Math.max(maxTransactionId, transaction.getTransactionId());
             }
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while recovering records from Write-Ahead Log at " + storageDirectory, ie);
+        } finally {
+            readExecutor.shutdownNow();
         }
 
-        logger.debug("Recovered {} updates from {} journal files and skipped {} journal files because their data was already encapsulated in the snapshot",
-            totalUpdates, journalFilesRecovered, journalFilesSkipped);
+        logger.debug("Recovered {} updates in {} transactions from {} journal files and skipped {} journal files because their data was already encapsulated in the snapshot",
+            totalUpdates, totalTransactions, journalFilesToRecover.size(), journalFilesSkipped);
         this.nextTransactionId = maxTransactionId + 1;
 
         final long recoverNanos = System.nanoTime() - recoverStart;
         final long recoveryMillis = TimeUnit.MILLISECONDS.convert(recoverNanos, TimeUnit.NANOSECONDS);
-        logger.info("Successfully recovered {} records in {} milliseconds. Now checkpointing to ensure that Write-Ahead Log is in a consistent state", recoveredRecords.size(), recoveryMillis);
+        recoveryStatistics = new RecoveryStatistics(snapshotRecords, snapshotRecoveryNanos, totalTransactions, totalUpdates, recoverNanos - snapshotRecoveryNanos, recoveredRecords.size());
+        logger.info("Successfully recovered {} records in {} milliseconds ({}). Now checkpointing to ensure that Write-Ahead Log is in a consistent state",
+            recoveredRecords.size(), recoveryMillis, recoveryStatistics);
 
         this.recoveredSwapLocations.addAll(swapLocations);
 
@@ -242,6 +306,20 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
         return Collections.unmodifiableSet(this.recoveredSwapLocations);
     }
 
+    /**
+     * @return statistics describing the recovery of records, or <code>null</code> if records have not yet been recovered
+     */
+    public RecoveryStatistics getRecoveryStatistics() {
+        return recoveryStatistics;
+    }
+
+    /**
+     * @return the synchronizer that coalesces sync requests, or <code>null</code> if group commit is not enabled
+     */
+    public GroupCommitSynchronizer getGroupCommitSynchronizer() {
+        return groupCommitSynchronizer;
+    }
+
     public SnapshotCapture<T> captureSnapshot() {
         return snapshot.prepareSnapshot(nextTransactionId - 1);
     }
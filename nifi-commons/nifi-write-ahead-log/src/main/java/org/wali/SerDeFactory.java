@@ -28,6 +28,17 @@ public interface SerDeFactory<T> {
      */
     SerDe<T> createSerDe(String encodingName);
 
+    /**
+     * Indicates whether each call to {@link #createSerDe(String)} returns a SerDe that may be used concurrently with the SerDes
+     * returned by other calls. If so, a Write-Ahead Log may deserialize records using multiple threads, each with its own SerDe.
+     *
+     * @return <code>true</code> if SerDes returned by separate calls to {@link #createSerDe(String)} may be used concurrently,
+     *         <code>false</code> otherwise
+     */
+    default boolean isConcurrentSerDeSupported() {
+        return false;
+    }
+
     /**
      * Returns the unique ID for the given record
      *
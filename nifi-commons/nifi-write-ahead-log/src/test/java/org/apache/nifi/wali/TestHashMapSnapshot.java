@@ -21,12 +21,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.wali.DummyRecord;
 import org.wali.DummyRecordSerde;
+import org.wali.SerDe;
 import org.wali.SerDeFactory;
 import org.wali.SingletonSerDeFactory;
 import org.wali.UpdateType;
 
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.util.Collections;
 import java.util.HashMap;
@@ -106,6 +109,7 @@ public class TestHashMapSnapshot {
         assertTrue(records.containsKey("7"));
 
         snapshot.writeSnapshot(capture);
+        assertEquals(1, readSnapshotVersion());
 
         final SnapshotRecovery<DummyRecord> recovery = snapshot.recover();
         assertEquals(180L, recovery.getMaxTransactionId());
@@ -115,6 +119,64 @@ public class TestHashMapSnapshot {
         assertEquals(records, recoveredRecords);
     }
 
+    @Test
+    public void testRoundTripWithConcurrentBlockRecovery() throws IOException {
+        final SerDeFactory<DummyRecord> perCallSerdeFactory = new SerDeFactory<>() {
+            @Override
+            public SerDe<DummyRecord> createSerDe(final String encodingName) {
+                return new DummyRecordSerde();
+            }
+
+            @Override
+            public boolean isConcurrentSerDeSupported() {
+                return true;
+            }
+
+            @Override
+            public Object getRecordIdentifier(final DummyRecord record) {
+                return record.getId();
+            }
+
+            @Override
+            public UpdateType getUpdateType(final DummyRecord record) {
+                return record.getUpdateType();
+            }
+
+            @Override
+            public String getLocation(final DummyRecord record) {
+                return record.getSwapLocation();
+            }
+        };
+
+        final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, perCallSerdeFactory, true);
+
+        // Write enough records that the snapshot is made up of multiple blocks
+        final int recordCount = 25_000;
+        for (int i = 0; i < recordCount; i++) {
+            final DummyRecord record = new DummyRecord(String.valueOf(i), UpdateType.CREATE);
+            record.setProperty("key", String.valueOf(i));
+            snapshot.update(Collections.singleton(record));
+        }
+
+        final DummyRecord swapOutRecord = new DummyRecord("0", UpdateType.SWAP_OUT);
+        swapOutRecord.setSwapLocation("swapFile-0");
+        snapshot.update(Collections.singleton(swapOutRecord));
+
+        final SnapshotCapture<DummyRecord> capture = snapshot.prepareSnapshot(50L);
+        snapshot.writeSnapshot(capture);
+
+        final HashMapSnapshot<DummyRecord> recoveredSnapshot = new HashMapSnapshot<>(storageDirectory, perCallSerdeFactory, true);
+        assertEquals(2, readSnapshotVersion());
+        final SnapshotRecovery<DummyRecord> recovery = recoveredSnapshot.recover();
+        assertEquals(50L, recovery.getMaxTransactionId());
+        assertEquals(Collections.singleton("swapFile-0"), recovery.getRecoveredSwapLocations());
+
+        final Map<Object, DummyRecord> recoveredRecords = recovery.getRecords();
+        assertEquals(recordCount - 1, recoveredRecords.size());
+        assertEquals(capture.getRecords(), recoveredRecords);
+        assertEquals("24999", recoveredRecords.get("24999").getProperty("key"));
+    }
+
     @Test
     public void testOOMEWhenWritingResultsInPreviousSnapshotStillRecoverable() throws IOException {
         final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory);
@@ -203,4 +265,11 @@ public class TestHashMapSnapshot {
         assertTrue(swapLocations.contains("SwapLocation-1"));
     }
 
+    private int readSnapshotVersion() throws IOException {
+        try (final InputStream in = Files.newInputStream(new File(storageDirectory, "checkpoint").toPath());
+             final DataInputStream dataIn = new DataInputStream(in)) {
+            dataIn.readUTF();
+            return dataIn.readInt();
+        }
+    }
 }
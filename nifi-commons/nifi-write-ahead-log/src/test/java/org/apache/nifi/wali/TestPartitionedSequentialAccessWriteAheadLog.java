@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wali.DummyRecord;
+import org.wali.DummyRecordSerde;
+import org.wali.SerDeFactory;
+import org.wali.SingletonSerDeFactory;
+import org.wali.UpdateType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestPartitionedSequentialAccessWriteAheadLog {
+
+    @TempDir
+    private File storageDirectory;
+
+    @TempDir
+    private File secondStorageDirectory;
+
+    @Test
+    public void testConcurrentUpdatesThenRecover() throws IOException, InterruptedException {
+        final PartitionedSequentialAccessWriteAheadLog<DummyRecord> repo = createRepo(4);
+        assertTrue(repo.recoverRecords().isEmpty());
+
+        final int numThreads = 8;
+        final int recordsPerThread = 500;
+        final List<Thread> threads = new ArrayList<>();
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < numThreads; i++) {
+            final int threadIndex = i;
+            final Thread thread = new Thread(() -> {
+                try {
+                    for (int j = 0; j < recordsPerThread; j++) {
+                        final String id = threadIndex + "-" + j;
+                        repo.update(Collections.singleton(new DummyRecord(id, UpdateType.CREATE)), false);
+                        repo.update(Collections.singleton(new DummyRecord(id, UpdateType.UPDATE).setProperty("thread", String.valueOf(threadIndex))), false);
+
+                        if (j % 2 == 0) {
+                            repo.update(Collections.singleton(new DummyRecord(id, UpdateType.DELETE)), false);
+                        }
+                    }
+                } catch (final Throwable t) {
+                    failures.add(t);
+                }
+            });
+
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(failures.isEmpty(), () -> "Failures while updating: " + failures);
+        repo.shutdown();
+
+        final PartitionedSequentialAccessWriteAheadLog<DummyRecord> recoveryRepo = createRepo(4);
+        final Map<String, DummyRecord> recovered = toMap(recoveryRepo.recoverRecords());
+
+        assertEquals(numThreads * recordsPerThread / 2, recovered.size());
+        for (int i = 0; i < numThreads; i++) {
+            for (int j = 0; j < recordsPerThread; j++) {
+                final DummyRecord record = recovered.get(i + "-" + j);
+                if (j % 2 == 0) {
+                    assertNull(record);
+                } else {
+                    assertEquals(UpdateType.UPDATE, record.getUpdateType());
+                    assertEquals(String.valueOf(i), record.getProperty("thread"));
+                }
+            }
+        }
+
+        recoveryRepo.shutdown();
+    }
+
+    @Test
+    public void testUpdatesAcrossPartitionsRecoveredInTransactionOrder() throws IOException, InterruptedException {
+        final PartitionedSequentialAccessWriteAheadLog<DummyRecord> repo = createRepo(2);
+        repo.recoverRecords();
+
+        // Update the same record from several threads, one after the other, so that the updates are spread across the partitions.
+        for (int i = 0; i < 6; i++) {
+            final DummyRecord record = new DummyRecord("1", i == 0 ? UpdateType.CREATE : UpdateType.UPDATE).setProperty("iteration", String.valueOf(i));
+            final Thread thread = new Thread(() -> {
+                try {
+                    repo.update(Collections.singleton(record), false);
+                } catch (final IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            thread.start();
+            thread.join();
+        }
+
+        repo.shutdown();
+
+        final PartitionedSequentialAccessWriteAheadLog<DummyRecord> recoveryRepo = createRepo(2);
+        final Collection<DummyRecord> recovered = recoveryRepo.recoverRecords();
+        assertEquals(1, recovered.size());
+        assertEquals("5", recovered.iterator().next().getProperty("iteration"));
+
+        recoveryRepo.shutdown();
+    }
+
+    @Test
+    public void testRecoverAfterCheckpointAndSwap() throws IOException {
+        final PartitionedSequentialAccessWriteAheadLog<DummyRecord> repo = createRepo(3);
+        repo.recoverRecords();
+
+        final List<DummyRecord> creations = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            creations.add(new DummyRecord(String.valueOf(i), UpdateType.CREATE));
+        }
+        repo.update(creations, false);
+
+        final DummyRecord swapOut = new DummyRecord("4", UpdateType.SWAP_OUT);
+        swapOut.setSwapLocation("swap");
+        repo.update(Collections.singleton(swapOut), false);
+
+        assertEquals(9, repo.checkpoint());
+
+        repo.update(Collections.singleton(new DummyRecord("5", UpdateType.DELETE)), true);
+        repo.shutdown();
+
+        final PartitionedSequentialAccessWriteAheadLog<DummyRecord> recoveryRepo = createRepo(3);
+        final Map<String, DummyRecord> recovered = toMap(recoveryRepo.recoverRecords());
+        assertEquals(8, recovered.size());
+        assertFalse(recovered.containsKey("4"));
+        assertFalse(recovered.containsKey("5"));
+        assertEquals(Collections.singleton("swap"), recoveryRepo.getRecoveredSwapLocations());
+
+        recoveryRepo.shutdown();
+    }
+
+    @Test
+    public void testRecoverFromSequentialAccessWriteAheadLog() throws IOException {
+        final SerDeFactory<DummyRecord> serdeFactory = new SingletonSerDeFactory<>(new DummyRecordSerde());
+        final SequentialAccessWriteAheadLog<DummyRecord> sequentialRepo = new SequentialAccessWriteAheadLog<>(storageDirectory, serdeFactory);
+        sequentialRepo.recoverRecords();
+
+        final List<DummyRecord> records = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            records.add(new DummyRecord(String.valueOf(i), UpdateType.CREATE));
+        }
+        sequentialRepo.update(records, false);
+        sequentialRepo.shutdown();
+
+        final PartitionedSequentialAccessWriteAheadLog<DummyRecord> partitionedRepo = createRepo(4);
+        assertEquals(new HashSet<>(records), new HashSet<>(partitionedRepo.recoverRecords()));
+        partitionedRepo.shutdown();
+    }
+
+    @Test
+    public void testRecoverAfterReducingPartitionCount() throws IOException, InterruptedException {
+        final PartitionedSequentialAccessWriteAheadLog<DummyRecord> repo = createRepo(4);
+        repo.recoverRecords();
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            final DummyRecord record = new DummyRecord(String.valueOf(i), UpdateType.CREATE);
+            final Thread thread = new Thread(() -> {
+                try {
+                    repo.update(Collections.singleton(record), false);
+                } catch (final IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        repo.shutdown();
+
+        final PartitionedSequentialAccessWriteAheadLog<DummyRecord> recoveryRepo = createRepo(1);
+        assertEquals(16, recoveryRepo.recoverRecords().size());
+        recoveryRepo.shutdown();
+
+        // The journals of the removed partitions should have been removed, so recovering again should not duplicate or resurrect anything.
+        final PartitionedSequentialAccessWriteAheadLog<DummyRecord> secondRecoveryRepo = createRepo(1);
+        assertEquals(16, secondRecoveryRepo.recoverRecords().size());
+        secondRecoveryRepo.shutdown();
+    }
+
+    private PartitionedSequentialAccessWriteAheadLog<DummyRecord> createRepo(final int partitionCount) throws IOException {
+        final SerDeFactory<DummyRecord> serdeFactory = new SingletonSerDeFactory<>(new DummyRecordSerde());
+        return new PartitionedSequentialAccessWriteAheadLog<>(List.of(storageDirectory, secondStorageDirectory), partitionCount, serdeFactory);
+    }
+
+    private Map<String, DummyRecord> toMap(final Collection<DummyRecord> records) {
+        return records.stream().collect(Collectors.toMap(DummyRecord::getId, Function.identity()));
+    }
+}
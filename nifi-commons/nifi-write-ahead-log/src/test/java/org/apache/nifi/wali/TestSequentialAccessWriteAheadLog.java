@@ -34,6 +34,7 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.NumberFormat;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -187,6 +188,51 @@ public class TestSequentialAccessWriteAheadLog {
         assertEquals(expected, new HashSet<>(recovered));
     }
 
+    @Test
+    public void testGroupCommitCoalescesConcurrentSyncs(TestInfo testInfo) throws IOException, InterruptedException {
+        final File storageDir = new File(new File("target"), testInfo.getTestMethod().get().getName());
+        deleteRecursively(storageDir);
+        assertTrue(storageDir.mkdirs());
+
+        final SerDeFactory<DummyRecord> serdeFactory = new SingletonSerDeFactory<>(new DummyRecordSerde());
+        final SequentialAccessWriteAheadLog<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(storageDir, serdeFactory, null, Duration.ofMillis(2));
+        assertTrue(repo.recoverRecords().isEmpty());
+
+        final int numThreads = 8;
+        final int updatesPerThread = 50;
+        final List<Thread> threads = new ArrayList<>();
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < numThreads; i++) {
+            final int threadIndex = i;
+            final Thread thread = new Thread(() -> {
+                try {
+                    for (int j = 0; j < updatesPerThread; j++) {
+                        repo.update(Collections.singleton(new DummyRecord(threadIndex + "-" + j, UpdateType.CREATE)), true);
+                    }
+                } catch (final Throwable t) {
+                    failures.add(t);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(failures.isEmpty(), () -> "Failures while updating: " + failures);
+
+        final GroupCommitSynchronizer synchronizer = repo.getGroupCommitSynchronizer();
+        assertEquals(numThreads * updatesPerThread, synchronizer.getSyncRequestCount());
+        assertTrue(synchronizer.getSyncCount() < synchronizer.getSyncRequestCount());
+        repo.shutdown();
+
+        final SequentialAccessWriteAheadLog<DummyRecord> recoveryRepo = createRecoveryRepo(testInfo);
+        assertEquals(numThreads * updatesPerThread, recoveryRepo.recoverRecords().size());
+        recoveryRepo.shutdown();
+    }
+
     private SequentialAccessWriteAheadLog<DummyRecord> createRecoveryRepo(TestInfo testInfo) throws IOException {
         final File targetDir = new File("target");
         final File storageDir = new File(targetDir, testInfo.getTestMethod().get().getName());
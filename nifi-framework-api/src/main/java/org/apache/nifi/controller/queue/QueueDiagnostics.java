@@ -25,4 +25,6 @@ public interface QueueDiagnostics {
 
     List<RemoteQueuePartitionDiagnostics> getRemoteQueuePartitionDiagnostics();
 
+    SwapDiagnostics getSwapDiagnostics();
+
 }
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue;
+
+/**
+ * Provides information about the swap I/O that has been performed on behalf of a queue
+ */
+public interface SwapDiagnostics {
+
+    /**
+     * @return the number of swap files that have been written
+     */
+    long getSwapOutCount();
+
+    /**
+     * @return the total amount of time, in nanoseconds, between requesting that swap files be written and the writes completing
+     */
+    long getSwapOutNanos();
+
+    /**
+     * @return the longest amount of time, in nanoseconds, that it took to write a single swap file
+     */
+    long getMaxSwapOutNanos();
+
+    /**
+     * @return the number of swap files that have been swapped in
+     */
+    long getSwapInCount();
+
+    /**
+     * @return the total amount of time, in nanoseconds, that the queue spent swapping in swap files
+     */
+    long getSwapInNanos();
+
+    /**
+     * @return the longest amount of time, in nanoseconds, that it took to swap in a single swap file
+     */
+    long getMaxSwapInNanos();
+
+    /**
+     * @return the number of swap files that are currently being written in the background
+     */
+    int getPendingSwapOutCount();
+}
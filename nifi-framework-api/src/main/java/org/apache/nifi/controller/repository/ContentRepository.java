@@ -19,6 +19,7 @@ package org.apache.nifi.controller.repository;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.Set;
 import org.apache.nifi.controller.repository.claim.ContentClaim;
@@ -141,6 +142,31 @@ public interface ContentRepository {
      */
     ContentClaim clone(ContentClaim original, boolean lossTolerant) throws IOException;
 
+    /**
+     * Indicates whether or not the repository is able to deduplicate content via the {@link #deduplicate(ContentClaim, byte[])} method.
+     * Callers may use this to avoid computing a digest of content that will not be used.
+     *
+     * @return <code>true</code> if content deduplication is enabled, <code>false</code> otherwise
+     */
+    default boolean isContentDeduplicationEnabled() {
+        return false;
+    }
+
+    /**
+     * Returns a Content Claim whose content is identical to that of the given claim, if the repository knows of one. If such a claim is
+     * returned, its claimant count has already been incremented, and the caller is responsible for decrementing the claimant count of the
+     * given claim, which is no longer needed. If no such claim is known, the given claim is recorded so that content written later may be
+     * deduplicated against it, and the given claim is returned. The content of the given claim must be complete.
+     *
+     * @param claim the claim whose content has been written
+     * @param contentDigest the SHA-256 digest of the content of the claim
+     * @return a Content Claim with identical content, or the given claim
+     * @throws IOException if unable to make the content of the given claim available for deduplication
+     */
+    default ContentClaim deduplicate(final ContentClaim claim, final byte[] contentDigest) throws IOException {
+        return claim;
+    }
+
 
     /**
      * Imports content from the given path creating a new content object and
@@ -238,6 +264,30 @@ public interface ContentRepository {
      */
     InputStream read(ContentClaim claim) throws IOException;
 
+    /**
+     * Provides a read-only view of the content of the given claim as a ByteBuffer. Implementations backed by files
+     * may return a memory-mapped region of the file rather than copying the content onto the heap. The default
+     * implementation reads the content of the claim into a heap buffer.
+     *
+     * @param claim to read from
+     * @return a read-only ByteBuffer containing the content of the given claim
+     * @throws IOException if unable to read or if the content is too large to be represented as a single ByteBuffer
+     */
+    default ByteBuffer readBuffer(final ContentClaim claim) throws IOException {
+        if (claim == null) {
+            return ByteBuffer.allocate(0).asReadOnlyBuffer();
+        }
+
+        final long claimSize = size(claim);
+        if (claimSize > Integer.MAX_VALUE) {
+            throw new IOException("Cannot provide a ByteBuffer for " + claim + " because its length of " + claimSize + " bytes exceeds the maximum size of a ByteBuffer");
+        }
+
+        try (final InputStream in = read(claim)) {
+            return ByteBuffer.wrap(in.readAllBytes()).asReadOnlyBuffer();
+        }
+    }
+
     /**
      * Provides access ot the input stream for the entire Resource Claim
      * @param claim the resource claim to read from
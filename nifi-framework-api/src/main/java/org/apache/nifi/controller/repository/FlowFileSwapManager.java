@@ -21,6 +21,7 @@ import org.apache.nifi.controller.queue.FlowFileQueue;
 import java.io.IOException;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Defines a mechanism by which FlowFiles can be move into external storage or
@@ -52,6 +53,26 @@ public interface FlowFileSwapManager {
      */
     String swapOut(List<FlowFileRecord> flowFiles, FlowFileQueue flowFileQueue, final String partitionName) throws IOException;
 
+    /**
+     * Swaps out the given FlowFiles that belong to the queue with the given identifier, potentially doing so in the background.
+     * The given List must not be modified by the caller until the returned future has completed. Swap files that are written for the same
+     * queue are assigned locations in the order in which this method is called, regardless of the order in which the writes complete.
+     * The default implementation swaps the FlowFiles out synchronously.
+     *
+     * @param flowFiles the FlowFiles to swap out to external storage
+     * @param flowFileQueue the queue that the FlowFiles belong to
+     * @param partitionName the name of the partition within the queue, or <code>null</code> if the queue is not partitioned
+     * @return a future that will be completed with the location of the externally stored swap file, or completed exceptionally
+     *         with an IOException if unable to swap the FlowFiles out
+     */
+    default CompletableFuture<String> swapOutAsync(final List<FlowFileRecord> flowFiles, final FlowFileQueue flowFileQueue, final String partitionName) {
+        try {
+            return CompletableFuture.completedFuture(swapOut(flowFiles, flowFileQueue, partitionName));
+        } catch (final IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
     /**
      * Recovers the FlowFiles from the swap file that lives at the given location. This action
      * provides a view of the FlowFiles but does not actively swap them in, meaning that the swap file
@@ -80,6 +101,16 @@ public interface FlowFileSwapManager {
      */
     SwapContents swapIn(String swapLocation, FlowFileQueue flowFileQueue) throws IncompleteSwapFileException, IOException;
 
+    /**
+     * Provides a hint that the swap file at the given location is expected to be swapped in soon, so that the Swap Manager may begin
+     * reading it in the background. This must not update the FlowFile Repository or remove the swap file. The default implementation does nothing.
+     *
+     * @param swapLocation the location of the swap file
+     * @param flowFileQueue the queue to which the FlowFiles belong
+     */
+    default void prefetch(final String swapLocation, final FlowFileQueue flowFileQueue) {
+    }
+
     /**
      * Determines swap files that exist for the given FlowFileQueue
      *
@@ -126,6 +157,14 @@ public interface FlowFileSwapManager {
      */
     void purge();
 
+    /**
+     * Releases any resources, such as background threads, that are held by the Swap Manager. This is called when the queue that owns the
+     * Swap Manager is removed or the application is shut down. Any swap files that are being written are completed first. The default
+     * implementation does nothing.
+     */
+    default void shutdown() {
+    }
+
     /**
      * Returns the ID of the queue that the given swap file belongs to
      * @param swapLocation the swap location
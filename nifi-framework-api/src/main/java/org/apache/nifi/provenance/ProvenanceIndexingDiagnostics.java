@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+/**
+ * Provides information about how far the indexing of a single partition of a Provenance Repository is behind the storage of events in that partition
+ */
+public interface ProvenanceIndexingDiagnostics {
+
+    /**
+     * @return the name of the partition
+     */
+    String getPartitionName();
+
+    /**
+     * @return the number of events that have been queued for indexing
+     */
+    long getEventsQueued();
+
+    /**
+     * @return the number of queued events that have been written to the index
+     */
+    long getEventsIndexed();
+
+    /**
+     * @return the number of events that were not indexed because the indexing queue was full
+     */
+    long getEventsDropped();
+
+    /**
+     * @return the number of events whose indexing was deferred because the indexing queue was full
+     */
+    long getEventsDeferred();
+
+    /**
+     * @return the number of events that have been queued for indexing but not yet indexed
+     */
+    long getPendingEventCount();
+
+    /**
+     * @return the difference between the largest Event ID that has been queued for indexing and the largest Event ID that has been indexed
+     */
+    long getEventIdLag();
+}
@@ -25,6 +25,7 @@ import org.apache.nifi.provenance.search.QuerySubmission;
 import org.apache.nifi.provenance.search.SearchableField;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -249,4 +250,12 @@ public interface ProvenanceRepository extends ProvenanceEventRepository {
      * name
      */
     long getContainerUsableSpace(String containerName) throws IOException;
+
+    /**
+     * @return information about how far indexing is behind the storage of events, for each partition of the repository, or an empty list
+     * if the repository does not index events or does not track this information
+     */
+    default List<ProvenanceIndexingDiagnostics> getIndexingDiagnostics() {
+        return Collections.emptyList();
+    }
 }
@@ -24,10 +24,14 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import org.apache.nifi.processor.DataUnit;
+import org.apache.nifi.provenance.index.IndexOverflowPolicy;
 import org.apache.nifi.provenance.search.SearchableField;
+import org.apache.nifi.provenance.serialization.EventFileCodec;
+import org.apache.nifi.provenance.serialization.EventFileCodecs;
 import org.apache.nifi.util.FormatUtils;
 import org.apache.nifi.util.NiFiProperties;
 import org.slf4j.Logger;
@@ -39,6 +43,13 @@ public class RepositoryConfiguration {
     public static final String CONCURRENT_MERGE_THREADS = "nifi.provenance.repository.concurrent.merge.threads";
     public static final String WARM_CACHE_FREQUENCY = "nifi.provenance.repository.warm.cache.frequency";
     public static final String MAINTENACE_FREQUENCY = "nifi.provenance.repository.maintenance.frequency";
+    public static final String COLUMNAR_SEGMENTS_ENABLED = "nifi.provenance.repository.columnar.segments.enabled";
+    public static final String COLUMNAR_SEGMENT_DURATION = "nifi.provenance.repository.columnar.segment.duration";
+    public static final String INDEX_QUEUE_SIZE = "nifi.provenance.repository.index.queue.size";
+    public static final String INDEX_OVERFLOW_POLICY = "nifi.provenance.repository.index.overflow.policy";
+    public static final String LINEAGE_INDEX_MAX_FLOWFILES = "nifi.provenance.repository.lineage.index.max.flowfiles";
+    public static final String COMPRESSION_CODEC = "nifi.provenance.repository.compression.codec";
+    public static final String COMPRESSION_DICTIONARY_SIZE = "nifi.provenance.repository.compression.dictionary.size";
 
     private final Map<String, File> storageDirectories = new LinkedHashMap<>();
     private long recordLifeMillis = TimeUnit.MILLISECONDS.convert(24, TimeUnit.HOURS);
@@ -62,6 +73,13 @@ public class RepositoryConfiguration {
     private boolean allowRollover = true;
     private int concurrentMergeThreads = 4;
     private Integer warmCacheFrequencyMinutes = null;
+    private boolean columnarSegmentsEnabled = false;
+    private long columnarSegmentMillis = TimeUnit.MINUTES.toMillis(1L);
+    private int indexQueueSize = 10_000;
+    private IndexOverflowPolicy indexOverflowPolicy = IndexOverflowPolicy.BLOCK;
+    private int lineageIndexMaxFlowFiles = 100_000;
+    private EventFileCodec compressionCodec = EventFileCodecs.GZIP;
+    private int compressionDictionarySize = 64 * 1024; // 64 KB
 
     public void setAllowRollover(final boolean allow) {
         this.allowRollover = allow;
@@ -378,6 +396,99 @@ public class RepositoryConfiguration {
         this.maintenanceFrequencyMillis = timeUnit.toMillis(period);
     }
 
+    /**
+     * @return <code>true</code> if, in addition to the event files, events should be written to compressed columnar segments
+     *         that allow selective queries to be answered without querying the index
+     */
+    public boolean isColumnarSegmentsEnabled() {
+        return columnarSegmentsEnabled;
+    }
+
+    public void setColumnarSegmentsEnabled(final boolean columnarSegmentsEnabled) {
+        this.columnarSegmentsEnabled = columnarSegmentsEnabled;
+    }
+
+    /**
+     * @param timeUnit the unit of the returned value
+     * @return the window of time that each columnar segment covers
+     */
+    public long getColumnarSegmentDuration(final TimeUnit timeUnit) {
+        return timeUnit.convert(columnarSegmentMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void setColumnarSegmentDuration(final long duration, final TimeUnit timeUnit) {
+        final long millis = timeUnit.toMillis(duration);
+        if (millis < 1) {
+            throw new IllegalArgumentException("Columnar segment duration must be at least 1 millisecond");
+        }
+        this.columnarSegmentMillis = millis;
+    }
+
+    /**
+     * @return the maximum number of events that may be waiting to be handed off for indexing before the index overflow policy applies
+     */
+    public int getIndexQueueSize() {
+        return indexQueueSize;
+    }
+
+    public void setIndexQueueSize(final int indexQueueSize) {
+        if (indexQueueSize < 1) {
+            throw new IllegalArgumentException("Index queue size must be at least 1");
+        }
+        this.indexQueueSize = indexQueueSize;
+    }
+
+    /**
+     * @return what to do with events that are registered while the indexing queue is full
+     */
+    public IndexOverflowPolicy getIndexOverflowPolicy() {
+        return indexOverflowPolicy;
+    }
+
+    public void setIndexOverflowPolicy(final IndexOverflowPolicy indexOverflowPolicy) {
+        this.indexOverflowPolicy = indexOverflowPolicy;
+    }
+
+    /**
+     * @return the maximum number of FlowFiles whose events are held in the lineage index, or 0 if lineage is always computed from the Lucene index
+     */
+    public int getLineageIndexMaxFlowFiles() {
+        return lineageIndexMaxFlowFiles;
+    }
+
+    public void setLineageIndexMaxFlowFiles(final int lineageIndexMaxFlowFiles) {
+        if (lineageIndexMaxFlowFiles < 0) {
+            throw new IllegalArgumentException("Lineage index max FlowFiles cannot be negative");
+        }
+        this.lineageIndexMaxFlowFiles = lineageIndexMaxFlowFiles;
+    }
+
+    /**
+     * @return the codec that Event Files are compressed with when compression on rollover is enabled
+     */
+    public EventFileCodec getCompressionCodec() {
+        return compressionCodec;
+    }
+
+    public void setCompressionCodec(final EventFileCodec compressionCodec) {
+        this.compressionCodec = Objects.requireNonNull(compressionCodec);
+    }
+
+    /**
+     * @return the maximum size, in bytes, of the dictionary that is trained for each Event File, or 0 to compress without a dictionary.
+     *         Only applies to codecs that support dictionaries.
+     */
+    public int getCompressionDictionarySize() {
+        return compressionDictionarySize;
+    }
+
+    public void setCompressionDictionarySize(final int compressionDictionarySize) {
+        if (compressionDictionarySize < 0) {
+            throw new IllegalArgumentException("Compression dictionary size cannot be negative");
+        }
+        this.compressionDictionarySize = compressionDictionarySize;
+    }
+
 
     public static RepositoryConfiguration create(final NiFiProperties nifiProperties) {
         final Map<String, Path> storageDirectories = nifiProperties.getProvenanceRepositoryPaths();
@@ -461,6 +572,28 @@ public class RepositoryConfiguration {
 
         config.setAlwaysSync(alwaysSync);
 
+        config.setColumnarSegmentsEnabled(Boolean.parseBoolean(nifiProperties.getProperty(COLUMNAR_SEGMENTS_ENABLED, "false")));
+        config.setIndexQueueSize(nifiProperties.getIntegerProperty(INDEX_QUEUE_SIZE, config.getIndexQueueSize()));
+        final String indexOverflowPolicy = nifiProperties.getProperty(INDEX_OVERFLOW_POLICY);
+        if (indexOverflowPolicy != null && !indexOverflowPolicy.isBlank()) {
+            config.setIndexOverflowPolicy(IndexOverflowPolicy.valueOf(indexOverflowPolicy.trim().toUpperCase()));
+        }
+        config.setLineageIndexMaxFlowFiles(nifiProperties.getIntegerProperty(LINEAGE_INDEX_MAX_FLOWFILES, config.getLineageIndexMaxFlowFiles()));
+
+        final String compressionCodec = nifiProperties.getProperty(COMPRESSION_CODEC);
+        if (compressionCodec != null && !compressionCodec.isBlank()) {
+            config.setCompressionCodec(EventFileCodecs.forName(compressionCodec));
+        }
+        final String compressionDictionarySize = nifiProperties.getProperty(COMPRESSION_DICTIONARY_SIZE);
+        if (compressionDictionarySize != null && !compressionDictionarySize.isBlank()) {
+            config.setCompressionDictionarySize(DataUnit.parseDataSize(compressionDictionarySize.trim(), DataUnit.B).intValue());
+        }
+
+        final String columnarSegmentDuration = nifiProperties.getProperty(COLUMNAR_SEGMENT_DURATION);
+        if (columnarSegmentDuration != null && !columnarSegmentDuration.isBlank()) {
+            config.setColumnarSegmentDuration(FormatUtils.getTimeDuration(columnarSegmentDuration.trim(), TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+        }
+
         config.setDebugFrequency(nifiProperties.getIntegerProperty(NiFiProperties.PROVENANCE_REPO_DEBUG_FREQUENCY, config.getDebugFrequency()));
         return config;
     }
@@ -40,6 +40,8 @@ import org.apache.nifi.provenance.store.PartitionedWriteAheadEventStore;
 import org.apache.nifi.provenance.store.RecordReaderFactory;
 import org.apache.nifi.provenance.store.RecordWriterFactory;
 import org.apache.nifi.provenance.store.StorageResult;
+import org.apache.nifi.provenance.store.columnar.ColumnarCachedQuery;
+import org.apache.nifi.provenance.store.columnar.ColumnarEventStore;
 import org.apache.nifi.provenance.toc.StandardTocWriter;
 import org.apache.nifi.provenance.toc.TocUtil;
 import org.apache.nifi.provenance.toc.TocWriter;
@@ -53,7 +55,9 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -143,10 +147,12 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
                            final EventReporter eventReporter, final Authorizer authorizer,
                            final ProvenanceAuthorizableFactory resourceFactory, final EventFileManager fileManager) throws IOException {
 
-        eventStore = new PartitionedWriteAheadEventStore(config, recordWriterFactory, recordReaderFactory, eventReporter, fileManager);
+        final EventStore partitionedEventStore = new PartitionedWriteAheadEventStore(config, recordWriterFactory, recordReaderFactory, eventReporter, fileManager);
+        eventStore = config.isColumnarSegmentsEnabled() ? new ColumnarEventStore(config, partitionedEventStore) : partitionedEventStore;
 
         final IndexManager indexManager = new StandardIndexManager(config);
-        eventIndex = new LuceneEventIndex(config, indexManager, eventReporter);
+        final LuceneEventIndex luceneEventIndex = new LuceneEventIndex(config, indexManager, eventReporter);
+        eventIndex = luceneEventIndex;
 
         this.eventReporter = eventReporter;
         this.authorizer = authorizer;
@@ -155,6 +161,10 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
         eventStore.initialize();
         eventIndex.initialize(eventStore);
 
+        if (eventStore instanceof ColumnarEventStore columnarEventStore) {
+            luceneEventIndex.addCachedQuery(new ColumnarCachedQuery(columnarEventStore));
+        }
+
         if (eventIndex.isReindexNecessary()) {
             try {
                 eventStore.reindexLatestEvents(eventIndex);
@@ -305,6 +315,13 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
         return this.config;
     }
 
+    @Override
+    public List<ProvenanceIndexingDiagnostics> getIndexingDiagnostics() {
+        final List<ProvenanceIndexingDiagnostics> diagnostics = new ArrayList<>(eventIndex.getIndexingMetrics().values());
+        diagnostics.sort(Comparator.comparing(ProvenanceIndexingDiagnostics::getPartitionName));
+        return diagnostics;
+    }
+
     @Override
     public Set<String> getContainerNames() {
         return new HashSet<>(config.getStorageDirectories().keySet());
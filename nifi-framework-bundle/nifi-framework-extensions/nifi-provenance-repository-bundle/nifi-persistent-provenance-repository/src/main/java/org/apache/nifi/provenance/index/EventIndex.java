@@ -28,6 +28,7 @@ import org.apache.nifi.provenance.store.EventStore;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -175,4 +176,11 @@ public interface EventIndex extends Closeable {
      * @throws IOException if unable to commit the changes
      */
     void commitChanges(String partitionName) throws IOException;
+
+    /**
+     * @return metrics describing how far indexing is behind the storage of events, keyed by the name of the partition
+     */
+    default Map<String, PartitionIndexingMetrics> getIndexingMetrics() {
+        return Collections.emptyMap();
+    }
 }
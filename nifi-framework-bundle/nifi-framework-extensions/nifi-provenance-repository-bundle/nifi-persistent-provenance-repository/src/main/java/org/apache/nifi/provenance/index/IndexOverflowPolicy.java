@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index;
+
+/**
+ * Specifies what an {@link EventIndex} should do with newly stored Provenance Events when its queue of events waiting to be indexed is full
+ */
+public enum IndexOverflowPolicy {
+
+    /**
+     * Block the thread that is registering the events until there is room in the queue. No events are lost from the index,
+     * but the flow may be slowed down to the rate at which events can be indexed.
+     */
+    BLOCK,
+
+    /**
+     * Do not index the events. The events are still stored and can be retrieved by ID, but they will not be returned by searches.
+     */
+    DROP,
+
+    /**
+     * Do not index the events now but remember where they were stored, so that they can be read back from the event store and
+     * indexed once the queue has room again. Events that are still waiting to be indexed when the repository is shut down are not indexed.
+     */
+    DEFER
+}
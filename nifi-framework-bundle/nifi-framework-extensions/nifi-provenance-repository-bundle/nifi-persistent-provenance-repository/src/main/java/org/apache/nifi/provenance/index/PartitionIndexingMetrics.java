@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index;
+
+import org.apache.nifi.provenance.ProvenanceIndexingDiagnostics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks how far the indexing of a single partition of the Provenance Repository is behind the storage of events in that partition
+ */
+public class PartitionIndexingMetrics implements ProvenanceIndexingDiagnostics {
+    private final String partitionName;
+    private final AtomicLong eventsQueued = new AtomicLong(0L);
+    private final AtomicLong eventsIndexed = new AtomicLong(0L);
+    private final AtomicLong eventsDropped = new AtomicLong(0L);
+    private final AtomicLong eventsDeferred = new AtomicLong(0L);
+    private final AtomicLong maxEventIdQueued = new AtomicLong(-1L);
+    private final AtomicLong maxEventIdIndexed = new AtomicLong(-1L);
+
+    public PartitionIndexingMetrics(final String partitionName) {
+        this.partitionName = partitionName;
+    }
+
+    @Override
+    public String getPartitionName() {
+        return partitionName;
+    }
+
+    public void onQueued(final long eventId) {
+        eventsQueued.incrementAndGet();
+        maxEventIdQueued.accumulateAndGet(eventId, Math::max);
+    }
+
+    public void onIndexed(final long eventId) {
+        eventsIndexed.incrementAndGet();
+        maxEventIdIndexed.accumulateAndGet(eventId, Math::max);
+    }
+
+    public void onDropped(final int eventCount) {
+        eventsDropped.addAndGet(eventCount);
+    }
+
+    public void onDeferred(final int eventCount) {
+        eventsDeferred.addAndGet(eventCount);
+    }
+
+    /**
+     * @return the number of events that have been queued for indexing
+     */
+    @Override
+    public long getEventsQueued() {
+        return eventsQueued.get();
+    }
+
+    /**
+     * @return the number of queued events that have been written to the index
+     */
+    @Override
+    public long getEventsIndexed() {
+        return eventsIndexed.get();
+    }
+
+    /**
+     * @return the number of events that were not indexed because the indexing queue was full
+     */
+    @Override
+    public long getEventsDropped() {
+        return eventsDropped.get();
+    }
+
+    /**
+     * @return the number of events whose indexing was deferred because the indexing queue was full
+     */
+    @Override
+    public long getEventsDeferred() {
+        return eventsDeferred.get();
+    }
+
+    /**
+     * @return the number of events that have been queued for indexing but not yet indexed
+     */
+    @Override
+    public long getPendingEventCount() {
+        return Math.max(0L, eventsQueued.get() - eventsIndexed.get());
+    }
+
+    /**
+     * @return the difference between the largest Event ID that has been queued for indexing and the largest Event ID that has been indexed
+     */
+    @Override
+    public long getEventIdLag() {
+        return Math.max(0L, maxEventIdQueued.get() - maxEventIdIndexed.get());
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionIndexingMetrics[partition=" + partitionName + ", pending=" + getPendingEventCount() + ", eventIdLag=" + getEventIdLag()
+            + ", dropped=" + getEventsDropped() + ", deferred=" + getEventsDeferred() + "]";
+    }
+}
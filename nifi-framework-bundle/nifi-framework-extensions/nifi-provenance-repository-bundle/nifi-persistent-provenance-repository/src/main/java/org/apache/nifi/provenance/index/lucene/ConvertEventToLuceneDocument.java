@@ -26,11 +26,11 @@ import org.apache.lucene.index.DocValuesType;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.nifi.flowfile.attributes.CoreAttributes;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
-import org.apache.nifi.provenance.ProvenanceEventType;
 import org.apache.nifi.provenance.SearchableFields;
 import org.apache.nifi.provenance.lucene.LuceneUtil;
 import org.apache.nifi.provenance.search.SearchableField;
 import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.util.ProvenanceEventUuids;
 
 import java.util.Collections;
 import java.util.HashSet;
@@ -94,35 +94,9 @@ public class ConvertEventToLuceneDocument {
         // be stored so that we know how to lookup the event in the store.
         doc.add(new UnIndexedLongField(SearchableFields.Identifier.getSearchableFieldName(), eventId));
 
-        // If it's event is a FORK, or JOIN, add the FlowFileUUID for all child/parent UUIDs.
-        final ProvenanceEventType eventType = record.getEventType();
-        if (eventType == ProvenanceEventType.FORK || eventType == ProvenanceEventType.CLONE || eventType == ProvenanceEventType.REPLAY) {
-            for (final String uuid : record.getChildUuids()) {
-                if (!uuid.equals(record.getFlowFileUuid())) {
-                    addField(doc, SearchableFields.FlowFileUUID, uuid);
-                }
-            }
-        } else if (eventType == ProvenanceEventType.JOIN) {
-            for (final String uuid : record.getParentUuids()) {
-                if (!uuid.equals(record.getFlowFileUuid())) {
-                    addField(doc, SearchableFields.FlowFileUUID, uuid);
-                }
-            }
-        } else if (eventType == ProvenanceEventType.RECEIVE && record.getSourceSystemFlowFileIdentifier() != null) {
-            // If we get a receive with a Source System FlowFile Identifier, we add another Document that shows the UUID
-            // that the Source System uses to refer to the data.
-            final String sourceIdentifier = record.getSourceSystemFlowFileIdentifier();
-            final String sourceFlowFileUUID;
-            final int lastColon = sourceIdentifier.lastIndexOf(":");
-            if (lastColon > -1 && lastColon < sourceIdentifier.length() - 2) {
-                sourceFlowFileUUID = sourceIdentifier.substring(lastColon + 1);
-            } else {
-                sourceFlowFileUUID = null;
-            }
-
-            if (sourceFlowFileUUID != null) {
-                addField(doc, SearchableFields.FlowFileUUID, sourceFlowFileUUID);
-            }
+        // If it's event is a FORK, or JOIN, add the FlowFileUUID for all child/parent UUIDs, and for a RECEIVE, the UUID that the Source System uses.
+        for (final String uuid : ProvenanceEventUuids.getAssociatedFlowFileUuids(record)) {
+            addField(doc, SearchableFields.FlowFileUUID, uuid);
         }
 
         return doc;
@@ -38,6 +38,7 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class EventIndexTask implements Runnable {
@@ -53,16 +54,26 @@ public class EventIndexTask implements Runnable {
     private final IndexDirectoryManager directoryManager;
     private final EventReporter eventReporter;
     private final int commitThreshold;
+    private final Consumer<List<StoredDocument>> indexedDocumentsCallback;
 
     private volatile CompletableFuture<Void> shutdownComplete;
 
     public EventIndexTask(final BlockingQueue<StoredDocument> documentQueue, final IndexManager indexManager,
         final IndexDirectoryManager directoryManager, final int maxEventsPerCommit, final EventReporter eventReporter) {
+        this(documentQueue, indexManager, directoryManager, maxEventsPerCommit, eventReporter, documents -> { });
+    }
+
+    /**
+     * @param indexedDocumentsCallback notified with each group of documents after they have been written to the index
+     */
+    public EventIndexTask(final BlockingQueue<StoredDocument> documentQueue, final IndexManager indexManager, final IndexDirectoryManager directoryManager,
+        final int maxEventsPerCommit, final EventReporter eventReporter, final Consumer<List<StoredDocument>> indexedDocumentsCallback) {
         this.documentQueue = documentQueue;
         this.indexManager = indexManager;
         this.directoryManager = directoryManager;
         this.commitThreshold = maxEventsPerCommit;
         this.eventReporter = eventReporter;
+        this.indexedDocumentsCallback = indexedDocumentsCallback;
     }
 
     public synchronized Future<Void> shutdown() {
@@ -111,6 +122,7 @@ public class EventIndexTask implements Runnable {
                     final List<StoredDocument> docs = entry.getValue();
 
                     index(docs, partitionName);
+                    indexedDocumentsCallback.accept(docs);
                 }
             } catch (final Exception e) {
                 logger.error("Failed to index Provenance Events", e);
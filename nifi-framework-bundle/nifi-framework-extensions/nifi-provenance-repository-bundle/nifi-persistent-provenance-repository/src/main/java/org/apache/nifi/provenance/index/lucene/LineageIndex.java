@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.lucene;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * <p>
+ * An adjacency index from FlowFile UUID to the IDs of the Provenance Events that reference that UUID, either as the FlowFile
+ * that the event is about or as a parent or child of a FORK, CLONE, JOIN, or REPLAY event. This is the same relationship that
+ * the Lucene index captures in the FlowFileUUID field, so a lineage computation can look up the events for a set of UUIDs
+ * directly rather than searching every index directory that overlaps the lineage's time range.
+ * </p>
+ *
+ * <p>
+ * The index holds a bounded number of FlowFiles and evicts the least recently added FlowFile once that bound is reached. It
+ * tracks the time before which it may be missing events (the <i>coverage start</i>), which advances past the latest event of
+ * any evicted FlowFile. A lookup is answered only if every event that could belong to the requested lineage was registered
+ * after the coverage start; otherwise the caller is expected to fall back to searching the Lucene index.
+ * </p>
+ */
+class LineageIndex {
+    private static final int MAGIC_HEADER = 0x4E4C494E; // 'NLIN'
+    private static final int SERIALIZATION_VERSION = 1;
+
+    private final int maxFlowFiles;
+    private final int maxEventsPerFlowFile;
+    private final Map<String, Node> nodes;
+    private long coverageStart;
+
+    LineageIndex(final int maxFlowFiles, final int maxEventsPerFlowFile, final long coverageStart) {
+        this.maxFlowFiles = maxFlowFiles;
+        this.maxEventsPerFlowFile = maxEventsPerFlowFile;
+        this.coverageStart = coverageStart;
+        this.nodes = new LinkedHashMap<>();
+    }
+
+    /**
+     * Records that the event with the given ID references each of the given FlowFile UUIDs
+     *
+     * @param eventId the ID of the event
+     * @param flowFileUuids the UUIDs of all FlowFiles that the event references
+     * @param lineageStartDate the lineage start date of the event
+     * @param eventTime the time at which the event occurred
+     */
+    synchronized void addEvent(final long eventId, final Collection<String> flowFileUuids, final long lineageStartDate, final long eventTime) {
+        for (final String flowFileUuid : flowFileUuids) {
+            final String key = flowFileUuid.toLowerCase(Locale.ROOT);
+            Node node = nodes.get(key);
+            if (node == null) {
+                node = new Node(lineageStartDate);
+                addNode(key, node);
+            }
+
+            node.add(eventId, lineageStartDate, eventTime, maxEventsPerFlowFile);
+        }
+    }
+
+    private synchronized void addNode(final String flowFileUuid, final Node node) {
+        nodes.put(flowFileUuid, node);
+
+        // Once we evict a FlowFile, we no longer know about any of the events that occurred before that FlowFile's latest event
+        final Iterator<Node> itr = nodes.values().iterator();
+        while (nodes.size() > maxFlowFiles) {
+            final Node evicted = itr.next();
+            coverageStart = Math.max(coverageStart, evicted.maxEventTime + 1);
+            itr.remove();
+        }
+    }
+
+    /**
+     * Traverses the index from the given FlowFile UUIDs to the events that reference them
+     *
+     * @param flowFileUuids the UUIDs of the FlowFiles whose events are of interest
+     * @param lineageStartDate the earliest lineage start date of any event that may reference the FlowFiles, or a value less than 1
+     *            if not known, in which case it is determined from the index
+     * @return the sorted, distinct IDs of all events that reference any of the given FlowFiles, or an empty Optional if the index cannot
+     *         guarantee that it holds all of those events
+     */
+    synchronized Optional<List<Long>> getEventIds(final Collection<String> flowFileUuids, final long lineageStartDate) {
+        final List<Node> matches = new ArrayList<>(flowFileUuids.size());
+        long earliestLineageStart = lineageStartDate > 0 ? lineageStartDate : Long.MAX_VALUE;
+
+        for (final String flowFileUuid : flowFileUuids) {
+            final Node node = nodes.get(flowFileUuid.toLowerCase(Locale.ROOT));
+            if (node == null) {
+                // Without a known lineage start date, we cannot tell whether the FlowFile is unknown or its events were evicted
+                if (lineageStartDate <= 0) {
+                    return Optional.empty();
+                }
+                continue;
+            }
+
+            if (node.truncated) {
+                return Optional.empty();
+            }
+
+            if (lineageStartDate <= 0) {
+                earliestLineageStart = Math.min(earliestLineageStart, node.minLineageStartDate);
+            }
+            matches.add(node);
+        }
+
+        if (earliestLineageStart < coverageStart) {
+            return Optional.empty();
+        }
+
+        int eventCount = 0;
+        for (final Node node : matches) {
+            eventCount += node.size;
+        }
+
+        final long[] eventIds = new long[eventCount];
+        int index = 0;
+        for (final Node node : matches) {
+            System.arraycopy(node.eventIds, 0, eventIds, index, node.size);
+            index += node.size;
+        }
+
+        // The same event may reference several of the FlowFiles, and events may be registered more than once if they are re-indexed on restart
+        return Optional.of(Arrays.stream(eventIds).sorted().distinct().boxed().toList());
+    }
+
+    synchronized long getCoverageStart() {
+        return coverageStart;
+    }
+
+    synchronized int getFlowFileCount() {
+        return nodes.size();
+    }
+
+    /**
+     * Writes the index to the given file so that it can be restored when the repository is restarted
+     *
+     * @param file the file to write to
+     * @throws IOException if unable to write to the file
+     */
+    synchronized void write(final File file) throws IOException {
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(new FileOutputStream(file))))) {
+            out.writeInt(MAGIC_HEADER);
+            out.writeInt(SERIALIZATION_VERSION);
+            out.writeLong(coverageStart);
+            out.writeInt(nodes.size());
+
+            // Write the FlowFiles in the order that they were added so that they are evicted in the same order after being restored
+            for (final Map.Entry<String, Node> entry : nodes.entrySet()) {
+                final Node node = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeLong(node.minLineageStartDate);
+                out.writeLong(node.maxEventTime);
+                out.writeBoolean(node.truncated);
+                out.writeInt(node.size);
+
+                long previousEventId = 0L;
+                for (int i = 0; i < node.size; i++) {
+                    out.writeLong(node.eventIds[i] - previousEventId);
+                    previousEventId = node.eventIds[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads an index that was previously written by {@link #write(File)}
+     *
+     * @param file the file to read from
+     * @param maxFlowFiles the maximum number of FlowFiles that the restored index should hold
+     * @param maxEventsPerFlowFile the maximum number of events that the restored index should hold for any one FlowFile
+     * @return the restored index
+     * @throws IOException if unable to read the file or the file is not a valid lineage index
+     */
+    static LineageIndex read(final File file, final int maxFlowFiles, final int maxEventsPerFlowFile) throws IOException {
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(new FileInputStream(file))))) {
+            final int magicHeader = in.readInt();
+            if (magicHeader != MAGIC_HEADER) {
+                throw new IOException("File " + file + " is not a Provenance lineage index");
+            }
+
+            final int version = in.readInt();
+            if (version != SERIALIZATION_VERSION) {
+                throw new IOException("Provenance lineage index " + file + " has serialization version " + version + " but only version "
+                    + SERIALIZATION_VERSION + " is supported");
+            }
+
+            final LineageIndex lineageIndex = new LineageIndex(maxFlowFiles, maxEventsPerFlowFile, in.readLong());
+            final int nodeCount = in.readInt();
+            for (int i = 0; i < nodeCount; i++) {
+                final String flowFileUuid = in.readUTF();
+                final long minLineageStartDate = in.readLong();
+                final long maxEventTime = in.readLong();
+                final boolean truncated = in.readBoolean();
+                final int eventCount = in.readInt();
+                if (eventCount < 0) {
+                    throw new IOException("Invalid event count " + eventCount + " in Provenance lineage index " + file);
+                }
+
+                final Node node = new Node(minLineageStartDate);
+                long eventId = 0L;
+                for (int j = 0; j < eventCount; j++) {
+                    eventId += in.readLong();
+                    node.add(eventId, minLineageStartDate, maxEventTime, maxEventsPerFlowFile);
+                }
+                node.truncated |= truncated;
+
+                lineageIndex.addNode(flowFileUuid, node);
+            }
+
+            return lineageIndex;
+        }
+    }
+
+
+    private static class Node {
+        private long[] eventIds = new long[2];
+        private int size = 0;
+        private long minLineageStartDate;
+        private long maxEventTime = Long.MIN_VALUE;
+        private boolean truncated = false;
+
+        Node(final long lineageStartDate) {
+            this.minLineageStartDate = lineageStartDate;
+        }
+
+        void add(final long eventId, final long lineageStartDate, final long eventTime, final int maxEvents) {
+            minLineageStartDate = Math.min(minLineageStartDate, lineageStartDate);
+            maxEventTime = Math.max(maxEventTime, eventTime);
+
+            if (size >= maxEvents) {
+                truncated = true;
+                return;
+            }
+
+            if (size == eventIds.length) {
+                eventIds = Arrays.copyOf(eventIds, Math.min(maxEvents, eventIds.length * 2));
+            }
+
+            eventIds[size++] = eventId;
+        }
+    }
+}
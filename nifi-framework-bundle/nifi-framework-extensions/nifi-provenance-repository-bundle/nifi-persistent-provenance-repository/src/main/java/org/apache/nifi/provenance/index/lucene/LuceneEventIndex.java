@@ -39,6 +39,8 @@ import org.apache.nifi.provenance.authorization.EventTransformer;
 import org.apache.nifi.provenance.index.EventIndex;
 import org.apache.nifi.provenance.index.EventIndexSearcher;
 import org.apache.nifi.provenance.index.EventIndexWriter;
+import org.apache.nifi.provenance.index.IndexOverflowPolicy;
+import org.apache.nifi.provenance.index.PartitionIndexingMetrics;
 import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
 import org.apache.nifi.provenance.lineage.LineageComputationType;
 import org.apache.nifi.provenance.lucene.IndexManager;
@@ -58,24 +60,37 @@ import org.apache.nifi.util.timebuffer.TimestampedLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -89,11 +104,28 @@ public class LuceneEventIndex implements EventIndex {
     public static final int MAX_LINEAGE_NODES = 1000;
     public static final int MAX_INDEX_THREADS = 100;
     public static final int MAX_LINEAGE_UUIDS = 100;
+    public static final int MAX_PENDING_INDEX_WAIT_SECONDS = 30;
+    private static final int MAX_DEFERRED_BATCH_SIZE = 1000;
+    private static final int MAX_DEFERRED_EVENTS_PER_PENDING_EVENT = 10;
+    private static final String LINEAGE_INDEX_FILENAME = "lineage.index";
+    private static final String DEFERRED_EVENTS_FILENAME = "deferred.index";
 
     private final ConcurrentMap<String, AsyncQuerySubmission> querySubmissionMap = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, AsyncLineageSubmission> lineageSubmissionMap = new ConcurrentHashMap<>();
     private final BlockingQueue<StoredDocument> documentQueue = new LinkedBlockingQueue<>(1000);
     private final List<EventIndexTask> indexTasks = Collections.synchronizedList(new ArrayList<>());
+    private final BlockingQueue<PendingIndexBatch> pendingBatches = new LinkedBlockingQueue<>();
+    private final Semaphore pendingEventPermits;
+    private final int maxPendingEvents;
+    private final IndexOverflowPolicy overflowPolicy;
+    private final ExecutorService indexPreparationExecutor;
+    private final Queue<StorageSummary> deferredEvents = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger deferredEventCount = new AtomicInteger(0);
+    private volatile Map<String, Long> oldestDeferredEventIdsAtShutdown = Collections.emptyMap();
+    private final AtomicLong eventsDroppedSinceLastReport = new AtomicLong(0L);
+    private final ConcurrentMap<String, PartitionIndexingMetrics> indexingMetrics = new ConcurrentHashMap<>();
+    private volatile boolean acceptingEvents = true;
+    private volatile LineageIndex lineageIndex;
     private final ExecutorService queryExecutor;
     private final ExecutorService indexExecutor;
     private final RepositoryConfiguration config;
@@ -145,7 +177,7 @@ public class LuceneEventIndex implements EventIndex {
         }
 
         for (int i = 0; i < numIndexThreads; i++) {
-            final EventIndexTask task = new EventIndexTask(documentQueue, indexManager, directoryManager, maxEventsPerCommit, eventReporter);
+            final EventIndexTask task = new EventIndexTask(documentQueue, indexManager, directoryManager, maxEventsPerCommit, eventReporter, this::onDocumentsIndexed);
             indexTasks.add(task);
             indexExecutor.submit(task);
         }
@@ -153,16 +185,32 @@ public class LuceneEventIndex implements EventIndex {
         this.config = config;
         this.indexManager = indexManager;
         this.eventConverter = new ConvertEventToLuceneDocument(config.getSearchableFields(), config.getSearchableAttributes());
+
+        // Converting events to Lucene Documents is done by a separate set of threads so that the threads registering events
+        // only need to hand off the events. The number of events waiting to be converted is bounded by the configured queue size,
+        // and the overflow policy determines what happens to events that are registered while that queue is full.
+        this.overflowPolicy = config.getIndexOverflowPolicy();
+        this.maxPendingEvents = config.getIndexQueueSize();
+        this.pendingEventPermits = new Semaphore(maxPendingEvents);
+        indexPreparationExecutor = Executors.newFixedThreadPool(numIndexThreads, new NamedThreadFactory("Prepare Provenance Events for Indexing"));
+        for (int i = 0; i < numIndexThreads; i++) {
+            indexPreparationExecutor.submit(new PrepareIndexDocuments());
+        }
     }
 
     @Override
     public void initialize(final EventStore eventStore) {
         this.eventStore = eventStore;
         directoryManager.initialize();
+        lineageIndex = restoreLineageIndex();
+        oldestDeferredEventIdsAtShutdown = restoreDeferredEventIds();
 
         maintenanceExecutor = Executors.newScheduledThreadPool(1, new NamedThreadFactory("Provenance Repository Maintenance"));
         maintenanceExecutor.scheduleWithFixedDelay(this::performMaintenance, 1, 1, TimeUnit.MINUTES);
         maintenanceExecutor.scheduleWithFixedDelay(this::purgeObsoleteQueries, 30, 30, TimeUnit.SECONDS);
+        if (overflowPolicy == IndexOverflowPolicy.DEFER) {
+            maintenanceExecutor.scheduleWithFixedDelay(this::indexDeferredEvents, 1, 1, TimeUnit.SECONDS);
+        }
 
         cachedQueries.add(new LatestEventsQuery());
         latestEventsPerProcessorQuery = new LatestEventsPerProcessorQuery();
@@ -280,7 +328,11 @@ public class LuceneEventIndex implements EventIndex {
 
     @Override
     public long getMinimumEventIdToReindex(final String partitionName) {
-        return Math.max(0, getMaxEventId(partitionName) - EventIndexTask.MAX_DOCUMENTS_PER_THREAD * MAX_INDEX_THREADS);
+        final long minEventId = Math.max(0, getMaxEventId(partitionName) - EventIndexTask.MAX_DOCUMENTS_PER_THREAD * MAX_INDEX_THREADS);
+
+        // Events whose indexing was still deferred when the repository was shut down were never indexed, however old they are
+        final Long oldestDeferredEventId = oldestDeferredEventIdsAtShutdown.get(partitionName);
+        return oldestDeferredEventId == null ? minEventId : Math.min(minEventId, oldestDeferredEventId);
     }
 
     protected IndexDirectoryManager getDirectoryManager() {
@@ -289,6 +341,22 @@ public class LuceneEventIndex implements EventIndex {
 
     @Override
     public void close() throws IOException {
+        // Stop accepting events and wait for the events that were already accepted to be handed off to the Index Tasks. This ensures that
+        // no more events are in flight than are accounted for by #getMinimumEventIdToReindex when the repository is restarted. Events whose
+        // indexing is still deferred are not indexed now, as there may be a great many of them; their Event IDs are persisted instead.
+        synchronized (deferredEvents) {
+            acceptingEvents = false;
+        }
+        indexPreparationExecutor.shutdown();
+        try {
+            if (!indexPreparationExecutor.awaitTermination(MAX_PENDING_INDEX_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Timed out waiting for {} queued Provenance Events to be handed off for indexing", maxPendingEvents - pendingEventPermits.availablePermits());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while waiting for queued Provenance Events to be handed off for indexing");
+        }
+
         closed = true;
         queryExecutor.shutdownNow();
         indexExecutor.shutdown();
@@ -313,6 +381,124 @@ public class LuceneEventIndex implements EventIndex {
         }
 
         indexManager.close();
+        persistLineageIndex();
+        persistDeferredEventIds();
+    }
+
+    private File getLineageIndexFile() {
+        final File firstStorageDirectory = config.getStorageDirectories().values().iterator().next();
+        return new File(firstStorageDirectory, LINEAGE_INDEX_FILENAME);
+    }
+
+    private LineageIndex restoreLineageIndex() {
+        final int maxFlowFiles = config.getLineageIndexMaxFlowFiles();
+        if (maxFlowFiles < 1) {
+            return null;
+        }
+
+        // The lineage index is written only when the repository is shut down cleanly. Delete it once it has been read so that
+        // after an unclean shutdown we start with an empty index rather than one that is missing the events registered since.
+        final File lineageIndexFile = getLineageIndexFile();
+        if (lineageIndexFile.exists()) {
+            try {
+                final LineageIndex restored = LineageIndex.read(lineageIndexFile, maxFlowFiles, MAX_LINEAGE_NODES);
+                logger.info("Restored Provenance lineage index with {} FlowFiles from {}", restored.getFlowFileCount(), lineageIndexFile);
+                return restored;
+            } catch (final IOException e) {
+                logger.warn("Failed to restore Provenance lineage index from {}; lineage for events registered before restart will be computed from the Lucene index",
+                    lineageIndexFile, e);
+            } finally {
+                if (!lineageIndexFile.delete()) {
+                    logger.warn("Failed to delete Provenance lineage index {}", lineageIndexFile);
+                }
+            }
+        }
+
+        return new LineageIndex(maxFlowFiles, MAX_LINEAGE_NODES, System.currentTimeMillis());
+    }
+
+    private void persistLineageIndex() {
+        final LineageIndex index = lineageIndex;
+        if (index == null) {
+            return;
+        }
+
+        final File lineageIndexFile = getLineageIndexFile();
+        final File tempFile = new File(lineageIndexFile.getParentFile(), lineageIndexFile.getName() + ".tmp");
+        try {
+            index.write(tempFile);
+            Files.move(tempFile.toPath(), lineageIndexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException e) {
+            logger.warn("Failed to write Provenance lineage index to {}; it will be rebuilt as events are indexed after restart", lineageIndexFile, e);
+            if (tempFile.exists() && !tempFile.delete()) {
+                logger.warn("Failed to delete temporary Provenance lineage index {}", tempFile);
+            }
+        }
+    }
+
+    private File getDeferredEventsFile() {
+        final File firstStorageDirectory = config.getStorageDirectories().values().iterator().next();
+        return new File(firstStorageDirectory, DEFERRED_EVENTS_FILENAME);
+    }
+
+    /**
+     * @return the oldest Event ID in each partition whose indexing was still deferred when the repository was last shut down, keyed by partition name
+     */
+    private Map<String, Long> restoreDeferredEventIds() {
+        final File deferredEventsFile = getDeferredEventsFile();
+        if (!deferredEventsFile.exists()) {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, Long> oldestDeferredEventIds = new HashMap<>();
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(deferredEventsFile)))) {
+            final int partitionCount = in.readInt();
+            for (int i = 0; i < partitionCount; i++) {
+                oldestDeferredEventIds.put(in.readUTF(), in.readLong());
+            }
+
+            logger.info("Provenance Events whose indexing was deferred when the repository was shut down will be re-indexed, starting from Event IDs {}", oldestDeferredEventIds);
+        } catch (final IOException e) {
+            logger.warn("Failed to read the IDs of Provenance Events whose indexing was deferred from {}; those events will not be indexed", deferredEventsFile, e);
+        } finally {
+            if (!deferredEventsFile.delete()) {
+                logger.warn("Failed to delete {}", deferredEventsFile);
+            }
+        }
+
+        return oldestDeferredEventIds;
+    }
+
+    private void persistDeferredEventIds() {
+        final Map<String, Long> oldestDeferredEventIds = new HashMap<>();
+        for (final StorageSummary summary : deferredEvents) {
+            oldestDeferredEventIds.merge(getPartitionName(summary), summary.getEventId(), Math::min);
+        }
+
+        if (oldestDeferredEventIds.isEmpty()) {
+            return;
+        }
+
+        final File deferredEventsFile = getDeferredEventsFile();
+        final File tempFile = new File(deferredEventsFile.getParentFile(), deferredEventsFile.getName() + ".tmp");
+        try {
+            try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(oldestDeferredEventIds.size());
+                for (final Map.Entry<String, Long> entry : oldestDeferredEventIds.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue());
+                }
+            }
+
+            Files.move(tempFile.toPath(), deferredEventsFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            logger.info("Indexing of {} Provenance Events was still deferred at shutdown; these events will be re-indexed on restart", deferredEventCount.get());
+        } catch (final IOException e) {
+            logger.warn("Failed to write the IDs of {} Provenance Events whose indexing was deferred to {}; these events will not be indexed",
+                deferredEventCount.get(), deferredEventsFile, e);
+            if (tempFile.exists() && !tempFile.delete()) {
+                logger.warn("Failed to delete {}", tempFile);
+            }
+        }
     }
 
     long getMaxEventId(final String partitionName) {
@@ -427,6 +613,7 @@ public class LuceneEventIndex implements EventIndex {
         final Document document = eventConverter.convert(event, location);
         if (document == null) {
             logger.debug("Received Provenance Event {} to index but it contained no information that should be indexed, so skipping it", event.getEventId());
+            getIndexingMetrics(location).onIndexed(location.getEventId());
         } else {
             final StoredDocument doc = new StoredDocument(document, location);
             boolean added = false;
@@ -473,19 +660,222 @@ public class LuceneEventIndex implements EventIndex {
         final long millis = TimeUnit.NANOSECONDS.toMillis(nanosLastFive.getValue());
         logger.debug("In the last 5 minutes, have spent {} CPU-millis waiting to enqueue events for indexing and have indexed {} events ({} since NiFi started)",
             millis, numEventsLast5, eventCount.get());
+        logger.debug("Indexing metrics per partition: {}", indexingMetrics.values());
     }
 
     @Override
     public void addEvents(final Map<ProvenanceEventRecord, StorageSummary> events) {
         eventsIndexed.add(new TimestampedLong((long) events.size()));
 
-        for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : events.entrySet()) {
-            addEvent(entry.getKey(), entry.getValue());
-        }
-
         for (final CachedQuery cachedQuery : cachedQueries) {
             cachedQuery.update(events);
         }
+
+        if (events.isEmpty()) {
+            return;
+        }
+
+        // A batch that is larger than the queue is allowed in once the queue is empty; otherwise, it could never be queued.
+        final int permits = Math.min(events.size(), maxPendingEvents);
+        if (acquirePendingEventPermits(permits)) {
+            queueForIndexing(events, permits);
+        } else {
+            handleOverflow(events);
+        }
+    }
+
+    private boolean acquirePendingEventPermits(final int permits) {
+        if (!acceptingEvents) {
+            return false;
+        }
+
+        if (pendingEventPermits.tryAcquire(permits)) {
+            return true;
+        }
+
+        if (overflowPolicy != IndexOverflowPolicy.BLOCK) {
+            return false;
+        }
+
+        final long start = System.nanoTime();
+        try {
+            while (acceptingEvents) {
+                if (pendingEventPermits.tryAcquire(permits, 1, TimeUnit.SECONDS)) {
+                    return true;
+                }
+            }
+
+            return false;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while waiting to queue {} Provenance Events for indexing; these events will not be indexed", permits);
+            return false;
+        } finally {
+            queuePauseNanos.add(new TimestampedLong(System.nanoTime() - start));
+        }
+    }
+
+    private void queueForIndexing(final Map<ProvenanceEventRecord, StorageSummary> events, final int permits) {
+        for (final StorageSummary summary : events.values()) {
+            getIndexingMetrics(summary).onQueued(summary.getEventId());
+        }
+
+        pendingBatches.add(new PendingIndexBatch(events, permits));
+    }
+
+    void handleOverflow(final Map<ProvenanceEventRecord, StorageSummary> events) {
+        final Map<String, Integer> countsByPartition = new HashMap<>();
+        for (final StorageSummary summary : events.values()) {
+            countsByPartition.merge(getPartitionName(summary), 1, Integer::sum);
+        }
+
+        final int maxDeferredEvents = maxPendingEvents * MAX_DEFERRED_EVENTS_PER_PENDING_EVENT;
+        if (overflowPolicy == IndexOverflowPolicy.DEFER && acceptingEvents && deferredEventCount.get() + events.size() <= maxDeferredEvents) {
+            deferredEvents.addAll(events.values());
+            deferredEventCount.addAndGet(events.size());
+            countsByPartition.forEach((partitionName, count) -> getIndexingMetrics(partitionName).onDeferred(count));
+            logger.debug("Indexing queue is full; deferred indexing of {} Provenance Events", events.size());
+            return;
+        }
+
+        countsByPartition.forEach((partitionName, count) -> getIndexingMetrics(partitionName).onDropped(count));
+        eventsDroppedSinceLastReport.addAndGet(events.size());
+        logger.debug("Indexing queue is full; {} Provenance Events will be stored but not indexed", events.size());
+    }
+
+    /**
+     * Reads back from the Event Store the events whose indexing was deferred and queues them for indexing, for as long as the indexing queue has room.
+     * Deferred events are removed from the deferred queue only once they have been queued for indexing, so that any that have not been are accounted
+     * for if the index is closed in the meantime. This is the only method that removes deferred events.
+     */
+    void indexDeferredEvents() {
+        while (acceptingEvents && !deferredEvents.isEmpty()) {
+            final int batchSize = Math.min(MAX_DEFERRED_BATCH_SIZE, maxPendingEvents);
+            if (!pendingEventPermits.tryAcquire(batchSize)) {
+                return;
+            }
+
+            final Map<Long, StorageSummary> summaries = new HashMap<>();
+            int deferredCount = 0;
+            final Iterator<StorageSummary> deferredItr = deferredEvents.iterator();
+            while (deferredCount < batchSize && deferredItr.hasNext()) {
+                final StorageSummary deferred = deferredItr.next();
+                summaries.put(deferred.getEventId(), deferred);
+                deferredCount++;
+            }
+
+            final Map<ProvenanceEventRecord, StorageSummary> events = new HashMap<>();
+            try {
+                final List<Long> eventIds = new ArrayList<>(summaries.keySet());
+                Collections.sort(eventIds);
+
+                for (final ProvenanceEventRecord event : eventStore.getEvents(eventIds, EventAuthorizer.GRANT_ALL, EventTransformer.EMPTY_TRANSFORMER)) {
+                    final StorageSummary summary = summaries.get(event.getEventId());
+                    if (summary != null) {
+                        events.put(event, summary);
+                    }
+                }
+            } catch (final Exception e) {
+                logger.error("Failed to read {} Provenance Events whose indexing was deferred; these events will not be indexed", summaries.size(), e);
+            }
+
+            synchronized (deferredEvents) {
+                if (!acceptingEvents) {
+                    pendingEventPermits.release(batchSize);
+                    return;
+                }
+
+                for (int i = 0; i < deferredCount; i++) {
+                    deferredEvents.poll();
+                }
+                deferredEventCount.addAndGet(-deferredCount);
+
+                pendingEventPermits.release(batchSize - events.size());
+                if (!events.isEmpty()) {
+                    queueForIndexing(events, events.size());
+                }
+            }
+        }
+    }
+
+    private void onDocumentsIndexed(final List<StoredDocument> documents) {
+        for (final StoredDocument document : documents) {
+            final StorageSummary summary = document.getStorageSummary();
+            getIndexingMetrics(summary).onIndexed(summary.getEventId());
+        }
+
+        final LineageIndex index = lineageIndex;
+        if (index != null) {
+            for (final StoredDocument document : documents) {
+                addToLineageIndex(index, document);
+            }
+        }
+    }
+
+    private void addToLineageIndex(final LineageIndex index, final StoredDocument storedDocument) {
+        final Document document = storedDocument.getDocument();
+        final String[] flowFileUuids = document.getValues(SearchableFields.FlowFileUUID.getSearchableFieldName());
+        if (flowFileUuids.length == 0) {
+            return;
+        }
+
+        final long lineageStartDate = document.getField(SearchableFields.LineageStartDate.getSearchableFieldName()).numericValue().longValue();
+        final long eventTime = document.getField(SearchableFields.EventTime.getSearchableFieldName()).numericValue().longValue();
+        index.addEvent(storedDocument.getStorageSummary().getEventId(), Arrays.asList(flowFileUuids), lineageStartDate, eventTime);
+    }
+
+    private PartitionIndexingMetrics getIndexingMetrics(final StorageSummary summary) {
+        return getIndexingMetrics(getPartitionName(summary));
+    }
+
+    private PartitionIndexingMetrics getIndexingMetrics(final String partitionName) {
+        return indexingMetrics.computeIfAbsent(partitionName, PartitionIndexingMetrics::new);
+    }
+
+    private static String getPartitionName(final StorageSummary summary) {
+        return summary.getPartitionName().orElse("");
+    }
+
+    @Override
+    public Map<String, PartitionIndexingMetrics> getIndexingMetrics() {
+        return Collections.unmodifiableMap(new HashMap<>(indexingMetrics));
+    }
+
+    /**
+     * Hands off queued batches of events to the Index Tasks, converting each event into a Lucene Document along the way.
+     * Once the index is closed, the task continues until all queued batches have been handed off.
+     */
+    private class PrepareIndexDocuments implements Runnable {
+        @Override
+        public void run() {
+            while (acceptingEvents || !pendingBatches.isEmpty()) {
+                final PendingIndexBatch batch;
+                try {
+                    batch = pendingBatches.poll(100, TimeUnit.MILLISECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                if (batch == null) {
+                    continue;
+                }
+
+                try {
+                    for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : batch.events().entrySet()) {
+                        addEvent(entry.getKey(), entry.getValue());
+                    }
+                } catch (final Exception e) {
+                    logger.error("Failed to prepare {} Provenance Events for indexing", batch.events().size(), e);
+                    eventReporter.reportEvent(Severity.ERROR, EVENT_CATEGORY, "Failed to index Provenance Events. See logs for more information.");
+                } finally {
+                    pendingEventPermits.release(batch.permits());
+                }
+            }
+        }
+    }
+
+    private record PendingIndexBatch(Map<ProvenanceEventRecord, StorageSummary> events, int permits) {
     }
 
 
@@ -521,6 +911,12 @@ public class LuceneEventIndex implements EventIndex {
             throw new IllegalArgumentException(String.format("Cannot compute lineage for more than %s FlowFiles. This lineage contains %s.", MAX_LINEAGE_UUIDS, flowFileUuids.size()));
         }
 
+        final LineageIndex index = lineageIndex;
+        final Optional<List<Long>> indexedEventIds = index == null ? Optional.empty() : index.getEventIds(flowFileUuids, startTimestamp);
+        if (indexedEventIds.isPresent() && indexedEventIds.get().size() <= MAX_LINEAGE_NODES) {
+            return submitIndexedLineageComputation(indexedEventIds.get(), flowFileUuids, user, eventAuthorizer, computationType, eventId);
+        }
+
         final List<File> indexDirs = directoryManager.getDirectories(startTimestamp, endTimestamp);
         final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, indexDirs.size(), user == null ? null : user.getIdentity());
         lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
@@ -550,6 +946,36 @@ public class LuceneEventIndex implements EventIndex {
         return submission;
     }
 
+    /**
+     * Computes lineage from the Event IDs that the Lineage Index holds for the given FlowFiles, fetching the events directly from the Event Store
+     * instead of searching the Lucene index.
+     */
+    private ComputeLineageSubmission submitIndexedLineageComputation(final List<Long> lineageEventIds, final Collection<String> flowFileUuids, final NiFiUser user,
+        final EventAuthorizer eventAuthorizer, final LineageComputationType computationType, final Long eventId) {
+
+        final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, 1, user == null ? null : user.getIdentity());
+        lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+        logger.debug("Computing lineage for FlowFiles {} from {} Event IDs in the Lineage Index", flowFileUuids, lineageEventIds.size());
+
+        queryExecutor.submit(() -> {
+            try {
+                final List<ProvenanceEventRecord> events = eventStore.getEvents(lineageEventIds, eventAuthorizer, EventTransformer.PLACEHOLDER_TRANSFORMER);
+                submission.getResult().update(events, lineageEventIds.size());
+            } catch (final Exception e) {
+                submission.getResult().setError("Failed to retrieve Provenance Events from store; see logs for more details");
+                logger.error("Failed to retrieve Provenance Events from store to compute lineage for FlowFiles {}", flowFileUuids, e);
+            }
+        });
+
+        try {
+            submission.getResult().awaitCompletion(500, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+
+        return submission;
+    }
+
     private BooleanQuery buildLineageQuery(final Collection<String> flowFileUuids) {
         // Create a query for all Events related to the FlowFiles of interest. We do this by adding all ID's as
         // "SHOULD" clauses and then setting the minimum required to 1.
@@ -569,6 +995,16 @@ public class LuceneEventIndex implements EventIndex {
         return lineageQuery;
     }
 
+    /**
+     * Adds a query whose results are cached or can otherwise be determined without searching the index. Queries that the given query
+     * is able to answer are no longer submitted to the index. This must be called before the index is used.
+     *
+     * @param cachedQuery the query to add
+     */
+    public void addCachedQuery(final CachedQuery cachedQuery) {
+        cachedQueries.add(cachedQuery);
+    }
+
     @Override
     public QuerySubmission submitQuery(final Query query, final EventAuthorizer authorizer, final String userId) {
         validate(query);
@@ -826,6 +1262,14 @@ public class LuceneEventIndex implements EventIndex {
     }
 
     void performMaintenance() {
+        final long eventsDropped = eventsDroppedSinceLastReport.getAndSet(0L);
+        if (eventsDropped > 0) {
+            logger.warn("{} Provenance Events were stored but not indexed because the indexing queue was full; these events will not be returned by searches. "
+                + "Indexing metrics per partition: {}", eventsDropped, indexingMetrics.values());
+            eventReporter.reportEvent(Severity.WARNING, EVENT_CATEGORY, eventsDropped + " Provenance Events were not indexed because the indexing queue was full. "
+                + "These events will not be returned by searches.");
+        }
+
         try {
             final List<ProvenanceEventRecord> firstEvents = eventStore.getEvents(0, 1);
 
@@ -30,6 +30,8 @@ import org.apache.lucene.search.WildcardQuery;
 import org.apache.nifi.processor.DataUnit;
 import org.apache.nifi.provenance.SearchableFields;
 import org.apache.nifi.provenance.search.SearchTerm;
+import org.apache.nifi.provenance.serialization.EventFileCodec;
+import org.apache.nifi.provenance.serialization.EventFileCodecs;
 
 import java.io.File;
 import java.nio.ByteBuffer;
@@ -77,9 +79,12 @@ public class LuceneUtil {
                     matchingFiles.add(file);
                 } else {
                     final File dir = file.getParentFile();
-                    final File gzFile = new File(dir, file.getName() + ".gz");
-                    if ( gzFile.exists() ) {
-                        matchingFiles.add(gzFile);
+                    for (final EventFileCodec codec : EventFileCodecs.getCodecs()) {
+                        final File compressedFile = new File(dir, file.getName() + codec.getFileExtension());
+                        if ( compressedFile.exists() ) {
+                            matchingFiles.add(compressedFile);
+                            break;
+                        }
                     }
                 }
             }
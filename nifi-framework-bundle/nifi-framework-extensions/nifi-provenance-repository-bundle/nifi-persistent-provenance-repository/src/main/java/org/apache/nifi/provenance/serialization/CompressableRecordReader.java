@@ -24,7 +24,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Optional;
-import java.util.zip.GZIPInputStream;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
 import org.apache.nifi.provenance.StandardProvenanceEventRecord;
 import org.apache.nifi.provenance.toc.TocReader;
@@ -40,7 +39,8 @@ public abstract class CompressableRecordReader implements RecordReader {
     private final ByteCountingInputStream rawInputStream;
     private final String filename;
     private final int serializationVersion;
-    private final boolean compressed;
+    private final EventFileCodec codec;
+    private final byte[] compressionDictionary;
     private final TocReader tocReader;
     private final int headerLength;
     private final int maxAttributeChars;
@@ -71,13 +71,14 @@ public abstract class CompressableRecordReader implements RecordReader {
             }
         }
 
+        codec = EventFileCodecs.forFilename(filename).orElse(null);
+        compressionDictionary = tocReader == null ? null : tocReader.getCompressionDictionary();
+
         final InputStream readableStream;
-        if (filename.endsWith(".gz")) {
-            readableStream = new BufferedInputStream(new GZIPInputStream(limitedStream));
-            compressed = true;
-        } else {
+        if (codec == null) {
             readableStream = new BufferedInputStream(limitedStream);
-            compressed = false;
+        } else {
+            readableStream = new BufferedInputStream(codec.decompress(limitedStream, compressionDictionary));
         }
 
         byteCountingIn = new ByteCountingInputStream(readableStream);
@@ -144,10 +145,10 @@ public abstract class CompressableRecordReader implements RecordReader {
         }
 
         final InputStream readableStream;
-        if (compressed) {
-            readableStream = new BufferedInputStream(new GZIPInputStream(limitedStream));
-        } else {
+        if (codec == null) {
             readableStream = new BufferedInputStream(limitedStream);
+        } else {
+            readableStream = new BufferedInputStream(codec.decompress(limitedStream, compressionDictionary));
         }
 
         byteCountingIn = new ByteCountingInputStream(readableStream, rawInputStream.getBytesConsumed());
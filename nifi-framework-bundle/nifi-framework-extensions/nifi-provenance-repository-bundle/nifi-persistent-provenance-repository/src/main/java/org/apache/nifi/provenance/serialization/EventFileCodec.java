@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A compression codec that is used to compress the blocks of a Provenance Event File. Each block is
+ * compressed independently so that it can be located through the Table of Contents and decompressed
+ * without reading the blocks that precede it. Codecs that support dictionaries may be given a dictionary
+ * that is shared by all blocks of a file and stored in the file's Table of Contents.
+ */
+public interface EventFileCodec {
+
+    /**
+     * @return the identifier that is written to a Table of Contents to indicate that the blocks of the
+     *         corresponding Event File were compressed with this codec. Must be unique and greater than 0.
+     */
+    int getIdentifier();
+
+    /**
+     * @return the name of the codec, as it is configured in nifi.properties
+     */
+    String getName();
+
+    /**
+     * @return the extension that is appended to the name of an Event File that is compressed with this codec, such as <code>.gz</code>
+     */
+    String getFileExtension();
+
+    /**
+     * Returns an OutputStream that compresses a single block into the given stream. Closing the returned stream
+     * finishes the block and closes the given stream.
+     *
+     * @param out the stream to write the compressed block to
+     * @param dictionary the dictionary to compress with, or <code>null</code> if no dictionary is to be used
+     * @return an OutputStream that compresses the data written to it
+     * @throws IOException if unable to create the compressing stream
+     */
+    OutputStream compress(OutputStream out, byte[] dictionary) throws IOException;
+
+    /**
+     * Returns an InputStream that decompresses a single block from the given stream.
+     *
+     * @param in the stream to read the compressed block from
+     * @param dictionary the dictionary that the block was compressed with, or <code>null</code> if no dictionary was used
+     * @return an InputStream that provides the decompressed data
+     * @throws IOException if unable to read the header of the compressed block
+     */
+    InputStream decompress(InputStream in, byte[] dictionary) throws IOException;
+
+    /**
+     * @return <code>true</code> if this codec is able to make use of a dictionary, <code>false</code> otherwise
+     */
+    default boolean isDictionarySupported() {
+        return false;
+    }
+
+    /**
+     * Trains a dictionary from the given samples of uncompressed data.
+     *
+     * @param samples samples of the data that will be compressed
+     * @param maxDictionarySize the maximum size of the dictionary, in bytes
+     * @return the trained dictionary, or an empty Optional if the codec does not support dictionaries or
+     *         if the samples are not sufficient to train one
+     */
+    default Optional<byte[]> trainDictionary(final List<byte[]> samples, final int maxDictionarySize) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.serialization;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Registry of the {@link EventFileCodec}s that may be used to compress Provenance Event Files.
+ */
+public final class EventFileCodecs {
+    public static final EventFileCodec GZIP = new GzipEventFileCodec();
+    public static final EventFileCodec ZSTD = new ZstdEventFileCodec();
+
+    private static final List<EventFileCodec> CODECS = List.of(GZIP, ZSTD);
+
+    private EventFileCodecs() {
+    }
+
+    /**
+     * @return all known codecs
+     */
+    public static List<EventFileCodec> getCodecs() {
+        return CODECS;
+    }
+
+    /**
+     * Returns the codec with the given name, ignoring case
+     *
+     * @param name the name of the codec
+     * @return the codec with the given name
+     * @throws IllegalArgumentException if no codec exists with the given name
+     */
+    public static EventFileCodec forName(final String name) {
+        for (final EventFileCodec codec : CODECS) {
+            if (codec.getName().equalsIgnoreCase(name.trim())) {
+                return codec;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown Provenance compression codec '" + name + "'; valid values are " + getCodecNames());
+    }
+
+    /**
+     * @param identifier the identifier that was written to a Table of Contents
+     * @return the codec with the given identifier, or an empty Optional if no codec has the identifier
+     */
+    public static Optional<EventFileCodec> forIdentifier(final int identifier) {
+        return CODECS.stream().filter(codec -> codec.getIdentifier() == identifier).findFirst();
+    }
+
+    /**
+     * @param filename the name of an Event File
+     * @return the codec that the file was compressed with, based on its extension, or an empty Optional if the file is not compressed
+     */
+    public static Optional<EventFileCodec> forFilename(final String filename) {
+        return CODECS.stream().filter(codec -> filename.endsWith(codec.getFileExtension())).findFirst();
+    }
+
+    /**
+     * @param filename the name of a file
+     * @return <code>true</code> if the file is an Event File, either uncompressed or compressed with any known codec
+     */
+    public static boolean isEventFile(final String filename) {
+        if (filename.endsWith(".prov")) {
+            return true;
+        }
+
+        return CODECS.stream().anyMatch(codec -> filename.endsWith(".prov" + codec.getFileExtension()));
+    }
+
+    private static String getCodecNames() {
+        return CODECS.stream().map(EventFileCodec::getName).toList().toString();
+    }
+}
@@ -25,7 +25,6 @@ import org.apache.nifi.provenance.toc.TocUtil;
 import org.apache.nifi.provenance.toc.TocWriter;
 import org.apache.nifi.provenance.util.CloseableUtil;
 import org.apache.nifi.stream.io.ByteCountingOutputStream;
-import org.apache.nifi.stream.io.GZIPOutputStream;
 import org.apache.nifi.stream.io.NonCloseableOutputStream;
 import org.apache.nifi.stream.io.StreamUtils;
 import org.apache.nifi.util.FormatUtils;
@@ -40,6 +39,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 
@@ -47,7 +49,7 @@ import java.util.concurrent.TimeUnit;
  * <p>
  * This class is responsible for compressing Event Files as a background task. This is done as a background task instead of being
  * done inline because if compression is performed inline, whenever NiFi is restarted (especially if done so abruptly), it is very
- * possible that the GZIP stream will be corrupt. As a result, we would stand to lose some Provenance Events when NiFi is restarted.
+ * possible that the compressed stream will be corrupt. As a result, we would stand to lose some Provenance Events when NiFi is restarted.
  * In order to avoid that, we write data in an uncompressed format and then compress the data in the background. Once the data has
  * been compressed, this task will then remove the original, uncompressed file. If the file is being read by another thread, this
  * task will wait for the other thread to finish reading the data before deleting the file. This synchronization of the File is handled
@@ -56,13 +58,31 @@ import java.util.concurrent.TimeUnit;
  */
 public class EventFileCompressor implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(EventFileCompressor.class);
+    private static final int DICTIONARY_SAMPLE_SIZE = 8192;
+    private static final int DICTIONARY_SAMPLE_RATIO = 100;
+
     private final BlockingQueue<File> filesToCompress;
     private final EventFileManager eventFileManager;
+    private final EventFileCodec codec;
+    private final int dictionarySize;
     private volatile boolean shutdown = false;
 
     public EventFileCompressor(final BlockingQueue<File> filesToCompress, final EventFileManager eventFileManager) {
+        this(filesToCompress, eventFileManager, EventFileCodecs.GZIP, 0);
+    }
+
+    /**
+     * @param filesToCompress the queue of Event Files to compress
+     * @param eventFileManager the manager used to synchronize access to the Event Files
+     * @param codec the codec to compress the Event Files with
+     * @param dictionarySize the maximum size of the dictionary to train for each Event File, or 0 to compress without a dictionary.
+     *            Ignored if the codec does not support dictionaries.
+     */
+    public EventFileCompressor(final BlockingQueue<File> filesToCompress, final EventFileManager eventFileManager, final EventFileCodec codec, final int dictionarySize) {
         this.filesToCompress = filesToCompress;
         this.eventFileManager = eventFileManager;
+        this.codec = codec;
+        this.dictionarySize = dictionarySize;
     }
 
     public void shutdown() {
@@ -108,11 +128,12 @@ public class EventFileCompressor implements Runnable {
                     bytesBefore = uncompressedEventFile.length();
 
                     try {
-                        outputFile = new File(uncompressedEventFile.getParentFile(), uncompressedEventFile.getName() + ".gz");
+                        outputFile = new File(uncompressedEventFile.getParentFile(), uncompressedEventFile.getName() + codec.getFileExtension());
                         try {
+                            final byte[] dictionary = trainDictionary(uncompressedEventFile);
                             tmpTocFile = new File(tocFile.getParentFile(), tocFile.getName() + ".tmp");
-                            tocWriter = new StandardTocWriter(tmpTocFile, true, false);
-                            compress(uncompressedEventFile, tocReader, outputFile, tocWriter);
+                            tocWriter = new StandardTocWriter(tmpTocFile, codec, dictionary, false);
+                            compress(uncompressedEventFile, tocReader, outputFile, tocWriter, codec, dictionary);
                             tocWriter.close();
                         } catch (final IOException ioe) {
                             logger.error("Failed to compress {} on rollover", uncompressedEventFile, ioe);
@@ -160,7 +181,47 @@ public class EventFileCompressor implements Runnable {
         }
     }
 
-    private static void compress(final File input, final TocReader tocReader, final File output, final TocWriter tocWriter) throws IOException {
+    private byte[] trainDictionary(final File eventFile) throws IOException {
+        if (!codec.isDictionarySupported() || dictionarySize < 1) {
+            return null;
+        }
+
+        final List<byte[]> samples = collectDictionarySamples(eventFile, dictionarySize);
+        final byte[] dictionary = codec.trainDictionary(samples, dictionarySize).orElse(null);
+        if (dictionary == null) {
+            logger.debug("Could not train {} dictionary for {} from {} samples; will compress without a dictionary", codec, eventFile, samples.size());
+        }
+
+        return dictionary;
+    }
+
+    /**
+     * Reads evenly spaced samples from the given file, totaling no more than {@link #DICTIONARY_SAMPLE_RATIO} times the size of the dictionary
+     */
+    static List<byte[]> collectDictionarySamples(final File eventFile, final int dictionarySize) throws IOException {
+        final long fileLength = eventFile.length();
+        final long sampleBytes = Math.min(fileLength, (long) dictionarySize * DICTIONARY_SAMPLE_RATIO);
+        final int sampleCount = (int) (sampleBytes / DICTIONARY_SAMPLE_SIZE);
+        if (sampleCount == 0) {
+            return List.of();
+        }
+
+        final long stride = fileLength / sampleCount;
+        final List<byte[]> samples = new ArrayList<>(sampleCount);
+        try (final RandomAccessFile raf = new RandomAccessFile(eventFile, "r")) {
+            for (int i = 0; i < sampleCount; i++) {
+                final byte[] sample = new byte[DICTIONARY_SAMPLE_SIZE];
+                raf.seek(i * stride);
+                raf.readFully(sample);
+                samples.add(sample);
+            }
+        }
+
+        return samples;
+    }
+
+    static void compress(final File input, final TocReader tocReader, final File output, final TocWriter tocWriter, final EventFileCodec codec,
+                         final byte[] dictionary) throws IOException {
         try (final InputStream fis = new FileInputStream(input);
             final OutputStream fos = new FileOutputStream(output);
             final ByteCountingOutputStream byteCountingOut = new ByteCountingOutputStream(fos)) {
@@ -182,8 +243,8 @@ public class EventFileCompressor implements Runnable {
                 final long blockStartOffset = byteCountingOut.getBytesWritten();
 
                 try (final OutputStream ncos = new NonCloseableOutputStream(byteCountingOut);
-                    final OutputStream gzipOut = new GZIPOutputStream(ncos, 1)) {
-                    StreamUtils.copy(fis, gzipOut, blockEnd - blockStart);
+                    final OutputStream compressedOut = codec.compress(ncos, dictionary)) {
+                    StreamUtils.copy(fis, compressedOut, blockEnd - blockStart);
                 }
 
                 tocWriter.addBlockOffset(blockStartOffset, firstEventId);
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.serialization;
+
+import org.apache.nifi.stream.io.GZIPOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Compresses blocks using GZIP at compression level 1. This is the format that has always been used
+ * for compressed Event Files, so dictionaries are not supported.
+ */
+class GzipEventFileCodec implements EventFileCodec {
+    static final int IDENTIFIER = 1;
+
+    @Override
+    public int getIdentifier() {
+        return IDENTIFIER;
+    }
+
+    @Override
+    public String getName() {
+        return "GZIP";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return ".gz";
+    }
+
+    @Override
+    public OutputStream compress(final OutputStream out, final byte[] dictionary) throws IOException {
+        return new GZIPOutputStream(out, 1);
+    }
+
+    @Override
+    public InputStream decompress(final InputStream in, final byte[] dictionary) throws IOException {
+        return new GZIPInputStream(in);
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
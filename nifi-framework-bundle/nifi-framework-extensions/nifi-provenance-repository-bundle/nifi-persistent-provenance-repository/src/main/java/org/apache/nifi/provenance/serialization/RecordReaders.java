@@ -24,6 +24,7 @@ import org.apache.nifi.provenance.lucene.LuceneUtil;
 import org.apache.nifi.provenance.toc.StandardTocReader;
 import org.apache.nifi.provenance.toc.TocReader;
 import org.apache.nifi.provenance.toc.TocUtil;
+import org.apache.nifi.stream.io.LimitingInputStream;
 
 import java.io.BufferedInputStream;
 import java.io.DataInputStream;
@@ -34,8 +35,9 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.zip.GZIPInputStream;
+import java.util.List;
 
 public class RecordReaders {
     /**
@@ -80,11 +82,11 @@ public class RecordReaders {
                 final File dir = file.getParentFile();
                 final String baseName = LuceneUtil.substringBefore(file.getName(), ".prov");
 
-                // depending on which rollover actions have occurred, we could have 2 possibilities for the
-                // filename that we need. The majority of the time, we will use the extension ".prov.gz"
+                // depending on which rollover actions have occurred, we could have several possibilities for the
+                // filename that we need. The majority of the time, we will use a compressed extension such as ".prov.gz"
                 // because most often we are compressing on rollover and most often we have already finished
                 // compressing by the time that we are querying the data.
-                for (final String extension : new String[]{".prov.gz", ".prov"}) {
+                for (final String extension : getEventFileExtensions()) {
                     file = new File(dir, baseName + extension);
                     if (file.exists()) {
                         try {
@@ -109,22 +111,45 @@ public class RecordReaders {
 
             final File tocFile = TocUtil.getTocFile(file);
 
+            // Codecs other than GZIP may have compressed the file using a dictionary that is stored in the TOC, so the TOC
+            // must be read before the serialization name can be determined.
+            final EventFileCodec codec = EventFileCodecs.forFilename(filename).orElse(null);
+            final TocReader codecTocReader = (codec != null && codec != EventFileCodecs.GZIP && tocFile.exists()) ? new StandardTocReader(tocFile) : null;
+
             final InputStream bufferedInStream = new BufferedInputStream(fis);
             final String serializationName;
             try {
-                bufferedInStream.mark(4096);
-                final InputStream in = filename.endsWith(".gz") ? new GZIPInputStream(bufferedInStream) : bufferedInStream;
+                final InputStream in;
+                if (codec == null) {
+                    bufferedInStream.mark(4096);
+                    in = bufferedInStream;
+                } else if (codecTocReader == null) {
+                    bufferedInStream.mark(4096);
+                    in = codec.decompress(bufferedInStream, null);
+                } else {
+                    // Decompressors may read ahead well beyond the bytes that they need, so limit them to the first block
+                    // and ensure that the mark remains valid for the entire block.
+                    final long firstBlockEnd = codecTocReader.getBlockOffset(1) < 0 ? file.length() : codecTocReader.getBlockOffset(1);
+                    bufferedInStream.mark((int) Math.min(Integer.MAX_VALUE, firstBlockEnd));
+                    in = codec.decompress(new LimitingInputStream(bufferedInStream, firstBlockEnd), codecTocReader.getCompressionDictionary());
+                }
+
                 final DataInputStream dis = new DataInputStream(in);
                 serializationName = dis.readUTF();
                 bufferedInStream.reset();
             } catch (final EOFException eof) {
                 fis.close();
+                if (codecTocReader != null) {
+                    codecTocReader.close();
+                }
                 return new EmptyRecordReader();
             }
 
             switch (serializationName) {
                 case ByteArraySchemaRecordWriter.SERIALIZATION_NAME: {
-                    if (tocFile.exists()) {
+                    if (codecTocReader != null) {
+                        return new ByteArraySchemaRecordReader(bufferedInStream, filename, codecTocReader, maxAttributeChars);
+                    } else if (tocFile.exists()) {
                         final TocReader tocReader = new StandardTocReader(tocFile);
                         return new ByteArraySchemaRecordReader(bufferedInStream, filename, tocReader, maxAttributeChars);
                     } else {
@@ -132,11 +157,11 @@ public class RecordReaders {
                     }
                 }
                 case EventIdFirstSchemaRecordWriter.SERIALIZATION_NAME: {
-                    if (!tocFile.exists()) {
+                    if (codecTocReader == null && !tocFile.exists()) {
                         throw new FileNotFoundException("Cannot create TOC Reader because the file " + tocFile + " does not exist");
                     }
 
-                    final TocReader tocReader = new StandardTocReader(tocFile);
+                    final TocReader tocReader = codecTocReader == null ? new StandardTocReader(tocFile) : codecTocReader;
                     return new EventIdFirstSchemaRecordReader(bufferedInStream, filename, tocReader, maxAttributeChars);
                 }
                 default: {
@@ -155,4 +180,13 @@ public class RecordReaders {
             throw ioe;
         }
     }
+
+    private static List<String> getEventFileExtensions() {
+        final List<String> extensions = new ArrayList<>();
+        for (final EventFileCodec codec : EventFileCodecs.getCodecs()) {
+            extensions.add(".prov" + codec.getFileExtension());
+        }
+        extensions.add(".prov");
+        return extensions;
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.serialization;
+
+import com.github.luben.zstd.ZstdDictTrainer;
+import com.github.luben.zstd.ZstdException;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import org.apache.nifi.stream.io.NonCloseableInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compresses blocks using Zstandard. Because each block is small relative to the file, a dictionary that is
+ * trained on the file's contents and shared by all of its blocks typically improves the compression ratio considerably.
+ */
+class ZstdEventFileCodec implements EventFileCodec {
+    private static final Logger logger = LoggerFactory.getLogger(ZstdEventFileCodec.class);
+
+    static final int IDENTIFIER = 2;
+    private static final int COMPRESSION_LEVEL = 3;
+
+    @Override
+    public int getIdentifier() {
+        return IDENTIFIER;
+    }
+
+    @Override
+    public String getName() {
+        return "ZSTD";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return ".zst";
+    }
+
+    @Override
+    public OutputStream compress(final OutputStream out, final byte[] dictionary) throws IOException {
+        final ZstdOutputStream zstdOut = new ZstdOutputStream(out, COMPRESSION_LEVEL);
+        if (dictionary != null) {
+            zstdOut.setDict(dictionary);
+        }
+        return zstdOut;
+    }
+
+    @Override
+    public InputStream decompress(final InputStream in, final byte[] dictionary) throws IOException {
+        // ZstdInputStream closes the underlying stream when it is finalized. A new decompressing stream is created for each block
+        // over the same underlying stream, so we must not allow discarded streams to close it.
+        final ZstdInputStream zstdIn = new ZstdInputStream(new NonCloseableInputStream(in));
+        if (dictionary != null) {
+            zstdIn.setDict(dictionary);
+        }
+        return zstdIn;
+    }
+
+    @Override
+    public boolean isDictionarySupported() {
+        return true;
+    }
+
+    @Override
+    public Optional<byte[]> trainDictionary(final List<byte[]> samples, final int maxDictionarySize) {
+        if (samples.isEmpty() || maxDictionarySize < 1) {
+            return Optional.empty();
+        }
+
+        final int sampleBytes = samples.stream().mapToInt(sample -> sample.length).sum();
+        final ZstdDictTrainer trainer = new ZstdDictTrainer(sampleBytes, maxDictionarySize);
+        for (final byte[] sample : samples) {
+            trainer.addSample(sample);
+        }
+
+        try {
+            return Optional.of(trainer.trainSamples());
+        } catch (final ZstdException e) {
+            logger.debug("Unable to train Zstandard dictionary from {} samples totaling {} bytes", samples.size(), sampleBytes, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
@@ -66,6 +66,12 @@ public interface EventStore extends Closeable {
      */
     long getMaxEventId();
 
+    /**
+     * @return the smallest Event ID that may still be retrieved from this store, or -1 if the store holds no events. Events whose IDs
+     *         are smaller than this value have been removed from the store, either because they expired or because of storage limits.
+     */
+    long getMinEventId();
+
     /**
      * Retrieves the event with the given ID
      *
@@ -133,6 +133,15 @@ public abstract class PartitionedEventStore implements EventStore {
             .orElse(-1L);
     }
 
+    @Override
+    public long getMinEventId() {
+        return getPartitions().stream()
+            .mapToLong(EventStorePartition::getMinEventId)
+            .filter(eventId -> eventId >= 0)
+            .min()
+            .orElse(-1L);
+    }
+
     @Override
     public Optional<ProvenanceEventRecord> getEvent(final long id) throws IOException {
         for (final EventStorePartition partition : getPartitions()) {
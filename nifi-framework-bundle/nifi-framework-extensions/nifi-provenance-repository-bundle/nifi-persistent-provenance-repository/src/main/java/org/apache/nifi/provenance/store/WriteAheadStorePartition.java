@@ -23,6 +23,8 @@ import org.apache.nifi.provenance.RepositoryConfiguration;
 import org.apache.nifi.provenance.StandardProvenanceEventRecord;
 import org.apache.nifi.provenance.authorization.EventAuthorizer;
 import org.apache.nifi.provenance.index.EventIndex;
+import org.apache.nifi.provenance.serialization.EventFileCodec;
+import org.apache.nifi.provenance.serialization.EventFileCodecs;
 import org.apache.nifi.provenance.serialization.RecordReader;
 import org.apache.nifi.provenance.serialization.RecordWriter;
 import org.apache.nifi.provenance.serialization.StorageSummary;
@@ -152,10 +154,12 @@ public class WriteAheadStorePartition implements EventStorePartition {
                 for (final File file : uncompressedFiles) {
                     // If we have both a compressed file and an uncompressed file for the same .prov file, then
                     // we must have been in the process of compressing it when NiFi was restarted. Delete the partial
-                    // .gz file and we will start compressing it again.
-                    final File compressed = new File(file.getParentFile(), file.getName() + ".gz");
-                    if (compressed.exists()) {
-                        compressed.delete();
+                    // compressed file and we will start compressing it again.
+                    for (final EventFileCodec codec : EventFileCodecs.getCodecs()) {
+                        final File compressed = new File(file.getParentFile(), file.getName() + codec.getFileExtension());
+                        if (compressed.exists()) {
+                            compressed.delete();
+                        }
                     }
                 }
             }
@@ -377,6 +381,13 @@ public class WriteAheadStorePartition implements EventStorePartition {
         return maxEventId.get();
     }
 
+    @Override
+    public long getMinEventId() {
+        synchronized (minEventIdToPathMap) {
+            return minEventIdToPathMap.isEmpty() ? -1L : minEventIdToPathMap.firstKey();
+        }
+    }
+
     @Override
     public Optional<ProvenanceEventRecord> getEvent(final long id) throws IOException {
         final Optional<File> option = getPathForEventId(id);
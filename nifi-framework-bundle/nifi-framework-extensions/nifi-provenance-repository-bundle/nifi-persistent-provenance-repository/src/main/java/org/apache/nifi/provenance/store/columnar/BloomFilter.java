@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store.columnar;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A fixed-size Bloom Filter over String values that is used to determine whether or not a segment
+ * could possibly contain an event with a given Component ID or FlowFile UUID. A result of <code>false</code>
+ * from {@link #mightContain(String)} is definitive, whereas a result of <code>true</code> may be a false positive.
+ */
+final class BloomFilter {
+    private static final int BITS_PER_VALUE = 10;
+    private static final int HASH_COUNT = 7;
+
+    private final long[] words;
+    private final int bitCount;
+
+    private BloomFilter(final long[] words) {
+        this.words = words;
+        this.bitCount = words.length * Long.SIZE;
+    }
+
+    /**
+     * Creates a Bloom Filter that is sized to hold the given number of values with a false positive rate of roughly 1%
+     *
+     * @param expectedValues the number of distinct values that are expected to be added to the filter
+     * @return an empty Bloom Filter
+     */
+    static BloomFilter create(final int expectedValues) {
+        final long bits = Math.max(Long.SIZE, (long) expectedValues * BITS_PER_VALUE);
+        final int wordCount = (int) Math.min(Integer.MAX_VALUE / Long.SIZE, (bits + Long.SIZE - 1) / Long.SIZE);
+        return new BloomFilter(new long[wordCount]);
+    }
+
+    void add(final String value) {
+        final long hash = hash(value);
+        final int h1 = (int) hash;
+        final int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASH_COUNT; i++) {
+            final int bit = Math.floorMod(h1 + i * h2, bitCount);
+            words[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(final String value) {
+        final long hash = hash(value);
+        final int h1 = (int) hash;
+        final int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASH_COUNT; i++) {
+            final int bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    void write(final DataOutputStream out) throws IOException {
+        out.writeInt(words.length);
+        for (final long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    static BloomFilter read(final DataInputStream in) throws IOException {
+        final int wordCount = in.readInt();
+        if (wordCount <= 0) {
+            throw new IOException("Invalid Bloom Filter length: " + wordCount);
+        }
+
+        final long[] words = new long[wordCount];
+        for (int i = 0; i < wordCount; i++) {
+            words[i] = in.readLong();
+        }
+        return new BloomFilter(words);
+    }
+
+    // 64-bit FNV-1a hash, which is cheap to compute and distributes UUIDs and Component IDs well enough for our purposes
+    private static long hash(final String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store.columnar;
+
+import org.apache.nifi.processor.DataUnit;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.index.lucene.CachedQuery;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.SearchTerm;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A {@link CachedQuery} that answers Provenance queries from the segments of a {@link ColumnarEventStore} instead of the Lucene index.
+ * Only queries whose criteria are all held in the segments are answered: exact matches of the Component ID, FlowFile UUID and Event Type,
+ * along with the Event Time and FlowFile size ranges. Any other query, and any query that could match events that the segments do not hold,
+ * is left to the index.
+ */
+public class ColumnarCachedQuery implements CachedQuery {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarCachedQuery.class);
+
+    private static final String COMPONENT_ID_FIELD_NAME = SearchableFields.ComponentID.getSearchableFieldName();
+    private static final String FLOWFILE_UUID_FIELD_NAME = SearchableFields.FlowFileUUID.getSearchableFieldName();
+    private static final String EVENT_TYPE_FIELD_NAME = SearchableFields.EventType.getSearchableFieldName();
+
+    private final ColumnarEventStore eventStore;
+
+    public ColumnarCachedQuery(final ColumnarEventStore eventStore) {
+        this.eventStore = eventStore;
+    }
+
+    @Override
+    public void update(final Map<ProvenanceEventRecord, StorageSummary> events) {
+        // The events are added to the columnar segments when they are stored, before they are indexed
+    }
+
+    @Override
+    public Optional<List<Long>> evaluate(final Query query) {
+        final Optional<ColumnarQuery> columnarQuery = toColumnarQuery(query);
+        if (columnarQuery.isEmpty() || !eventStore.isComplete(columnarQuery.get().minTimestamp())) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(eventStore.getEventIds(columnarQuery.get(), query.getMaxResults()));
+        } catch (final IOException e) {
+            logger.warn("Failed to query columnar Provenance segments for {}; the query will be answered by the index instead", query, e);
+            return Optional.empty();
+        }
+    }
+
+    static Optional<ColumnarQuery> toColumnarQuery(final Query query) {
+        String componentId = null;
+        String flowFileUuid = null;
+        Set<ProvenanceEventType> eventTypes = null;
+
+        for (final SearchTerm searchTerm : query.getSearchTerms()) {
+            final String value = searchTerm.getValue();
+            if (value == null || Boolean.TRUE.equals(searchTerm.isInverted()) || value.contains("*") || value.contains("?")) {
+                return Optional.empty();
+            }
+
+            final String fieldName = searchTerm.getSearchableField().getSearchableFieldName();
+            if (COMPONENT_ID_FIELD_NAME.equals(fieldName) && componentId == null) {
+                componentId = value;
+            } else if (FLOWFILE_UUID_FIELD_NAME.equals(fieldName) && flowFileUuid == null) {
+                flowFileUuid = value;
+            } else if (EVENT_TYPE_FIELD_NAME.equals(fieldName) && eventTypes == null) {
+                try {
+                    eventTypes = Set.of(ProvenanceEventType.valueOf(value.toUpperCase()));
+                } catch (final IllegalArgumentException e) {
+                    return Optional.empty();
+                }
+            } else {
+                return Optional.empty();
+            }
+        }
+
+        final long minTimestamp = query.getStartDate() == null ? 0L : query.getStartDate().getTime();
+        final long maxTimestamp = query.getEndDate() == null ? Long.MAX_VALUE : query.getEndDate().getTime();
+        final long minFileSize = query.getMinFileSize() == null ? 0L : DataUnit.parseDataSize(query.getMinFileSize(), DataUnit.B).longValue();
+        final long maxFileSize = query.getMaxFileSize() == null ? Long.MAX_VALUE : DataUnit.parseDataSize(query.getMaxFileSize(), DataUnit.B).longValue();
+
+        return Optional.of(new ColumnarQuery(minTimestamp, maxTimestamp, componentId, flowFileUuid, eventTypes, minFileSize, maxFileSize));
+    }
+
+    @Override
+    public String toString() {
+        return "Columnar Provenance Segments";
+    }
+}
@@ -0,0 +1,528 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store.columnar;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.RepositoryConfiguration;
+import org.apache.nifi.provenance.authorization.EventAuthorizer;
+import org.apache.nifi.provenance.authorization.EventTransformer;
+import org.apache.nifi.provenance.index.EventIndex;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.store.EventStore;
+import org.apache.nifi.provenance.store.StorageResult;
+import org.apache.nifi.provenance.store.iterator.EventIterator;
+import org.apache.nifi.provenance.util.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * <p>
+ * An {@link EventStore} that stores each event in an underlying (row-oriented) event store and, in addition, writes the fields
+ * that are needed for selective queries into compressed, column-oriented segments, one per partition and window of time.
+ * Each segment carries min/max statistics for the Event ID and Event Time, a bitmask of the Event Types that it contains,
+ * and Bloom Filters for its Component IDs and FlowFile UUIDs. This allows questions such as "which events did this component
+ * generate in the last 5 minutes" to be answered by skipping every segment that cannot contain a match, without querying the
+ * Lucene index or decoding full event records. Queries are routed to the segments by {@link ColumnarCachedQuery}.
+ * </p>
+ *
+ * <p>
+ * The segments are an accelerator rather than the system of record: full events are always retrieved from the underlying store.
+ * The store keeps track of the first event that the segments hold without a gap, so that a query is only answered from the segments if
+ * they hold every event that the query could match. Segments are removed once all of their events are older than the configured maximum
+ * storage time, or once the underlying store has removed all of their events because of its storage limit.
+ * </p>
+ */
+public class ColumnarEventStore implements EventStore {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarEventStore.class);
+
+    static final String SEGMENT_DIRECTORY_NAME = "columnar";
+    static final String SEGMENT_FILE_SUFFIX = ".segment";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final String CHECKPOINT_FILENAME = "checkpoint";
+    private static final String DEFAULT_PARTITION_NAME = "";
+    static final int MAX_SEGMENT_EVENTS = 100_000;
+
+    private final EventStore delegate;
+    private final File segmentDirectory;
+    private final long segmentMillis;
+    private final long maxRecordLifeMillis;
+
+    // Summaries of all segments that have been written to disk, keyed by the minimum Event ID in the segment
+    private final NavigableMap<Long, SegmentSummary> segmentSummaries = new ConcurrentSkipListMap<>();
+    // Segments that have been closed but are still being written to disk, so that they remain visible to queries in the meantime
+    private final Map<Long, ColumnarSegment> segmentsBeingWritten = new ConcurrentHashMap<>();
+    // All events of a batch are stored in the same partition, so each partition has its own active segment, and batches that are
+    // stored in different partitions do not contend for the same segment
+    private final ConcurrentMap<String, ActiveSegment> activeSegments = new ConcurrentHashMap<>();
+    private ScheduledExecutorService segmentExecutor;
+
+    // The segments hold every event whose ID is at least this value, and every event whose time is at least the covered timestamp
+    private volatile long firstCoveredEventId;
+    private volatile long firstCoveredTimestamp;
+
+    private final AtomicLong segmentsScanned = new AtomicLong(0L);
+    private final AtomicLong segmentsSkipped = new AtomicLong(0L);
+
+    public ColumnarEventStore(final RepositoryConfiguration config, final EventStore delegate) {
+        this.delegate = delegate;
+        this.segmentMillis = config.getColumnarSegmentDuration(TimeUnit.MILLISECONDS);
+        this.maxRecordLifeMillis = config.getMaxRecordLife(TimeUnit.MILLISECONDS);
+
+        final File firstStorageDirectory = config.getStorageDirectories().values().iterator().next();
+        this.segmentDirectory = new File(firstStorageDirectory, SEGMENT_DIRECTORY_NAME);
+    }
+
+    @Override
+    public void initialize() throws IOException {
+        delegate.initialize();
+
+        Files.createDirectories(segmentDirectory.toPath());
+        final File[] files = segmentDirectory.listFiles();
+        boolean segmentsUnreadable = false;
+        if (files != null) {
+            for (final File file : files) {
+                final String filename = file.getName();
+                if (filename.endsWith(TEMP_FILE_SUFFIX)) {
+                    // A segment that was not completely written before NiFi was stopped
+                    Files.deleteIfExists(file.toPath());
+                    continue;
+                }
+
+                if (!filename.endsWith(SEGMENT_FILE_SUFFIX)) {
+                    continue;
+                }
+
+                try {
+                    final SegmentSummary summary = ColumnarSegment.readSummary(file);
+                    segmentSummaries.put(summary.getMinEventId(), summary);
+                } catch (final IOException e) {
+                    // The segment cannot be used, so the segments no longer hold every event and queries for its events must use the index
+                    logger.warn("Failed to read columnar Provenance segment {}; it will be removed and its events will only be available from the index", file, e);
+                    Files.deleteIfExists(file.toPath());
+                    segmentsUnreadable = true;
+                }
+            }
+        }
+
+        recoverCoverage(segmentsUnreadable);
+        logger.info("Recovered {} columnar Provenance segments from {}", segmentSummaries.size(), segmentDirectory);
+        purgeExpiredSegments();
+
+        final long rolloverMillis = Math.max(segmentMillis, TimeUnit.SECONDS.toMillis(1L));
+        segmentExecutor = Executors.newScheduledThreadPool(1, new NamedThreadFactory("Write Columnar Provenance Segments", true));
+        segmentExecutor.scheduleWithFixedDelay(this::performMaintenance, rolloverMillis, rolloverMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The checkpoint is written only when NiFi is stopped gracefully, after every segment has been written, and records the largest
+     * Event ID in the underlying store at that time. If it does not match the underlying store on restart, then events were stored
+     * without being written to a segment, because NiFi was stopped abruptly or columnar segments were disabled for a time, so the
+     * segments hold every event only from this point forward. The same is true if any segment could not be read.
+     */
+    private void recoverCoverage(final boolean segmentsUnreadable) throws IOException {
+        final long maxEventId = delegate.getMaxEventId();
+        final File checkpointFile = new File(segmentDirectory, CHECKPOINT_FILENAME);
+
+        boolean recovered = false;
+        if (checkpointFile.exists()) {
+            try (final DataInputStream in = new DataInputStream(Files.newInputStream(checkpointFile.toPath()))) {
+                final long checkpointMaxEventId = in.readLong();
+                final long checkpointFirstEventId = in.readLong();
+                final long checkpointFirstTimestamp = in.readLong();
+                if (checkpointMaxEventId == maxEventId && !segmentsUnreadable) {
+                    firstCoveredEventId = checkpointFirstEventId;
+                    firstCoveredTimestamp = checkpointFirstTimestamp;
+                    recovered = true;
+                }
+            } catch (final IOException e) {
+                logger.warn("Failed to read columnar Provenance checkpoint {}", checkpointFile, e);
+            }
+
+            Files.deleteIfExists(checkpointFile.toPath());
+        }
+
+        if (!recovered) {
+            resetCoverage(maxEventId);
+            if (!segmentSummaries.isEmpty()) {
+                logger.info("Columnar Provenance segments do not hold all events up to Event ID {}; queries for earlier events will use the index until those events expire", maxEventId);
+            }
+        }
+    }
+
+    private void resetCoverage(final long maxEventId) {
+        firstCoveredEventId = maxEventId + 1;
+        firstCoveredTimestamp = System.currentTimeMillis();
+    }
+
+    private void writeCheckpoint() throws IOException {
+        final File checkpointFile = new File(segmentDirectory, CHECKPOINT_FILENAME);
+        try (final DataOutputStream out = new DataOutputStream(Files.newOutputStream(checkpointFile.toPath()))) {
+            out.writeLong(delegate.getMaxEventId());
+            out.writeLong(firstCoveredEventId);
+            out.writeLong(firstCoveredTimestamp);
+        }
+    }
+
+    @Override
+    public StorageResult addEvents(final Iterable<ProvenanceEventRecord> events) throws IOException {
+        final StorageResult storageResult = delegate.addEvents(events);
+        final Map<ProvenanceEventRecord, StorageSummary> storageLocations = storageResult.getStorageLocations();
+        if (storageLocations.isEmpty()) {
+            return storageResult;
+        }
+
+        final String partitionName = storageLocations.values().iterator().next().getPartitionName().orElse(DEFAULT_PARTITION_NAME);
+        final ActiveSegment activeSegment = activeSegments.computeIfAbsent(partitionName, name -> new ActiveSegment());
+        final List<ColumnarSegment> completedSegments = activeSegment.add(storageLocations);
+        for (final ColumnarSegment segment : completedSegments) {
+            try {
+                segmentExecutor.execute(() -> writeSegment(segment));
+            } catch (final RejectedExecutionException e) {
+                // The store is being closed
+                writeSegment(segment);
+            }
+        }
+
+        return storageResult;
+    }
+
+    private void performMaintenance() {
+        try {
+            // Close the segments of partitions that have not received events since their window ended, so that they are not held in memory
+            final long now = System.currentTimeMillis();
+            final long currentWindowStart = now - Math.floorMod(now, segmentMillis);
+            for (final ActiveSegment activeSegment : activeSegments.values()) {
+                activeSegment.closeIfBefore(currentWindowStart).ifPresent(this::writeSegment);
+            }
+
+            purgeExpiredSegments();
+        } catch (final Exception e) {
+            logger.error("Failed to perform maintenance of columnar Provenance segments", e);
+        }
+    }
+
+    private void writeSegment(final ColumnarSegment segment) {
+        final SegmentSummary summary = segment.getSummary();
+        final File segmentFile = getSegmentFile(summary.getMinEventId());
+        final File tempFile = new File(segmentDirectory, segmentFile.getName() + TEMP_FILE_SUFFIX);
+
+        try {
+            segment.write(tempFile);
+            Files.move(tempFile.toPath(), segmentFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            segmentSummaries.put(summary.getMinEventId(), summary);
+            logger.debug("Wrote {} to {}", summary, segmentFile);
+        } catch (final IOException e) {
+            logger.error("Failed to write columnar Provenance segment {}; queries for earlier events will use the index until those events expire", segmentFile, e);
+            resetCoverage(delegate.getMaxEventId());
+
+            try {
+                Files.deleteIfExists(tempFile.toPath());
+            } catch (final IOException ioe) {
+                logger.warn("Failed to delete temporary columnar Provenance segment {}", tempFile, ioe);
+            }
+        } finally {
+            segmentsBeingWritten.remove(summary.getMinEventId());
+        }
+    }
+
+    private File getSegmentFile(final long minEventId) {
+        return new File(segmentDirectory, minEventId + SEGMENT_FILE_SUFFIX);
+    }
+
+    // Visible for testing
+    void purgeExpiredSegments() {
+        final long expirationThreshold = System.currentTimeMillis() - maxRecordLifeMillis;
+        final long minEventId = delegate.getMinEventId();
+
+        for (final SegmentSummary summary : segmentSummaries.values()) {
+            final boolean expired = summary.getMaxTimestamp() < expirationThreshold;
+            final boolean removedFromStore = minEventId >= 0 && summary.getMaxEventId() < minEventId;
+            if (!expired && !removedFromStore) {
+                continue;
+            }
+
+            segmentSummaries.remove(summary.getMinEventId());
+            final File segmentFile = getSegmentFile(summary.getMinEventId());
+            try {
+                Files.deleteIfExists(segmentFile.toPath());
+                logger.debug("Removed columnar Provenance segment {} because its events are no longer in the Provenance Repository", segmentFile);
+            } catch (final IOException e) {
+                logger.warn("Failed to remove expired columnar Provenance segment {}", segmentFile, e);
+            }
+        }
+    }
+
+    /**
+     * @param minTimestamp the earliest event time that a query may match
+     * @return <code>true</code> if the segments hold every event in the underlying store whose time is at least the given timestamp,
+     *         <code>false</code> if some of those events may only be found by using the index
+     */
+    public boolean isComplete(final long minTimestamp) {
+        if (minTimestamp >= firstCoveredTimestamp) {
+            return true;
+        }
+
+        final long minEventId = delegate.getMinEventId();
+        return minEventId < 0 || minEventId >= firstCoveredEventId;
+    }
+
+    /**
+     * Returns the IDs of the newest events that match the given query, newest first. Segments whose statistics show that they cannot
+     * contain a matching event, and segments that are older than all of the matches that have already been found, are not read.
+     *
+     * @param query the query
+     * @param maxResults the maximum number of Event IDs to return
+     * @return the IDs of the matching events
+     * @throws IOException if unable to read a segment
+     */
+    public List<Long> getEventIds(final ColumnarQuery query, final int maxResults) throws IOException {
+        if (maxResults < 1) {
+            return List.of();
+        }
+
+        // A segment that has just been written may also still be visible as a segment being written, so duplicates are ignored
+        final TreeSet<Long> eventIds = new TreeSet<>();
+        final LongConsumer collector = eventId -> {
+            eventIds.add(eventId);
+            if (eventIds.size() > maxResults) {
+                eventIds.pollFirst();
+            }
+        };
+
+        for (final ColumnarSegment segment : getUnwrittenSegments()) {
+            if (segment.getSummary().mayMatch(query)) {
+                segment.collectEventIds(query, collector);
+            }
+        }
+
+        final List<SegmentSummary> summaries = new ArrayList<>(segmentSummaries.values());
+        summaries.sort(Comparator.comparingLong(SegmentSummary::getMaxEventId).reversed());
+
+        final boolean includeFlowFileUuids = query.flowFileUuid() != null;
+        for (final SegmentSummary summary : summaries) {
+            if (eventIds.size() >= maxResults && summary.getMaxEventId() < eventIds.first()) {
+                break;
+            }
+
+            if (!summary.mayMatch(query)) {
+                segmentsSkipped.incrementAndGet();
+                continue;
+            }
+
+            final Optional<ColumnarSegment> segment = readSegment(summary, includeFlowFileUuids);
+            segment.ifPresent(seg -> seg.collectEventIds(query, collector));
+        }
+
+        return new ArrayList<>(eventIds.descendingSet());
+    }
+
+    private Optional<ColumnarSegment> readSegment(final SegmentSummary summary, final boolean includeFlowFileUuids) throws IOException {
+        segmentsScanned.incrementAndGet();
+
+        try {
+            return Optional.of(ColumnarSegment.read(getSegmentFile(summary.getMinEventId()), includeFlowFileUuids));
+        } catch (final FileNotFoundException e) {
+            // The segment expired while the query was running
+            logger.debug("Columnar Provenance segment {} was removed before it could be read", summary);
+            return Optional.empty();
+        }
+    }
+
+    private List<ColumnarSegment> getUnwrittenSegments() {
+        final List<ColumnarSegment> segments = new ArrayList<>(segmentsBeingWritten.values());
+        for (final ActiveSegment activeSegment : activeSegments.values()) {
+            activeSegment.snapshot().ifPresent(segments::add);
+        }
+        return segments;
+    }
+
+    /**
+     * @return the number of segments that have been read in order to answer columnar queries
+     */
+    public long getSegmentsScanned() {
+        return segmentsScanned.get();
+    }
+
+    /**
+     * @return the number of segments that columnar queries did not need to read because of the segments' statistics
+     */
+    public long getSegmentsSkipped() {
+        return segmentsSkipped.get();
+    }
+
+    /**
+     * @return the number of columnar segments that have been written to disk
+     */
+    public int getSegmentCount() {
+        return segmentSummaries.size();
+    }
+
+    @Override
+    public long getSize() throws IOException {
+        long segmentBytes = 0L;
+        for (final Long minEventId : segmentSummaries.keySet()) {
+            segmentBytes += getSegmentFile(minEventId).length();
+        }
+
+        return delegate.getSize() + segmentBytes;
+    }
+
+    @Override
+    public long getMaxEventId() {
+        return delegate.getMaxEventId();
+    }
+
+    @Override
+    public long getMinEventId() {
+        return delegate.getMinEventId();
+    }
+
+    @Override
+    public Optional<ProvenanceEventRecord> getEvent(final long id) throws IOException {
+        return delegate.getEvent(id);
+    }
+
+    @Override
+    public List<ProvenanceEventRecord> getEvents(final long firstRecordId, final int maxRecords) throws IOException {
+        return delegate.getEvents(firstRecordId, maxRecords);
+    }
+
+    @Override
+    public List<ProvenanceEventRecord> getEvents(final long firstRecordId, final int maxRecords, final EventAuthorizer authorizer,
+                                                 final EventTransformer unauthorizedTransformer) throws IOException {
+        return delegate.getEvents(firstRecordId, maxRecords, authorizer, unauthorizedTransformer);
+    }
+
+    @Override
+    public List<ProvenanceEventRecord> getEvents(final List<Long> eventIds, final EventAuthorizer authorizer, final EventTransformer unauthorizedTransformer) throws IOException {
+        return delegate.getEvents(eventIds, authorizer, unauthorizedTransformer);
+    }
+
+    @Override
+    public void reindexLatestEvents(final EventIndex eventIndex) {
+        delegate.reindexLatestEvents(eventIndex);
+    }
+
+    @Override
+    public EventIterator getEventsByTimestamp(final long minTimestamp, final long maxTimestamp) throws IOException {
+        return delegate.getEventsByTimestamp(minTimestamp, maxTimestamp);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (segmentExecutor != null) {
+            segmentExecutor.shutdown();
+            try {
+                if (!segmentExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                    logger.warn("Columnar Provenance segments were still being written after 30 seconds; will not wait any longer");
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        for (final ActiveSegment activeSegment : activeSegments.values()) {
+            activeSegment.close().ifPresent(this::writeSegment);
+        }
+
+        if (segmentsBeingWritten.isEmpty()) {
+            writeCheckpoint();
+        }
+
+        delegate.close();
+    }
+
+    /**
+     * The segment that the events of one partition are currently added to
+     */
+    private class ActiveSegment {
+        private ColumnarSegment.Builder builder;
+
+        synchronized List<ColumnarSegment> add(final Map<ProvenanceEventRecord, StorageSummary> storageLocations) {
+            List<ColumnarSegment> completedSegments = List.of();
+            for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : storageLocations.entrySet()) {
+                final ProvenanceEventRecord event = entry.getKey();
+                final long windowStart = event.getEventTime() - Math.floorMod(event.getEventTime(), segmentMillis);
+
+                // Only roll over to a new segment when time moves forward. Events that arrive slightly out of order are kept
+                // in the active segment, and the segment's min/max timestamps account for them.
+                if (builder != null && (windowStart > builder.getWindowStart() || builder.getEventCount() >= MAX_SEGMENT_EVENTS)) {
+                    if (completedSegments.isEmpty()) {
+                        completedSegments = new ArrayList<>();
+                    }
+                    completedSegments.add(complete());
+                }
+
+                if (builder == null) {
+                    builder = new ColumnarSegment.Builder(windowStart);
+                }
+
+                builder.add(entry.getValue().getEventId(), event);
+            }
+
+            return completedSegments;
+        }
+
+        synchronized Optional<ColumnarSegment> snapshot() {
+            return builder == null ? Optional.empty() : Optional.of(builder.build());
+        }
+
+        synchronized Optional<ColumnarSegment> closeIfBefore(final long windowStart) {
+            if (builder == null || builder.getWindowStart() >= windowStart) {
+                return Optional.empty();
+            }
+
+            return Optional.of(complete());
+        }
+
+        synchronized Optional<ColumnarSegment> close() {
+            return builder == null ? Optional.empty() : Optional.of(complete());
+        }
+
+        // Called while synchronized, so that the segment is visible to queries as a segment being written as soon as it is no longer active
+        private ColumnarSegment complete() {
+            final ColumnarSegment segment = builder.build();
+            segmentsBeingWritten.put(segment.getSummary().getMinEventId(), segment);
+            builder = null;
+            return segment;
+        }
+    }
+}
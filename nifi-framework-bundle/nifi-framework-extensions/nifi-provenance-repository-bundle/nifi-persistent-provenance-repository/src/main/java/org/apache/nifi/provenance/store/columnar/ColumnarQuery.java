@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store.columnar;
+
+import org.apache.nifi.provenance.ProvenanceEventType;
+
+import java.util.Set;
+
+/**
+ * A selective query against the columnar segments of a {@link ColumnarEventStore}. Any criterion that is <code>null</code>
+ * matches all events. Component IDs and FlowFile UUIDs are matched without regard to case, as they are by the index.
+ *
+ * @param minTimestamp the earliest event time (inclusive) to match
+ * @param maxTimestamp the latest event time (inclusive) to match
+ * @param componentId the ID of the component that generated the event, or <code>null</code> to match any component
+ * @param flowFileUuid the UUID of the FlowFile that the event is for, or <code>null</code> to match any FlowFile
+ * @param eventTypes the types of events to match, or <code>null</code> to match any type of event
+ * @param minFileSize the smallest FlowFile size (inclusive) to match
+ * @param maxFileSize the largest FlowFile size (inclusive) to match
+ */
+public record ColumnarQuery(long minTimestamp, long maxTimestamp, String componentId, String flowFileUuid, Set<ProvenanceEventType> eventTypes,
+                            long minFileSize, long maxFileSize) {
+
+    public ColumnarQuery {
+        componentId = componentId == null ? null : componentId.toLowerCase();
+        flowFileUuid = flowFileUuid == null ? null : flowFileUuid.toLowerCase();
+    }
+
+    public static ColumnarQuery forComponent(final String componentId, final long minTimestamp, final long maxTimestamp) {
+        return new ColumnarQuery(minTimestamp, maxTimestamp, componentId, null, null, 0L, Long.MAX_VALUE);
+    }
+
+    public static ColumnarQuery forFlowFile(final String flowFileUuid) {
+        return new ColumnarQuery(0L, Long.MAX_VALUE, null, flowFileUuid, null, 0L, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store.columnar;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.util.ProvenanceEventUuids;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * <p>
+ * An immutable, column-oriented set of Provenance Events that were stored within the same window of time. Only the fields that are
+ * needed in order to answer selective queries are kept: the Event ID, the Event Time, the Event Type, the Component ID,
+ * the FlowFile size and the FlowFile UUIDs. The full Provenance Event is always available from the underlying event store by its ID.
+ * </p>
+ *
+ * <p>
+ * On disk, a segment consists of a small uncompressed header holding the {@link SegmentSummary}, followed by the Deflate-compressed columns,
+ * each column being written in its entirety before the next. Event IDs and timestamps are written as variable-length offsets from the
+ * segment minimum, and Component IDs are dictionary-encoded. Each event holds the UUID of its FlowFile along with the UUIDs of the other
+ * FlowFiles that the index also finds the event by, such as the children of a FORK. The FlowFile UUID column is written last so that a query that does not
+ * need it can stop decompressing before reaching it.
+ * </p>
+ */
+final class ColumnarSegment {
+    private static final int MAGIC_HEADER = 0x4E434F4C; // 'NCOL'
+    private static final int SERIALIZATION_VERSION = 2;
+    private static final ProvenanceEventType[] EVENT_TYPES = ProvenanceEventType.values();
+
+    private final SegmentSummary summary;
+    private final long[] eventIds;
+    private final long[] timestamps;
+    private final byte[] eventTypes;
+    private final String[] componentIds;
+    private final int[] componentIndexes;
+    private final long[] fileSizes;
+    private final String[][] flowFileUuids;
+
+    private ColumnarSegment(final SegmentSummary summary, final long[] eventIds, final long[] timestamps, final byte[] eventTypes,
+                            final String[] componentIds, final int[] componentIndexes, final long[] fileSizes, final String[][] flowFileUuids) {
+        this.summary = summary;
+        this.eventIds = eventIds;
+        this.timestamps = timestamps;
+        this.eventTypes = eventTypes;
+        this.componentIds = componentIds;
+        this.componentIndexes = componentIndexes;
+        this.fileSizes = fileSizes;
+        this.flowFileUuids = flowFileUuids;
+    }
+
+    SegmentSummary getSummary() {
+        return summary;
+    }
+
+    /**
+     * Provides the ID of each event in this segment that matches the given query to the given consumer
+     *
+     * @param query the query
+     * @param eventIdConsumer the consumer of matching Event IDs
+     */
+    void collectEventIds(final ColumnarQuery query, final LongConsumer eventIdConsumer) {
+        if (query.flowFileUuid() != null && flowFileUuids == null) {
+            throw new IllegalStateException("Cannot query by FlowFile UUID because the FlowFile UUID column was not read for " + summary);
+        }
+
+        final int componentIndex = query.componentId() == null ? -1 : Arrays.asList(componentIds).indexOf(query.componentId());
+        if (query.componentId() != null && componentIndex < 0) {
+            return;
+        }
+
+        for (int i = 0; i < eventIds.length; i++) {
+            if (timestamps[i] < query.minTimestamp() || timestamps[i] > query.maxTimestamp()) {
+                continue;
+            }
+            if (fileSizes[i] < query.minFileSize() || fileSizes[i] > query.maxFileSize()) {
+                continue;
+            }
+            if (componentIndex >= 0 && componentIndexes[i] != componentIndex) {
+                continue;
+            }
+            if (query.eventTypes() != null && !query.eventTypes().contains(EVENT_TYPES[eventTypes[i]])) {
+                continue;
+            }
+            if (query.flowFileUuid() != null && !Arrays.asList(flowFileUuids[i]).contains(query.flowFileUuid())) {
+                continue;
+            }
+
+            eventIdConsumer.accept(eventIds[i]);
+        }
+    }
+
+    void write(final File file) throws IOException {
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC_HEADER);
+            out.writeInt(SERIALIZATION_VERSION);
+            summary.write(out);
+
+            final DataOutputStream columns = new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(out)));
+            for (final long eventId : eventIds) {
+                writeVarLong(columns, eventId - summary.getMinEventId());
+            }
+            for (final long timestamp : timestamps) {
+                writeVarLong(columns, timestamp - summary.getMinTimestamp());
+            }
+            columns.write(eventTypes);
+
+            writeVarLong(columns, componentIds.length);
+            for (final String componentId : componentIds) {
+                columns.writeUTF(componentId);
+            }
+            for (final int componentIndex : componentIndexes) {
+                writeVarLong(columns, componentIndex);
+            }
+
+            for (final long fileSize : fileSizes) {
+                writeVarLong(columns, fileSize);
+            }
+            for (final String[] eventFlowFileUuids : flowFileUuids) {
+                writeVarLong(columns, eventFlowFileUuids.length);
+                for (final String flowFileUuid : eventFlowFileUuids) {
+                    columns.writeUTF(flowFileUuid);
+                }
+            }
+
+            // Closing the column stream finishes the compressed stream and closes the underlying file.
+            columns.close();
+        }
+    }
+
+    static SegmentSummary readSummary(final File file) throws IOException {
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return readHeader(in, file);
+        }
+    }
+
+    static ColumnarSegment read(final File file, final boolean includeFlowFileUuids) throws IOException {
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            final SegmentSummary summary = readHeader(in, file);
+            final int eventCount = summary.getEventCount();
+
+            final DataInputStream columns = new DataInputStream(new BufferedInputStream(new InflaterInputStream(in)));
+            final long[] eventIds = new long[eventCount];
+            for (int i = 0; i < eventCount; i++) {
+                eventIds[i] = summary.getMinEventId() + readVarLong(columns);
+            }
+            final long[] timestamps = new long[eventCount];
+            for (int i = 0; i < eventCount; i++) {
+                timestamps[i] = summary.getMinTimestamp() + readVarLong(columns);
+            }
+            final byte[] eventTypes = new byte[eventCount];
+            columns.readFully(eventTypes);
+
+            final String[] componentIds = new String[(int) readVarLong(columns)];
+            for (int i = 0; i < componentIds.length; i++) {
+                componentIds[i] = columns.readUTF();
+            }
+            final int[] componentIndexes = new int[eventCount];
+            for (int i = 0; i < eventCount; i++) {
+                componentIndexes[i] = (int) readVarLong(columns);
+            }
+
+            final long[] fileSizes = new long[eventCount];
+            for (int i = 0; i < eventCount; i++) {
+                fileSizes[i] = readVarLong(columns);
+            }
+
+            String[][] flowFileUuids = null;
+            if (includeFlowFileUuids) {
+                flowFileUuids = new String[eventCount][];
+                for (int i = 0; i < eventCount; i++) {
+                    final String[] eventFlowFileUuids = new String[(int) readVarLong(columns)];
+                    for (int j = 0; j < eventFlowFileUuids.length; j++) {
+                        eventFlowFileUuids[j] = columns.readUTF();
+                    }
+                    flowFileUuids[i] = eventFlowFileUuids;
+                }
+            }
+
+            return new ColumnarSegment(summary, eventIds, timestamps, eventTypes, componentIds, componentIndexes, fileSizes, flowFileUuids);
+        }
+    }
+
+    private static SegmentSummary readHeader(final DataInputStream in, final File file) throws IOException {
+        final int magicHeader = in.readInt();
+        if (magicHeader != MAGIC_HEADER) {
+            throw new IOException("File " + file + " is not a columnar Provenance segment");
+        }
+
+        final int version = in.readInt();
+        if (version != SERIALIZATION_VERSION) {
+            throw new IOException("Columnar Provenance segment " + file + " has serialization version " + version + " but only version "
+                + SERIALIZATION_VERSION + " is supported");
+        }
+
+        return SegmentSummary.read(in);
+    }
+
+    private static void writeVarLong(final DataOutputStream out, final long value) throws IOException {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            out.write((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        out.write((int) remaining);
+    }
+
+    private static long readVarLong(final InputStream in) throws IOException {
+        long value = 0L;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            final int b = in.read();
+            if (b < 0) {
+                throw new IOException("Unexpected end of columnar Provenance segment");
+            }
+
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed variable-length value in columnar Provenance segment");
+    }
+
+    /**
+     * Accumulates the columns of the events that are added to the current time window
+     */
+    static final class Builder {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private final long windowStart;
+        private final Map<String, Integer> componentDictionary = new LinkedHashMap<>();
+        private long[] eventIds = new long[INITIAL_CAPACITY];
+        private long[] timestamps = new long[INITIAL_CAPACITY];
+        private byte[] eventTypes = new byte[INITIAL_CAPACITY];
+        private int[] componentIndexes = new int[INITIAL_CAPACITY];
+        private long[] fileSizes = new long[INITIAL_CAPACITY];
+        private String[][] flowFileUuids = new String[INITIAL_CAPACITY][];
+        private int flowFileUuidCount = 0;
+        private int eventCount = 0;
+
+        Builder(final long windowStart) {
+            this.windowStart = windowStart;
+        }
+
+        long getWindowStart() {
+            return windowStart;
+        }
+
+        int getEventCount() {
+            return eventCount;
+        }
+
+        void add(final long eventId, final ProvenanceEventRecord event) {
+            if (eventCount == eventIds.length) {
+                final int capacity = eventCount * 2;
+                eventIds = Arrays.copyOf(eventIds, capacity);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                eventTypes = Arrays.copyOf(eventTypes, capacity);
+                componentIndexes = Arrays.copyOf(componentIndexes, capacity);
+                fileSizes = Arrays.copyOf(fileSizes, capacity);
+                flowFileUuids = Arrays.copyOf(flowFileUuids, capacity);
+            }
+
+            final String componentId = event.getComponentId() == null ? "" : event.getComponentId().toLowerCase();
+            final String flowFileUuid = event.getFlowFileUuid() == null ? "" : event.getFlowFileUuid().toLowerCase();
+            final List<String> associatedFlowFileUuids = ProvenanceEventUuids.getAssociatedFlowFileUuids(event);
+            final String[] eventFlowFileUuids = new String[associatedFlowFileUuids.size() + 1];
+            eventFlowFileUuids[0] = flowFileUuid;
+            for (int i = 0; i < associatedFlowFileUuids.size(); i++) {
+                eventFlowFileUuids[i + 1] = associatedFlowFileUuids.get(i).toLowerCase();
+            }
+
+            eventIds[eventCount] = eventId;
+            timestamps[eventCount] = event.getEventTime();
+            eventTypes[eventCount] = (byte) event.getEventType().ordinal();
+            componentIndexes[eventCount] = componentDictionary.computeIfAbsent(componentId, key -> componentDictionary.size());
+            fileSizes[eventCount] = Math.max(0L, event.getFileSize());
+            flowFileUuids[eventCount] = eventFlowFileUuids;
+            flowFileUuidCount += eventFlowFileUuids.length;
+            eventCount++;
+        }
+
+        ColumnarSegment build() {
+            if (eventCount == 0) {
+                throw new IllegalStateException("Cannot build a columnar segment with no events");
+            }
+
+            long minEventId = Long.MAX_VALUE;
+            long maxEventId = Long.MIN_VALUE;
+            long minTimestamp = Long.MAX_VALUE;
+            long maxTimestamp = Long.MIN_VALUE;
+            long eventTypeMask = 0L;
+            final BloomFilter flowFileUuidFilter = BloomFilter.create(flowFileUuidCount);
+            for (int i = 0; i < eventCount; i++) {
+                minEventId = Math.min(minEventId, eventIds[i]);
+                maxEventId = Math.max(maxEventId, eventIds[i]);
+                minTimestamp = Math.min(minTimestamp, timestamps[i]);
+                maxTimestamp = Math.max(maxTimestamp, timestamps[i]);
+                eventTypeMask |= SegmentSummary.eventTypeBit(EVENT_TYPES[eventTypes[i]]);
+                for (final String flowFileUuid : flowFileUuids[i]) {
+                    flowFileUuidFilter.add(flowFileUuid);
+                }
+            }
+
+            final BloomFilter componentIdFilter = BloomFilter.create(componentDictionary.size());
+            componentDictionary.keySet().forEach(componentIdFilter::add);
+
+            final SegmentSummary summary = new SegmentSummary(eventCount, minEventId, maxEventId, minTimestamp, maxTimestamp,
+                eventTypeMask, componentIdFilter, flowFileUuidFilter);
+
+            return new ColumnarSegment(summary, Arrays.copyOf(eventIds, eventCount), Arrays.copyOf(timestamps, eventCount), Arrays.copyOf(eventTypes, eventCount),
+                componentDictionary.keySet().toArray(new String[0]), Arrays.copyOf(componentIndexes, eventCount), Arrays.copyOf(fileSizes, eventCount),
+                Arrays.copyOf(flowFileUuids, eventCount));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store.columnar;
+
+import org.apache.nifi.provenance.ProvenanceEventType;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * The statistics that are stored at the head of each columnar segment. The summary of every segment is held in memory so that
+ * a query can determine which segments could possibly contain matching events without reading or decompressing the segments.
+ */
+final class SegmentSummary {
+    private final int eventCount;
+    private final long minEventId;
+    private final long maxEventId;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    private final long eventTypeMask;
+    private final BloomFilter componentIdFilter;
+    private final BloomFilter flowFileUuidFilter;
+
+    SegmentSummary(final int eventCount, final long minEventId, final long maxEventId, final long minTimestamp, final long maxTimestamp,
+                   final long eventTypeMask, final BloomFilter componentIdFilter, final BloomFilter flowFileUuidFilter) {
+        this.eventCount = eventCount;
+        this.minEventId = minEventId;
+        this.maxEventId = maxEventId;
+        this.minTimestamp = minTimestamp;
+        this.maxTimestamp = maxTimestamp;
+        this.eventTypeMask = eventTypeMask;
+        this.componentIdFilter = componentIdFilter;
+        this.flowFileUuidFilter = flowFileUuidFilter;
+    }
+
+    int getEventCount() {
+        return eventCount;
+    }
+
+    long getMinEventId() {
+        return minEventId;
+    }
+
+    long getMaxEventId() {
+        return maxEventId;
+    }
+
+    long getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    boolean overlaps(final long minTimestamp, final long maxTimestamp) {
+        return this.minTimestamp <= maxTimestamp && this.maxTimestamp >= minTimestamp;
+    }
+
+    /**
+     * @param query the query
+     * @return <code>false</code> if the segment is known not to contain any event that matches the query, <code>true</code> if it may contain such an event
+     */
+    boolean mayMatch(final ColumnarQuery query) {
+        if (!overlaps(query.minTimestamp(), query.maxTimestamp())) {
+            return false;
+        }
+
+        if (query.eventTypes() != null) {
+            long queryMask = 0L;
+            for (final ProvenanceEventType eventType : query.eventTypes()) {
+                queryMask |= eventTypeBit(eventType);
+            }
+
+            if ((queryMask & eventTypeMask) == 0) {
+                return false;
+            }
+        }
+
+        if (query.componentId() != null && !componentIdFilter.mightContain(query.componentId())) {
+            return false;
+        }
+
+        return query.flowFileUuid() == null || flowFileUuidFilter.mightContain(query.flowFileUuid());
+    }
+
+    static long eventTypeBit(final ProvenanceEventType eventType) {
+        final int ordinal = eventType.ordinal();
+        return ordinal < Long.SIZE ? 1L << ordinal : -1L;
+    }
+
+    void write(final DataOutputStream out) throws IOException {
+        out.writeInt(eventCount);
+        out.writeLong(minEventId);
+        out.writeLong(maxEventId);
+        out.writeLong(minTimestamp);
+        out.writeLong(maxTimestamp);
+        out.writeLong(eventTypeMask);
+        componentIdFilter.write(out);
+        flowFileUuidFilter.write(out);
+    }
+
+    static SegmentSummary read(final DataInputStream in) throws IOException {
+        final int eventCount = in.readInt();
+        final long minEventId = in.readLong();
+        final long maxEventId = in.readLong();
+        final long minTimestamp = in.readLong();
+        final long maxTimestamp = in.readLong();
+        final long eventTypeMask = in.readLong();
+        final BloomFilter componentIdFilter = BloomFilter.read(in);
+        final BloomFilter flowFileUuidFilter = BloomFilter.read(in);
+        return new SegmentSummary(eventCount, minEventId, maxEventId, minTimestamp, maxTimestamp, eventTypeMask, componentIdFilter, flowFileUuidFilter);
+    }
+
+    @Override
+    public String toString() {
+        return "SegmentSummary[events=" + eventCount + ", eventIds=" + minEventId + "-" + maxEventId + ", timestamps=" + minTimestamp + "-" + maxTimestamp + "]";
+    }
+}
@@ -16,6 +16,7 @@
  */
 package org.apache.nifi.provenance.toc;
 
+import org.apache.nifi.provenance.serialization.EventFileCodecs;
 import org.apache.nifi.stream.io.StreamUtils;
 
 import java.io.EOFException;
@@ -23,6 +24,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * Standard implementation of TocReader.
@@ -35,9 +37,15 @@ import java.io.IOException;
  * byte 10-17: long: offset of block 1
  * ...
  * byte (N*8+2)-(N*8+9): long: offset of block N
+ *
+ * Version 3 replaces the compression flag with the identifier of the codec (0 = journal is NOT compressed),
+ * followed by a 4-byte dictionary length and the dictionary itself, before the block information.
+ * See {@link StandardTocWriter}.
  */
 public class StandardTocReader implements TocReader {
     private final boolean compressed;
+    private final int codecIdentifier;
+    private final byte[] compressionDictionary;
     private final long[] offsets;
     private final long[] firstEventIds;
     private final File file;
@@ -60,10 +68,32 @@ public class StandardTocReader implements TocReader {
             final int version = buffer[0];
             final int compressionFlag = buffer[1];
 
-            if ( compressionFlag == 0 ) {
+            int headerLength = 2;
+            if (version >= StandardTocWriter.CODEC_VERSION) {
+                if (compressionFlag != 0 && EventFileCodecs.forIdentifier(compressionFlag).isEmpty()) {
+                    throw new IOException("Table of Contents file " + file + " indicates that the journal is compressed with an unknown codec " + compressionFlag);
+                }
+                if (buffer.length < 6) {
+                    throw new EOFException("Table of Contents file " + file + " is truncated: could not read compression dictionary length");
+                }
+
+                final int dictionaryLength = readInt(buffer, 2);
+                if (dictionaryLength < 0 || dictionaryLength > buffer.length - 6) {
+                    throw new IOException("Table of Contents file " + file + " appears to be corrupt: invalid compression dictionary length " + dictionaryLength);
+                }
+
+                compressed = compressionFlag != 0;
+                codecIdentifier = compressionFlag;
+                compressionDictionary = dictionaryLength == 0 ? null : Arrays.copyOfRange(buffer, 6, 6 + dictionaryLength);
+                headerLength = 6 + dictionaryLength;
+            } else if ( compressionFlag == 0 ) {
                 compressed = false;
+                codecIdentifier = 0;
+                compressionDictionary = null;
             } else if ( compressionFlag == 1 ) {
                 compressed = true;
+                codecIdentifier = EventFileCodecs.GZIP.getIdentifier();
+                compressionDictionary = null;
             } else {
                 throw new IOException("Table of Contents file " + file + " appears to be corrupt: could not read 'compression flag' from header; "
                     + "expected value of 0 or 1 but got " + compressionFlag);
@@ -80,7 +110,7 @@ public class StandardTocReader implements TocReader {
                     break;
             }
 
-            final int numBlocks = (buffer.length - 2) / blockInfoBytes;
+            final int numBlocks = (buffer.length - headerLength) / blockInfoBytes;
             offsets = new long[numBlocks];
 
             if ( version > 1 ) {
@@ -89,7 +119,7 @@ public class StandardTocReader implements TocReader {
                 firstEventIds = new long[0];
             }
 
-            int index = 2;
+            int index = headerLength;
             for (int i = 0; i < numBlocks; i++) {
                 offsets[i] = readLong(buffer, index);
                 index += 8;
@@ -102,6 +132,13 @@ public class StandardTocReader implements TocReader {
         }
     }
 
+    private int readInt(final byte[] buffer, final int offset) {
+        return ((buffer[offset] & 0xFF) << 24) +
+            ((buffer[offset + 1] & 0xFF) << 16) +
+            ((buffer[offset + 2] & 0xFF) << 8) +
+            (buffer[offset + 3] & 0xFF);
+    }
+
     private long readLong(final byte[] buffer, final int offset) {
         return ((long) buffer[offset] << 56) +
             ((long) (buffer[offset + 1] & 0xFF) << 48) +
@@ -118,6 +155,16 @@ public class StandardTocReader implements TocReader {
         return compressed;
     }
 
+    @Override
+    public int getCompressionCodecIdentifier() {
+        return codecIdentifier;
+    }
+
+    @Override
+    public byte[] getCompressionDictionary() {
+        return compressionDictionary;
+    }
+
     @Override
     public File getFile() {
         return file;
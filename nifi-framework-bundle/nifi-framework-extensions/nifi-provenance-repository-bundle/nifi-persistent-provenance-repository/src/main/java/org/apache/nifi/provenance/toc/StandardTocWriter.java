@@ -23,6 +23,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 
+import org.apache.nifi.provenance.serialization.EventFileCodec;
+import org.apache.nifi.provenance.serialization.EventFileCodecs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,11 +38,19 @@ import org.slf4j.LoggerFactory;
  * byte 10-17: long: offset of block 1
  * ...
  * byte (N*8+2)-(N*8+9): long: offset of block N
+ *
+ * Version 3 is written only when the journal is compressed with a codec other than GZIP or with a dictionary:
+ * byte 0: version
+ * byte 1: identifier of the {@link EventFileCodec} that the journal is compressed with
+ * byte 2-5: int: length of the compression dictionary, 0 if no dictionary is used
+ * byte 6-(6+L-1): compression dictionary
+ * followed by the (offset, first event id) pair of each block, as in version 2
  */
 public class StandardTocWriter implements TocWriter {
     private static final Logger logger = LoggerFactory.getLogger(StandardTocWriter.class);
 
     public static final byte VERSION = 2;
+    public static final byte CODEC_VERSION = 3;
 
     private final File file;
     private final FileOutputStream fos;
@@ -54,6 +64,17 @@ public class StandardTocWriter implements TocWriter {
      * @throws IOException if unable to write header info to the specified file
      */
     public StandardTocWriter(final File file, final boolean compressionFlag, final boolean alwaysSync) throws IOException {
+        this(file, compressionFlag ? EventFileCodecs.GZIP : null, null, alwaysSync);
+    }
+
+    /**
+     * Creates a StandardTocWriter that writes to the given file.
+     * @param file the file to write to
+     * @param codec the codec that the journal is compressed with, or <code>null</code> if the journal is not compressed
+     * @param dictionary the dictionary that the journal's blocks are compressed with, or <code>null</code> if no dictionary is used
+     * @throws IOException if unable to write header info to the specified file
+     */
+    public StandardTocWriter(final File file, final EventFileCodec codec, final byte[] dictionary, final boolean alwaysSync) throws IOException {
         final File tocDir = file.getParentFile();
         if ( !tocDir.exists() ) {
             Files.createDirectories(tocDir.toPath());
@@ -63,10 +84,24 @@ public class StandardTocWriter implements TocWriter {
         fos = new FileOutputStream(file);
         this.alwaysSync = alwaysSync;
 
-        final byte[] header = new byte[2];
-        header[0] = VERSION;
-        header[1] = (byte) (compressionFlag ? 1 : 0);
-        fos.write(header);
+        if (codec == null || (codec == EventFileCodecs.GZIP && dictionary == null)) {
+            // Continue to write Version 2 when possible so that the TOC remains readable by older versions
+            final byte[] header = new byte[2];
+            header[0] = VERSION;
+            header[1] = (byte) (codec == null ? 0 : 1);
+            fos.write(header);
+        } else {
+            final DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(fos));
+            dos.writeByte(CODEC_VERSION);
+            dos.writeByte(codec.getIdentifier());
+            if (dictionary == null) {
+                dos.writeInt(0);
+            } else {
+                dos.writeInt(dictionary.length);
+                dos.write(dictionary);
+            }
+            dos.flush();
+        }
         fos.flush();
 
         if ( alwaysSync ) {
@@ -16,6 +16,8 @@
  */
 package org.apache.nifi.provenance.toc;
 
+import org.apache.nifi.provenance.serialization.EventFileCodecs;
+
 import java.io.Closeable;
 import java.io.File;
 
@@ -37,6 +39,22 @@ public interface TocReader extends Closeable {
      */
     boolean isCompressed();
 
+    /**
+     * @return the identifier of the codec that the corresponding Journal file is compressed with, or <code>0</code>
+     *         if the Journal file is not compressed
+     */
+    default int getCompressionCodecIdentifier() {
+        return isCompressed() ? EventFileCodecs.GZIP.getIdentifier() : 0;
+    }
+
+    /**
+     * @return the dictionary that the blocks of the corresponding Journal file were compressed with, or
+     *         <code>null</code> if no dictionary was used
+     */
+    default byte[] getCompressionDictionary() {
+        return null;
+    }
+
     /**
      * @return the file that holds the TOC information
      */
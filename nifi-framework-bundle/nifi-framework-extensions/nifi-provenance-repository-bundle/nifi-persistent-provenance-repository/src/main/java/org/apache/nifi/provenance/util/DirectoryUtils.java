@@ -17,6 +17,8 @@
 
 package org.apache.nifi.provenance.util;
 
+import org.apache.nifi.provenance.serialization.EventFileCodecs;
+
 import java.io.File;
 import java.io.FileFilter;
 import java.util.Comparator;
@@ -26,7 +28,7 @@ import java.util.regex.Pattern;
 public class DirectoryUtils {
     public static final Pattern INDEX_DIRECTORY_NAME_PATTERN = Pattern.compile("(?:lucene-\\d+-)?index-(.*)");
     public static final FileFilter INDEX_FILE_FILTER = f -> INDEX_DIRECTORY_NAME_PATTERN.matcher(f.getName()).matches();
-    public static final FileFilter EVENT_FILE_FILTER = f -> f.getName().endsWith(".prov") || f.getName().endsWith(".prov.gz");
+    public static final FileFilter EVENT_FILE_FILTER = f -> EventFileCodecs.isEventFile(f.getName());
     public static final Comparator<File> SMALLEST_ID_FIRST = (a, b) -> Long.compare(getMinId(a), getMinId(b));
     public static final Comparator<File> LARGEST_ID_FIRST = SMALLEST_ID_FIRST.reversed();
     public static final Comparator<File> OLDEST_INDEX_FIRST = (a, b) -> Long.compare(getIndexTimestamp(a), getIndexTimestamp(b));
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.util;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProvenanceEventUuids {
+
+    private ProvenanceEventUuids() {
+    }
+
+    /**
+     * Returns the UUIDs of the FlowFiles, other than the event's own FlowFile, that an event can be found by when searching by FlowFile UUID:
+     * the children of a FORK, CLONE or REPLAY event, the parents of a JOIN event, and the UUID that the source system uses for the data of
+     * a RECEIVE event.
+     *
+     * @param record the event
+     * @return the UUIDs of the other FlowFiles that the event is associated with
+     */
+    public static List<String> getAssociatedFlowFileUuids(final ProvenanceEventRecord record) {
+        final List<String> uuids = new ArrayList<>();
+
+        final ProvenanceEventType eventType = record.getEventType();
+        if (eventType == ProvenanceEventType.FORK || eventType == ProvenanceEventType.CLONE || eventType == ProvenanceEventType.REPLAY) {
+            for (final String uuid : record.getChildUuids()) {
+                if (!uuid.equals(record.getFlowFileUuid())) {
+                    uuids.add(uuid);
+                }
+            }
+        } else if (eventType == ProvenanceEventType.JOIN) {
+            for (final String uuid : record.getParentUuids()) {
+                if (!uuid.equals(record.getFlowFileUuid())) {
+                    uuids.add(uuid);
+                }
+            }
+        } else if (eventType == ProvenanceEventType.RECEIVE && record.getSourceSystemFlowFileIdentifier() != null) {
+            // The Source System FlowFile Identifier ends with the UUID that the Source System uses to refer to the data
+            final String sourceIdentifier = record.getSourceSystemFlowFileIdentifier();
+            final int lastColon = sourceIdentifier.lastIndexOf(":");
+            if (lastColon > -1 && lastColon < sourceIdentifier.length() - 2) {
+                uuids.add(sourceIdentifier.substring(lastColon + 1));
+            }
+        }
+
+        return uuids;
+    }
+}
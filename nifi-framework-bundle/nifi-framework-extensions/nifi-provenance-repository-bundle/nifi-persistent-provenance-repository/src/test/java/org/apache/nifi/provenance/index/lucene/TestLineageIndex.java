@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.lucene;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestLineageIndex {
+    private static final long START_TIME = 1_000_000L;
+
+    @TempDir
+    private Path tempDirectory;
+
+    @Test
+    public void testForkTraversesToParentAndChildren() {
+        final LineageIndex index = new LineageIndex(100, 100, START_TIME);
+        index.addEvent(0L, List.of("parent"), START_TIME, START_TIME);
+        index.addEvent(1L, List.of("parent", "child-1", "child-2"), START_TIME, START_TIME + 1);
+        index.addEvent(2L, List.of("child-1"), START_TIME, START_TIME + 2);
+        index.addEvent(3L, List.of("child-2"), START_TIME, START_TIME + 3);
+        index.addEvent(4L, List.of("unrelated"), START_TIME, START_TIME + 4);
+
+        assertEquals(Optional.of(List.of(0L, 1L)), index.getEventIds(List.of("parent"), START_TIME));
+        assertEquals(Optional.of(List.of(1L, 2L, 3L)), index.getEventIds(List.of("CHILD-1", "child-2"), START_TIME));
+        assertEquals(Optional.of(List.of(1L, 2L)), index.getEventIds(List.of("child-1"), 0L));
+    }
+
+    @Test
+    public void testEventsBeforeCoverageNotAnswered() {
+        final LineageIndex index = new LineageIndex(100, 100, START_TIME);
+        index.addEvent(0L, List.of("old"), START_TIME - 10, START_TIME - 5);
+        index.addEvent(1L, List.of("new"), START_TIME + 10, START_TIME + 10);
+
+        assertFalse(index.getEventIds(List.of("old"), START_TIME - 10).isPresent());
+        assertFalse(index.getEventIds(List.of("old"), 0L).isPresent());
+        assertEquals(Optional.of(List.of(1L)), index.getEventIds(List.of("new"), 0L));
+
+        // An unknown FlowFile has no events if its lineage started after coverage, but may have events that the index does not know about otherwise
+        assertEquals(Optional.of(List.of()), index.getEventIds(List.of("unknown"), START_TIME + 20));
+        assertFalse(index.getEventIds(List.of("unknown"), 0L).isPresent());
+    }
+
+    @Test
+    public void testEvictionAdvancesCoverage() {
+        final LineageIndex index = new LineageIndex(2, 100, START_TIME);
+        index.addEvent(0L, List.of("a"), START_TIME, START_TIME + 1);
+        index.addEvent(1L, List.of("b"), START_TIME + 2, START_TIME + 2);
+        index.addEvent(2L, List.of("c"), START_TIME + 3, START_TIME + 3);
+
+        assertEquals(2, index.getFlowFileCount());
+        assertEquals(START_TIME + 2, index.getCoverageStart());
+        assertFalse(index.getEventIds(List.of("a"), START_TIME).isPresent());
+        assertEquals(Optional.of(List.of(1L)), index.getEventIds(List.of("b"), 0L));
+        assertEquals(Optional.of(List.of(2L)), index.getEventIds(List.of("c"), 0L));
+    }
+
+    @Test
+    public void testTruncatedFlowFileNotAnswered() {
+        final LineageIndex index = new LineageIndex(100, 3, START_TIME);
+        for (long eventId = 0; eventId < 5; eventId++) {
+            index.addEvent(eventId, List.of("busy"), START_TIME, START_TIME + eventId);
+        }
+
+        assertFalse(index.getEventIds(List.of("busy"), START_TIME).isPresent());
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final LineageIndex index = new LineageIndex(100, 100, START_TIME);
+        index.addEvent(5L, List.of("a"), START_TIME, START_TIME);
+        index.addEvent(3L, List.of("a", "b"), START_TIME, START_TIME + 1);
+        index.addEvent(9L, List.of("b"), START_TIME, START_TIME + 2);
+
+        final File file = tempDirectory.resolve("lineage.index").toFile();
+        index.write(file);
+
+        final LineageIndex restored = LineageIndex.read(file, 100, 100);
+        assertEquals(START_TIME, restored.getCoverageStart());
+        assertEquals(2, restored.getFlowFileCount());
+        assertEquals(Optional.of(List.of(3L, 5L, 9L)), restored.getEventIds(List.of("a", "b"), 0L));
+
+        // Events that are re-indexed after restart are not returned twice
+        restored.addEvent(9L, List.of("b"), START_TIME, START_TIME + 2);
+        final Optional<List<Long>> eventIds = restored.getEventIds(List.of("b"), 0L);
+        assertTrue(eventIds.isPresent());
+        assertEquals(List.of(3L, 9L), eventIds.get());
+    }
+}
@@ -25,6 +25,8 @@ import org.apache.nifi.provenance.RepositoryConfiguration;
 import org.apache.nifi.provenance.SearchableFields;
 import org.apache.nifi.provenance.StandardProvenanceEventRecord;
 import org.apache.nifi.provenance.authorization.EventAuthorizer;
+import org.apache.nifi.provenance.index.IndexOverflowPolicy;
+import org.apache.nifi.provenance.index.PartitionIndexingMetrics;
 import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
 import org.apache.nifi.provenance.lineage.LineageNode;
 import org.apache.nifi.provenance.lineage.LineageNodeType;
@@ -126,6 +128,95 @@ public class TestLuceneEventIndex {
         assertTrue(id >= 30000L);
     }
 
+    @Test
+    public void testIndexingMetricsPerPartition() throws IOException, InterruptedException {
+        final RepositoryConfiguration repoConfig = createConfig(1);
+        final IndexManager indexManager = new StandardIndexManager(repoConfig);
+
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final LuceneEventIndex index = new LuceneEventIndex(repoConfig, indexManager, 1000, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        for (int i = 0; i < 100; i++) {
+            final StorageResult storageResult = eventStore.addEvent(createEvent());
+            index.addEvents(storageResult.getStorageLocations());
+        }
+
+        final PartitionIndexingMetrics metrics = index.getIndexingMetrics().get("1");
+        while (metrics.getEventsIndexed() < 100) {
+            Thread.sleep(25L);
+        }
+
+        assertEquals(100, metrics.getEventsQueued());
+        assertEquals(0, metrics.getPendingEventCount());
+        assertEquals(0, metrics.getEventIdLag());
+        assertEquals(0, metrics.getEventsDropped());
+        index.close();
+    }
+
+    @Test
+    public void testDeferredEventsIndexedLater() throws IOException, InterruptedException {
+        final RepositoryConfiguration repoConfig = createConfig(1);
+        repoConfig.setIndexQueueSize(100);
+        repoConfig.setIndexOverflowPolicy(IndexOverflowPolicy.DEFER);
+        final IndexManager indexManager = new StandardIndexManager(repoConfig);
+
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final LuceneEventIndex index = new LuceneEventIndex(repoConfig, indexManager, 1000, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        final int eventCount = 1000;
+        for (int i = 0; i < eventCount; i++) {
+            final StorageResult storageResult = eventStore.addEvent(createEvent());
+            index.addEvents(storageResult.getStorageLocations());
+        }
+
+        // Whether or not the queue overflowed, every event must eventually be indexed, and none may be dropped
+        final PartitionIndexingMetrics metrics = index.getIndexingMetrics().get("1");
+        while (metrics.getEventsIndexed() < eventCount) {
+            Thread.sleep(25L);
+        }
+
+        assertEquals(0, metrics.getEventsDropped());
+        assertEquals(eventCount, metrics.getEventsIndexed());
+        index.close();
+    }
+
+    @Test
+    public void testDeferredEventsReindexedAfterRestart() throws IOException, InterruptedException {
+        final RepositoryConfiguration repoConfig = createConfig(1);
+        repoConfig.setIndexOverflowPolicy(IndexOverflowPolicy.DEFER);
+        final IndexManager indexManager = new StandardIndexManager(repoConfig);
+
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final LuceneEventIndex index = new LuceneEventIndex(repoConfig, indexManager, 20_000, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        final Map<ProvenanceEventRecord, StorageSummary> deferred = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            final StorageResult storageResult = eventStore.addEvent(createEvent());
+            if (i >= 100 && i < 110) {
+                deferred.putAll(storageResult.getStorageLocations());
+            } else {
+                index.addEvents(storageResult.getStorageLocations());
+            }
+        }
+
+        final PartitionIndexingMetrics metrics = index.getIndexingMetrics().get("1");
+        while (metrics.getEventsIndexed() < 20_000 - deferred.size()) {
+            Thread.sleep(25L);
+        }
+
+        // Defer the indexing of events that are far older than the events re-indexed on restart, and shut down before they are indexed
+        index.handleOverflow(deferred);
+        index.close();
+
+        final LuceneEventIndex restartedIndex = new LuceneEventIndex(repoConfig, new StandardIndexManager(repoConfig), 20_000, EventReporter.NO_OP);
+        restartedIndex.initialize(eventStore);
+        assertEquals(100L, restartedIndex.getMinimumEventIdToReindex("1"));
+        restartedIndex.close();
+    }
+
     @Test
     public void testUnauthorizedEventsGetPlaceholdersForLineage() throws InterruptedException {
         final RepositoryConfiguration repoConfig = createConfig(1);
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.serialization;
+
+import org.apache.nifi.provenance.EventIdFirstSchemaRecordWriter;
+import org.apache.nifi.provenance.IdentifierLookup;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.TestUtil;
+import org.apache.nifi.provenance.toc.StandardTocReader;
+import org.apache.nifi.provenance.toc.StandardTocWriter;
+import org.apache.nifi.provenance.toc.TocReader;
+import org.apache.nifi.provenance.toc.TocUtil;
+import org.apache.nifi.provenance.toc.TocWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestEventFileCompressor {
+    private static final int EVENT_COUNT = 5000;
+
+    @TempDir
+    private Path tempDir;
+
+    private File eventFile;
+    private File tocFile;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        eventFile = tempDir.resolve("0.prov").toFile();
+        tocFile = TocUtil.getTocFile(eventFile);
+
+        final TocWriter tocWriter = new StandardTocWriter(tocFile, false, false);
+        try (final RecordWriter writer = new EventIdFirstSchemaRecordWriter(eventFile, new AtomicLong(0L), tocWriter, false, 8192, IdentifierLookup.EMPTY)) {
+            writer.writeHeader(0L);
+            for (int i = 0; i < EVENT_COUNT; i++) {
+                writer.writeRecords(List.of(TestUtil.createEvent()));
+            }
+        }
+    }
+
+    @Test
+    public void testZstdWithTrainedDictionary() throws IOException {
+        final List<byte[]> samples = EventFileCompressor.collectDictionarySamples(eventFile, 16 * 1024);
+        assertFalse(samples.isEmpty());
+        final byte[] dictionary = EventFileCodecs.ZSTD.trainDictionary(samples, 16 * 1024).orElse(null);
+        assertNotNull(dictionary);
+
+        final long uncompressedLength = eventFile.length();
+        final File compressedFile = compress(EventFileCodecs.ZSTD, dictionary);
+        assertTrue(compressedFile.getName().endsWith(".prov.zst"));
+        assertTrue(compressedFile.length() < uncompressedLength);
+
+        try (final TocReader tocReader = new StandardTocReader(tocFile)) {
+            assertTrue(tocReader.isCompressed());
+            assertEquals(EventFileCodecs.ZSTD.getIdentifier(), tocReader.getCompressionCodecIdentifier());
+            assertArrayEquals(dictionary, tocReader.getCompressionDictionary());
+        }
+
+        assertEventsReadable(compressedFile);
+    }
+
+    @Test
+    public void testZstdWithoutDictionary() throws IOException {
+        final File compressedFile = compress(EventFileCodecs.ZSTD, null);
+
+        try (final TocReader tocReader = new StandardTocReader(tocFile)) {
+            assertEquals(EventFileCodecs.ZSTD.getIdentifier(), tocReader.getCompressionCodecIdentifier());
+            assertNull(tocReader.getCompressionDictionary());
+        }
+
+        assertEventsReadable(compressedFile);
+    }
+
+    @Test
+    public void testGzipRemainsReadableByOlderVersions() throws IOException {
+        final File compressedFile = compress(EventFileCodecs.GZIP, null);
+        assertTrue(compressedFile.getName().endsWith(".prov.gz"));
+        assertEquals(StandardTocWriter.VERSION, Files.readAllBytes(tocFile.toPath())[0]);
+
+        assertEventsReadable(compressedFile);
+    }
+
+    @Test
+    public void testUncompressedFileLocatedFromCompressedName() throws IOException {
+        final File missingFile = new File(eventFile.getParentFile(), eventFile.getName() + EventFileCodecs.ZSTD.getFileExtension());
+        assertEventsReadable(missingFile);
+    }
+
+    @Test
+    public void testUnknownCodecName() {
+        assertEquals(EventFileCodecs.ZSTD, EventFileCodecs.forName(" zstd "));
+        assertThrows(IllegalArgumentException.class, () -> EventFileCodecs.forName("LZMA"));
+    }
+
+    private File compress(final EventFileCodec codec, final byte[] dictionary) throws IOException {
+        final File compressedFile = new File(eventFile.getParentFile(), eventFile.getName() + codec.getFileExtension());
+        final File tmpTocFile = new File(tocFile.getParentFile(), tocFile.getName() + ".tmp");
+
+        final TocReader tocReader = new StandardTocReader(tocFile);
+        final TocWriter tocWriter = new StandardTocWriter(tmpTocFile, codec, dictionary, false);
+        EventFileCompressor.compress(eventFile, tocReader, compressedFile, tocWriter, codec, dictionary);
+
+        Files.delete(eventFile.toPath());
+        Files.move(tmpTocFile.toPath(), tocFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return compressedFile;
+    }
+
+    private void assertEventsReadable(final File file) throws IOException {
+        try (final RecordReader reader = RecordReaders.newRecordReader(file, null, 2048)) {
+            for (int i = 0; i < EVENT_COUNT; i++) {
+                final ProvenanceEventRecord event = reader.nextRecord();
+                assertNotNull(event);
+                assertEquals(i, event.getEventId());
+            }
+
+            assertNull(reader.nextRecord());
+        }
+
+        try (final RecordReader reader = RecordReaders.newRecordReader(file, null, 2048)) {
+            final ProvenanceEventRecord event = reader.skipToEvent(EVENT_COUNT - 10).orElse(null);
+            assertNotNull(event);
+            assertEquals(EVENT_COUNT - 10, event.getEventId());
+        }
+    }
+}
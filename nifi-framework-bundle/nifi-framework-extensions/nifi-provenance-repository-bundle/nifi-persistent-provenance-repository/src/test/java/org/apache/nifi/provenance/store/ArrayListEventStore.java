@@ -88,6 +88,11 @@ public class ArrayListEventStore implements EventStore {
         return idGenerator.get() - 1;
     }
 
+    @Override
+    public synchronized long getMinEventId() {
+        return events.isEmpty() ? -1L : 0L;
+    }
+
     @Override
     public synchronized Optional<ProvenanceEventRecord> getEvent(long id) {
         if (events.size() <= id) {
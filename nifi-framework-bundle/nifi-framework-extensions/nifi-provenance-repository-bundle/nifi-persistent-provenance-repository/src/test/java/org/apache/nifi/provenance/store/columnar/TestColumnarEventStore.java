@@ -0,0 +1,345 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store.columnar;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.RepositoryConfiguration;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.apache.nifi.provenance.authorization.EventAuthorizer;
+import org.apache.nifi.provenance.authorization.EventTransformer;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.SearchTerms;
+import org.apache.nifi.provenance.store.ArrayListEventStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestColumnarEventStore {
+    private static final long ONE_MINUTE = TimeUnit.MINUTES.toMillis(1L);
+
+    @TempDir
+    private Path storageDirectory;
+
+    private RepositoryConfiguration config;
+    private long baseTime;
+
+    @BeforeEach
+    public void setup() {
+        config = new RepositoryConfiguration();
+        config.addStorageDirectory("1", storageDirectory.toFile());
+        config.setColumnarSegmentsEnabled(true);
+        config.setColumnarSegmentDuration(1, TimeUnit.MINUTES);
+
+        final long tenMinutesAgo = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(10L);
+        baseTime = tenMinutesAgo - tenMinutesAgo % ONE_MINUTE;
+    }
+
+    @Test
+    public void testSelectiveQuerySkipsSegments() throws IOException, InterruptedException {
+        final ColumnarEventStore store = new ColumnarEventStore(config, new ArrayListEventStore());
+        store.initialize();
+
+        // Each minute, a different component generates 10 events
+        for (int minute = 0; minute < 3; minute++) {
+            for (int i = 0; i < 10; i++) {
+                store.addEvents(Collections.singleton(createEvent("component-" + minute, ProvenanceEventType.RECEIVE, baseTime + minute * ONE_MINUTE + i, 100L)));
+            }
+        }
+
+        // The third segment is still active; the first two are written to disk in the background
+        waitForSegmentCount(store, 2);
+
+        final List<Long> eventIds = store.getEventIds(ColumnarQuery.forComponent("component-1", 0L, Long.MAX_VALUE), 100);
+        assertEquals(10, eventIds.size());
+        for (final long eventId : eventIds) {
+            assertTrue(eventId >= 10 && eventId < 20);
+        }
+        assertEquals(1, store.getSegmentsScanned());
+        assertEquals(1, store.getSegmentsSkipped());
+
+        final ColumnarQuery dropQuery = new ColumnarQuery(0L, Long.MAX_VALUE, null, null, Set.of(ProvenanceEventType.DROP), 0L, Long.MAX_VALUE);
+        assertTrue(store.getEventIds(dropQuery, 100).isEmpty());
+
+        store.close();
+    }
+
+    @Test
+    public void testNewestEventsReturnedFirst() throws IOException, InterruptedException {
+        final ColumnarEventStore store = new ColumnarEventStore(config, new ArrayListEventStore());
+        store.initialize();
+
+        for (int minute = 0; minute < 3; minute++) {
+            for (int i = 0; i < 10; i++) {
+                store.addEvents(Collections.singleton(createEvent("component-1", ProvenanceEventType.RECEIVE, baseTime + minute * ONE_MINUTE + i, 100L)));
+            }
+        }
+        waitForSegmentCount(store, 2);
+
+        assertEquals(List.of(29L, 28L, 27L), store.getEventIds(ColumnarQuery.forComponent("component-1", 0L, Long.MAX_VALUE), 3));
+
+        // Once the newest matches have been found, the oldest segment does not need to be read
+        assertEquals(List.of(29L, 28L, 27L, 26L, 25L, 24L, 23L, 22L, 21L, 20L, 19L, 18L),
+            store.getEventIds(ColumnarQuery.forComponent("COMPONENT-1", 0L, Long.MAX_VALUE), 12));
+        assertEquals(1, store.getSegmentsScanned());
+
+        store.close();
+    }
+
+    @Test
+    public void testQueryAnsweredFromSegments() throws IOException {
+        final ColumnarEventStore store = new ColumnarEventStore(config, new ArrayListEventStore());
+        store.initialize();
+        final ColumnarCachedQuery cachedQuery = new ColumnarCachedQuery(store);
+
+        final long now = System.currentTimeMillis();
+        final ProvenanceEventRecord largeSend = createEvent("component-1", ProvenanceEventType.SEND, now, 10_000L);
+        store.addEvents(List.of(
+            createEvent("component-1", ProvenanceEventType.RECEIVE, now, 10_000L),
+            createEvent("component-1", ProvenanceEventType.SEND, now, 10L),
+            largeSend,
+            createEvent("component-2", ProvenanceEventType.SEND, now, 10_000L)));
+
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "component-1", null));
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.EventType, "send", null));
+        query.setMinFileSize("1 KB");
+        query.setStartDate(new Date(now - ONE_MINUTE));
+        query.setMaxResults(100);
+
+        final Optional<List<Long>> eventIds = cachedQuery.evaluate(query);
+        assertTrue(eventIds.isPresent());
+        assertEquals(1, eventIds.get().size());
+
+        final List<ProvenanceEventRecord> events = store.getEvents(eventIds.get(), EventAuthorizer.GRANT_ALL, EventTransformer.EMPTY_TRANSFORMER);
+        assertEquals(largeSend.getFlowFileUuid(), events.get(0).getFlowFileUuid());
+
+        // Wildcards, inverted terms and fields that the segments do not hold are left to the index
+        final Query wildcardQuery = new Query(UUID.randomUUID().toString());
+        wildcardQuery.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "component-*", null));
+        assertFalse(cachedQuery.evaluate(wildcardQuery).isPresent());
+
+        final Query invertedQuery = new Query(UUID.randomUUID().toString());
+        invertedQuery.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "component-1", true));
+        assertFalse(cachedQuery.evaluate(invertedQuery).isPresent());
+
+        final Query transitUriQuery = new Query(UUID.randomUUID().toString());
+        transitUriQuery.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.TransitURI, "nifi://unit-test", null));
+        assertFalse(cachedQuery.evaluate(transitUriQuery).isPresent());
+
+        store.close();
+    }
+
+    @Test
+    public void testQueryForEventsBeforeSegmentsLeftToIndex() throws IOException {
+        final ArrayListEventStore delegate = new ArrayListEventStore();
+        delegate.addEvent(createEvent("component-1", ProvenanceEventType.RECEIVE, baseTime, 1L));
+
+        final ColumnarEventStore store = new ColumnarEventStore(config, delegate);
+        store.initialize();
+        final ColumnarCachedQuery cachedQuery = new ColumnarCachedQuery(store);
+
+        // The first event was stored before columnar segments were enabled
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "component-1", null));
+        query.setMaxResults(10);
+        assertFalse(cachedQuery.evaluate(query).isPresent());
+
+        query.setStartDate(new Date(System.currentTimeMillis()));
+        assertTrue(cachedQuery.evaluate(query).isPresent());
+
+        store.close();
+    }
+
+    @Test
+    public void testSegmentsRecoveredOnRestart() throws IOException {
+        final List<String> flowFileUuids = new ArrayList<>();
+        final ArrayListEventStore delegate = new ArrayListEventStore();
+        final ColumnarEventStore store = new ColumnarEventStore(config, delegate);
+        store.initialize();
+
+        for (int i = 0; i < 20; i++) {
+            final ProvenanceEventRecord event = createEvent("component-1", ProvenanceEventType.ATTRIBUTES_MODIFIED, baseTime + i, 1L);
+            flowFileUuids.add(event.getFlowFileUuid());
+            store.addEvents(Collections.singleton(event));
+        }
+        assertTrue(store.isComplete(0L));
+        store.close();
+
+        final File segmentDirectory = new File(storageDirectory.toFile(), ColumnarEventStore.SEGMENT_DIRECTORY_NAME);
+        assertEquals(1, segmentDirectory.listFiles((dir, name) -> name.endsWith(ColumnarEventStore.SEGMENT_FILE_SUFFIX)).length);
+
+        final ColumnarEventStore recovered = new ColumnarEventStore(config, delegate);
+        recovered.initialize();
+        assertEquals(1, recovered.getSegmentCount());
+        assertTrue(recovered.isComplete(0L));
+
+        assertEquals(List.of(7L), recovered.getEventIds(ColumnarQuery.forFlowFile(flowFileUuids.get(7)), 10));
+        assertTrue(recovered.getEventIds(ColumnarQuery.forFlowFile(UUID.randomUUID().toString()), 10).isEmpty());
+        recovered.close();
+
+        // Events that were stored while columnar segments were disabled are not in any segment
+        delegate.addEvent(createEvent("component-1", ProvenanceEventType.ATTRIBUTES_MODIFIED, baseTime + 20, 1L));
+        final ColumnarEventStore incomplete = new ColumnarEventStore(config, delegate);
+        incomplete.initialize();
+        assertFalse(incomplete.isComplete(0L));
+        incomplete.close();
+    }
+
+    @Test
+    public void testFlowFileUuidQueryMatchesRelatedFlowFiles() throws IOException {
+        final ArrayListEventStore delegate = new ArrayListEventStore();
+        final ColumnarEventStore store = new ColumnarEventStore(config, delegate);
+        store.initialize();
+
+        final String childUuid = UUID.randomUUID().toString();
+        final ProvenanceEventRecord fork = createEventBuilder("component-1", ProvenanceEventType.FORK, baseTime, 1L)
+            .addChildUuid(childUuid)
+            .addChildUuid(UUID.randomUUID().toString())
+            .build();
+
+        final String parentUuid = UUID.randomUUID().toString();
+        final ProvenanceEventRecord join = createEventBuilder("component-2", ProvenanceEventType.JOIN, baseTime + 1, 1L)
+            .addParentUuid(parentUuid)
+            .build();
+
+        final String sourceUuid = UUID.randomUUID().toString();
+        final ProvenanceEventRecord receive = createEventBuilder("component-3", ProvenanceEventType.RECEIVE, baseTime + 2, 1L)
+            .setSourceSystemFlowFileIdentifier("urn:nifi:" + sourceUuid)
+            .build();
+
+        store.addEvents(List.of(fork));
+        store.addEvents(List.of(join));
+        store.addEvents(List.of(receive));
+
+        // The child's own events are found along with the FORK event that created it
+        store.addEvents(List.of(createEventBuilder("component-2", ProvenanceEventType.ATTRIBUTES_MODIFIED, baseTime + 3, 1L)
+            .setFlowFileUUID(childUuid)
+            .build()));
+
+        assertEquals(List.of(3L, 0L), store.getEventIds(ColumnarQuery.forFlowFile(childUuid), 10));
+        assertEquals(List.of(1L), store.getEventIds(ColumnarQuery.forFlowFile(parentUuid), 10));
+        assertEquals(List.of(2L), store.getEventIds(ColumnarQuery.forFlowFile(sourceUuid), 10));
+        store.close();
+
+        // The related UUIDs are also held by the segments that are written to disk
+        final ColumnarEventStore recovered = new ColumnarEventStore(config, delegate);
+        recovered.initialize();
+        assertEquals(1, recovered.getSegmentCount());
+
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.FlowFileUUID, childUuid, null));
+        query.setMaxResults(10);
+        assertEquals(Optional.of(List.of(3L, 0L)), new ColumnarCachedQuery(recovered).evaluate(query));
+        recovered.close();
+    }
+
+    @Test
+    public void testExpiredSegmentsPurged() throws IOException, InterruptedException {
+        config.setMaxRecordLife(1, TimeUnit.HOURS);
+        final long twoHoursAgo = baseTime - TimeUnit.HOURS.toMillis(2L);
+
+        final ColumnarEventStore store = new ColumnarEventStore(config, new ArrayListEventStore());
+        store.initialize();
+        store.addEvents(Collections.singleton(createEvent("component-1", ProvenanceEventType.CREATE, twoHoursAgo, 1L)));
+        store.addEvents(Collections.singleton(createEvent("component-1", ProvenanceEventType.CREATE, baseTime, 1L)));
+        store.addEvents(Collections.singleton(createEvent("component-1", ProvenanceEventType.CREATE, baseTime + ONE_MINUTE, 1L)));
+        waitForSegmentCount(store, 2);
+
+        store.purgeExpiredSegments();
+        assertEquals(1, store.getSegmentCount());
+        assertEquals(List.of(2L, 1L), store.getEventIds(ColumnarQuery.forComponent("component-1", 0L, Long.MAX_VALUE), 10));
+        store.close();
+    }
+
+    @Test
+    public void testSegmentsPurgedWhenEventsRemovedFromStore() throws IOException, InterruptedException {
+        final TruncatableEventStore delegate = new TruncatableEventStore();
+        final ColumnarEventStore store = new ColumnarEventStore(config, delegate);
+        store.initialize();
+
+        for (int minute = 0; minute < 3; minute++) {
+            for (int i = 0; i < 10; i++) {
+                store.addEvents(Collections.singleton(createEvent("component-1", ProvenanceEventType.RECEIVE, baseTime + minute * ONE_MINUTE + i, 100L)));
+            }
+        }
+        waitForSegmentCount(store, 2);
+
+        // The store removes the oldest events because of its storage limit; only the segment whose events are all gone is removed
+        delegate.minEventId = 5L;
+        store.purgeExpiredSegments();
+        assertEquals(2, store.getSegmentCount());
+
+        delegate.minEventId = 10L;
+        store.purgeExpiredSegments();
+        assertEquals(1, store.getSegmentCount());
+        assertEquals(20, store.getEventIds(ColumnarQuery.forComponent("component-1", 0L, Long.MAX_VALUE), 100).size());
+
+        store.close();
+    }
+
+    private void waitForSegmentCount(final ColumnarEventStore store, final int segmentCount) throws InterruptedException {
+        final long expiration = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10L);
+        while (store.getSegmentCount() < segmentCount && System.currentTimeMillis() < expiration) {
+            Thread.sleep(10L);
+        }
+        assertEquals(segmentCount, store.getSegmentCount());
+    }
+
+    private ProvenanceEventRecord createEvent(final String componentId, final ProvenanceEventType eventType, final long timestamp, final long fileSize) {
+        return createEventBuilder(componentId, eventType, timestamp, fileSize).build();
+    }
+
+    private StandardProvenanceEventRecord.Builder createEventBuilder(final String componentId, final ProvenanceEventType eventType, final long timestamp, final long fileSize) {
+        return new StandardProvenanceEventRecord.Builder()
+            .setEventType(eventType)
+            .setComponentId(componentId)
+            .setComponentType("unit test")
+            .setEventTime(timestamp)
+            .setFlowFileEntryDate(timestamp)
+            .setFlowFileUUID(UUID.randomUUID().toString())
+            .setLineageStartDate(timestamp)
+            .setTransitUri("nifi://unit-test")
+            .setCurrentContentClaim("container", "section", "unit-test-id", 0L, fileSize);
+    }
+
+    private static class TruncatableEventStore extends ArrayListEventStore {
+        private volatile long minEventId = 0L;
+
+        @Override
+        public long getMinEventId() {
+            return minEventId;
+        }
+    }
+}
@@ -16,6 +16,7 @@
  */
 package org.apache.nifi.provenance.toc;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -27,6 +28,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.UUID;
 
+import org.apache.nifi.provenance.serialization.EventFileCodecs;
 import org.junit.jupiter.api.Test;
 
 public class TestStandardTocReader {
@@ -115,4 +117,30 @@ public class TestStandardTocReader {
             file.delete();
         }
     }
+
+    @Test
+    public void testGetBlockIndexV3WithDictionary() throws IOException {
+        final File file = new File("target/" + UUID.randomUUID());
+        final byte[] dictionary = new byte[] {1, 2, 3, 4, 5};
+        try (final TocWriter writer = new StandardTocWriter(file, EventFileCodecs.ZSTD, dictionary, false)) {
+            for (int i = 0; i < 1024; i++) {
+                writer.addBlockOffset(i * 1024L, i * 10L);
+            }
+        }
+
+        try {
+            try (final StandardTocReader reader = new StandardTocReader(file)) {
+                assertTrue(reader.isCompressed());
+                assertEquals(EventFileCodecs.ZSTD.getIdentifier(), reader.getCompressionCodecIdentifier());
+                assertArrayEquals(dictionary, reader.getCompressionDictionary());
+
+                for (int i = 0; i < 1024; i++) {
+                    assertEquals(i * 1024, reader.getBlockOffset(i));
+                    assertEquals(i * 10, reader.getFirstEventIdForBlock(i));
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
 }
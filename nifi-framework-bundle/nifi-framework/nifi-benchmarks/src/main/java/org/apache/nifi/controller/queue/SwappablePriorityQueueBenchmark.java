@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue;
+
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.flowfile.FlowFilePrioritizer;
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.prioritizer.FirstInFirstOutPrioritizer;
+import org.apache.nifi.prioritizer.NewestFlowFileFirstPrioritizer;
+import org.apache.nifi.prioritizer.OldestFlowFileFirstPrioritizer;
+import org.apache.nifi.prioritizer.PriorityAttributePrioritizer;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures polling a FlowFile from a queue, acknowledging it and putting it back, for each of the standard prioritizers.
+ * The queue is kept below the swap threshold so that only the in-memory queue is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SwappablePriorityQueueBenchmark {
+    private static final int SWAP_THRESHOLD = 20_000;
+
+    @Param({"None", "FirstInFirstOut", "NewestFlowFileFirst", "OldestFlowFileFirst", "PriorityAttribute"})
+    private String prioritizer;
+
+    @Param({"100", "10000"})
+    private int queueSize;
+
+    private final Set<FlowFileRecord> expired = Collections.emptySet();
+    private SwappablePriorityQueue queue;
+
+    @Setup
+    public void setup() {
+        final FlowFileQueue flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        Mockito.when(flowFileQueue.getIdentifier()).thenReturn("benchmark");
+
+        final DropFlowFileAction dropAction = (flowFiles, requestor) -> new QueueSize(flowFiles.size(), 0L);
+        queue = new SwappablePriorityQueue(null, SWAP_THRESHOLD, EventReporter.NO_OP, flowFileQueue, dropAction, "local");
+        queue.setPriorities(createPrioritizers());
+
+        final long now = System.currentTimeMillis();
+        for (int i = 0; i < queueSize; i++) {
+            final FlowFileRecord flowFile = new StandardFlowFileRecord.Builder()
+                .id(i)
+                .entryDate(now + i)
+                .lineageStart(now + i, 0L)
+                .addAttribute(CoreAttributes.PRIORITY.key(), String.valueOf(i % 10))
+                .build();
+            queue.put(flowFile);
+        }
+    }
+
+    private List<FlowFilePrioritizer> createPrioritizers() {
+        return switch (prioritizer) {
+            case "None" -> Collections.emptyList();
+            case "FirstInFirstOut" -> List.of(new FirstInFirstOutPrioritizer());
+            case "NewestFlowFileFirst" -> List.of(new NewestFlowFileFirstPrioritizer());
+            case "OldestFlowFileFirst" -> List.of(new OldestFlowFileFirstPrioritizer());
+            case "PriorityAttribute" -> List.of(new PriorityAttributePrioritizer());
+            default -> throw new IllegalArgumentException("Unknown prioritizer " + prioritizer);
+        };
+    }
+
+    @Benchmark
+    public FlowFileRecord pollAndPut() {
+        final FlowFileRecord flowFile = queue.poll(expired, 0L);
+        queue.acknowledge(flowFile);
+        queue.put(flowFile);
+        return flowFile;
+    }
+}
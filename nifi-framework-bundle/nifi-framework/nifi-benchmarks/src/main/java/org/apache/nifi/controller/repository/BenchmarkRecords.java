@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.StandardFlowFileQueue;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardContentClaim;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+
+import java.util.UUID;
+
+/**
+ * Creates FlowFile Repository records that resemble those written by a typical Processor, for use by benchmarks.
+ */
+public final class BenchmarkRecords {
+    private static final FlowFileQueue QUEUE = new StandardFlowFileQueue("benchmark-queue", null, null, null, null, EventReporter.NO_OP, 20_000, "0 sec", 10_000L, "1 GB");
+
+    private BenchmarkRecords() {
+    }
+
+    public static RepositoryRecord createRepositoryRecord(final ResourceClaimManager claimManager, final long flowFileId, final int attributeCount) {
+        final ResourceClaim resourceClaim = claimManager.newResourceClaim("default", "1", "1700000000000-1", false, false);
+
+        final StandardFlowFileRecord.Builder builder = new StandardFlowFileRecord.Builder()
+            .id(flowFileId)
+            .size(1024L)
+            .contentClaim(new StandardContentClaim(resourceClaim, 4096L))
+            .addAttribute(CoreAttributes.UUID.key(), UUID.randomUUID().toString())
+            .addAttribute(CoreAttributes.FILENAME.key(), "benchmark.txt")
+            .addAttribute(CoreAttributes.PATH.key(), "./");
+        for (int i = 0; i < attributeCount; i++) {
+            builder.addAttribute("attribute." + i, "value-" + i);
+        }
+
+        final StandardRepositoryRecord repositoryRecord = new StandardRepositoryRecord(QUEUE);
+        repositoryRecord.setWorking(builder.build(), false);
+        repositoryRecord.setDestination(QUEUE);
+        return repositoryRecord;
+    }
+}
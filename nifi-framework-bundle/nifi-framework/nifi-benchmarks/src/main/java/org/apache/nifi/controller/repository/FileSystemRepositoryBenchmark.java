@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.util.NiFiProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures writing content to, and reading content from, the File System Content Repository. Archiving is disabled so that
+ * content that is no longer referenced is removed from disk while the benchmark runs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FileSystemRepositoryBenchmark {
+
+    @Param({"128", "4096", "65536"})
+    private int contentSize;
+
+    @Param({"false", "true"})
+    private boolean asyncWrite;
+
+    private Path repositoryDirectory;
+    private FileSystemRepository repository;
+    private byte[] content;
+    private byte[] readBuffer;
+    private ContentClaim readClaim;
+
+    @Setup
+    public void setup() throws IOException {
+        repositoryDirectory = Files.createTempDirectory("nifi-content-benchmark");
+        final NiFiProperties properties = NiFiProperties.createBasicNiFiProperties(null, Map.of(
+            NiFiProperties.REPOSITORY_CONTENT_PREFIX + "default", repositoryDirectory.toString(),
+            NiFiProperties.CONTENT_ARCHIVE_ENABLED, "false",
+            NiFiProperties.CONTENT_ASYNC_WRITE_ENABLED, String.valueOf(asyncWrite)));
+
+        repository = new FileSystemRepository(properties);
+        repository.initialize(new StandardContentRepositoryContext(new StandardResourceClaimManager(), EventReporter.NO_OP));
+
+        content = new byte[contentSize];
+        new Random(1L).nextBytes(content);
+        readBuffer = new byte[8192];
+
+        readClaim = repository.create(false);
+        try (final OutputStream out = repository.write(readClaim)) {
+            out.write(content);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        repository.shutdown();
+        try (final Stream<Path> paths = Files.walk(repositoryDirectory)) {
+            for (final Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public ContentClaim write() throws IOException {
+        final ContentClaim claim = repository.create(false);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write(content);
+        }
+
+        // Release the claim, as a FlowFile being dropped would, so that its content can be cleaned up
+        repository.decrementClaimantCount(claim);
+        return claim;
+    }
+
+    @Benchmark
+    public long read() throws IOException {
+        long total = 0L;
+        try (final InputStream in = repository.read(readClaim)) {
+            int len;
+            while ((len = in.read(readBuffer)) > 0) {
+                total += len;
+            }
+        }
+        return total;
+    }
+}
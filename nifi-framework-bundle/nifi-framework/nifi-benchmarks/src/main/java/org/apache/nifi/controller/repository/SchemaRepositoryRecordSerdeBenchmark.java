@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.repository.schema.NoOpFieldCache;
+import org.apache.nifi.wali.ByteArrayDataOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures serialization and deserialization of FlowFile Repository records with the schema-based serde used by the
+ * write-ahead FlowFile Repository.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SchemaRepositoryRecordSerdeBenchmark {
+
+    @Param({"5", "50"})
+    private int attributeCount;
+
+    private SchemaRepositoryRecordSerde serde;
+    private SerializedRepositoryRecord record;
+    private ByteArrayDataOutputStream serializationBuffer;
+    private ByteArrayInputStream serializedInput;
+    private DataInputStream serializedDataInput;
+
+    @Setup
+    public void setup() throws IOException {
+        final StandardResourceClaimManager claimManager = new StandardResourceClaimManager();
+        serde = new SchemaRepositoryRecordSerde(claimManager, new NoOpFieldCache());
+        record = new LiveSerializedRepositoryRecord(BenchmarkRecords.createRepositoryRecord(claimManager, 1L, attributeCount));
+        serializationBuffer = new ByteArrayDataOutputStream(4096);
+
+        final ByteArrayDataOutputStream serialized = new ByteArrayDataOutputStream(4096);
+        serde.writeHeader(serialized.getDataOutputStream());
+        serde.serializeRecord(record, serialized.getDataOutputStream());
+
+        serializedInput = new ByteArrayInputStream(serialized.getByteArrayOutputStream().toByteArray());
+        serializedDataInput = new DataInputStream(serializedInput);
+        serde.readHeader(serializedDataInput);
+        serializedInput.mark(Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int serialize() throws IOException {
+        serializationBuffer.getByteArrayOutputStream().reset();
+        final DataOutputStream out = serializationBuffer.getDataOutputStream();
+        serde.serializeRecord(record, out);
+        return serializationBuffer.getByteArrayOutputStream().size();
+    }
+
+    @Benchmark
+    public SerializedRepositoryRecord deserialize() throws IOException {
+        serializedInput.reset();
+        return serde.deserializeRecord(serializedDataInput, serde.getVersion());
+    }
+}
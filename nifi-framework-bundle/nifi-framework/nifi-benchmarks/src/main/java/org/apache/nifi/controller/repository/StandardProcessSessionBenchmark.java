@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.connectable.Connection;
+import org.apache.nifi.connectable.StandardConnection;
+import org.apache.nifi.controller.StandardFunnel;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.StandardFlowFileQueue;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.controller.repository.metrics.NopPerformanceTracker;
+import org.apache.nifi.controller.repository.metrics.RingBufferEventRepository;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.groups.ProcessGroup;
+import org.apache.nifi.processor.Relationship;
+import org.apache.nifi.provenance.ProvenanceEventBuilder;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventRepository;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures a Process Session that pulls a FlowFile from a queue, updates an attribute, transfers it and commits,
+ * which is the pattern followed by most Processors. Run with {@code -prof gc} to report allocation per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class StandardProcessSessionBenchmark {
+    private final Set<FlowFileRecord> expired = new HashSet<>();
+
+    private VolatileFlowFileRepository flowFileRepository;
+    private RingBufferEventRepository flowFileEventRepository;
+    private FlowFileQueue inputQueue;
+    private FlowFileQueue outputQueue;
+    private FlowFileRecord flowFile;
+    private StandardProcessSession session;
+
+    @Setup
+    public void setup() {
+        final StandardResourceClaimManager claimManager = new StandardResourceClaimManager();
+        flowFileRepository = new VolatileFlowFileRepository();
+        flowFileRepository.initialize(claimManager);
+        flowFileEventRepository = new RingBufferEventRepository(5);
+        final ProvenanceEventRepository provenanceRepository = new DiscardingProvenanceEventRepository();
+
+        final ProcessGroup processGroup = Mockito.mock(ProcessGroup.class);
+        final StandardFunnel source = new StandardFunnel("source", 1, 1);
+        final StandardFunnel funnel = new StandardFunnel("funnel", 1, 1);
+        final StandardFunnel destination = new StandardFunnel("destination", 1, 1);
+        final Connection inputConnection = createConnection("input", source, funnel, processGroup, provenanceRepository);
+        final Connection outputConnection = createConnection("output", funnel, destination, processGroup, provenanceRepository);
+        inputQueue = inputConnection.getFlowFileQueue();
+        outputQueue = outputConnection.getFlowFileQueue();
+
+        final StandardRepositoryContext context = new StandardRepositoryContext(funnel, new AtomicLong(0L), null, flowFileRepository,
+            flowFileEventRepository, new StandardCounterRepository(), provenanceRepository, null, 1024 * 1024L);
+        session = new StandardProcessSession(context, () -> false, new NopPerformanceTracker());
+
+        flowFile = new StandardFlowFileRecord.Builder()
+            .id(1L)
+            .addAttribute(CoreAttributes.UUID.key(), UUID.randomUUID().toString())
+            .addAttribute(CoreAttributes.FILENAME.key(), "benchmark")
+            .addAttribute(CoreAttributes.PATH.key(), "./")
+            .build();
+    }
+
+    private Connection createConnection(final String identifier, final Connectable source, final Connectable destination, final ProcessGroup processGroup,
+                                        final ProvenanceEventRepository provenanceRepository) {
+        final Connection connection = new StandardConnection.Builder(null)
+            .id(identifier)
+            .source(source)
+            .destination(destination)
+            .processGroup(processGroup)
+            .relationships(List.of(Relationship.ANONYMOUS))
+            .flowFileQueueFactory((loadBalanceStrategy, partitioningAttribute, group) -> new StandardFlowFileQueue(identifier, flowFileRepository, provenanceRepository,
+                null, null, EventReporter.NO_OP, 20_000, "0 sec", 10_000L, "1 GB"))
+            .build();
+
+        source.addConnection(connection);
+        destination.addConnection(connection);
+        return connection;
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        flowFileRepository.close();
+        flowFileEventRepository.close();
+    }
+
+    @Benchmark
+    public FlowFile getPutAttributeTransferCommit() {
+        inputQueue.put(flowFile);
+
+        FlowFile polled = session.get();
+        polled = session.putAttribute(polled, "benchmark.attribute", "value");
+        session.transfer(polled, Relationship.ANONYMOUS);
+        session.commit();
+
+        // Drain the destination queue so that every invocation operates on queues of the same size
+        final FlowFileRecord transferred = outputQueue.poll(expired);
+        outputQueue.acknowledge(transferred);
+        return transferred;
+    }
+
+    private static class DiscardingProvenanceEventRepository implements ProvenanceEventRepository {
+        @Override
+        public ProvenanceEventBuilder eventBuilder() {
+            return new StandardProvenanceEventRecord.Builder();
+        }
+
+        @Override
+        public void registerEvent(final ProvenanceEventRecord event) {
+        }
+
+        @Override
+        public void registerEvents(final Iterable<ProvenanceEventRecord> events) {
+            for (final ProvenanceEventRecord ignored : events) {
+                // Consume the events so that their enrichment is measured
+            }
+        }
+
+        @Override
+        public List<ProvenanceEventRecord> getEvents(final long firstRecordId, final int maxRecords) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Long getMaxEventId() {
+            return null;
+        }
+
+        @Override
+        public ProvenanceEventRecord getEvent(final long id) {
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository.metrics;
+
+import org.apache.nifi.controller.repository.FlowFileEvent;
+import org.apache.nifi.controller.repository.StandardRepositoryStatusReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures concurrent updates to the FlowFile Event Repository, which every session commit performs for its component and
+ * for each Connection that it touched, along with the periodic report that is generated from it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RingBufferEventRepositoryBenchmark {
+
+    @Param({"10", "1000"})
+    private int componentCount;
+
+    private RingBufferEventRepository repository;
+    private String[] componentIds;
+    private FlowFileEvent event;
+
+    @Setup
+    public void setup() {
+        repository = new RingBufferEventRepository(5);
+
+        componentIds = new String[componentCount];
+        for (int i = 0; i < componentCount; i++) {
+            componentIds[i] = "component-" + i;
+        }
+
+        final StandardFlowFileEvent flowFileEvent = new StandardFlowFileEvent();
+        flowFileEvent.setFlowFilesIn(1);
+        flowFileEvent.setContentSizeIn(1024L);
+        flowFileEvent.setFlowFilesOut(1);
+        flowFileEvent.setContentSizeOut(1024L);
+        flowFileEvent.setBytesRead(1024L);
+        flowFileEvent.setBytesWritten(1024L);
+        flowFileEvent.setProcessingNanos(50_000L);
+        flowFileEvent.setInvocations(1);
+        event = flowFileEvent;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        repository.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void updateRepository() {
+        final String componentId = componentIds[ThreadLocalRandom.current().nextInt(componentIds.length)];
+        repository.updateRepository(event, componentId);
+    }
+
+    @Benchmark
+    public StandardRepositoryStatusReport reportTransferEvents() {
+        return repository.reportTransferEvents(System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.wali;
+
+import org.apache.nifi.controller.repository.BenchmarkRecords;
+import org.apache.nifi.controller.repository.LiveSerializedRepositoryRecord;
+import org.apache.nifi.controller.repository.RepositoryRecord;
+import org.apache.nifi.controller.repository.SerializedRepositoryRecord;
+import org.apache.nifi.controller.repository.StandardRepositoryRecordSerdeFactory;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.repository.schema.NoOpFieldCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wali.SerDeFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures appending transactions of FlowFile Repository records to a write-ahead journal, without fsync, which is how
+ * the FlowFile Repository writes by default. A new journal is started for each iteration so that the journal file does not grow without bound.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LengthDelimitedJournalBenchmark {
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    @Param({"1", "100"})
+    private int recordsPerTransaction;
+
+    private Path journalDirectory;
+    private SerDeFactory<SerializedRepositoryRecord> serdeFactory;
+    private ObjectPool<ByteArrayDataOutputStream> streamPool;
+    private List<SerializedRepositoryRecord> transaction;
+    private LengthDelimitedJournal<SerializedRepositoryRecord> journal;
+    private long transactionId = 0L;
+
+    @Setup
+    public void setup() throws IOException {
+        journalDirectory = Files.createTempDirectory("nifi-journal-benchmark");
+
+        final StandardResourceClaimManager claimManager = new StandardResourceClaimManager();
+        serdeFactory = new StandardRepositoryRecordSerdeFactory(claimManager, new NoOpFieldCache());
+        streamPool = new BlockingQueuePool<>(1,
+            () -> new ByteArrayDataOutputStream(BUFFER_SIZE),
+            stream -> stream.getByteArrayOutputStream().size() < BUFFER_SIZE,
+            stream -> stream.getByteArrayOutputStream().reset());
+
+        transaction = new ArrayList<>(recordsPerTransaction);
+        for (int i = 0; i < recordsPerTransaction; i++) {
+            final RepositoryRecord repositoryRecord = BenchmarkRecords.createRepositoryRecord(claimManager, i, 10);
+            transaction.add(new LiveSerializedRepositoryRecord(repositoryRecord));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void startJournal() throws IOException {
+        final File journalFile = journalDirectory.resolve(transactionId + ".journal").toFile();
+        journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, transactionId);
+        journal.writeHeader();
+    }
+
+    @TearDown(Level.Iteration)
+    public void finishJournal() throws IOException {
+        transactionId = Math.max(transactionId, journal.getSummary().getLastTransactionId() + 1);
+        journal.close();
+        for (final File file : journalDirectory.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(journalDirectory);
+    }
+
+    @Benchmark
+    public void appendTransaction() throws IOException {
+        journal.update(transaction, id -> null);
+    }
+}
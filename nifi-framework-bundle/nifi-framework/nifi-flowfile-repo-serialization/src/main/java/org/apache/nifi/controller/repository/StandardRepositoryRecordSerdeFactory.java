@@ -53,6 +53,12 @@ public class StandardRepositoryRecordSerdeFactory implements RepositoryRecordSer
         throw new IllegalArgumentException("Cannot create Deserializer for Repository Records because the encoding '" + encodingName + "' is not known");
     }
 
+    @Override
+    public boolean isConcurrentSerDeSupported() {
+        // Each call creates a new SerDe, and the Resource Claim Manager and Field Cache that they share are thread-safe
+        return true;
+    }
+
     @Override
     public Long getRecordIdentifier(final SerializedRepositoryRecord record) {
         return record.getFlowFileRecord().getId();
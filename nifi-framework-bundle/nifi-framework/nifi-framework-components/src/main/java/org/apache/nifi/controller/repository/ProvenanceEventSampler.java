@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.groups.ProcessGroup;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Decides which Provenance Events a Process Session registers with the Provenance Repository, based on a set of sampling rules.
+ * Each rule applies a sample rate between 0 and 1 to events of a given type, or of any type, that are generated by components
+ * in a given Process Group, or in any Process Group. A sample rate of 0 suppresses the events entirely, and a sample rate of 1
+ * retains all of them.
+ * </p>
+ *
+ * <p>
+ * Rules are given as a comma-separated list of <code>[&lt;Process Group ID&gt;/]&lt;Event Type or *&gt;=&lt;Sample Rate&gt;</code>.
+ * For example, <code>ATTRIBUTES_MODIFIED=0.1, 1234-abcd/ROUTE=0</code> retains 10% of ATTRIBUTES_MODIFIED events everywhere and
+ * suppresses ROUTE events in Process Group 1234-abcd and the groups within it. A rule for a Process Group takes precedence over a rule for
+ * its parent, which takes precedence over a rule that applies to all Process Groups, and for each of those a rule for a specific event
+ * type takes precedence over a wildcard rule.
+ * </p>
+ *
+ * <p>
+ * Sampling is keyed on the FlowFile UUID rather than chosen at random, so that all of the events of a given type for a sampled FlowFile
+ * are retained together. Events that create, link, or end a FlowFile's lineage can never be sampled, as doing so would leave gaps in
+ * lineage that cannot be rendered.
+ * </p>
+ */
+public class ProvenanceEventSampler {
+    public static final ProvenanceEventSampler RETAIN_ALL = new ProvenanceEventSampler(new RuleSet(), Collections.emptyMap());
+
+    private static final Set<ProvenanceEventType> LINEAGE_EVENT_TYPES = Collections.unmodifiableSet(EnumSet.of(ProvenanceEventType.CREATE,
+        ProvenanceEventType.RECEIVE, ProvenanceEventType.FETCH, ProvenanceEventType.FORK, ProvenanceEventType.CLONE, ProvenanceEventType.JOIN,
+        ProvenanceEventType.REPLAY, ProvenanceEventType.DROP, ProvenanceEventType.EXPIRE));
+    private static final String WILDCARD = "*";
+    private static final int SAMPLE_BUCKETS = 10_000;
+
+    private final RuleSet globalRules;
+    private final Map<String, RuleSet> processGroupRules;
+    private final AtomicLongArray droppedCounts = new AtomicLongArray(ProvenanceEventType.values().length);
+    private final AtomicLongArray sampledCounts = new AtomicLongArray(ProvenanceEventType.values().length);
+
+    private ProvenanceEventSampler(final RuleSet globalRules, final Map<String, RuleSet> processGroupRules) {
+        this.globalRules = globalRules;
+        this.processGroupRules = processGroupRules;
+    }
+
+    /**
+     * Parses the given sampling rules
+     *
+     * @param rules the comma-separated sampling rules, may be null or blank
+     * @return a sampler that applies the given rules
+     * @throws IllegalArgumentException if any of the rules is not valid
+     */
+    public static ProvenanceEventSampler fromRules(final String rules) {
+        if (rules == null || rules.isBlank()) {
+            return RETAIN_ALL;
+        }
+
+        final RuleSet globalRules = new RuleSet();
+        final Map<String, RuleSet> processGroupRules = new HashMap<>();
+
+        for (final String rawRule : rules.split(",")) {
+            final String rule = rawRule.trim();
+            if (rule.isEmpty()) {
+                continue;
+            }
+
+            final int equalsIndex = rule.indexOf('=');
+            if (equalsIndex < 0) {
+                throw new IllegalArgumentException("Invalid Provenance sampling rule [" + rule + "]: expected <Event Type>=<Sample Rate>");
+            }
+
+            final String target = rule.substring(0, equalsIndex).trim();
+            final double sampleRate = parseSampleRate(rule, rule.substring(equalsIndex + 1).trim());
+
+            final int slashIndex = target.lastIndexOf('/');
+            final String eventTypeName = target.substring(slashIndex + 1).trim();
+            final RuleSet ruleSet;
+            if (slashIndex < 0) {
+                ruleSet = globalRules;
+            } else {
+                final String processGroupId = target.substring(0, slashIndex).trim();
+                if (processGroupId.isEmpty()) {
+                    throw new IllegalArgumentException("Invalid Provenance sampling rule [" + rule + "]: Process Group ID is empty");
+                }
+                ruleSet = processGroupRules.computeIfAbsent(processGroupId, id -> new RuleSet());
+            }
+
+            if (WILDCARD.equals(eventTypeName)) {
+                ruleSet.wildcardRate = sampleRate;
+            } else {
+                final ProvenanceEventType eventType = parseEventType(rule, eventTypeName);
+                ruleSet.rates[eventType.ordinal()] = sampleRate;
+            }
+        }
+
+        return new ProvenanceEventSampler(globalRules, processGroupRules);
+    }
+
+    private static double parseSampleRate(final String rule, final String value) {
+        final double sampleRate;
+        try {
+            sampleRate = Double.parseDouble(value);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid Provenance sampling rule [" + rule + "]: sample rate is not a number", e);
+        }
+
+        if (!(sampleRate >= 0D && sampleRate <= 1D)) {
+            throw new IllegalArgumentException("Invalid Provenance sampling rule [" + rule + "]: sample rate must be between 0 and 1");
+        }
+
+        return sampleRate;
+    }
+
+    private static ProvenanceEventType parseEventType(final String rule, final String eventTypeName) {
+        final ProvenanceEventType eventType;
+        try {
+            eventType = ProvenanceEventType.valueOf(eventTypeName.toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid Provenance sampling rule [" + rule + "]: unknown event type " + eventTypeName, e);
+        }
+
+        if (LINEAGE_EVENT_TYPES.contains(eventType)) {
+            throw new IllegalArgumentException("Invalid Provenance sampling rule [" + rule + "]: " + eventType + " events are required for lineage and cannot be sampled");
+        }
+
+        return eventType;
+    }
+
+    /**
+     * @return <code>true</code> if any sampling rules are defined, <code>false</code> if all events are retained
+     */
+    public boolean hasRules() {
+        return globalRules.isDefined() || !processGroupRules.isEmpty();
+    }
+
+    /**
+     * Determines whether or not the given event should be registered with the Provenance Repository, and records the outcome
+     *
+     * @param processGroup the Process Group of the component that generated the event, may be null
+     * @param event the event
+     * @return <code>true</code> if the event should be registered, <code>false</code> if it should be discarded
+     */
+    public boolean isRetained(final ProcessGroup processGroup, final ProvenanceEventRecord event) {
+        final ProvenanceEventType eventType = event.getEventType();
+        if (LINEAGE_EVENT_TYPES.contains(eventType)) {
+            return true;
+        }
+
+        final double sampleRate = getSampleRate(processGroup, eventType);
+        if (Double.isNaN(sampleRate) || sampleRate >= 1D) {
+            return true;
+        }
+
+        if (sampleRate <= 0D || getSampleBucket(event.getFlowFileUuid()) >= sampleRate * SAMPLE_BUCKETS) {
+            droppedCounts.incrementAndGet(eventType.ordinal());
+            return false;
+        }
+
+        sampledCounts.incrementAndGet(eventType.ordinal());
+        return true;
+    }
+
+    private double getSampleRate(final ProcessGroup processGroup, final ProvenanceEventType eventType) {
+        if (!processGroupRules.isEmpty()) {
+            for (ProcessGroup group = processGroup; group != null; group = group.getParent()) {
+                final RuleSet ruleSet = processGroupRules.get(group.getIdentifier());
+                if (ruleSet != null) {
+                    final double sampleRate = ruleSet.getSampleRate(eventType);
+                    if (!Double.isNaN(sampleRate)) {
+                        return sampleRate;
+                    }
+                }
+            }
+        }
+
+        return globalRules.getSampleRate(eventType);
+    }
+
+    private static int getSampleBucket(final String flowFileUuid) {
+        if (flowFileUuid == null) {
+            return 0;
+        }
+
+        // Mix the bits of the hash code so that UUIDs that differ only in a few characters land in unrelated buckets
+        int hash = flowFileUuid.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, SAMPLE_BUCKETS);
+    }
+
+    /**
+     * @return the total number of events that were discarded, either because they were suppressed or because they were not sampled
+     */
+    public long getDroppedEventCount() {
+        return sum(droppedCounts);
+    }
+
+    /**
+     * @return the total number of events that matched a sampling rule and were retained
+     */
+    public long getSampledEventCount() {
+        return sum(sampledCounts);
+    }
+
+    /**
+     * @return the number of events discarded for each event type, only including event types for which at least one event was discarded
+     */
+    public Map<ProvenanceEventType, Long> getDroppedEventCounts() {
+        return toMap(droppedCounts);
+    }
+
+    /**
+     * @return the number of events that matched a sampling rule and were retained for each event type, only including event types for which
+     *         at least one event was retained
+     */
+    public Map<ProvenanceEventType, Long> getSampledEventCounts() {
+        return toMap(sampledCounts);
+    }
+
+    private static long sum(final AtomicLongArray counts) {
+        long total = 0L;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    private static Map<ProvenanceEventType, Long> toMap(final AtomicLongArray counts) {
+        final Map<ProvenanceEventType, Long> countsByType = new EnumMap<>(ProvenanceEventType.class);
+        for (final ProvenanceEventType eventType : ProvenanceEventType.values()) {
+            final long count = counts.get(eventType.ordinal());
+            if (count > 0) {
+                countsByType.put(eventType, count);
+            }
+        }
+        return countsByType;
+    }
+
+
+    private static class RuleSet {
+        private final double[] rates = new double[ProvenanceEventType.values().length];
+        private double wildcardRate = Double.NaN;
+
+        RuleSet() {
+            Arrays.fill(rates, Double.NaN);
+        }
+
+        double getSampleRate(final ProvenanceEventType eventType) {
+            final double sampleRate = rates[eventType.ordinal()];
+            return Double.isNaN(sampleRate) ? wildcardRate : sampleRate;
+        }
+
+        boolean isDefined() {
+            if (!Double.isNaN(wildcardRate)) {
+                return true;
+            }
+
+            for (final double sampleRate : rates) {
+                if (!Double.isNaN(sampleRate)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
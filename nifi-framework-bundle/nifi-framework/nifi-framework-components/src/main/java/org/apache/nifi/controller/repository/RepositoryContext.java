@@ -64,4 +64,11 @@ public interface RepositoryContext {
     ProvenanceEventBuilder createProvenanceEventBuilder();
 
     StateManager getStateManager();
+
+    /**
+     * @return the sampler that determines which Provenance Events generated by the component are registered with the Provenance Repository
+     */
+    default ProvenanceEventSampler getProvenanceEventSampler() {
+        return ProvenanceEventSampler.RETAIN_ALL;
+    }
 }
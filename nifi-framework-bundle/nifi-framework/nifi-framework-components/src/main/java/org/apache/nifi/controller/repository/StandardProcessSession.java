@@ -44,6 +44,7 @@ import org.apache.nifi.controller.repository.metrics.StandardFlowFileEvent;
 import org.apache.nifi.controller.state.StandardStateMap;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.groups.ProcessGroup;
 import org.apache.nifi.processor.FlowFileFilter;
 import org.apache.nifi.processor.ProcessSession;
 import org.apache.nifi.processor.Relationship;
@@ -80,6 +81,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
@@ -306,16 +311,21 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         // Processor-reported events.
         List<ProvenanceEventRecord> autoTerminatedEvents = null;
 
-        // validate that all records have a transfer relationship for them and if so determine the destination node and clone as necessary
-        final Map<Long, StandardRepositoryRecord> toAdd = new HashMap<>();
+        // validate that all records have a transfer relationship for them and if so determine the destination node and clone as necessary.
+        // The clones are created only if a Relationship has multiple destinations, so the map is not created unless it is needed.
+        Map<Long, StandardRepositoryRecord> toAdd = null;
 
         final Connectable connectable = context.getConnectable();
         final long maxBackoffMillis = Math.round(FormatUtils.getPreciseTimeDuration(connectable.getMaxBackoffPeriod(), TimeUnit.MILLISECONDS));
 
         // Determine which FlowFiles need to be retried
-        final Set<Long> retryIds = new HashSet<>();
+        Set<Long> retryIds = Collections.emptySet();
         for (final StandardRepositoryRecord record : records.values()) {
             if (isRetry(record)) {
+                if (retryIds.isEmpty()) {
+                    retryIds = new HashSet<>();
+                }
+
                 final long flowFileId = record.getCurrent().getId();
                 retryIds.add(flowFileId);
 
@@ -326,7 +336,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
 
         for (final StandardRepositoryRecord record : records.values()) {
             // Check if this Record should be retried. If so, perform the necessary actions to retry the Record and then continue on to the next record.
-            if (retryIds.contains(record.getCurrent().getId())) {
+            if (!retryIds.isEmpty() && retryIds.contains(record.getCurrent().getId())) {
                 retry(record, maxBackoffMillis);
             }
 
@@ -335,7 +345,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
             }
 
             final Relationship relationship = record.getTransferRelationship();
-            final List<Connection> destinations = new ArrayList<>(context.getConnections(relationship));
+            final Collection<Connection> destinations = context.getConnections(relationship);
 
             if (destinations.isEmpty() && relationship == Relationship.SELF) {
                 record.setDestination(record.getOriginalQueue());
@@ -362,11 +372,14 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
                     record.setWorking(currRec, retryAttribute, null, false);
                 }
 
-                final Connection finalDestination = destinations.remove(destinations.size() - 1); // remove last element
-                record.setDestination(finalDestination.getFlowFileQueue());
-                incrementConnectionInputCounts(finalDestination, record);
+                // The record itself goes to the last destination, so only the remaining destinations require a clone. Avoid copying
+                // the destinations in the common case of a single destination.
+                final Iterator<Connection> destinationItr = destinations.iterator();
+                Connection finalDestination = destinationItr.next();
+                while (destinationItr.hasNext()) { // "clone" as needed for each destination other than the last
+                    final Connection destination = finalDestination;
+                    finalDestination = destinationItr.next();
 
-                for (final Connection destination : destinations) { // iterate over remaining destinations and "clone" as needed
                     incrementConnectionInputCounts(destination, record);
 
                     final StandardFlowFileRecord.Builder builder = new StandardFlowFileRecord.Builder().fromFlowFile(currRec);
@@ -388,15 +401,22 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
                     newRecord.setDestination(destination.getFlowFileQueue());
                     newRecord.setTransferRelationship(record.getTransferRelationship());
                     // put the mapping into toAdd because adding to records now will cause a ConcurrentModificationException
+                    if (toAdd == null) {
+                        toAdd = new HashMap<>();
+                    }
                     toAdd.put(clone.getId(), newRecord);
 
                     createdFlowFiles.add(newUuid);
                 }
+
+                record.setDestination(finalDestination.getFlowFileQueue());
+                incrementConnectionInputCounts(finalDestination, record);
             }
         }
 
-        records.putAll(toAdd);
-        toAdd.clear();
+        if (toAdd != null) {
+            records.putAll(toAdd);
+        }
 
         checkpoint.checkpoint(this, autoTerminatedEvents, copyCollections);
     }
@@ -965,6 +985,15 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
             }
         }
 
+        // Discard any events that the sampling rules exclude before they are enriched and written to the repository. DROP events for
+        // auto-terminated FlowFiles are always retained, as they end the FlowFiles' lineage.
+        final ProvenanceEventSampler sampler = context.getProvenanceEventSampler();
+        if (sampler.hasRules()) {
+            final Connectable connectable = context.getConnectable();
+            final ProcessGroup processGroup = connectable == null ? null : connectable.getProcessGroup();
+            recordsToSubmit.removeIf(event -> !sampler.isRetained(processGroup, event));
+        }
+
         // We want to submit the 'recordsToSubmit' collection, followed by the auto-terminated events to the Provenance Repository.
         // We want to do this with a single call to ProvenanceEventRepository#registerEvents because it may be much more efficient
         // to do so.
@@ -1669,8 +1698,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         final Set<String> modifiedFlowFileIds = new HashSet<>();
         int largestTransferSetSize = 0;
 
-        for (final Map.Entry<Long, StandardRepositoryRecord> entry : checkpoint.records.entrySet()) {
-            final StandardRepositoryRecord record = entry.getValue();
+        for (final StandardRepositoryRecord record : checkpoint.records.values()) {
             final FlowFile flowFile = record.getCurrent();
 
             final Relationship relationship = record.getTransferRelationship();
@@ -3089,6 +3117,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
 
         long writtenToFlowFile = 0L;
         ContentClaim newClaim = null;
+        final MessageDigest contentDigest = createContentDigest();
         try {
             newClaim = claimCache.getContentClaim();
             claimLog.debug("Creating ContentClaim {} for 'write' for {}", newClaim, source);
@@ -3100,7 +3129,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
                 final ByteCountingOutputStream countingOut = new ByteCountingOutputStream(disableOnClose)) {
                 try {
                     writeRecursionSet.add(source);
-                    final OutputStream ffaos = new FlowFileAccessOutputStream(countingOut, source);
+                    final OutputStream ffaos = new FlowFileAccessOutputStream(digest(countingOut, contentDigest), source);
                     writer.process(createTaskTerminationStream(ffaos));
                 } finally {
                     writtenToFlowFile = countingOut.getBytesWritten();
@@ -3136,10 +3165,11 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
             context.getContentRepository().decrementClaimantCount(newClaim);
             record.addTransientClaim(newClaim);
         } else {
+            final ContentClaim contentClaim = deduplicate(newClaim, contentDigest, writtenToFlowFile, record);
             newFile = new StandardFlowFileRecord.Builder()
                 .fromFlowFile(record.getCurrent())
-                .contentClaim(newClaim)
-                .contentClaimOffset(Math.max(0, newClaim.getLength() - writtenToFlowFile))
+                .contentClaim(contentClaim)
+                .contentClaimOffset(Math.max(0, contentClaim.getLength() - writtenToFlowFile))
                 .size(writtenToFlowFile)
                 .build();
         }
@@ -3331,6 +3361,62 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         }
     }
 
+    /**
+     * @return a MessageDigest for computing the digest of content that is written, or <code>null</code> if the Content Repository does not deduplicate content
+     */
+    private MessageDigest createContentDigest() {
+        if (!context.getContentRepository().isContentDeduplicationEnabled()) {
+            return null;
+        }
+
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new ProcessException("SHA-256 is not supported", e);
+        }
+    }
+
+    private static OutputStream digest(final OutputStream out, final MessageDigest contentDigest) {
+        return contentDigest == null ? out : new DigestOutputStream(out, contentDigest);
+    }
+
+    /**
+     * Offers newly written content to the Content Repository for deduplication. If the repository already holds identical content,
+     * the new claim becomes a transient claim, in the same way as a claim that is not written to, and the existing claim is returned.
+     *
+     * @param newClaim the claim that the content was written to
+     * @param contentDigest the digest of the content, or <code>null</code> if content is not deduplicated
+     * @param contentLength the number of bytes of content that were written
+     * @param record the record whose content was written
+     * @return the claim that the FlowFile should reference
+     */
+    private ContentClaim deduplicate(final ContentClaim newClaim, final MessageDigest contentDigest, final long contentLength, final StandardRepositoryRecord record) {
+        // Only a claim that holds exactly the content of the FlowFile can be shared with other FlowFiles
+        if (contentDigest == null || newClaim.getLength() != contentLength) {
+            return newClaim;
+        }
+
+        final ContentRepository contentRepository = context.getContentRepository();
+        try {
+            // Ensure that the content is no longer buffered by the session before other FlowFiles are able to reference it
+            claimCache.flush(newClaim);
+
+            final ContentClaim existingClaim = contentRepository.deduplicate(newClaim, contentDigest.digest());
+            if (existingClaim == newClaim) {
+                return newClaim;
+            }
+
+            claimLog.debug("Content of {} is identical to {}; releasing {}", record.getCurrent(), existingClaim, newClaim);
+            contentRepository.decrementClaimantCount(newClaim);
+            record.addTransientClaim(newClaim);
+            return existingClaim;
+        } catch (final IOException ioe) {
+            // Deduplication only saves space, so the FlowFile keeps the content that was written for it
+            LOG.warn("Failed to deduplicate content of {} for {}", newClaim, record.getCurrent(), ioe);
+            return newClaim;
+        }
+    }
+
     private void resetWriteClaims() {
         resetWriteClaims(true);
     }
@@ -3373,6 +3459,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
 
         long writtenToFlowFile = 0L;
         ContentClaim newClaim = null;
+        final MessageDigest contentDigest = createContentDigest();
         try {
             newClaim = claimCache.getContentClaim();
             claimLog.debug("Creating ContentClaim {} for 'write' for {}", newClaim, source);
@@ -3400,7 +3487,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
                 // ContentNotFoundException because if it is thrown, the Processor code may catch it and do something else with it
                 // but in reality, if it is thrown, we want to know about it and handle it, even if the Processor code catches it.
                 final FlowFileAccessInputStream ffais = new FlowFileAccessInputStream(countingIn, source, currClaim);
-                final FlowFileAccessOutputStream ffaos = new FlowFileAccessOutputStream(countingOut, source);
+                final FlowFileAccessOutputStream ffaos = new FlowFileAccessOutputStream(digest(countingOut, contentDigest), source);
                 boolean cnfeThrown = false;
 
                 try {
@@ -3445,10 +3532,11 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
             context.getContentRepository().decrementClaimantCount(newClaim);
             record.addTransientClaim(newClaim);
         } else {
+            final ContentClaim contentClaim = deduplicate(newClaim, contentDigest, writtenToFlowFile, record);
             newFile = new StandardFlowFileRecord.Builder()
                 .fromFlowFile(record.getCurrent())
-                .contentClaim(newClaim)
-                .contentClaimOffset(Math.max(0L, newClaim.getLength() - writtenToFlowFile))
+                .contentClaim(contentClaim)
+                .contentClaimOffset(Math.max(0L, contentClaim.getLength() - writtenToFlowFile))
                 .size(writtenToFlowFile)
                 .build();
         }
@@ -3483,8 +3571,15 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
 
         claimOffset = 0L;
         final long newSize;
+        final MessageDigest contentDigest = createContentDigest();
         try {
-            newSize = context.getContentRepository().importFrom(source, newClaim);
+            if (contentDigest == null) {
+                newSize = context.getContentRepository().importFrom(source, newClaim);
+            } else {
+                try (final InputStream in = new DigestInputStream(Files.newInputStream(source), contentDigest)) {
+                    newSize = context.getContentRepository().importFrom(in, newClaim);
+                }
+            }
             bytesWritten += newSize;
             bytesRead += newSize;
         } catch (final Throwable t) {
@@ -3509,7 +3604,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         } else {
             newFile = new StandardFlowFileRecord.Builder()
                 .fromFlowFile(record.getCurrent())
-                .contentClaim(newClaim)
+                .contentClaim(deduplicate(newClaim, contentDigest, newSize, record))
                 .contentClaimOffset(claimOffset)
                 .size(newSize)
                 .addAttribute(CoreAttributes.FILENAME.key(), source.toFile().getName())
@@ -3535,12 +3630,14 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         final long claimOffset = 0L;
 
         final long newSize;
+        final MessageDigest contentDigest = createContentDigest();
         try {
             try {
                 newClaim = context.getContentRepository().create(context.getConnectable().isLossTolerant());
                 claimLog.debug("Creating ContentClaim {} for 'importFrom' for {}", newClaim, destination);
 
-                newSize = context.getContentRepository().importFrom(createTaskTerminationStream(source), newClaim);
+                final InputStream in = contentDigest == null ? source : new DigestInputStream(source, contentDigest);
+                newSize = context.getContentRepository().importFrom(createTaskTerminationStream(in), newClaim);
                 bytesWritten += newSize;
             } catch (final IOException e) {
                 throw new FlowFileAccessException("Unable to create ContentClaim due to " + e.toString(), e);
@@ -3568,7 +3665,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         } else {
             newFile = new StandardFlowFileRecord.Builder()
                 .fromFlowFile(record.getCurrent())
-                .contentClaim(newClaim)
+                .contentClaim(deduplicate(newClaim, contentDigest, newSize, record))
                 .contentClaimOffset(claimOffset)
                 .size(newSize)
                 .build();
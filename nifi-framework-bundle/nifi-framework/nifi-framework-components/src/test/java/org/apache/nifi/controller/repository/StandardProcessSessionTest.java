@@ -161,6 +161,7 @@ class StandardProcessSessionTest {
         when(repositoryContext.getProvenanceRepository()).thenReturn(provenanceRepository);
         when(repositoryContext.getFlowFileRepository()).thenReturn(flowFileRepository);
         when(repositoryContext.getFlowFileEventRepository()).thenReturn(flowFileEventRepository);
+        when(repositoryContext.getProvenanceEventSampler()).thenReturn(ProvenanceEventSampler.RETAIN_ALL);
         when(connectable.getMaxBackoffPeriod()).thenReturn(BACKOFF_PERIOD);
     }
 
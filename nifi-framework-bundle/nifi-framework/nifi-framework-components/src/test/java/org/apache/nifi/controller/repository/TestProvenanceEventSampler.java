@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.groups.ProcessGroup;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestProvenanceEventSampler {
+
+    @Test
+    public void testNoRules() {
+        assertSame(ProvenanceEventSampler.RETAIN_ALL, ProvenanceEventSampler.fromRules(null));
+        assertSame(ProvenanceEventSampler.RETAIN_ALL, ProvenanceEventSampler.fromRules("  "));
+        assertFalse(ProvenanceEventSampler.RETAIN_ALL.hasRules());
+    }
+
+    @Test
+    public void testSuppressEventType() {
+        final ProvenanceEventSampler sampler = ProvenanceEventSampler.fromRules("ROUTE=0");
+        assertTrue(sampler.hasRules());
+
+        assertFalse(sampler.isRetained(null, createEvent(ProvenanceEventType.ROUTE)));
+        assertTrue(sampler.isRetained(null, createEvent(ProvenanceEventType.ATTRIBUTES_MODIFIED)));
+        assertEquals(1L, sampler.getDroppedEventCount());
+        assertEquals(0L, sampler.getSampledEventCount());
+        assertEquals(Map.of(ProvenanceEventType.ROUTE, 1L), sampler.getDroppedEventCounts());
+    }
+
+    @Test
+    public void testSampleRate() {
+        final ProvenanceEventSampler sampler = ProvenanceEventSampler.fromRules("attributes_modified=0.25");
+
+        int retained = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (sampler.isRetained(null, createEvent(ProvenanceEventType.ATTRIBUTES_MODIFIED))) {
+                retained++;
+            }
+        }
+
+        assertTrue(retained > 2_000 && retained < 3_000, "Expected about 2500 events to be retained but was " + retained);
+        assertEquals(retained, sampler.getSampledEventCount());
+        assertEquals(10_000 - retained, sampler.getDroppedEventCount());
+    }
+
+    @Test
+    public void testSamplingConsistentPerFlowFile() {
+        final ProvenanceEventSampler sampler = ProvenanceEventSampler.fromRules("*=0.5");
+        for (int i = 0; i < 100; i++) {
+            final String uuid = UUID.randomUUID().toString();
+            final boolean routeRetained = sampler.isRetained(null, createEvent(ProvenanceEventType.ROUTE, uuid));
+            assertEquals(routeRetained, sampler.isRetained(null, createEvent(ProvenanceEventType.ATTRIBUTES_MODIFIED, uuid)));
+        }
+    }
+
+    @Test
+    public void testProcessGroupRulesTakePrecedence() {
+        final ProcessGroup parent = createProcessGroup("parent", null);
+        final ProcessGroup child = createProcessGroup("child", parent);
+        final ProcessGroup other = createProcessGroup("other", null);
+
+        final ProvenanceEventSampler sampler = ProvenanceEventSampler.fromRules("ROUTE=0, parent/*=0, child/ROUTE=1");
+
+        // Rule for the child group's event type takes precedence over the parent's wildcard
+        assertTrue(sampler.isRetained(child, createEvent(ProvenanceEventType.ROUTE)));
+        // Parent's wildcard applies to the child for other event types
+        assertFalse(sampler.isRetained(child, createEvent(ProvenanceEventType.CONTENT_MODIFIED)));
+        assertFalse(sampler.isRetained(parent, createEvent(ProvenanceEventType.ROUTE)));
+        // Groups without rules fall back to the global rules
+        assertFalse(sampler.isRetained(other, createEvent(ProvenanceEventType.ROUTE)));
+        assertTrue(sampler.isRetained(other, createEvent(ProvenanceEventType.CONTENT_MODIFIED)));
+    }
+
+    @Test
+    public void testLineageEventsAlwaysRetained() {
+        final ProvenanceEventSampler sampler = ProvenanceEventSampler.fromRules("*=0");
+        assertTrue(sampler.isRetained(null, createEvent(ProvenanceEventType.CREATE)));
+        assertTrue(sampler.isRetained(null, createEvent(ProvenanceEventType.FORK)));
+        assertTrue(sampler.isRetained(null, createEvent(ProvenanceEventType.DROP)));
+        assertFalse(sampler.isRetained(null, createEvent(ProvenanceEventType.SEND)));
+
+        assertThrows(IllegalArgumentException.class, () -> ProvenanceEventSampler.fromRules("DROP=0.5"));
+    }
+
+    @Test
+    public void testInvalidRules() {
+        assertThrows(IllegalArgumentException.class, () -> ProvenanceEventSampler.fromRules("ROUTE"));
+        assertThrows(IllegalArgumentException.class, () -> ProvenanceEventSampler.fromRules("ROUTE=1.5"));
+        assertThrows(IllegalArgumentException.class, () -> ProvenanceEventSampler.fromRules("ROUTE=abc"));
+        assertThrows(IllegalArgumentException.class, () -> ProvenanceEventSampler.fromRules("NOT_A_TYPE=0"));
+        assertThrows(IllegalArgumentException.class, () -> ProvenanceEventSampler.fromRules("/ROUTE=0"));
+    }
+
+    private ProvenanceEventRecord createEvent(final ProvenanceEventType eventType) {
+        return createEvent(eventType, UUID.randomUUID().toString());
+    }
+
+    private ProvenanceEventRecord createEvent(final ProvenanceEventType eventType, final String flowFileUuid) {
+        final ProvenanceEventRecord event = mock(ProvenanceEventRecord.class);
+        when(event.getEventType()).thenReturn(eventType);
+        when(event.getFlowFileUuid()).thenReturn(flowFileUuid);
+        return event;
+    }
+
+    private ProcessGroup createProcessGroup(final String identifier, final ProcessGroup parent) {
+        final ProcessGroup group = mock(ProcessGroup.class);
+        when(group.getIdentifier()).thenReturn(identifier);
+        when(group.getParent()).thenReturn(parent);
+        return group;
+    }
+}
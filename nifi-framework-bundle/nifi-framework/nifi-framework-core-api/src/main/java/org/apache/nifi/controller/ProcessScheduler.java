@@ -19,6 +19,7 @@ package org.apache.nifi.controller;
 import org.apache.nifi.annotation.notification.PrimaryNodeState;
 import org.apache.nifi.connectable.Funnel;
 import org.apache.nifi.connectable.Port;
+import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.service.ControllerServiceNode;
 import org.apache.nifi.controller.service.ControllerServiceProvider;
 import org.apache.nifi.groups.StatelessGroupNode;
@@ -277,4 +278,21 @@ public interface ProcessScheduler {
 
     void notifyPrimaryNodeStateChange(ReportingTaskNode taskNode, PrimaryNodeState primaryNodeState);
 
+    /**
+     * Notifies the Scheduler that FlowFiles have been added to the given queue, so that the component
+     * that consumes from the queue can be triggered without waiting out the period that it yields when it has no work
+     *
+     * @param queue the queue that FlowFiles were added to
+     */
+    default void onFlowFilesQueued(FlowFileQueue queue) {
+    }
+
+    /**
+     * Notifies the Scheduler that the given queue is no longer full, so that the component that adds FlowFiles
+     * to the queue can be triggered without waiting out the period that it yields when back pressure is applied
+     *
+     * @param queue the queue whose back pressure was released
+     */
+    default void onBackPressureReleased(FlowFileQueue queue) {
+    }
 }
@@ -56,6 +56,21 @@ public class LifecycleState {
         return true;
     }
 
+    /**
+     * Increments the number of active threads only if the component is scheduled and fewer than the given number of threads are active
+     *
+     * @param sessionFactory the session factory that the thread will use
+     * @param maxActiveThreads the maximum number of threads that may be active
+     * @return <code>true</code> if the number of active threads was incremented, <code>false</code> otherwise
+     */
+    public synchronized boolean tryIncrementActiveThreadCount(final ActiveProcessSessionFactory sessionFactory, final int maxActiveThreads) {
+        if (terminated || !scheduled.get() || activeThreadCount.get() >= maxActiveThreads) {
+            return false;
+        }
+        incrementActiveThreadCount(sessionFactory);
+        return true;
+    }
+
     public synchronized int incrementActiveThreadCount(final ActiveProcessSessionFactory sessionFactory) {
         if (terminated) {
             throw new TerminatedTaskException();
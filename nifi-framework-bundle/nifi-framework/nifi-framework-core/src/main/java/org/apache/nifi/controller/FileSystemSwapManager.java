@@ -27,6 +27,8 @@ import org.apache.nifi.controller.repository.SwapContents;
 import org.apache.nifi.controller.repository.SwapManagerInitializationContext;
 import org.apache.nifi.controller.repository.SwapSummary;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.swap.CompressedSwapDeserializer;
+import org.apache.nifi.controller.swap.CompressedSwapSerializer;
 import org.apache.nifi.controller.swap.SchemaSwapDeserializer;
 import org.apache.nifi.controller.swap.SchemaSwapSerializer;
 import org.apache.nifi.controller.swap.SimpleSwapDeserializer;
@@ -53,6 +55,7 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -64,6 +67,16 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -84,8 +97,15 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
     public static final String EVENT_CATEGORY = "Swap FlowFiles";
     private static final Logger logger = LoggerFactory.getLogger(FileSystemSwapManager.class);
 
+    private static final long SWAP_THREAD_KEEP_ALIVE_SECONDS = 60L;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30L;
+    private static final AtomicInteger swapThreadIndex = new AtomicInteger(0);
+
     private final File storageDirectory;
     private final FieldCache fieldCache = new CaffeineFieldCache(10_000_000);
+    private final ThreadPoolExecutor swapExecutor;
+    private final boolean compressSwapFiles;
+    private final ConcurrentMap<String, CompletableFuture<SwapContents>> prefetchedContents = new ConcurrentHashMap<>();
 
     // effectively final
     private FlowFileRepository flowFileRepository;
@@ -99,17 +119,69 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
      */
     public FileSystemSwapManager() {
         storageDirectory = null;
+        swapExecutor = null;
+        compressSwapFiles = false;
     }
 
     public FileSystemSwapManager(final NiFiProperties nifiProperties) {
-        this(nifiProperties.getFlowFileRepositoryPath());
+        this(nifiProperties.getFlowFileRepositoryPath(), nifiProperties.getQueueSwapAsyncThreads(), nifiProperties.isQueueSwapCompressed());
     }
 
     public FileSystemSwapManager(final Path flowFileRepoPath) {
+        this(flowFileRepoPath, 0);
+    }
+
+    public FileSystemSwapManager(final Path flowFileRepoPath, final int asyncThreads) {
+        this(flowFileRepoPath, asyncThreads, false);
+    }
+
+    /**
+     * @param flowFileRepoPath the path of the FlowFile Repository, within which swap files are stored
+     * @param asyncThreads the maximum number of background threads to use for writing swap files and for reading swap files ahead of when they
+     * are swapped in, or 0 to perform all swapping synchronously. Threads are created only when needed and are stopped after they have been idle
+     * for a minute, so a Swap Manager whose queue is not swapping does not hold any threads.
+     * @param compressSwapFiles whether swap files should be written using the {@link CompressedSwapSerializer} rather than the {@link SchemaSwapSerializer}.
+     * Swap files written by the {@link CompressedSwapSerializer} cannot be read by earlier versions of NiFi.
+     */
+    public FileSystemSwapManager(final Path flowFileRepoPath, final int asyncThreads, final boolean compressSwapFiles) {
         this.storageDirectory = flowFileRepoPath.resolve("swap").toFile();
         if (!storageDirectory.exists() && !storageDirectory.mkdirs()) {
             throw new RuntimeException("Cannot create Swap Storage directory " + storageDirectory.getAbsolutePath());
         }
+
+        this.swapExecutor = asyncThreads > 0 ? createSwapExecutor(asyncThreads) : null;
+        this.compressSwapFiles = compressSwapFiles;
+    }
+
+    private static ThreadPoolExecutor createSwapExecutor(final int threadCount) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount, SWAP_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            final Thread t = Executors.defaultThreadFactory().newThread(r);
+            t.setName("Swap FlowFiles " + swapThreadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public void shutdown() {
+        prefetchedContents.clear();
+        if (swapExecutor == null) {
+            return;
+        }
+
+        // Allow any Swap Files that are being written to complete so that the FlowFile Repository is updated to reflect them
+        swapExecutor.shutdown();
+        try {
+            if (!swapExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Timed out waiting for Swap Files in {} to be written", storageDirectory);
+                swapExecutor.shutdownNow();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            swapExecutor.shutdownNow();
+        }
     }
 
 
@@ -134,15 +206,56 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
             return null;
         }
 
+        return writeSwapFile(toSwap, flowFileQueue, getSwapFile(flowFileQueue, partitionName));
+    }
+
+    @Override
+    public CompletableFuture<String> swapOutAsync(final List<FlowFileRecord> toSwap, final FlowFileQueue flowFileQueue, final String partitionName) {
+        if (swapExecutor == null) {
+            return FlowFileSwapManager.super.swapOutAsync(toSwap, flowFileQueue, partitionName);
+        }
+        if (toSwap == null || toSwap.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Determine the name of the file on the calling thread because swap files are recovered in the order of the timestamps in their names.
+        final File swapFile;
+        try {
+            swapFile = getSwapFile(flowFileQueue, partitionName);
+        } catch (final RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        final Runnable writeTask = () -> {
+            try {
+                future.complete(writeSwapFile(toSwap, flowFileQueue, swapFile));
+            } catch (final Throwable t) {
+                future.completeExceptionally(t);
+            }
+        };
+
+        try {
+            swapExecutor.execute(writeTask);
+        } catch (final RejectedExecutionException e) {
+            // The Swap Manager has been shut down, so write the file on the calling thread instead
+            writeTask.run();
+        }
+
+        return future;
+    }
+
+    private File getSwapFile(final FlowFileQueue flowFileQueue, final String partitionName) {
         final String swapFileName = getSwapFileName(flowFileQueue.getIdentifier(), partitionName);
         final Path storageDirectoryPath = storageDirectory.toPath();
-        final Path swapFilePath = storageDirectoryPath.resolve(swapFileName).toAbsolutePath();
+        return storageDirectoryPath.resolve(swapFileName).toAbsolutePath().toFile();
+    }
 
-        final File swapFile = swapFilePath.toFile();
+    private String writeSwapFile(final List<FlowFileRecord> toSwap, final FlowFileQueue flowFileQueue, final File swapFile) throws IOException {
         final File swapTempFile = new File(swapFile.getParentFile(), swapFile.getName() + ".part");
         final String swapLocation = swapFile.getAbsolutePath();
 
-        final SwapSerializer serializer = new SchemaSwapSerializer();
+        final SwapSerializer serializer = compressSwapFiles ? new CompressedSwapSerializer() : new SchemaSwapSerializer();
         try (final OutputStream os = getOutputStream(swapTempFile);
             final OutputStream out = new BufferedOutputStream(os)) {
             out.write(MAGIC_HEADER);
@@ -172,6 +285,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
 
         final boolean validLocation = flowFileRepository.isValidSwapLocationSuffix(swapFile.getName());
         if (!validLocation) {
+            prefetchedContents.remove(swapLocation);
             warn("Cannot swap in FlowFiles from location " + swapLocation + " because the FlowFile Repository does not know about this Swap Location. " +
                 "This file should be manually removed. This typically occurs when a Swap File is written but the FlowFile Repository is not updated yet to reflect this. " +
                 "This is generally not a cause for concern, but may be indicative of a failure to update the FlowFile Repository.");
@@ -179,7 +293,8 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
             return new StandardSwapContents(swapSummary, Collections.emptyList());
         }
 
-        final SwapContents swapContents = peek(swapLocation, flowFileQueue);
+        final SwapContents prefetched = getPrefetchedContents(swapLocation);
+        final SwapContents swapContents = prefetched == null ? peek(swapLocation, flowFileQueue) : prefetched;
         flowFileRepository.swapFlowFilesIn(swapFile.getAbsolutePath(), swapContents.getFlowFiles(), flowFileQueue);
 
         if (!swapFile.delete()) {
@@ -189,6 +304,48 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
         return swapContents;
     }
 
+    @Override
+    public void prefetch(final String swapLocation, final FlowFileQueue flowFileQueue) {
+        if (swapExecutor == null || swapExecutor.isShutdown()) {
+            return;
+        }
+
+        prefetchedContents.computeIfAbsent(swapLocation, location -> {
+            final CompletableFuture<SwapContents> future = new CompletableFuture<>();
+            try {
+                swapExecutor.execute(() -> {
+                    try {
+                        future.complete(peek(location, flowFileQueue));
+                    } catch (final Throwable t) {
+                        future.completeExceptionally(t);
+                    }
+                });
+            } catch (final RejectedExecutionException e) {
+                return null;
+            }
+
+            return future;
+        });
+    }
+
+    private SwapContents getPrefetchedContents(final String swapLocation) throws IOException {
+        final CompletableFuture<SwapContents> future = prefetchedContents.remove(swapLocation);
+        if (future == null) {
+            return null;
+        }
+
+        try {
+            return future.get();
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for Swap File " + swapLocation + " to be read");
+        } catch (final ExecutionException ee) {
+            // Read the file again so that the failure, including any partial contents, is reported exactly as it would have been without prefetching
+            logger.debug("Failed to prefetch Swap File {}; will read it again", swapLocation, ee.getCause());
+            return null;
+        }
+    }
+
     @Override
     public SwapContents peek(final String swapLocation, final FlowFileQueue flowFileQueue) throws IOException {
         final File swapFile = new File(swapLocation);
@@ -207,6 +364,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
 
     @Override
     public void purge() {
+        prefetchedContents.clear();
         final File[] swapFiles = storageDirectory.listFiles((dir, name) -> SWAP_FILE_PATTERN.matcher(name).matches() || TEMP_SWAP_FILE_PATTERN.matcher(name).matches());
 
         for (final File file : swapFiles) {
@@ -366,6 +524,9 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
 
         if (Arrays.equals(magicHeader, MAGIC_HEADER)) {
             final String serializationName = dis.readUTF();
+            if (serializationName.equals(CompressedSwapDeserializer.getSerializationName())) {
+                return new CompressedSwapDeserializer(fieldCache);
+            }
             if (serializationName.equals(SchemaSwapDeserializer.getSerializationName())) {
                 return new SchemaSwapDeserializer(fieldCache);
             }
@@ -451,6 +612,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
             throw new FileNotFoundException("Could not change name of partition for swap location " + swapLocation + " because no swap file exists at that location");
         }
 
+        prefetchedContents.remove(swapLocation);
         final String existingFilename = existingFile.getName();
 
         final String newFilename;
@@ -93,6 +93,7 @@ import org.apache.nifi.controller.repository.FlowFileEventRepository;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
 import org.apache.nifi.controller.repository.FlowFileSwapManager;
+import org.apache.nifi.controller.repository.ProvenanceEventSampler;
 import org.apache.nifi.controller.repository.QueueProvider;
 import org.apache.nifi.controller.repository.RepositoryStatusReport;
 import org.apache.nifi.controller.repository.StandardContentRepositoryContext;
@@ -275,6 +276,7 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
     private final FlowFileRepository flowFileRepository;
     private final FlowFileEventRepository flowFileEventRepository;
     private final ProvenanceRepository provenanceRepository;
+    private final ProvenanceEventSampler provenanceEventSampler;
     private final BulletinRepository bulletinRepository;
     private final AssetManager assetManager;
     private final LifecycleStateManager lifecycleStateManager;
@@ -302,6 +304,7 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
     private final Set<NioAsyncLoadBalanceClientTask> loadBalanceClientTasks = new HashSet<>();
 
     private final ConcurrentMap<String, ProcessGroup> allProcessGroups = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, FlowFileSwapManager> connectionSwapManagers = new ConcurrentHashMap<>();
 
     private final ZooKeeperStateServer zooKeeperStateServer;
 
@@ -520,6 +523,7 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
         }
 
         bulletinRepository = bulletinRepo;
+        provenanceEventSampler = ProvenanceEventSampler.fromRules(nifiProperties.getProvenanceSamplingRules());
 
         try {
             this.provenanceAuthorizableFactory = new StandardProvenanceAuthorizableFactory(this);
@@ -544,7 +548,7 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
         parameterContextManager = new StandardParameterContextManager();
         final long maxAppendableBytes = getMaxAppendableBytes();
         repositoryContextFactory = new RepositoryContextFactory(contentRepository, flowFileRepository, flowFileEventRepository,
-            counterRepositoryRef.get(), provenanceRepository, stateManagerProvider, maxAppendableBytes);
+            counterRepositoryRef.get(), provenanceRepository, stateManagerProvider, maxAppendableBytes, provenanceEventSampler);
         assetManager = createAssetManager(nifiProperties);
 
         this.flowAnalysisThreadPool = new FlowEngine(1, "Background Flow Analysis", true);
@@ -977,6 +981,18 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
         }
     }
 
+    /**
+     * Shuts down the FlowFileSwapManager that was created for the Connection with the given identifier, if any
+     *
+     * @param connectionId the identifier of the Connection that has been removed
+     */
+    public void onConnectionRemoved(final String connectionId) {
+        final FlowFileSwapManager swapManager = connectionSwapManagers.remove(connectionId);
+        if (swapManager != null) {
+            swapManager.shutdown();
+        }
+    }
+
     public EventReporter createEventReporter() {
         return new EventReporter() {
             private static final long serialVersionUID = 1L;
@@ -1042,7 +1058,7 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
             // Begin expiring FlowFiles that are old
             final long maxAppendableClaimBytes = getMaxAppendableBytes();
             final RepositoryContextFactory contextFactory = new RepositoryContextFactory(contentRepository, flowFileRepository,
-                    flowFileEventRepository, counterRepositoryRef.get(), provenanceRepository, stateManagerProvider, maxAppendableClaimBytes);
+                    flowFileEventRepository, counterRepositoryRef.get(), provenanceRepository, stateManagerProvider, maxAppendableClaimBytes, provenanceEventSampler);
             processScheduler.scheduleFrameworkTask(new ExpireFlowFiles(this, contextFactory), "Expire FlowFiles", 30L, 30L, TimeUnit.SECONDS);
 
             // now that we've loaded the FlowFiles, this has restored our ContentClaims' states, so we can tell the
@@ -1603,6 +1619,15 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
                 LOG.info("Interrupted while waiting for controller termination.");
             }
 
+            for (final FlowFileSwapManager swapManager : connectionSwapManagers.values()) {
+                try {
+                    swapManager.shutdown();
+                } catch (final Throwable t) {
+                    LOG.warn("Unable to shut down {}", swapManager, t);
+                }
+            }
+            connectionSwapManagers.clear();
+
             try {
                 flowFileRepository.close();
             } catch (final Throwable t) {
@@ -2314,13 +2339,19 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
             swapManager.initialize(initializationContext);
         }
 
+        final FlowFileSwapManager replacedSwapManager = connectionSwapManagers.put(id, swapManager);
+        if (replacedSwapManager != null) {
+            replacedSwapManager.shutdown();
+        }
+
         final FlowFileQueueFactory flowFileQueueFactory = (loadBalanceStrategy, partitioningAttribute, processGroup) -> {
             final FlowFileQueue flowFileQueue;
 
             if (clusterCoordinator == null) {
                 flowFileQueue = new StandardFlowFileQueue(id, flowFileRepository, provenanceRepository, processScheduler, swapManager,
                         eventReporter, nifiProperties.getQueueSwapThreshold(),
-                        processGroup.getDefaultFlowFileExpiration(), processGroup.getDefaultBackPressureObjectThreshold(), processGroup.getDefaultBackPressureDataSizeThreshold());
+                        processGroup.getDefaultFlowFileExpiration(), processGroup.getDefaultBackPressureObjectThreshold(), processGroup.getDefaultBackPressureDataSizeThreshold(),
+                        nifiProperties.isQueueCompactFlowFiles());
             } else {
                 flowFileQueue = new SocketLoadBalancedFlowFileQueue(id, processScheduler, flowFileRepository, provenanceRepository, contentRepository,
                         clusterCoordinator, loadBalanceClientRegistry, swapManager, nifiProperties.getQueueSwapThreshold(), eventReporter);
@@ -3374,6 +3405,13 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
         return provenanceRepository;
     }
 
+    /**
+     * @return the sampler that determines which Provenance Events are registered with the Provenance Repository, including the number of events that it has dropped and sampled
+     */
+    public ProvenanceEventSampler getProvenanceEventSampler() {
+        return provenanceEventSampler;
+    }
+
     public StatusHistoryDTO getConnectionStatusHistory(final String connectionId) {
         return getConnectionStatusHistory(connectionId, null, null, Integer.MAX_VALUE);
     }
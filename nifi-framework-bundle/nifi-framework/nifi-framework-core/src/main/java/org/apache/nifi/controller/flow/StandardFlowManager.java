@@ -381,6 +381,12 @@ public class StandardFlowManager extends AbstractFlowManager implements FlowMana
         return flowController.createConnection(id, name, source, destination, relationshipNames);
     }
 
+    @Override
+    public void onConnectionRemoved(final Connection connection) {
+        super.onConnectionRemoved(connection);
+        flowController.onConnectionRemoved(connection.getIdentifier());
+    }
+
     @Override
     public FlowRegistryClientNode createFlowRegistryClient(
             final String type, final String id, final BundleCoordinate bundleCoordinate, final Set<URL> additionalUrls,
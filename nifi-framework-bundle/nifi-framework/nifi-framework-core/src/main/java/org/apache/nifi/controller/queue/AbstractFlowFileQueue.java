@@ -89,6 +89,26 @@ public abstract class AbstractFlowFileQueue implements FlowFileQueue {
         return scheduler;
     }
 
+    /**
+     * Lets the scheduler know that FlowFiles were added to this queue, so that the destination of the Connection can be triggered
+     */
+    protected void notifyFlowFilesQueued() {
+        if (scheduler != null) {
+            scheduler.onFlowFilesQueued(this);
+        }
+    }
+
+    /**
+     * Lets the scheduler know that back pressure is no longer applied to this queue, so that the source of the Connection can be triggered
+     *
+     * @param wasFull whether or not the queue was full before FlowFiles were removed from it
+     */
+    protected void notifyIfBackPressureReleased(final boolean wasFull) {
+        if (wasFull && scheduler != null && !isFull()) {
+            scheduler.onBackPressureReleased(this);
+        }
+    }
+
     @Override
     public String getFlowFileExpiration() {
         return expirationPeriod.get().getPeriod();
@@ -53,11 +53,19 @@ public class StandardFlowFileQueue extends AbstractFlowFileQueue implements Flow
     public StandardFlowFileQueue(final String identifier, final FlowFileRepository flowFileRepo, final ProvenanceEventRepository provRepo,
                                  final ProcessScheduler scheduler, final FlowFileSwapManager swapManager, final EventReporter eventReporter,
                                  final int swapThreshold, final String expirationPeriod, final long defaultBackPressureObjectThreshold, final String defaultBackPressureDataSizeThreshold) {
+        this(identifier, flowFileRepo, provRepo, scheduler, swapManager, eventReporter, swapThreshold, expirationPeriod, defaultBackPressureObjectThreshold,
+            defaultBackPressureDataSizeThreshold, false);
+    }
+
+    public StandardFlowFileQueue(final String identifier, final FlowFileRepository flowFileRepo, final ProvenanceEventRepository provRepo,
+                                 final ProcessScheduler scheduler, final FlowFileSwapManager swapManager, final EventReporter eventReporter,
+                                 final int swapThreshold, final String expirationPeriod, final long defaultBackPressureObjectThreshold, final String defaultBackPressureDataSizeThreshold,
+                                 final boolean compactFlowFiles) {
 
         super(identifier, scheduler, flowFileRepo, provRepo);
         super.setFlowFileExpiration(expirationPeriod);
         this.swapManager = swapManager;
-        this.queue = new SwappablePriorityQueue(swapManager, swapThreshold, eventReporter, this, this::drop, null);
+        this.queue = new SwappablePriorityQueue(swapManager, swapThreshold, eventReporter, this, this::drop, null, compactFlowFiles);
 
         writeLock = new TimedLock(this.lock.writeLock(), getIdentifier() + " Write Lock", 100);
 
@@ -103,17 +111,19 @@ public class StandardFlowFileQueue extends AbstractFlowFileQueue implements Flow
 
     @Override
     public QueueDiagnostics getQueueDiagnostics() {
-        return new StandardQueueDiagnostics(queue.getQueueDiagnostics(), Collections.emptyList());
+        return new StandardQueueDiagnostics(queue.getQueueDiagnostics(), Collections.emptyList(), queue.getSwapDiagnostics());
     }
 
     @Override
     public void put(final FlowFileRecord file) {
         queue.put(file);
+        notifyFlowFilesQueued();
     }
 
     @Override
     public void putAll(final Collection<FlowFileRecord> files) {
         queue.putAll(files);
+        notifyFlowFilesQueued();
     }
 
 
@@ -134,12 +144,16 @@ public class StandardFlowFileQueue extends AbstractFlowFileQueue implements Flow
 
     @Override
     public void acknowledge(final FlowFileRecord flowFile) {
+        final boolean wasFull = isFull();
         queue.acknowledge(flowFile);
+        notifyIfBackPressureReleased(wasFull);
     }
 
     @Override
     public void acknowledge(final Collection<FlowFileRecord> flowFiles) {
+        final boolean wasFull = isFull();
         queue.acknowledge(flowFiles);
+        notifyIfBackPressureReleased(wasFull);
     }
 
     @Override
@@ -22,10 +22,17 @@ import java.util.List;
 public class StandardQueueDiagnostics implements QueueDiagnostics {
     final LocalQueuePartitionDiagnostics localQueuePartitionDiagnostics;
     final List<RemoteQueuePartitionDiagnostics> remoteQueuePartitionDiagnostics;
+    final SwapDiagnostics swapDiagnostics;
 
     public StandardQueueDiagnostics(final LocalQueuePartitionDiagnostics localQueuePartitionDiagnostics, final List<RemoteQueuePartitionDiagnostics> remoteQueuePartitionDiagnostics) {
+        this(localQueuePartitionDiagnostics, remoteQueuePartitionDiagnostics, StandardSwapDiagnostics.EMPTY);
+    }
+
+    public StandardQueueDiagnostics(final LocalQueuePartitionDiagnostics localQueuePartitionDiagnostics, final List<RemoteQueuePartitionDiagnostics> remoteQueuePartitionDiagnostics,
+                                    final SwapDiagnostics swapDiagnostics) {
         this.localQueuePartitionDiagnostics = localQueuePartitionDiagnostics;
         this.remoteQueuePartitionDiagnostics = remoteQueuePartitionDiagnostics;
+        this.swapDiagnostics = swapDiagnostics;
     }
 
     @Override
@@ -37,4 +44,9 @@ public class StandardQueueDiagnostics implements QueueDiagnostics {
     public List<RemoteQueuePartitionDiagnostics> getRemoteQueuePartitionDiagnostics() {
         return remoteQueuePartitionDiagnostics;
     }
+
+    @Override
+    public SwapDiagnostics getSwapDiagnostics() {
+        return swapDiagnostics;
+    }
 }
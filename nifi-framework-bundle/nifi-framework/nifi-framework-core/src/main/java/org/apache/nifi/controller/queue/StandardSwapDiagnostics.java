@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue;
+
+public class StandardSwapDiagnostics implements SwapDiagnostics {
+    public static final SwapDiagnostics EMPTY = new StandardSwapDiagnostics(0L, 0L, 0L, 0L, 0L, 0L, 0);
+
+    private final long swapOutCount;
+    private final long swapOutNanos;
+    private final long maxSwapOutNanos;
+    private final long swapInCount;
+    private final long swapInNanos;
+    private final long maxSwapInNanos;
+    private final int pendingSwapOutCount;
+
+    public StandardSwapDiagnostics(final long swapOutCount, final long swapOutNanos, final long maxSwapOutNanos, final long swapInCount, final long swapInNanos,
+                                   final long maxSwapInNanos, final int pendingSwapOutCount) {
+        this.swapOutCount = swapOutCount;
+        this.swapOutNanos = swapOutNanos;
+        this.maxSwapOutNanos = maxSwapOutNanos;
+        this.swapInCount = swapInCount;
+        this.swapInNanos = swapInNanos;
+        this.maxSwapInNanos = maxSwapInNanos;
+        this.pendingSwapOutCount = pendingSwapOutCount;
+    }
+
+    @Override
+    public long getSwapOutCount() {
+        return swapOutCount;
+    }
+
+    @Override
+    public long getSwapOutNanos() {
+        return swapOutNanos;
+    }
+
+    @Override
+    public long getMaxSwapOutNanos() {
+        return maxSwapOutNanos;
+    }
+
+    @Override
+    public long getSwapInCount() {
+        return swapInCount;
+    }
+
+    @Override
+    public long getSwapInNanos() {
+        return swapInNanos;
+    }
+
+    @Override
+    public long getMaxSwapInNanos() {
+        return maxSwapInNanos;
+    }
+
+    @Override
+    public int getPendingSwapOutCount() {
+        return pendingSwapOutCount;
+    }
+}
@@ -17,6 +17,7 @@
 
 package org.apache.nifi.controller.queue;
 
+import org.apache.nifi.controller.repository.CompactFlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileSwapManager;
 import org.apache.nifi.controller.repository.IncompleteSwapFileException;
@@ -38,9 +39,11 @@ import org.slf4j.LoggerFactory;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -49,8 +52,13 @@ import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 
@@ -58,6 +66,7 @@ public class SwappablePriorityQueue {
     private static final Logger logger = LoggerFactory.getLogger(SwappablePriorityQueue.class);
     private static final int SWAP_RECORD_POLL_SIZE = 10_000;
     private static final int MAX_EXPIRED_RECORDS_PER_ITERATION = 10_000;
+    private static final String FIFO_PRIORITIZER_CLASS_NAME = "org.apache.nifi.prioritizer.FirstInFirstOutPrioritizer";
 
     private final int swapThreshold;
     private final FlowFileSwapManager swapManager;
@@ -66,6 +75,7 @@ public class SwappablePriorityQueue {
     private final DropFlowFileAction dropAction;
     private volatile List<FlowFilePrioritizer> priorities = new ArrayList<>();
     private final String swapPartitionName;
+    private final boolean compactFlowFiles;
 
     private final List<String> swapLocations = new ArrayList<>();
     private final AtomicReference<FlowFileQueueSize> size = new AtomicReference<>(new FlowFileQueueSize(0, 0L, 0, 0L, 0, 0, 0L));
@@ -87,13 +97,45 @@ public class SwappablePriorityQueue {
     private boolean swapMode = false;
     private volatile long topPenaltyExpiration = -1L;
 
+    // When the First-In-First-Out prioritizer is the only prioritizer configured, FlowFiles are ordered by the time at which they
+    // were enqueued, so there is no need to hold the write lock in order to maintain a heap. In that case, unpenalized FlowFiles that
+    // do not need to be swapped out are added to this lock-free queue while holding only the read lock, which many threads may hold
+    // at once, and they are polled from it in the same way as long as the active queue is empty. Any operation that obtains the write
+    // lock first moves the FlowFiles from this queue to the active queue so that the remainder of the logic need not be aware of it.
+    // FlowFiles in this queue are accounted for in the active count and bytes of the queue size. Queues without any prioritizer are not
+    // eligible, as the default ordering, which considers the Content Claim, must be retained.
+    private final Queue<FlowFileRecord> fifoQueue = new ConcurrentLinkedQueue<>();
+    private volatile boolean fifoMode = false;
+
     // The following members are used to keep metrics in memory for reporting purposes so that we don't have to constantly
     // read these values from swap files on disk.
     private final Map<String, Long> minQueueDateInSwapLocation = new HashMap<>();
     private final Map<String, Long> totalQueueDateInSwapLocation = new HashMap<>();
 
+    // Swap files that the Swap Manager is writing in the background, in the order in which they were swapped out. Each is counted as a swap file
+    // in the queue size as soon as it is handed to the Swap Manager, and it is moved to swapLocations, in order, once it has been written.
+    // Guarded by lock.
+    private final Deque<PendingSwapOut> pendingSwapOuts = new ArrayDeque<>();
+    private String prefetchedSwapLocation;
+
+    private final LongAdder swapOutCount = new LongAdder();
+    private final LongAdder swapOutNanos = new LongAdder();
+    private final AtomicLong maxSwapOutNanos = new AtomicLong(0L);
+    private final LongAdder swapInCount = new LongAdder();
+    private final LongAdder swapInNanos = new LongAdder();
+    private final AtomicLong maxSwapInNanos = new AtomicLong(0L);
+
     public SwappablePriorityQueue(final FlowFileSwapManager swapManager, final int swapThreshold, final EventReporter eventReporter, final FlowFileQueue flowFileQueue,
         final DropFlowFileAction dropAction, final String swapPartitionName) {
+        this(swapManager, swapThreshold, eventReporter, flowFileQueue, dropAction, swapPartitionName, false);
+    }
+
+    /**
+     * @param compactFlowFiles whether FlowFiles should be converted to a {@link CompactFlowFileRecord} when they are added to the queue, which reduces
+     * the amount of heap that is required to hold them at the expense of decoding their attributes whenever the attributes are accessed
+     */
+    public SwappablePriorityQueue(final FlowFileSwapManager swapManager, final int swapThreshold, final EventReporter eventReporter, final FlowFileQueue flowFileQueue,
+        final DropFlowFileAction dropAction, final String swapPartitionName, final boolean compactFlowFiles) {
         this.swapManager = swapManager;
         this.swapThreshold = swapThreshold;
 
@@ -103,6 +145,7 @@ public class SwappablePriorityQueue {
         this.flowFileQueue = flowFileQueue;
         this.dropAction = dropAction;
         this.swapPartitionName = swapPartitionName;
+        this.compactFlowFiles = compactFlowFiles;
 
         final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);
         readLock = new TimedLock(lock.readLock(), flowFileQueue.getIdentifier() + " Read Lock", 100);
@@ -120,7 +163,9 @@ public class SwappablePriorityQueue {
     public void setPriorities(final List<FlowFilePrioritizer> newPriorities) {
         writeLock.lock();
         try {
+            drainFifoQueue();
             this.priorities = new ArrayList<>(newPriorities);
+            this.fifoMode = isFirstInFirstOut(newPriorities);
 
             final PriorityQueue<FlowFileRecord> newQueue = new PriorityQueue<>(Math.max(20, activeQueue.size()), new QueuePrioritizer(newPriorities));
             newQueue.addAll(activeQueue);
@@ -131,6 +176,127 @@ public class SwappablePriorityQueue {
     }
 
 
+    private static boolean isFirstInFirstOut(final List<FlowFilePrioritizer> priorities) {
+        return priorities.size() == 1 && FIFO_PRIORITIZER_CLASS_NAME.equals(priorities.getFirst().getClass().getName());
+    }
+
+    /**
+     * Moves all FlowFiles from the lock-free FIFO queue to the active queue. The FlowFiles remain accounted for as active FlowFiles.
+     *
+     * This method MUST be called with the write lock held
+     */
+    private void drainFifoQueue() {
+        FlowFileRecord flowFile;
+        while ((flowFile = fifoQueue.poll()) != null) {
+            activeQueue.add(flowFile);
+        }
+    }
+
+    /**
+     * Attempts to add the given FlowFiles to the lock-free FIFO queue
+     *
+     * @param flowFiles the FlowFiles to add
+     * @param maxActiveCount the maximum number of active FlowFiles that may already be queued in order for the FlowFiles to be added without swapping
+     * @return <code>true</code> if the FlowFiles were added, <code>false</code> if they must be added while holding the write lock instead
+     */
+    private boolean offerFifo(final Collection<FlowFileRecord> flowFiles, final int maxActiveCount) {
+        if (!fifoMode) {
+            return false;
+        }
+
+        long bytes = 0L;
+        for (final FlowFileRecord flowFile : flowFiles) {
+            if (flowFile.isPenalized()) {
+                return false;
+            }
+
+            bytes += flowFile.getSize();
+        }
+
+        final int numFiles = flowFiles.size();
+        readLock.lock();
+        try {
+            if (!fifoMode || swapMode) {
+                return false;
+            }
+
+            // Only count the FlowFiles as active if nothing is swapped out and the swap threshold will not be reached. Doing so atomically with the
+            // update of the size ensures that FlowFiles are never added here while FlowFiles that were enqueued earlier are waiting to be swapped in.
+            boolean updated = false;
+            while (!updated) {
+                final FlowFileQueueSize original = size.get();
+                if (original.getSwappedCount() > 0 || original.getActiveCount() > maxActiveCount) {
+                    return false;
+                }
+
+                final FlowFileQueueSize newSize = new FlowFileQueueSize(original.getActiveCount() + numFiles, original.getActiveBytes() + bytes,
+                    original.getSwappedCount(), original.getSwappedBytes(), original.getSwapFileCount(),
+                    original.getUnacknowledgedCount(), original.getUnacknowledgedBytes());
+                updated = updateSize(original, newSize);
+            }
+
+            fifoQueue.addAll(flowFiles);
+
+            // The FlowFiles are not penalized, so the head of the queue is now available even if the head of the active queue is penalized.
+            topPenaltyExpiration = -1L;
+            logger.trace("{} put to {}", flowFiles, this);
+            return true;
+        } finally {
+            readLock.unlock("offerFifo");
+        }
+    }
+
+    /**
+     * Polls up to the given number of FlowFiles from the lock-free FIFO queue, if the active queue is empty.
+     *
+     * @return <code>true</code> if the poll was handled, <code>false</code> if the FlowFiles must be polled while holding the write lock instead
+     */
+    private boolean pollFifo(final List<FlowFileRecord> destination, final int maxResults, final Set<FlowFileRecord> expiredRecords, final long expirationMillis) {
+        if (!fifoMode) {
+            return false;
+        }
+
+        readLock.lock();
+        try {
+            // If FlowFiles are held in the active queue, such as those that are penalized or have been swapped in, they must be considered as well.
+            if (!fifoMode || !activeQueue.isEmpty() || !swapQueue.isEmpty() || !swapLocations.isEmpty() || !pendingSwapOuts.isEmpty()) {
+                return false;
+            }
+
+            long drainedBytes = 0L;
+            long expiredBytes = 0L;
+            int expiredCount = 0;
+            FlowFileRecord flowFile;
+            while (destination.size() < maxResults && (flowFile = fifoQueue.poll()) != null) {
+                if (isExpired(flowFile, expirationMillis)) {
+                    expiredRecords.add(flowFile);
+                    expiredBytes += flowFile.getSize();
+                    expiredCount++;
+
+                    if (expiredRecords.size() >= MAX_EXPIRED_RECORDS_PER_ITERATION) {
+                        break;
+                    }
+
+                    continue;
+                }
+
+                destination.add(flowFile);
+                drainedBytes += flowFile.getSize();
+            }
+
+            if (!destination.isEmpty()) {
+                unacknowledge(destination.size(), drainedBytes);
+            }
+            if (expiredCount > 0) {
+                incrementActiveQueueSize(-expiredCount, -expiredBytes);
+            }
+
+            return true;
+        } finally {
+            readLock.unlock("pollFifo");
+        }
+    }
+
     public LocalQueuePartitionDiagnostics getQueueDiagnostics() {
         readLock.lock();
         try {
@@ -143,10 +309,22 @@ public class SwappablePriorityQueue {
         }
     }
 
+    public SwapDiagnostics getSwapDiagnostics() {
+        readLock.lock();
+        try {
+            return new StandardSwapDiagnostics(swapOutCount.sum(), swapOutNanos.sum(), maxSwapOutNanos.get(), swapInCount.sum(), swapInNanos.sum(),
+                maxSwapInNanos.get(), pendingSwapOuts.size());
+        } finally {
+            readLock.unlock("getSwapDiagnostics");
+        }
+    }
+
     public List<FlowFileRecord> getActiveFlowFiles() {
         readLock.lock();
         try {
-            return new ArrayList<>(activeQueue);
+            final List<FlowFileRecord> activeFlowFiles = new ArrayList<>(activeQueue);
+            activeFlowFiles.addAll(fifoQueue);
+            return activeFlowFiles;
         } finally {
             readLock.unlock("getActiveFlowFiles");
         }
@@ -186,7 +364,7 @@ public class SwappablePriorityQueue {
 
         long bytesSwappedOut = 0L;
         int flowFilesSwappedOut = 0;
-        final List<String> swapLocations = new ArrayList<>(numSwapFiles);
+        int swapFilesStarted = 0;
         for (int i = 0; i < numSwapFiles; i++) {
             long bytesSwappedThisIteration = 0L;
             long totalSwapQueueDatesThisIteration = 0L;
@@ -202,32 +380,21 @@ public class SwappablePriorityQueue {
                 minQueueDateThisIteration = minQueueDateThisIteration < flowFile.getLastQueueDate() ? minQueueDateThisIteration : flowFile.getLastQueueDate();
             }
 
-            try {
-                Collections.reverse(toSwap); // currently ordered in reverse priority order based on the ordering of the temp queue.
-                final String swapLocation = swapManager.swapOut(toSwap, flowFileQueue, swapPartitionName);
-                swapLocations.add(swapLocation);
-
-                logger.debug("Successfully wrote out Swap File {} containing {} FlowFiles ({} bytes)", swapLocation, toSwap.size(), bytesSwappedThisIteration);
+            Collections.reverse(toSwap); // currently ordered in reverse priority order based on the ordering of the temp queue.
+            final CompletableFuture<String> swapLocationFuture = swapOut(toSwap);
 
-                bytesSwappedOut += bytesSwappedThisIteration;
-                flowFilesSwappedOut += toSwap.size();
-                minQueueDateInSwapLocation.put(swapLocation, minQueueDateThisIteration);
-                totalQueueDateInSwapLocation.put(swapLocation, totalSwapQueueDatesThisIteration);
-            } catch (final IOException ioe) {
+            // If the Swap Manager failed without writing in the background, stop swapping out, just as we would if it failed in the background
+            // for the first file. Otherwise, the outcome is handled when the pending swap out is completed.
+            if (swapLocationFuture.isCompletedExceptionally()) {
                 tempQueue.addAll(toSwap); // if we failed, we must add the FlowFiles back to the queue.
-
-                final int objectCount = getFlowFileCount();
-                logger.error("FlowFile Queue with identifier {} has {} FlowFiles queued up. Attempted to spill FlowFile information over to disk in order to avoid exhausting "
-                    + "the Java heap space but failed to write information to disk due to {}", getQueueIdentifier(), objectCount, ioe.toString());
-                logger.error("", ioe);
-                if (eventReporter != null) {
-                    eventReporter.reportEvent(Severity.ERROR, "Failed to Overflow to Disk", "Flowfile Queue with identifier " + getQueueIdentifier() + " has " + objectCount +
-                        " queued up. Attempted to spill FlowFile information over to disk in order to avoid exhausting the Java heap space but failed to write information to disk. "
-                        + "See logs for more information.");
-                }
-
+                reportSwapOutFailure(getFailureCause(swapLocationFuture));
                 break;
             }
+
+            pendingSwapOuts.addLast(new PendingSwapOut(toSwap, bytesSwappedThisIteration, minQueueDateThisIteration, totalSwapQueueDatesThisIteration, swapLocationFuture));
+            bytesSwappedOut += bytesSwappedThisIteration;
+            flowFilesSwappedOut += toSwap.size();
+            swapFilesStarted++;
         }
 
         // Pull any records off of the temp queue that won't fit back on the active queue, and add those to the
@@ -252,7 +419,7 @@ public class SwappablePriorityQueue {
             final FlowFileQueueSize newSize = new FlowFileQueueSize(originalSize.getActiveCount(), originalSize.getActiveBytes(),
                 originalSize.getSwappedCount() + addedSwapRecords + flowFilesSwappedOut,
                 originalSize.getSwappedBytes() + addedSwapBytes + bytesSwappedOut,
-                originalSize.getSwapFileCount() + numSwapFiles,
+                originalSize.getSwapFileCount() + swapFilesStarted,
                 originalSize.getUnacknowledgedCount(), originalSize.getUnacknowledgedBytes());
 
             updated = updateSize(originalSize, newSize);
@@ -261,8 +428,141 @@ public class SwappablePriorityQueue {
             }
         }
 
-        this.swapLocations.addAll(swapLocations);
-        logger.debug("After writing swap files, setting new set of Swap Locations to {}", this.swapLocations);
+        completePendingSwapOuts(false);
+        logger.debug("After writing swap files, Swap Locations are {} with {} Swap Files pending", this.swapLocations, pendingSwapOuts.size());
+    }
+
+    private CompletableFuture<String> swapOut(final List<FlowFileRecord> toSwap) {
+        final long startNanos = System.nanoTime();
+        final CompletableFuture<String> swapLocationFuture = swapManager.swapOutAsync(toSwap, flowFileQueue, swapPartitionName);
+        return swapLocationFuture.whenComplete((swapLocation, failure) -> {
+            if (failure == null) {
+                final long nanos = System.nanoTime() - startNanos;
+                swapOutCount.increment();
+                swapOutNanos.add(nanos);
+                maxSwapOutNanos.accumulateAndGet(nanos, Math::max);
+            }
+        });
+    }
+
+    /**
+     * Moves the swap files that have been written in the background to the list of swap locations, in the order in which they were swapped out.
+     * If a swap file could not be written, its FlowFiles are added back to the swap queue.
+     *
+     * @param waitForCompletion whether to wait for all pending swap files to be written, or to stop at the first one that has not yet been written
+     */
+    private void completePendingSwapOuts(final boolean waitForCompletion) {
+        while (!pendingSwapOuts.isEmpty()) {
+            final PendingSwapOut pendingSwapOut = pendingSwapOuts.peekFirst();
+            if (!waitForCompletion && !pendingSwapOut.swapLocation().isDone()) {
+                return;
+            }
+
+            if (!completePendingSwapOut(pendingSwapOut)) {
+                return;
+            }
+        }
+    }
+
+    private boolean completePendingSwapOut(final PendingSwapOut pendingSwapOut) {
+        final String swapLocation;
+        try {
+            swapLocation = pendingSwapOut.swapLocation().get();
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while waiting for Swap File to be written for {}", this);
+            return false;
+        } catch (final ExecutionException ee) {
+            pendingSwapOuts.removeFirst();
+            swapQueue.addAll(pendingSwapOut.flowFiles()); // if we failed, we must add the FlowFiles back to the queue. They are already counted as swapped.
+            incrementSwapQueueSize(0, 0L, -1);
+            reportSwapOutFailure(ee.getCause());
+            return true;
+        }
+
+        pendingSwapOuts.removeFirst();
+        swapLocations.add(swapLocation);
+        minQueueDateInSwapLocation.put(swapLocation, pendingSwapOut.minQueueDate());
+        totalQueueDateInSwapLocation.put(swapLocation, pendingSwapOut.totalQueueDate());
+        logger.debug("Successfully wrote out Swap File {} containing {} FlowFiles ({} bytes)", swapLocation, pendingSwapOut.flowFiles().size(), pendingSwapOut.bytes());
+        return true;
+    }
+
+    /**
+     * Returns the swap file that must be written before any more FlowFiles can be polled, if the active queue is empty and the oldest swapped out
+     * FlowFiles are still being written. The caller must wait for it only after releasing the write lock so that other threads are not blocked
+     * while the file is written.
+     *
+     * This method MUST be called with the write lock held
+     *
+     * @return the pending swap out to wait for, or <code>null</code> if there is no need to wait
+     */
+    private CompletableFuture<String> getBlockingSwapOut() {
+        if (!activeQueue.isEmpty() || !swapLocations.isEmpty() || pendingSwapOuts.isEmpty()) {
+            return null;
+        }
+
+        final CompletableFuture<String> swapLocationFuture = pendingSwapOuts.peekFirst().swapLocation();
+        return swapLocationFuture.isDone() ? null : swapLocationFuture;
+    }
+
+    /**
+     * Waits for the given swap file to be written. This method MUST NOT be called with the write lock held.
+     *
+     * @return <code>true</code> if the swap out completed, successfully or not, <code>false</code> if interrupted while waiting
+     */
+    private boolean awaitSwapOut(final CompletableFuture<String> swapLocationFuture) {
+        try {
+            swapLocationFuture.get();
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while waiting for Swap File to be written for {}", this);
+            return false;
+        } catch (final ExecutionException ee) {
+            // The failure is handled when the pending swap out is completed while holding the write lock
+            logger.debug("Failed to write Swap File for {}", this, ee.getCause());
+        }
+
+        return true;
+    }
+
+    private static Throwable getFailureCause(final CompletableFuture<?> future) {
+        try {
+            future.join();
+            return null;
+        } catch (final Exception e) {
+            return e.getCause() == null ? e : e.getCause();
+        }
+    }
+
+    private void reportSwapOutFailure(final Throwable cause) {
+        final int objectCount = getFlowFileCount();
+        logger.error("FlowFile Queue with identifier {} has {} FlowFiles queued up. Attempted to spill FlowFile information over to disk in order to avoid exhausting "
+            + "the Java heap space but failed to write information to disk due to {}", getQueueIdentifier(), objectCount, String.valueOf(cause));
+        logger.error("", cause);
+        if (eventReporter != null) {
+            eventReporter.reportEvent(Severity.ERROR, "Failed to Overflow to Disk", "Flowfile Queue with identifier " + getQueueIdentifier() + " has " + objectCount +
+                " queued up. Attempted to spill FlowFile information over to disk in order to avoid exhausting the Java heap space but failed to write information to disk. "
+                + "See logs for more information.");
+        }
+    }
+
+    /**
+     * Asks the Swap Manager to begin reading the next swap file once the active queue has been drawn down far enough that the swap file is likely
+     * to be needed soon, so that it has been read by the time that the active queue is empty.
+     */
+    private void prefetchNextSwapFile() {
+        if (swapLocations.isEmpty() || activeQueue.size() > SWAP_RECORD_POLL_SIZE / 2) {
+            return;
+        }
+
+        final String nextSwapLocation = swapLocations.getFirst();
+        if (nextSwapLocation.equals(prefetchedSwapLocation)) {
+            return;
+        }
+
+        prefetchedSwapLocation = nextSwapLocation;
+        swapManager.prefetch(nextSwapLocation, flowFileQueue);
     }
 
     private int getFlowFileCount() {
@@ -291,9 +591,14 @@ public class SwappablePriorityQueue {
         // Swap Queue to the Active Queue. However, we don't do this if there are FlowFiles already swapped out
         // to disk, because we want them to be swapped back in in the same order that they were swapped out.
         if (!activeQueue.isEmpty()) {
+            prefetchNextSwapFile();
             return;
         }
 
+        // If the oldest swapped out FlowFiles are still being written to a swap file, they are counted as swapped out, so nothing is migrated
+        // below. Instead, the caller waits for that file, after releasing the lock, so that they can be swapped in first.
+        completePendingSwapOuts(false);
+
         // If there are swap files waiting to be swapped in, swap those in first. We do this in order to ensure that those that
         // were swapped out first are then swapped back in first. If we instead just immediately migrated the FlowFiles from the
         // swap queue to the active queue, and we never run out of FlowFiles in the active queue (because destination cannot
@@ -358,7 +663,12 @@ public class SwappablePriorityQueue {
         SwapContents swapContents;
         try {
             logger.debug("Attempting to swap in {}; all swap locations = {}", swapLocation, swapLocations);
+            final long startNanos = System.nanoTime();
             swapContents = swapManager.swapIn(swapLocation, flowFileQueue);
+            final long nanos = System.nanoTime() - startNanos;
+            swapInCount.increment();
+            swapInNanos.add(nanos);
+            maxSwapInNanos.accumulateAndGet(nanos, Math::max);
             swapLocations.remove(0);
             minQueueDateInSwapLocation.remove(swapLocation);
             totalQueueDateInSwapLocation.remove(swapLocation);
@@ -421,7 +731,23 @@ public class SwappablePriorityQueue {
             logger.debug("Successfully swapped in Swap File {} containing {} FlowFiles ({} bytes)", swapLocation, flowFileCount, contentSize);
         }
 
-        activeQueue.addAll(swapContents.getFlowFiles());
+        activeQueue.addAll(compact(swapContents.getFlowFiles()));
+    }
+
+    private FlowFileRecord compact(final FlowFileRecord flowFile) {
+        return compactFlowFiles ? CompactFlowFileRecord.fromFlowFile(flowFile) : flowFile;
+    }
+
+    private Collection<FlowFileRecord> compact(final Collection<FlowFileRecord> flowFiles) {
+        if (!compactFlowFiles) {
+            return flowFiles;
+        }
+
+        final List<FlowFileRecord> compacted = new ArrayList<>(flowFiles.size());
+        for (final FlowFileRecord flowFile : flowFiles) {
+            compacted.add(CompactFlowFileRecord.fromFlowFile(flowFile));
+        }
+        return compacted;
     }
 
     public QueueSize size() {
@@ -468,9 +794,15 @@ public class SwappablePriorityQueue {
     }
 
 
-    public void put(final FlowFileRecord flowFile) {
+    public void put(final FlowFileRecord record) {
+        final FlowFileRecord flowFile = compact(record);
+        if (offerFifo(List.of(flowFile), swapThreshold - 1)) {
+            return;
+        }
+
         writeLock.lock();
         try {
+            drainFifoQueue();
             if (swapMode || activeQueue.size() >= swapThreshold) {
                 swapQueue.add(flowFile);
                 incrementSwapQueueSize(1, flowFile.getSize(), 0);
@@ -488,7 +820,12 @@ public class SwappablePriorityQueue {
         }
     }
 
-    public void putAll(final Collection<FlowFileRecord> flowFiles) {
+    public void putAll(final Collection<FlowFileRecord> records) {
+        final Collection<FlowFileRecord> flowFiles = compact(records);
+        if (offerFifo(flowFiles, swapThreshold - flowFiles.size() - 1)) {
+            return;
+        }
+
         final int numFiles = flowFiles.size();
         long bytes = 0L;
         for (final FlowFile flowFile : flowFiles) {
@@ -497,6 +834,7 @@ public class SwappablePriorityQueue {
 
         writeLock.lock();
         try {
+            drainFifoQueue();
             if (swapMode || activeQueue.size() >= swapThreshold - numFiles) {
                 swapQueue.addAll(flowFiles);
                 incrementSwapQueueSize(numFiles, bytes, 0);
@@ -521,9 +859,18 @@ public class SwappablePriorityQueue {
     public FlowFileRecord poll(final Set<FlowFileRecord> expiredRecords, final long expirationMillis, final PollStrategy pollStrategy) {
         FlowFileRecord flowFile;
 
+        final List<FlowFileRecord> fifoRecords = new ArrayList<>(1);
+        if (pollFifo(fifoRecords, 1, expiredRecords, expirationMillis)) {
+            flowFile = fifoRecords.isEmpty() ? null : fifoRecords.getFirst();
+            logger.trace("{} poll() returning {}", this, flowFile);
+            return flowFile;
+        }
+
         // First check if we have any records Pre-Fetched.
+        final CompletableFuture<String> blockingSwapOut;
         writeLock.lock();
         try {
+            drainFifoQueue();
             flowFile = doPoll(expiredRecords, expirationMillis, pollStrategy);
 
             if (flowFile != null) {
@@ -533,10 +880,15 @@ public class SwappablePriorityQueue {
 
             updateTopPenaltyExpiration();
 
-            return flowFile;
+            blockingSwapOut = flowFile == null && expiredRecords.isEmpty() ? getBlockingSwapOut() : null;
+            if (blockingSwapOut == null) {
+                return flowFile;
+            }
         } finally {
             writeLock.unlock("poll(Set)");
         }
+
+        return awaitSwapOut(blockingSwapOut) ? poll(expiredRecords, expirationMillis, pollStrategy) : null;
     }
 
 
@@ -580,13 +932,22 @@ public class SwappablePriorityQueue {
     public List<FlowFileRecord> poll(int maxResults, final Set<FlowFileRecord> expiredRecords, final long expirationMillis, final PollStrategy pollStrategy) {
         final List<FlowFileRecord> records = new ArrayList<>(Math.min(1, maxResults));
 
-        // First check if we have any records Pre-Fetched.
-        writeLock.lock();
-        try {
-            doPoll(records, maxResults, expiredRecords, expirationMillis, pollStrategy);
-            updateTopPenaltyExpiration();
-        } finally {
-            writeLock.unlock("poll(int, Set)");
+        if (!pollFifo(records, maxResults, expiredRecords, expirationMillis)) {
+            // First check if we have any records Pre-Fetched.
+            final CompletableFuture<String> blockingSwapOut;
+            writeLock.lock();
+            try {
+                drainFifoQueue();
+                doPoll(records, maxResults, expiredRecords, expirationMillis, pollStrategy);
+                updateTopPenaltyExpiration();
+                blockingSwapOut = records.isEmpty() && expiredRecords.isEmpty() ? getBlockingSwapOut() : null;
+            } finally {
+                writeLock.unlock("poll(int, Set)");
+            }
+
+            if (blockingSwapOut != null) {
+                return awaitSwapOut(blockingSwapOut) ? poll(maxResults, expiredRecords, expirationMillis, pollStrategy) : records;
+            }
         }
 
         if (!records.isEmpty() && logger.isTraceEnabled()) {
@@ -603,84 +964,98 @@ public class SwappablePriorityQueue {
     }
 
     public List<FlowFileRecord> poll(final FlowFileFilter filter, final Set<FlowFileRecord> expiredRecords, final long expirationMillis, final PollStrategy pollStrategy) {
-        long bytesPulled = 0L;
-        int flowFilesPulled = 0;
-        long bytesExpired = 0L;
-        int flowFilesExpired = 0;
-
+        final CompletableFuture<String> blockingSwapOut;
         writeLock.lock();
         try {
+            drainFifoQueue();
             migrateSwapToActive();
 
-            final List<FlowFileRecord> selectedFlowFiles = new ArrayList<>();
-            final List<FlowFileRecord> unselected = new ArrayList<>();
-
-            while (true) {
-                FlowFileRecord flowFile = this.activeQueue.poll();
-                if (flowFile == null) {
-                    break;
-                }
+            blockingSwapOut = getBlockingSwapOut();
+            if (blockingSwapOut == null) {
+                return doPoll(filter, expiredRecords, expirationMillis, pollStrategy);
+            }
+        } finally {
+            writeLock.unlock("poll(Filter, Set)");
+        }
 
-                final boolean isExpired = isExpired(flowFile, expirationMillis);
-                if (isExpired) {
-                    expiredRecords.add(flowFile);
-                    bytesExpired += flowFile.getSize();
-                    flowFilesExpired++;
+        return awaitSwapOut(blockingSwapOut) ? poll(filter, expiredRecords, expirationMillis, pollStrategy) : new ArrayList<>();
+    }
 
-                    if (expiredRecords.size() >= MAX_EXPIRED_RECORDS_PER_ITERATION) {
-                        break;
-                    } else {
-                        continue;
-                    }
-                } else if (flowFile.isPenalized() && pollStrategy == PollStrategy.UNPENALIZED_FLOWFILES) {
-                    this.activeQueue.add(flowFile);
-                    break; // just stop searching because the rest are all penalized.
-                }
+    /**
+     * This method MUST be called with the write lock held
+     */
+    private List<FlowFileRecord> doPoll(final FlowFileFilter filter, final Set<FlowFileRecord> expiredRecords, final long expirationMillis, final PollStrategy pollStrategy) {
+        long bytesPulled = 0L;
+        int flowFilesPulled = 0;
+        long bytesExpired = 0L;
+        int flowFilesExpired = 0;
 
-                final FlowFileFilterResult result;
-                try {
-                    result = filter.filter(flowFile);
-                } catch (final Throwable t) {
-                    unselected.add(flowFile);
-                    activeQueue.addAll(unselected);
-                    activeQueue.addAll(selectedFlowFiles);
-                    throw t;
-                }
+        final List<FlowFileRecord> selectedFlowFiles = new ArrayList<>();
+        final List<FlowFileRecord> unselected = new ArrayList<>();
 
-                if (result.isAccept()) {
-                    bytesPulled += flowFile.getSize();
-                    flowFilesPulled++;
+        while (true) {
+            FlowFileRecord flowFile = this.activeQueue.poll();
+            if (flowFile == null) {
+                break;
+            }
 
-                    selectedFlowFiles.add(flowFile);
-                } else {
-                    unselected.add(flowFile);
-                }
+            final boolean isExpired = isExpired(flowFile, expirationMillis);
+            if (isExpired) {
+                expiredRecords.add(flowFile);
+                bytesExpired += flowFile.getSize();
+                flowFilesExpired++;
 
-                if (!result.isContinue()) {
+                if (expiredRecords.size() >= MAX_EXPIRED_RECORDS_PER_ITERATION) {
                     break;
+                } else {
+                    continue;
                 }
+            } else if (flowFile.isPenalized() && pollStrategy == PollStrategy.UNPENALIZED_FLOWFILES) {
+                this.activeQueue.add(flowFile);
+                break; // just stop searching because the rest are all penalized.
             }
 
-            this.activeQueue.addAll(unselected);
+            final FlowFileFilterResult result;
+            try {
+                result = filter.filter(flowFile);
+            } catch (final Throwable t) {
+                unselected.add(flowFile);
+                activeQueue.addAll(unselected);
+                activeQueue.addAll(selectedFlowFiles);
+                throw t;
+            }
 
-            unacknowledge(flowFilesPulled, bytesPulled);
+            if (result.isAccept()) {
+                bytesPulled += flowFile.getSize();
+                flowFilesPulled++;
 
-            if (flowFilesExpired > 0) {
-                incrementActiveQueueSize(-flowFilesExpired, -bytesExpired);
+                selectedFlowFiles.add(flowFile);
+            } else {
+                unselected.add(flowFile);
             }
 
-            if (!selectedFlowFiles.isEmpty() && logger.isTraceEnabled()) {
-                for (final FlowFileRecord flowFile : selectedFlowFiles) {
-                    logger.trace("{} poll() returning {}", this, flowFile);
-                }
+            if (!result.isContinue()) {
+                break;
             }
+        }
 
-            updateTopPenaltyExpiration();
+        this.activeQueue.addAll(unselected);
 
-            return selectedFlowFiles;
-        } finally {
-            writeLock.unlock("poll(Filter, Set)");
+        unacknowledge(flowFilesPulled, bytesPulled);
+
+        if (flowFilesExpired > 0) {
+            incrementActiveQueueSize(-flowFilesExpired, -bytesExpired);
         }
+
+        if (!selectedFlowFiles.isEmpty() && logger.isTraceEnabled()) {
+            for (final FlowFileRecord flowFile : selectedFlowFiles) {
+                logger.trace("{} poll() returning {}", this, flowFile);
+            }
+        }
+
+        updateTopPenaltyExpiration();
+
+        return selectedFlowFiles;
     }
 
     // MUST be called while holding read lock or write lock
@@ -775,6 +1150,12 @@ public class SwappablePriorityQueue {
                     return flowFile;
                 }
             }
+
+            for (final FlowFileRecord flowFile : fifoQueue) {
+                if (flowFileUuid.equals(flowFile.getAttribute(CoreAttributes.UUID.key()))) {
+                    return flowFile;
+                }
+            }
         } finally {
             readLock.unlock("getFlowFile");
         }
@@ -788,6 +1169,8 @@ public class SwappablePriorityQueue {
 
         writeLock.lock();
         try {
+            drainFifoQueue();
+            completePendingSwapOuts(true);
             dropRequest.setState(DropFlowFileState.DROPPING_FLOWFILES);
             logger.debug("For DropFlowFileRequest {}, original size is {}", requestIdentifier, size());
 
@@ -1000,12 +1383,18 @@ public class SwappablePriorityQueue {
         try {
             // We want the oldest timestamp, which will be the min
             long min = getMinLastQueueDate(activeQueue, 0L);
+            final long fifoMin = getMinLastQueueDate(fifoQueue, min);
+            min = min == 0 ? fifoMin : Long.min(min, fifoMin);
             min = Long.min(min, getMinLastQueueDate(swapQueue, min));
 
             for (Long minSwapQueueDate: minQueueDateInSwapLocation.values()) {
                 min = min == 0 ? minSwapQueueDate : Long.min(min, minSwapQueueDate);
             }
 
+            for (final PendingSwapOut pendingSwapOut : pendingSwapOuts) {
+                min = min == 0 ? pendingSwapOut.minQueueDate() : Long.min(min, pendingSwapOut.minQueueDate());
+            }
+
             return min;
         } finally {
             readLock.unlock("Get Min Last Queue Date");
@@ -1030,6 +1419,10 @@ public class SwappablePriorityQueue {
                 sum += (fromTimestamp - flowFileRecord.getLastQueueDate());
             }
 
+            for (FlowFileRecord flowFileRecord : fifoQueue) {
+                sum += (fromTimestamp - flowFileRecord.getLastQueueDate());
+            }
+
             for (FlowFileRecord flowFileRecord : swapQueue) {
                 sum += (fromTimestamp - flowFileRecord.getLastQueueDate());
             }
@@ -1039,6 +1432,10 @@ public class SwappablePriorityQueue {
                 totalSwappedQueueDate += totalQueueDate;
             }
 
+            for (final PendingSwapOut pendingSwapOut : pendingSwapOuts) {
+                totalSwappedQueueDate += pendingSwapOut.totalQueueDate();
+            }
+
             // We are only considering FlowFiles that have been swapped to disk in this calculation since we took care of the
             // in-memory swapQueue previously.
             sum += ((getFlowFileQueueSize().getSwappedCount() - swapQueue.size()) * fromTimestamp) - totalSwappedQueueDate;
@@ -1159,6 +1556,8 @@ public class SwappablePriorityQueue {
     public FlowFileQueueContents packageForRebalance(final String newPartitionName) {
         writeLock.lock();
         try {
+            drainFifoQueue();
+            completePendingSwapOuts(true);
             final List<FlowFileRecord> activeRecords = new ArrayList<>(this.activeQueue);
 
             final List<String> updatedSwapLocations = new ArrayList<>(swapLocations.size());
@@ -1198,6 +1597,9 @@ public class SwappablePriorityQueue {
         }
     }
 
+    private record PendingSwapOut(List<FlowFileRecord> flowFiles, long bytes, long minQueueDate, long totalQueueDate, CompletableFuture<String> swapLocation) {
+    }
+
     @Override
     public String toString() {
         return "SwappablePriorityQueue[queueId=" + flowFileQueue.getIdentifier() + ", partition=" + swapPartitionName + "]";
@@ -596,7 +596,7 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
                 }
             }
 
-            return new StandardQueueDiagnostics(localDiagnostics, remoteDiagnostics);
+            return new StandardQueueDiagnostics(localDiagnostics, remoteDiagnostics, localPartition.getSwapDiagnostics());
         } finally {
             partitionReadLock.unlock();
         }
@@ -801,6 +801,7 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
     @Override
     public void put(final FlowFileRecord flowFile) {
         putAndGetPartition(flowFile);
+        notifyFlowFilesQueued();
     }
 
 
@@ -856,6 +857,7 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
                 // size has been updated to account for them and therefore we will not attempt to assign a negative queue size.
                 adjustSize(flowFiles.size(), flowFiles.stream().mapToLong(FlowFileRecord::getSize).sum());
                 localPartition.putAll(flowFiles);
+                notifyFlowFilesQueued();
             }
         } finally {
             partitionReadLock.unlock();
@@ -865,6 +867,7 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
     @Override
     public void putAll(final Collection<FlowFileRecord> flowFiles) {
         putAllAndGetPartitions(flowFiles);
+        notifyFlowFilesQueued();
     }
 
     protected Map<QueuePartition, List<FlowFileRecord>> putAllAndGetPartitions(final Collection<FlowFileRecord> flowFiles) {
@@ -969,19 +972,23 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
 
     @Override
     public void acknowledge(final FlowFileRecord flowFile) {
+        final boolean wasFull = isFull();
         localPartition.acknowledge(flowFile);
 
         adjustSize(-1, -flowFile.getSize());
+        notifyIfBackPressureReleased(wasFull);
     }
 
     @Override
     public void acknowledge(final Collection<FlowFileRecord> flowFiles) {
+        final boolean wasFull = isFull();
         localPartition.acknowledge(flowFiles);
 
         if (!flowFiles.isEmpty()) {
             final long bytes = flowFiles.stream().mapToLong(FlowFileRecord::getSize).sum();
             adjustSize(-flowFiles.size(), -bytes);
         }
+        notifyIfBackPressureReleased(wasFull);
     }
 
     @Override
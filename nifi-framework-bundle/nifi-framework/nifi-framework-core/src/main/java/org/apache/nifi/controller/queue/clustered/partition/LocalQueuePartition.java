@@ -21,6 +21,7 @@ import org.apache.nifi.controller.status.FlowFileAvailability;
 import org.apache.nifi.controller.queue.FlowFileQueueContents;
 import org.apache.nifi.controller.queue.LocalQueuePartitionDiagnostics;
 import org.apache.nifi.controller.queue.PollStrategy;
+import org.apache.nifi.controller.queue.SwapDiagnostics;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.processor.FlowFileFilter;
 
@@ -121,4 +122,9 @@ public interface LocalQueuePartition extends QueuePartition {
      * @return diagnostics information about the queue partition
      */
     LocalQueuePartitionDiagnostics getQueueDiagnostics();
+
+    /**
+     * @return diagnostics information about the swap I/O performed by the queue partition
+     */
+    SwapDiagnostics getSwapDiagnostics();
 }
@@ -26,6 +26,7 @@ import org.apache.nifi.controller.queue.FlowFileQueueContents;
 import org.apache.nifi.controller.queue.LocalQueuePartitionDiagnostics;
 import org.apache.nifi.controller.queue.PollStrategy;
 import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.queue.SwapDiagnostics;
 import org.apache.nifi.controller.queue.SwappablePriorityQueue;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileSwapManager;
@@ -182,6 +183,11 @@ public class SwappablePriorityQueueLocalPartition implements LocalQueuePartition
         return priorityQueue.getQueueDiagnostics();
     }
 
+    @Override
+    public SwapDiagnostics getSwapDiagnostics() {
+        return priorityQueue.getSwapDiagnostics();
+    }
+
     @Override
     public FlowFileQueueContents packageForRebalance(String newPartitionName) {
         return priorityQueue.packageForRebalance(newPartitionName);
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-memory index of the archived files of a single Content Repository container. Files are indexed per section and ordered by
+ * the time at which their content was created, so that archive cleanup is able to find the oldest archived files without walking
+ * the directory tree of the container.
+ * <p>
+ * Files are added to the index as the repository archives them. The archive directories themselves remain the durable record of
+ * which files are archived: a section whose indexed files have all been removed is expected to be rescanned, so that files that
+ * are not known to the index are picked up. This includes files that were archived before the repository was started, files
+ * that were not indexed because the index was full, and files that were placed into the archive by something other than the
+ * repository.
+ * </p>
+ */
+class ArchiveIndex {
+    private static final Comparator<ArchivedFile> OLDEST_FIRST = Comparator.comparingLong(ArchivedFile::lastModTime);
+
+    private final PriorityQueue<ArchivedFile>[] sections;
+    private final int maxIndexedFiles;
+    private final AtomicInteger indexedFileCount = new AtomicInteger(0);
+
+    @SuppressWarnings("unchecked")
+    ArchiveIndex(final int sectionCount, final int maxIndexedFiles) {
+        this.maxIndexedFiles = maxIndexedFiles;
+        this.sections = new PriorityQueue[sectionCount];
+        for (int i = 0; i < sectionCount; i++) {
+            sections[i] = new PriorityQueue<>(OLDEST_FIRST);
+        }
+    }
+
+    /**
+     * Adds the given file to the index, unless the index is full
+     *
+     * @param section the section of the container that the file belongs to
+     * @param file the archived file
+     * @return <code>true</code> if the file was indexed, <code>false</code> if the index is full
+     */
+    boolean add(final int section, final ArchivedFile file) {
+        if (indexedFileCount.incrementAndGet() > maxIndexedFiles) {
+            indexedFileCount.decrementAndGet();
+            return false;
+        }
+
+        final PriorityQueue<ArchivedFile> queue = sections[section];
+        synchronized (queue) {
+            queue.add(file);
+        }
+        return true;
+    }
+
+    boolean isEmpty(final int section) {
+        final PriorityQueue<ArchivedFile> queue = sections[section];
+        synchronized (queue) {
+            return queue.isEmpty();
+        }
+    }
+
+    /**
+     * Removes and returns the oldest file in the given section, if that file is older than the given threshold
+     *
+     * @param section the section of the container
+     * @param lastModTimeThreshold the time before which files are considered expired
+     * @return the oldest file in the section if it has expired, or <code>null</code> if no file in the section has expired
+     */
+    ArchivedFile pollExpired(final int section, final long lastModTimeThreshold) {
+        final PriorityQueue<ArchivedFile> queue = sections[section];
+        final ArchivedFile oldest;
+        synchronized (queue) {
+            final ArchivedFile head = queue.peek();
+            if (head == null || head.lastModTime() >= lastModTimeThreshold) {
+                return null;
+            }
+
+            oldest = queue.poll();
+        }
+
+        indexedFileCount.decrementAndGet();
+        return oldest;
+    }
+
+    /**
+     * Removes and returns the oldest file in the container
+     *
+     * @return an entry containing the section and the oldest file in the container, or <code>null</code> if no files are indexed
+     */
+    IndexedFile pollOldest() {
+        while (true) {
+            final int section = findOldestSection();
+            if (section < 0) {
+                return null;
+            }
+
+            final PriorityQueue<ArchivedFile> queue = sections[section];
+            final ArchivedFile oldest;
+            synchronized (queue) {
+                oldest = queue.poll();
+            }
+
+            // The section may have been emptied since it was found to be the oldest, in which case we look again
+            if (oldest != null) {
+                indexedFileCount.decrementAndGet();
+                return new IndexedFile(section, oldest);
+            }
+        }
+    }
+
+    /**
+     * @return the time at which the content of the oldest indexed file was created, or <code>-1</code> if no files are indexed
+     */
+    long getOldestLastModTime() {
+        final int section = findOldestSection();
+        if (section < 0) {
+            return -1L;
+        }
+
+        final PriorityQueue<ArchivedFile> queue = sections[section];
+        synchronized (queue) {
+            final ArchivedFile oldest = queue.peek();
+            return oldest == null ? -1L : oldest.lastModTime();
+        }
+    }
+
+    int size() {
+        return indexedFileCount.get();
+    }
+
+    private int findOldestSection() {
+        int oldestSection = -1;
+        long oldestLastModTime = Long.MAX_VALUE;
+        for (int i = 0; i < sections.length; i++) {
+            final PriorityQueue<ArchivedFile> queue = sections[i];
+            synchronized (queue) {
+                final ArchivedFile head = queue.peek();
+                if (head != null && head.lastModTime() < oldestLastModTime) {
+                    oldestLastModTime = head.lastModTime();
+                    oldestSection = i;
+                }
+            }
+        }
+
+        return oldestSection;
+    }
+
+    record ArchivedFile(String name, long size, long lastModTime) {
+    }
+
+    record IndexedFile(int section, ArchivedFile file) {
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Writes content to the files of a single Content Repository container on a dedicated thread. Content that is written to a
+ * {@link ClaimOutputStream} is handed off to the writer thread in fixed-size chunks, so that the thread producing the content does
+ * not wait on the file system while it continues to produce content. All chunks that are queued for the same file are written with
+ * a single gathering write.
+ * <p>
+ * Calling {@link ClaimOutputStream#flush()} acts as a barrier: it returns only once all content that was previously written to the
+ * stream has been written to the file, so that the content is visible to readers of the file. If the writer has no outstanding chunks
+ * for the stream at that point, the flushing thread writes the remaining content itself rather than waiting on a hand-off to the writer,
+ * so content that is smaller than a single chunk never involves the writer thread. Calling {@link ClaimOutputStream#sync()} additionally
+ * forces the content to disk on the calling thread, so that threads synchronizing different files are not serialized behind one another.
+ * </p>
+ */
+class AsyncContentWriter implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncContentWriter.class);
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final long BARRIER_CHECK_MILLIS = 100L;
+
+    private final String containerName;
+    private final long maxPendingBytes;
+    private final BlockingQueue<WriteRequest> queue = new LinkedBlockingQueue<>();
+    private long pendingBytes = 0L;
+    private volatile boolean running = true;
+
+    AsyncContentWriter(final String containerName, final long maxPendingBytes) {
+        this.containerName = containerName;
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    /**
+     * Opens the given file for appending. Content written to the returned stream is written to the file by this writer.
+     *
+     * @param path the file to append to
+     * @return an OutputStream whose content is written asynchronously
+     * @throws IOException if unable to open the file
+     */
+    ClaimOutputStream open(final Path path) throws IOException {
+        if (!running) {
+            throw new IOException("Cannot write to " + path + " because the writer for Container " + containerName + " has been stopped");
+        }
+
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return new ClaimOutputStream(path, channel);
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    synchronized long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    @Override
+    public void run() {
+        final List<WriteRequest> batch = new ArrayList<>();
+
+        while (running) {
+            try {
+                final WriteRequest first = queue.take();
+                batch.add(first);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+            process(batch);
+            batch.clear();
+        }
+
+        running = false;
+
+        // Fail any requests that were not written so that no thread waits on them indefinitely
+        queue.drainTo(batch);
+        for (final WriteRequest request : batch) {
+            request.stream().fail(new IOException("Writer for Container " + containerName + " was stopped before content was written to " + request.stream().path));
+        }
+    }
+
+    private void process(final List<WriteRequest> batch) {
+        // Group the requests by stream, retaining the order in which they were submitted for each stream
+        final Map<ClaimOutputStream, List<WriteRequest>> requestsByStream = new LinkedHashMap<>();
+        long batchBytes = 0L;
+        for (final WriteRequest request : batch) {
+            requestsByStream.computeIfAbsent(request.stream(), stream -> new ArrayList<>()).add(request);
+            batchBytes += request.data().remaining();
+        }
+
+        for (final Map.Entry<ClaimOutputStream, List<WriteRequest>> entry : requestsByStream.entrySet()) {
+            entry.getKey().perform(entry.getValue());
+        }
+
+        release(batchBytes);
+    }
+
+    private synchronized void reserve(final long bytes) throws IOException {
+        // Always allow at least one request to be pending, regardless of its size
+        while (pendingBytes > 0 && pendingBytes + bytes > maxPendingBytes) {
+            if (!running) {
+                throw new IOException("Writer for Container " + containerName + " has been stopped");
+            }
+
+            try {
+                wait(BARRIER_CHECK_MILLIS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to write to Container " + containerName);
+            }
+        }
+
+        pendingBytes += bytes;
+    }
+
+    private synchronized void release(final long bytes) {
+        pendingBytes -= bytes;
+        notifyAll();
+    }
+
+    private record WriteRequest(ClaimOutputStream stream, long sequence, ByteBuffer data) {
+    }
+
+    /**
+     * An OutputStream that appends to a file by way of the enclosing writer. Instances are not thread-safe; callers are expected to
+     * synchronize access, as is done by {@link org.apache.nifi.stream.io.SynchronizedByteCountingOutputStream}.
+     */
+    class ClaimOutputStream extends OutputStream {
+        private final Path path;
+        private final FileChannel channel;
+        private final Object completionMonitor = new Object();
+
+        private byte[] buffer;
+        private int count;
+        private long submittedSequence = 0L;
+        private boolean closed = false;
+
+        // guarded by completionMonitor
+        private long completedSequence = 0L;
+        private IOException failure;
+
+        private ClaimOutputStream(final Path path, final FileChannel channel) {
+            this.path = path;
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            ensureOpen();
+            ensureCapacity();
+
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            ensureOpen();
+
+            int offset = off;
+            int remaining = len;
+            while (remaining > 0) {
+                ensureCapacity();
+
+                final int bytesToCopy = Math.min(remaining, buffer.length - count);
+                System.arraycopy(b, offset, buffer, count, bytesToCopy);
+                count += bytesToCopy;
+                offset += bytesToCopy;
+                remaining -= bytesToCopy;
+            }
+        }
+
+        // A full chunk is handed off only once more content is written, so that content of exactly one chunk is written directly on flush
+        private void ensureCapacity() throws IOException {
+            if (count == CHUNK_SIZE) {
+                submit();
+            }
+
+            if (buffer == null) {
+                buffer = new byte[INITIAL_BUFFER_SIZE];
+            } else if (count == buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.min(CHUNK_SIZE, buffer.length * 2));
+            }
+        }
+
+        /**
+         * Waits until all content written to this stream has been written to the file
+         */
+        @Override
+        public void flush() throws IOException {
+            ensureOpen();
+            writeOutstanding();
+        }
+
+        /**
+         * Waits until all content written to this stream has been written to the file and forced to disk
+         */
+        void sync() throws IOException {
+            ensureOpen();
+            writeOutstanding();
+            channel.force(true);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            try {
+                writeOutstanding();
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void ensureOpen() throws IOException {
+            if (closed) {
+                throw new IOException("Stream to " + path + " is closed");
+            }
+        }
+
+        private void writeOutstanding() throws IOException {
+            if (isComplete(submittedSequence)) {
+                // The writer has nothing outstanding for this stream, so it is safe to write the remaining content directly
+                if (count > 0) {
+                    final ByteBuffer data = ByteBuffer.wrap(buffer, 0, count);
+                    while (data.hasRemaining()) {
+                        channel.write(data);
+                    }
+                    count = 0;
+
+                    // Retain only a small buffer, as this stream may remain open for a long time between writes
+                    if (buffer.length > INITIAL_BUFFER_SIZE) {
+                        buffer = null;
+                    }
+                }
+                return;
+            }
+
+            submit();
+            await(submittedSequence);
+        }
+
+        private void submit() throws IOException {
+            if (count == 0) {
+                return;
+            }
+
+            final ByteBuffer data = ByteBuffer.wrap(buffer, 0, count);
+            buffer = null;
+            count = 0;
+
+            if (!running) {
+                throw new IOException("Cannot write to " + path + " because the writer for Container " + containerName + " has been stopped");
+            }
+
+            reserve(data.remaining());
+            submittedSequence++;
+            queue.add(new WriteRequest(this, submittedSequence, data));
+        }
+
+        private boolean isComplete(final long sequence) throws IOException {
+            synchronized (completionMonitor) {
+                if (failure != null) {
+                    throw new IOException("Failed to write to " + path, failure);
+                }
+
+                return completedSequence >= sequence;
+            }
+        }
+
+        private void await(final long sequence) throws IOException {
+            synchronized (completionMonitor) {
+                while (completedSequence < sequence && failure == null) {
+                    if (!running && queue.isEmpty()) {
+                        throw new IOException("Writer for Container " + containerName + " was stopped before content was written to " + path);
+                    }
+
+                    try {
+                        completionMonitor.wait(BARRIER_CHECK_MILLIS);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while waiting for content to be written to " + path);
+                    }
+                }
+
+                if (failure != null) {
+                    throw new IOException("Failed to write to " + path, failure);
+                }
+            }
+        }
+
+        private void perform(final List<WriteRequest> requests) {
+            final WriteRequest last = requests.get(requests.size() - 1);
+
+            try {
+                if (hasFailed()) {
+                    return;
+                }
+
+                final ByteBuffer[] buffers = new ByteBuffer[requests.size()];
+                long remaining = 0L;
+                for (int i = 0; i < buffers.length; i++) {
+                    buffers[i] = requests.get(i).data();
+                    remaining += buffers[i].remaining();
+                }
+
+                while (remaining > 0) {
+                    remaining -= channel.write(buffers);
+                }
+            } catch (final Throwable t) {
+                logger.error("Failed to write content to {}", path, t);
+                fail(t instanceof IOException ? (IOException) t : new IOException(t));
+            } finally {
+                complete(last.sequence());
+            }
+        }
+
+        private boolean hasFailed() {
+            synchronized (completionMonitor) {
+                return failure != null;
+            }
+        }
+
+        private void fail(final IOException e) {
+            synchronized (completionMonitor) {
+                if (failure == null) {
+                    failure = e;
+                }
+                completionMonitor.notifyAll();
+            }
+        }
+
+        private void complete(final long sequence) {
+            synchronized (completionMonitor) {
+                completedSequence = Math.max(completedSequence, sequence);
+                completionMonitor.notifyAll();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "AsyncContentWriter.ClaimOutputStream[" + path + "]";
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An OutputStream that buffers content into blocks and writes each block to the underlying stream compressed by a
+ * {@link ContentCompressionCodec}. Each block is preceded by a header of two ints: the uncompressed length of the block
+ * followed by the number of bytes stored for it. If compressing a block does not make it smaller, the block is stored as-is,
+ * which is indicated by the stored length being equal to the uncompressed length.
+ * <p>
+ * Flushing the stream ends the current block so that all content written so far may be read back. This class is not thread-safe.
+ * </p>
+ */
+class BlockCompressingOutputStream extends OutputStream {
+    static final int HEADER_LENGTH = 8;
+    static final int MAX_BLOCK_SIZE = 64 * 1024;
+
+    private final OutputStream out;
+    private final ContentCompressionCodec codec;
+    private final CompressionStatistics statistics;
+    private final byte[] block = new byte[MAX_BLOCK_SIZE];
+    private int blockLength = 0;
+    private boolean closed = false;
+
+    BlockCompressingOutputStream(final OutputStream out, final ContentCompressionCodec codec, final CompressionStatistics statistics) {
+        this.out = out;
+        this.codec = codec;
+        this.statistics = statistics;
+    }
+
+    OutputStream getWrappedStream() {
+        return out;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        if (blockLength == MAX_BLOCK_SIZE) {
+            writeBlock();
+        }
+
+        block[blockLength++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        int written = 0;
+        while (written < len) {
+            if (blockLength == MAX_BLOCK_SIZE) {
+                writeBlock();
+            }
+
+            final int toCopy = Math.min(len - written, MAX_BLOCK_SIZE - blockLength);
+            System.arraycopy(b, off + written, block, blockLength, toCopy);
+            blockLength += toCopy;
+            written += toCopy;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writeBlock();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        try {
+            writeBlock();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (blockLength == 0) {
+            return;
+        }
+
+        final long start = System.nanoTime();
+        final byte[] compressed = codec.compress(block, 0, blockLength);
+        final boolean storeCompressed = compressed.length < blockLength;
+        final int storedLength = storeCompressed ? compressed.length : blockLength;
+
+        // Write the header and the content with a single call so that a reader never observes a header without its content
+        // when the underlying stream writes directly to the file
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + storedLength);
+        buffer.putInt(blockLength);
+        buffer.putInt(storedLength);
+        if (storeCompressed) {
+            buffer.put(compressed);
+        } else {
+            buffer.put(block, 0, blockLength);
+        }
+
+        statistics.recordCompression(blockLength, storedLength + HEADER_LENGTH, System.nanoTime() - start);
+
+        out.write(buffer.array(), 0, HEADER_LENGTH + storedLength);
+        blockLength = 0;
+    }
+}
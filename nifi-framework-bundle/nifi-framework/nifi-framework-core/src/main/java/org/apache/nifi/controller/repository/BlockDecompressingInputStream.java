@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An InputStream that reads the blocks written by a {@link BlockCompressingOutputStream} from a FileChannel, starting at a
+ * given block and skipping a number of bytes into it. The end of the stream is reached at the first block that is not yet
+ * completely written. Closing the stream closes the channel.
+ */
+class BlockDecompressingInputStream extends InputStream {
+    private final FileChannel channel;
+    private final ContentCompressionCodec codec;
+    private final CompressionStatistics statistics;
+    private final byte[] block = new byte[BlockCompressingOutputStream.MAX_BLOCK_SIZE];
+    private byte[] compressed;
+    private long physicalOffset;
+    private long bytesToSkip;
+    private int blockLength = 0;
+    private int blockIndex = 0;
+    private boolean endOfStream = false;
+
+    BlockDecompressingInputStream(final FileChannel channel, final ContentCompressionCodec codec, final CompressionStatistics statistics,
+                                  final long physicalOffset, final long bytesToSkip) {
+        this.channel = channel;
+        this.codec = codec;
+        this.statistics = statistics;
+        this.physicalOffset = physicalOffset;
+        this.bytesToSkip = bytesToSkip;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+
+        return block[blockIndex++] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+
+        final int toCopy = Math.min(len, blockLength - blockIndex);
+        System.arraycopy(block, blockIndex, b, off, toCopy);
+        blockIndex += toCopy;
+        return toCopy;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        long skipped = 0L;
+        while (skipped < n && fill()) {
+            final int toSkip = (int) Math.min(n - skipped, blockLength - blockIndex);
+            blockIndex += toSkip;
+            skipped += toSkip;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return blockLength - blockIndex;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Ensures that the current block has bytes remaining, reading the next block if necessary
+     *
+     * @return <code>false</code> if the end of the stream has been reached
+     */
+    private boolean fill() throws IOException {
+        while (blockIndex >= blockLength || bytesToSkip > 0) {
+            if (blockIndex < blockLength) {
+                final int toSkip = (int) Math.min(bytesToSkip, blockLength - blockIndex);
+                blockIndex += toSkip;
+                bytesToSkip -= toSkip;
+                continue;
+            }
+
+            if (endOfStream || !readBlock()) {
+                endOfStream = true;
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean readBlock() throws IOException {
+        final CompressedBlockIndex.BlockHeader header = CompressedBlockIndex.readHeader(channel, physicalOffset);
+        if (header == null) {
+            return false;
+        }
+
+        final int storedLength = header.storedLength();
+        final byte[] destination;
+        if (header.isCompressed()) {
+            if (compressed == null || compressed.length < storedLength) {
+                compressed = new byte[BlockCompressingOutputStream.MAX_BLOCK_SIZE];
+            }
+            destination = compressed;
+        } else {
+            destination = block;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.wrap(destination, 0, storedLength);
+        final long contentOffset = physicalOffset + BlockCompressingOutputStream.HEADER_LENGTH;
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, contentOffset + buffer.position()) < 0) {
+                // The block is still being written
+                return false;
+            }
+        }
+
+        if (header.isCompressed()) {
+            final long start = System.nanoTime();
+            codec.decompress(compressed, storedLength, block, header.uncompressedLength());
+            statistics.recordDecompression(System.nanoTime() - start);
+        }
+
+        physicalOffset += header.blockLength();
+        blockLength = header.uncompressedLength();
+        blockIndex = 0;
+        return true;
+    }
+}
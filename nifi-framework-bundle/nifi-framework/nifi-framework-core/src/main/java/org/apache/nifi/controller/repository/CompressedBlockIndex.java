@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Maps logical offsets within a compressed Resource Claim, which are the offsets that Content Claims refer to, to the
+ * physical offsets of the blocks that hold them. The index is built lazily by reading the header of each block, and because
+ * Resource Claims are only ever appended to, it is extended whenever an offset beyond the blocks indexed so far is requested.
+ */
+class CompressedBlockIndex {
+    private long[] logicalOffsets = new long[16];
+    private long[] physicalOffsets = new long[16];
+    private int blockCount = 0;
+    private long logicalEnd = 0L;
+    private long physicalEnd = 0L;
+
+    /**
+     * Locates the block that contains the given logical offset
+     *
+     * @param channel a channel for the Resource Claim
+     * @param logicalOffset the logical offset to locate
+     * @return the position of the block that contains the offset, or the position of the end of the Resource Claim if the offset
+     * is equal to the logical length of the Resource Claim, or <code>null</code> if the offset is beyond the end of the Resource Claim
+     * @throws IOException if unable to read the block headers
+     */
+    synchronized BlockPosition locate(final FileChannel channel, final long logicalOffset) throws IOException {
+        if (logicalOffset >= logicalEnd) {
+            extend(channel);
+        }
+
+        if (logicalOffset > logicalEnd) {
+            return null;
+        }
+        if (logicalOffset == logicalEnd) {
+            return new BlockPosition(logicalEnd, physicalEnd);
+        }
+
+        int blockIndex = Arrays.binarySearch(logicalOffsets, 0, blockCount, logicalOffset);
+        if (blockIndex < 0) {
+            blockIndex = -blockIndex - 2;
+        }
+
+        return new BlockPosition(logicalOffsets[blockIndex], physicalOffsets[blockIndex]);
+    }
+
+    /**
+     * @param channel a channel for the Resource Claim
+     * @return the number of bytes of uncompressed content in all complete blocks of the Resource Claim
+     * @throws IOException if unable to read the block headers
+     */
+    synchronized long getLogicalLength(final FileChannel channel) throws IOException {
+        extend(channel);
+        return logicalEnd;
+    }
+
+    synchronized int getBlockCount() {
+        return blockCount;
+    }
+
+    private void extend(final FileChannel channel) throws IOException {
+        final long physicalLength = channel.size();
+        while (physicalEnd < physicalLength) {
+            final BlockHeader header = readHeader(channel, physicalEnd);
+            if (header == null || physicalEnd + header.blockLength() > physicalLength) {
+                // The remainder of the Resource Claim is still being written
+                return;
+            }
+
+            if (blockCount == logicalOffsets.length) {
+                logicalOffsets = Arrays.copyOf(logicalOffsets, blockCount * 2);
+                physicalOffsets = Arrays.copyOf(physicalOffsets, blockCount * 2);
+            }
+
+            logicalOffsets[blockCount] = logicalEnd;
+            physicalOffsets[blockCount] = physicalEnd;
+            blockCount++;
+
+            logicalEnd += header.uncompressedLength();
+            physicalEnd += header.blockLength();
+        }
+    }
+
+    /**
+     * Reads the header of the block at the given position
+     *
+     * @return the header, or <code>null</code> if the full header is not available
+     * @throws IOException if unable to read from the channel or if the header is not valid
+     */
+    static BlockHeader readHeader(final FileChannel channel, final long position) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(BlockCompressingOutputStream.HEADER_LENGTH);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return null;
+            }
+        }
+
+        buffer.flip();
+        final int uncompressedLength = buffer.getInt();
+        final int storedLength = buffer.getInt();
+        if (uncompressedLength <= 0 || uncompressedLength > BlockCompressingOutputStream.MAX_BLOCK_SIZE || storedLength <= 0 || storedLength > uncompressedLength) {
+            throw new IOException("Invalid compressed block header at offset " + position + ": uncompressed length " + uncompressedLength + ", stored length " + storedLength);
+        }
+
+        return new BlockHeader(uncompressedLength, storedLength);
+    }
+
+    record BlockPosition(long logicalOffset, long physicalOffset) {
+    }
+
+    record BlockHeader(int uncompressedLength, int storedLength) {
+        boolean isCompressed() {
+            return storedLength < uncompressedLength;
+        }
+
+        long blockLength() {
+            return BlockCompressingOutputStream.HEADER_LENGTH + storedLength;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks the effectiveness and cost of compressing the content of a single Content Repository container
+ */
+class CompressionStatistics {
+    private final LongAdder uncompressedBytesWritten = new LongAdder();
+    private final LongAdder compressedBytesWritten = new LongAdder();
+    private final LongAdder compressionNanos = new LongAdder();
+    private final LongAdder decompressionNanos = new LongAdder();
+
+    void recordCompression(final int uncompressedLength, final int storedLength, final long nanos) {
+        uncompressedBytesWritten.add(uncompressedLength);
+        compressedBytesWritten.add(storedLength);
+        compressionNanos.add(nanos);
+    }
+
+    void recordDecompression(final long nanos) {
+        decompressionNanos.add(nanos);
+    }
+
+    long getUncompressedBytesWritten() {
+        return uncompressedBytesWritten.sum();
+    }
+
+    long getCompressedBytesWritten() {
+        return compressedBytesWritten.sum();
+    }
+
+    long getCompressionNanos() {
+        return compressionNanos.sum();
+    }
+
+    long getDecompressionNanos() {
+        return decompressionNanos.sum();
+    }
+
+    /**
+     * @return the ratio of uncompressed bytes to stored bytes for all content written, or 1.0 if no content has been written
+     */
+    double getCompressionRatio() {
+        final long compressed = getCompressedBytesWritten();
+        return compressed == 0 ? 1.0D : (double) getUncompressedBytesWritten() / compressed;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A size-bounded, least-recently-used cache of the content of small Content Claims. Entries are keyed on the
+ * Resource Claim and offset of the Content Claim, rather than on the Content Claim itself, because the equality of a
+ * Content Claim depends on its length, which changes while the claim is being written. Entries are also indexed by
+ * Resource Claim so that all content belonging to a Resource Claim can be discarded when it is archived or destroyed.
+ */
+class ContentClaimCache {
+    private final long maxBytes;
+    private final int maxClaimBytes;
+
+    private final LinkedHashMap<CacheKey, byte[]> entries = new LinkedHashMap<>(16, 0.75F, true);
+    private final Map<ResourceClaim, Set<CacheKey>> keysByResourceClaim = new HashMap<>();
+    private long cachedBytes = 0L;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    ContentClaimCache(final long maxBytes, final int maxClaimBytes) {
+        this.maxBytes = maxBytes;
+        this.maxClaimBytes = maxClaimBytes;
+    }
+
+    int getMaxClaimBytes() {
+        return maxClaimBytes;
+    }
+
+    /**
+     * @param length the length of a Content Claim
+     * @return <code>true</code> if a Content Claim of the given length is eligible to be cached, <code>false</code> otherwise
+     */
+    boolean isCacheable(final long length) {
+        return length > 0 && length <= maxClaimBytes;
+    }
+
+    /**
+     * Returns the cached content of the given claim, or <code>null</code> if the content is not cached. Lookups of claims
+     * that are not eligible to be cached are not counted as misses.
+     *
+     * @param claim the claim whose content should be returned
+     * @return the cached content, which must not be modified, or <code>null</code> if the content is not cached
+     */
+    byte[] get(final ContentClaim claim) {
+        final long length = claim.getLength();
+        if (!isCacheable(length)) {
+            return null;
+        }
+
+        final byte[] content;
+        synchronized (this) {
+            content = entries.get(new CacheKey(claim.getResourceClaim(), claim.getOffset()));
+        }
+
+        if (content == null || content.length != length) {
+            missCount.increment();
+            return null;
+        }
+
+        hitCount.increment();
+        return content;
+    }
+
+    /**
+     * Caches the content of the given claim, evicting the least recently used content if necessary.
+     *
+     * @param claim the claim whose content is given
+     * @param content the content of the claim, which must not be modified after it is provided to the cache
+     */
+    synchronized void put(final ContentClaim claim, final byte[] content) {
+        if (!isCacheable(content.length)) {
+            return;
+        }
+
+        final ResourceClaim resourceClaim = claim.getResourceClaim();
+        final CacheKey key = new CacheKey(resourceClaim, claim.getOffset());
+        final byte[] previous = entries.put(key, content);
+        if (previous == null) {
+            keysByResourceClaim.computeIfAbsent(resourceClaim, rc -> new HashSet<>()).add(key);
+        } else {
+            cachedBytes -= previous.length;
+        }
+        cachedBytes += content.length;
+
+        final Iterator<Map.Entry<CacheKey, byte[]>> itr = entries.entrySet().iterator();
+        while (cachedBytes > maxBytes && itr.hasNext()) {
+            final Map.Entry<CacheKey, byte[]> eldest = itr.next();
+            itr.remove();
+            cachedBytes -= eldest.getValue().length;
+            removeKeyIndex(eldest.getKey());
+        }
+    }
+
+    /**
+     * Discards all cached content that belongs to the given Resource Claim.
+     *
+     * @param resourceClaim the Resource Claim whose content should be discarded
+     */
+    synchronized void invalidate(final ResourceClaim resourceClaim) {
+        final Set<CacheKey> keys = keysByResourceClaim.remove(resourceClaim);
+        if (keys == null) {
+            return;
+        }
+
+        for (final CacheKey key : keys) {
+            final byte[] removed = entries.remove(key);
+            if (removed != null) {
+                cachedBytes -= removed.length;
+            }
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        keysByResourceClaim.clear();
+        cachedBytes = 0L;
+    }
+
+    private void removeKeyIndex(final CacheKey key) {
+        final Set<CacheKey> keys = keysByResourceClaim.get(key.resourceClaim());
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByResourceClaim.remove(key.resourceClaim());
+            }
+        }
+    }
+
+    synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    long getHitCount() {
+        return hitCount.sum();
+    }
+
+    long getMissCount() {
+        return missCount.sum();
+    }
+
+    private record CacheKey(ResourceClaim resourceClaim, long offset) {
+    }
+}
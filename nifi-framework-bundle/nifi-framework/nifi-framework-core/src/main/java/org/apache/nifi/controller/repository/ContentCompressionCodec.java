@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.io.IOException;
+
+/**
+ * A codec that is used by the {@link FileSystemRepository} to compress the blocks of content that it writes to Resource Claims.
+ * Implementations must be thread-safe. Additional implementations may be made available to the repository through the
+ * {@link java.util.ServiceLoader} mechanism, and are selected by their {@link #getName() name}.
+ */
+public interface ContentCompressionCodec {
+
+    /**
+     * @return the name of the codec, which is recorded in the identifier of each Resource Claim that is compressed by the codec.
+     * The name must consist only of lowercase letters and digits.
+     */
+    String getName();
+
+    /**
+     * Compresses the given data
+     *
+     * @param data the buffer containing the data to compress
+     * @param offset the offset of the data in the buffer
+     * @param length the number of bytes to compress
+     * @return the compressed data
+     */
+    byte[] compress(byte[] data, int offset, int length);
+
+    /**
+     * Decompresses the given data into the given destination
+     *
+     * @param compressed the buffer containing the compressed data
+     * @param compressedLength the number of bytes of compressed data in the buffer
+     * @param destination the buffer to decompress into
+     * @param length the number of bytes that the data decompresses to
+     * @throws IOException if the data cannot be decompressed
+     */
+    void decompress(byte[] compressed, int compressedLength, byte[] destination, int length) throws IOException;
+}
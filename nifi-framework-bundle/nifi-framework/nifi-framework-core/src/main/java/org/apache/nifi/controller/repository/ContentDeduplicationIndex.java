@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.StandardContentClaim;
+
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, least-recently-used index of Content Claims keyed on the digest and length of their content. The index does not
+ * hold a claim on the content that it refers to, so the caller must verify that the content of a claim that is returned is still
+ * referenced before using it.
+ */
+class ContentDeduplicationIndex {
+    private final Map<ContentKey, ContentClaim> entries;
+
+    private final LongAdder deduplicatedClaimCount = new LongAdder();
+    private final LongAdder deduplicatedBytes = new LongAdder();
+
+    ContentDeduplicationIndex(final int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<ContentKey, ContentClaim> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param contentDigest the digest of the content
+     * @param length the length of the content
+     * @return the Content Claim that was most recently indexed with the given digest and length, or <code>null</code> if there is none
+     */
+    synchronized ContentClaim get(final byte[] contentDigest, final long length) {
+        return entries.get(new ContentKey(HexFormat.of().formatHex(contentDigest), length));
+    }
+
+    /**
+     * Indexes the given Content Claim, replacing any claim that was previously indexed with the same digest and length
+     *
+     * @param contentDigest the digest of the content of the claim
+     * @param claim the claim whose content is complete
+     */
+    void put(final byte[] contentDigest, final ContentClaim claim) {
+        // Index a copy of the claim because the length of the given claim may change if it is written to again
+        final StandardContentClaim indexedClaim = new StandardContentClaim(claim.getResourceClaim(), claim.getOffset());
+        indexedClaim.setLength(claim.getLength());
+
+        final ContentKey key = new ContentKey(HexFormat.of().formatHex(contentDigest), claim.getLength());
+        synchronized (this) {
+            entries.put(key, indexedClaim);
+        }
+    }
+
+    void recordDeduplicated(final long length) {
+        deduplicatedClaimCount.increment();
+        deduplicatedBytes.add(length);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    long getDeduplicatedClaimCount() {
+        return deduplicatedClaimCount.sum();
+    }
+
+    long getDeduplicatedBytes() {
+        return deduplicatedBytes.sum();
+    }
+
+    private record ContentKey(String digest, long length) {
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A {@link ContentCompressionCodec} that uses the DEFLATE algorithm at its fastest level. Deflaters and Inflaters hold native
+ * memory and are expensive to create, so they are pooled rather than created for each block.
+ */
+public class DeflateContentCompressionCodec implements ContentCompressionCodec {
+    public static final String NAME = "deflate";
+
+    private static final int MAX_POOLED = 64;
+
+    private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+    private final Queue<Inflater> inflaters = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(final byte[] data, final int offset, final int length) {
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.BEST_SPEED, true);
+        }
+
+        try {
+            deflater.setInput(data, offset, length);
+            deflater.finish();
+
+            // Allow for incompressible data, which grows slightly when deflated
+            byte[] compressed = new byte[length + (length >> 3) + 64];
+            int compressedLength = 0;
+            while (!deflater.finished()) {
+                if (compressedLength == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+            }
+
+            return Arrays.copyOf(compressed, compressedLength);
+        } finally {
+            deflater.reset();
+            release(deflaters, deflater);
+        }
+    }
+
+    @Override
+    public void decompress(final byte[] compressed, final int compressedLength, final byte[] destination, final int length) throws IOException {
+        Inflater inflater = inflaters.poll();
+        if (inflater == null) {
+            inflater = new Inflater(true);
+        }
+
+        try {
+            inflater.setInput(compressed, 0, compressedLength);
+            int inflated = 0;
+            while (inflated < length) {
+                final int count = inflater.inflate(destination, inflated, length - inflated);
+                if (count == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Compressed block ended after " + inflated + " bytes but expected " + length + " bytes");
+                }
+                inflated += count;
+            }
+        } catch (final DataFormatException e) {
+            throw new IOException("Compressed block is corrupt", e);
+        } finally {
+            inflater.reset();
+            release(inflaters, inflater);
+        }
+    }
+
+    private static <T> void release(final Queue<T> pool, final T codec) {
+        if (pool.size() < MAX_POOLED) {
+            pool.offer(codec);
+        } else if (codec instanceof Deflater deflater) {
+            deflater.end();
+        } else if (codec instanceof Inflater inflater) {
+            inflater.end();
+        }
+    }
+}
@@ -38,31 +38,38 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.EOFException;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
@@ -92,6 +99,14 @@ public class FileSystemRepository implements ContentRepository {
     public static final String APPENDABLE_CLAIM_LENGTH_CAP = "100 MB";
     public static final Pattern MAX_ARCHIVE_SIZE_PATTERN = Pattern.compile("\\d{1,2}%");
     private static final Logger LOG = LoggerFactory.getLogger(FileSystemRepository.class);
+    private static final int MIN_MEMORY_MAPPED_BYTES = 64 * 1024;
+    private static final int ARCHIVE_CLEANUP_THREADS = 4;
+    private static final int MAX_INDEXED_ARCHIVE_FILES = 1_000_000;
+    private static final int MAX_COMPRESSED_BLOCK_INDEXES = 10_000;
+    private static final int MAX_DEDUPLICATION_INDEX_ENTRIES = 100_000;
+    private static final Pattern COMPRESSION_CODEC_NAME_PATTERN = Pattern.compile("[a-z0-9]+");
+    private static final String COLD_TIER_MIGRATION_SUFFIX = ".migrating";
+    private static final long MIN_COLD_TIER_MIGRATION_AGE_MILLIS = TimeUnit.SECONDS.toMillis(5L);
 
     private final Logger archiveExpirationLog = LoggerFactory.getLogger(FileSystemRepository.class.getName() + ".archive.expiration");
 
@@ -121,13 +136,32 @@ public class FileSystemRepository implements ContentRepository {
     private final long maxArchiveMillis;
     private final Map<String, Long> minUsableContainerBytesForArchive = new HashMap<>();
     private final boolean alwaysSync;
+    private final ContentClaimCache contentClaimCache;
+    private final ContentDeduplicationIndex contentDeduplicationIndex;
+    private final long minDeduplicatedClaimBytes;
+    private final Map<String, AsyncContentWriter> asyncWriters = new HashMap<>();
+    private final ExecutorService asyncWriteExecutor;
     private final ScheduledExecutorService containerCleanupExecutor;
+    private final Map<String, ColdTier> coldTiers = new HashMap<>();
+    private final long coldTierMigrationAgeMillis;
+    private final double coldTierMigrationUsageRatio;
+    private final ScheduledExecutorService coldTierMigrationExecutor;
+    private final Map<String, ContentCompressionCodec> compressionCodecs = loadCompressionCodecs();
+    private final Map<String, ContentCompressionCodec> containerCompressionCodecs = new HashMap<>();
+    private final Map<String, CompressionStatistics> compressionStatistics = new HashMap<>();
+    private final Map<ResourceClaim, CompressedBlockIndex> compressedBlockIndexes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<ResourceClaim, CompressedBlockIndex> eldest) {
+            return size() > MAX_COMPRESSED_BLOCK_INDEXES;
+        }
+    });
 
     private ResourceClaimManager resourceClaimManager; // effectively final
     private EventReporter eventReporter;
 
     // Map of container to archived files that should be deleted next.
-    private final Map<String, BlockingQueue<ArchiveInfo>> archivedFiles = new HashMap<>();
+    private final Map<String, ArchiveIndex> archiveIndexes = new HashMap<>();
+    private final ExecutorService archiveCleanupExecutor = new FlowEngine(ARCHIVE_CLEANUP_THREADS, "Cleanup FileSystemRepository Archive Sections", true);
 
 
     private final NiFiProperties nifiProperties;
@@ -160,7 +194,7 @@ public class FileSystemRepository implements ContentRepository {
 
         for (final String containerName : containerNames) {
             reclaimable.put(containerName, new LinkedBlockingQueue<>(10000));
-            archivedFiles.put(containerName, new LinkedBlockingQueue<>(100000));
+            archiveIndexes.put(containerName, new ArchiveIndex(SECTIONS_PER_CONTAINER, MAX_INDEXED_ARCHIVE_FILES));
         }
 
         final String enableArchiving = nifiProperties.getProperty(NiFiProperties.CONTENT_ARCHIVE_ENABLED);
@@ -230,11 +264,112 @@ public class FileSystemRepository implements ContentRepository {
 
         this.alwaysSync = Boolean.parseBoolean(nifiProperties.getProperty("nifi.content.repository.always.sync"));
         LOG.info("Initializing FileSystemRepository with 'Always Sync' set to {}", alwaysSync);
+
+        final long readCacheBytes = DataUnit.parseDataSize(nifiProperties.getContentReadCacheSize(), DataUnit.B).longValue();
+        if (readCacheBytes > 0) {
+            final long readCacheMaxClaimBytes = DataUnit.parseDataSize(nifiProperties.getContentReadCacheMaxClaimSize(), DataUnit.B).longValue();
+            final int maxClaimBytes = (int) Math.min(Math.min(readCacheMaxClaimBytes, readCacheBytes), Integer.MAX_VALUE);
+            this.contentClaimCache = new ContentClaimCache(readCacheBytes, maxClaimBytes);
+            LOG.info("Content Read Cache enabled with a capacity of {} bytes for Content Claims of up to {} bytes", readCacheBytes, maxClaimBytes);
+        } else {
+            this.contentClaimCache = null;
+        }
+
+        if (nifiProperties.isContentDeduplicationEnabled()) {
+            this.contentDeduplicationIndex = new ContentDeduplicationIndex(MAX_DEDUPLICATION_INDEX_ENTRIES);
+            this.minDeduplicatedClaimBytes = Math.max(1L, DataUnit.parseDataSize(nifiProperties.getContentDeduplicationMinClaimSize(), DataUnit.B).longValue());
+            LOG.info("Content Deduplication enabled for Content Claims of at least {} bytes", minDeduplicatedClaimBytes);
+        } else {
+            this.contentDeduplicationIndex = null;
+            this.minDeduplicatedClaimBytes = Long.MAX_VALUE;
+        }
+
+        if (nifiProperties.isContentAsyncWriteEnabled()) {
+            final long maxPendingBytes = DataUnit.parseDataSize(nifiProperties.getContentAsyncWriteMaxPendingSize(), DataUnit.B).longValue();
+            for (final String containerName : containerNames) {
+                asyncWriters.put(containerName, new AsyncContentWriter(containerName, maxPendingBytes));
+            }
+            this.asyncWriteExecutor = Executors.newFixedThreadPool(containerNames.size(), Thread.ofPlatform().name("FileSystemRepository Async Writer-", 1).daemon().factory());
+            LOG.info("Asynchronous content writes enabled with up to {} bytes pending per container", maxPendingBytes);
+        } else {
+            this.asyncWriteExecutor = null;
+        }
+
+        for (final String containerName : containerNames) {
+            compressionStatistics.put(containerName, new CompressionStatistics());
+
+            final String codecName = nifiProperties.getContentCompressionCodec(containerName).toLowerCase(Locale.ROOT);
+            if (!NiFiProperties.DEFAULT_CONTENT_COMPRESSION_CODEC.equals(codecName)) {
+                final ContentCompressionCodec codec = compressionCodecs.get(codecName);
+                if (codec == null) {
+                    throw new RuntimeException("Invalid value specified for the '" + NiFiProperties.CONTENT_COMPRESSION_CODEC + "' property for container " + containerName
+                        + ": no codec named '" + codecName + "' is available. Available codecs are " + compressionCodecs.keySet());
+                }
+
+                containerCompressionCodecs.put(containerName, codec);
+                LOG.info("Content written to container {} will be compressed using the {} codec", containerName, codecName);
+            }
+        }
+
+        for (final Map.Entry<String, Path> coldTierPath : nifiProperties.getContentColdTierPaths().entrySet()) {
+            final String containerName = coldTierPath.getKey();
+            if (!containers.containsKey(containerName)) {
+                throw new RuntimeException("A cold tier directory is configured with the '" + NiFiProperties.CONTENT_COLD_TIER_DIRECTORY_PREFIX + containerName
+                    + "' property, but there is no content repository container named " + containerName);
+            }
+
+            coldTiers.put(containerName, new ColdTier(coldTierPath.getValue()));
+        }
+
+        if (coldTiers.isEmpty()) {
+            this.coldTierMigrationAgeMillis = Long.MAX_VALUE;
+            this.coldTierMigrationUsageRatio = 1D;
+            this.coldTierMigrationExecutor = null;
+        } else {
+            final String migrationUsagePercentage = nifiProperties.getContentColdTierMigrationUsagePercentage();
+            if (!MAX_ARCHIVE_SIZE_PATTERN.matcher(migrationUsagePercentage.trim()).matches()) {
+                throw new RuntimeException("Invalid value specified for the '" + NiFiProperties.CONTENT_COLD_TIER_MIGRATION_USAGE_PERCENTAGE + "' property. Value must be in format: <XX>%");
+            }
+
+            try {
+                this.coldTierMigrationAgeMillis = Math.round(FormatUtils.getPreciseTimeDuration(nifiProperties.getContentColdTierMigrationAge().trim(), TimeUnit.MILLISECONDS));
+            } catch (final Exception e) {
+                throw new RuntimeException("Invalid value set for property " + NiFiProperties.CONTENT_COLD_TIER_MIGRATION_AGE, e);
+            }
+
+            this.coldTierMigrationUsageRatio = getRatio(migrationUsagePercentage);
+            this.coldTierMigrationExecutor = new FlowEngine(coldTiers.size(), "Migrate FileSystemRepository Content to Cold Tier", true);
+            LOG.info("Content older than {} millis, or the oldest content once disk usage exceeds {}, will be migrated to the cold tier of containers {}",
+                coldTierMigrationAgeMillis, migrationUsagePercentage, coldTiers.keySet());
+        }
+
         initializeRepository();
 
         containerCleanupExecutor = new FlowEngine(containers.size(), "Cleanup FileSystemRepository Container", true);
     }
 
+    private static Map<String, ContentCompressionCodec> loadCompressionCodecs() {
+        final Map<String, ContentCompressionCodec> codecs = new HashMap<>();
+        codecs.put(DeflateContentCompressionCodec.NAME, new DeflateContentCompressionCodec());
+        if (ZstdContentCompressionCodec.isAvailable()) {
+            codecs.put(ZstdContentCompressionCodec.NAME, new ZstdContentCompressionCodec());
+        } else {
+            LOG.warn("The {} Content Compression Codec is not available because the native Zstandard library could not be loaded on this platform", ZstdContentCompressionCodec.NAME);
+        }
+
+        for (final ContentCompressionCodec codec : ServiceLoader.load(ContentCompressionCodec.class, FileSystemRepository.class.getClassLoader())) {
+            final String codecName = codec.getName();
+            if (codecName == null || !COMPRESSION_CODEC_NAME_PATTERN.matcher(codecName).matches()) {
+                LOG.warn("Ignoring Content Compression Codec {} because its name [{}] does not consist only of lowercase letters and digits", codec.getClass().getName(), codecName);
+                continue;
+            }
+
+            codecs.putIfAbsent(codecName, codec);
+        }
+
+        return codecs;
+    }
+
     @Override
     public void initialize(final ContentRepositoryContext context) {
         this.resourceClaimManager = context.getResourceClaimManager();
@@ -247,6 +382,10 @@ public class FileSystemRepository implements ContentRepository {
             executor.scheduleWithFixedDelay(new ArchiveOrDestroyDestructableClaims(), 1, 1, TimeUnit.SECONDS);
         }
 
+        for (final AsyncContentWriter asyncWriter : asyncWriters.values()) {
+            asyncWriteExecutor.submit(asyncWriter);
+        }
+
         final long cleanupMillis = this.determineCleanupInterval(nifiProperties);
 
         for (final Map.Entry<String, Path> containerEntry : containers.entrySet()) {
@@ -255,12 +394,20 @@ public class FileSystemRepository implements ContentRepository {
             final Runnable cleanup = new DestroyExpiredArchiveClaims(containerName, containerPath);
             containerCleanupExecutor.scheduleWithFixedDelay(cleanup, cleanupMillis, cleanupMillis, TimeUnit.MILLISECONDS);
         }
+
+        for (final String containerName : coldTiers.keySet()) {
+            coldTierMigrationExecutor.scheduleWithFixedDelay(new MigrateToColdTier(containerName), cleanupMillis, cleanupMillis, TimeUnit.MILLISECONDS);
+        }
     }
 
     @Override
     public void shutdown() {
         executor.shutdown();
         containerCleanupExecutor.shutdown();
+        archiveCleanupExecutor.shutdown();
+        if (coldTierMigrationExecutor != null) {
+            coldTierMigrationExecutor.shutdown();
+        }
 
         // Close any of the writable claim streams that are currently open.
         // Other threads may be writing to these streams, and that's okay.
@@ -275,6 +422,12 @@ public class FileSystemRepository implements ContentRepository {
             } catch (final IOException ignored) {
             }
         }
+
+        // Stop the asynchronous writers only after the writable claim streams have been closed, so that their content is written
+        if (asyncWriteExecutor != null) {
+            asyncWriters.values().forEach(AsyncContentWriter::stop);
+            asyncWriteExecutor.shutdownNow();
+        }
     }
 
     private static double getRatio(final String value) {
@@ -321,6 +474,22 @@ public class FileSystemRepository implements ContentRepository {
 
         executor.shutdown();
 
+        // Create the sections of each cold tier. A cold tier must not overlap its container, or the content of one would be mistaken for the other.
+        for (final Map.Entry<String, ColdTier> entry : coldTiers.entrySet()) {
+            final ColdTier coldTier = entry.getValue();
+            final Path realPath = Files.createDirectories(coldTier.getPath()).toRealPath();
+            final Path containerPath = realPathMap.get(entry.getKey());
+            if (realPath.startsWith(containerPath) || containerPath.startsWith(realPath)) {
+                throw new IOException("The cold tier directory " + realPath + " of container " + entry.getKey() + " must not overlap the container's directory " + containerPath);
+            }
+
+            for (int i = 0; i < SECTIONS_PER_CONTAINER; i++) {
+                Files.createDirectories(realPath.resolve(String.valueOf(i)));
+            }
+
+            coldTier.initialize(realPath, !Files.getFileStore(realPath).equals(Files.getFileStore(containerPath)));
+        }
+
         // Wait for all futures to complete
         for (final Future<?> future : futures) {
             try {
@@ -390,6 +559,12 @@ public class FileSystemRepository implements ContentRepository {
                     + "Nifi can not create a zero sized FileSystemRepository.");
         }
 
+        // The cold tier holds part of the container's content, so its capacity is reported as part of the container's capacity
+        final ColdTier coldTier = coldTiers.get(containerName);
+        if (coldTier != null && coldTier.isSeparateFileStore()) {
+            capacity += FileUtils.getContainerCapacity(coldTier.getPath());
+        }
+
         return capacity;
     }
 
@@ -401,7 +576,25 @@ public class FileSystemRepository implements ContentRepository {
             throw new IllegalArgumentException("No container exists with name " + containerName);
         }
 
-        return FileUtils.getContainerUsableSpace(path);
+        final long usableSpace = FileUtils.getContainerUsableSpace(path);
+        final ColdTier coldTier = coldTiers.get(containerName);
+        if (coldTier != null && coldTier.isSeparateFileStore()) {
+            return usableSpace + FileUtils.getContainerUsableSpace(coldTier.getPath());
+        }
+
+        return usableSpace;
+    }
+
+    /**
+     * The archive and back pressure limits of a container are derived from the capacity of its primary directory, and content is
+     * always written to and archived in that directory, so those limits are compared only against the space available there,
+     * regardless of any cold tier.
+     *
+     * @param containerName the name of the container
+     * @return the number of bytes that are available in the primary directory of the given container
+     */
+    private long getPrimaryUsableSpace(final String containerName) {
+        return FileUtils.getContainerUsableSpace(containers.get(containerName));
     }
 
     @Override
@@ -427,6 +620,37 @@ public class FileSystemRepository implements ContentRepository {
                 }
             }
         }
+
+        for (final Map.Entry<String, ColdTier> entry : coldTiers.entrySet()) {
+            removeUnreferencedColdTierContent(entry.getKey(), entry.getValue().getPath());
+        }
+    }
+
+    private void removeUnreferencedColdTierContent(final String containerName, final Path coldTierPath) {
+        for (int i = 0; i < SECTIONS_PER_CONTAINER; i++) {
+            final String sectionName = String.valueOf(i);
+            final File[] files = coldTierPath.resolve(sectionName).toFile().listFiles();
+            if (files == null) {
+                continue;
+            }
+
+            for (final File file : files) {
+                // Copies left behind by an interrupted migration are always removed, as the content is still in the container
+                final String fileName = file.getName();
+                final boolean incompleteMigration = fileName.endsWith(COLD_TIER_MIGRATION_SUFFIX);
+                if (!incompleteMigration) {
+                    final ResourceClaim resourceClaim = resourceClaimManager.newResourceClaim(containerName, sectionName, fileName, false, false);
+                    if (resourceClaimManager.getClaimantCount(resourceClaim) > 0) {
+                        continue;
+                    }
+                }
+
+                LOG.info("Found unknown file {} in cold tier of File System Repository container {}; removing file", file.getAbsolutePath(), containerName);
+                if (!file.delete() && file.exists()) {
+                    LOG.warn("Unable to remove unknown file {} from cold tier of File System Repository container {}", file.getAbsolutePath(), containerName);
+                }
+            }
+        }
     }
 
     private void removeIncompleteContent(final String containerName, final Path containerPath, final Path fileToRemove) {
@@ -517,6 +741,10 @@ public class FileSystemRepository implements ContentRepository {
         }
 
         final Set<ResourceClaim> activeResourceClaims = getActiveResourceClaims(containerPath.toFile(), containerName);
+        final ColdTier coldTier = coldTiers.get(containerName);
+        if (coldTier != null) {
+            activeResourceClaims.addAll(getActiveResourceClaims(coldTier.getPath().toFile(), containerName));
+        }
 
         LOG.debug("Obtaining active resource claims, will return a list of {} resource claims for container {}", activeResourceClaims.size(), containerName);
         if (LOG.isTraceEnabled()) {
@@ -588,8 +816,13 @@ public class FileSystemRepository implements ContentRepository {
         // Create the Path that points to the data
         Path resolvedPath = containerPath.resolve(resourceClaim.getSection()).resolve(resourceClaim.getId());
 
-        // If the data does not exist, create a Path that points to where the data would exist in the archive directory.
+        // If the data does not exist, it may have been migrated to the cold tier. Otherwise, create a Path that points to where the data would exist in the archive directory.
         if (!Files.exists(resolvedPath)) {
+            final Path coldTierPath = getColdTierPath(resourceClaim);
+            if (coldTierPath != null && Files.exists(coldTierPath)) {
+                return coldTierPath;
+            }
+
             resolvedPath = getArchivePath(claim.getResourceClaim());
 
             if (verifyExists && !Files.exists(resolvedPath)) {
@@ -599,12 +832,72 @@ public class FileSystemRepository implements ContentRepository {
         return resolvedPath;
     }
 
-    private InputStream getInputStream(final ResourceClaim resourceClaim) {
+    /**
+     * @return the Path that the given Resource Claim has in the cold tier of its container, or <code>null</code> if the container has no cold tier
+     */
+    private Path getColdTierPath(final ResourceClaim resourceClaim) {
+        final ColdTier coldTier = coldTiers.get(resourceClaim.getContainer());
+        if (coldTier == null) {
+            return null;
+        }
+
+        return coldTier.getPath().resolve(resourceClaim.getSection()).resolve(resourceClaim.getId());
+    }
+
+    private InputStream getInputStream(final ResourceClaim resourceClaim) throws IOException {
         final ContentClaim contentClaim = new StandardContentClaim(resourceClaim, 0L);
-        return getInputStream(contentClaim);
+        return openContentStream(contentClaim);
+    }
+
+    /**
+     * Opens a stream of the content of the Resource Claim backing the given Content Claim, starting at the Content Claim's offset.
+     * If the Resource Claim is compressed, the offset is a logical offset, which is located using the Resource Claim's block index.
+     */
+    private InputStream openContentStream(final ContentClaim claim) throws IOException {
+        final ResourceClaim resourceClaim = claim.getResourceClaim();
+        final ContentCompressionCodec codec = getCompressionCodec(resourceClaim);
+        if (codec == null) {
+            return Channels.newInputStream(openPositionedChannel(claim));
+        }
+
+        final FileChannel channel = openChannel(claim);
+        try {
+            final CompressedBlockIndex blockIndex = getCompressedBlockIndex(resourceClaim);
+            final CompressedBlockIndex.BlockPosition position = blockIndex.locate(channel, claim.getOffset());
+            if (position == null) {
+                final Path path = getPath(claim, false);
+                throw new ContentNotFoundException(claim, "Content Claim has an offset of " + claim.getOffset() + " but Resource Claim " + path + " holds only "
+                    + blockIndex.getLogicalLength(channel) + " bytes of content");
+            }
+
+            final CompressionStatistics statistics = compressionStatistics.get(resourceClaim.getContainer());
+            return new BlockDecompressingInputStream(channel, codec, statistics, position.physicalOffset(), claim.getOffset() - position.logicalOffset());
+        } catch (final IOException | RuntimeException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+    }
+
+    /**
+     * @return the codec that the given Resource Claim was compressed with, or <code>null</code> if the Resource Claim is not compressed
+     */
+    private ContentCompressionCodec getCompressionCodec(final ResourceClaim resourceClaim) {
+        // The name of the codec is appended to the identifier of each compressed Resource Claim. Identifiers that end with
+        // any other extension belong to uncompressed Resource Claims.
+        final String claimId = resourceClaim.getId();
+        final int extensionIndex = claimId.lastIndexOf('.');
+        if (extensionIndex < 0) {
+            return null;
+        }
+
+        return compressionCodecs.get(claimId.substring(extensionIndex + 1));
+    }
+
+    private CompressedBlockIndex getCompressedBlockIndex(final ResourceClaim resourceClaim) {
+        return compressedBlockIndexes.computeIfAbsent(resourceClaim, claim -> new CompressedBlockIndex());
     }
 
-    private InputStream getInputStream(final ContentClaim claim) {
+    private FileChannel openChannel(final ContentClaim claim) {
         final ResourceClaim resourceClaim = claim.getResourceClaim();
         final Path containerPath = containers.get(resourceClaim.getContainer());
         if (containerPath == null) {
@@ -615,17 +908,51 @@ public class FileSystemRepository implements ContentRepository {
         final Path resolvedPath = containerPath.resolve(resourceClaim.getSection()).resolve(resourceClaim.getId());
 
         try {
-            return new FileInputStream(resolvedPath.toFile());
-        } catch (final FileNotFoundException ignored) {
-            // If this occurs, we will also check the archive directory.
+            return FileChannel.open(resolvedPath, StandardOpenOption.READ);
+        } catch (final IOException ignored) {
+            // If this occurs, we will also check the cold tier and the archive directory.
+        }
+
+        final Path coldTierPath = getColdTierPath(resourceClaim);
+        if (coldTierPath != null) {
+            try {
+                return FileChannel.open(coldTierPath, StandardOpenOption.READ);
+            } catch (final IOException ignored) {
+                // The content has not been migrated to the cold tier
+            }
         }
 
         final Path archivePath = getArchivePath(resourceClaim);
         try {
-            return new FileInputStream(archivePath.toFile());
-        } catch (final FileNotFoundException fnfe) {
-            throw new ContentNotFoundException(claim, fnfe);
+            return FileChannel.open(archivePath, StandardOpenOption.READ);
+        } catch (final IOException ioe) {
+            throw new ContentNotFoundException(claim, ioe);
+        }
+    }
+
+    /**
+     * Opens a FileChannel for the Resource Claim backing the given Content Claim and positions it at the start of the Content Claim.
+     * Positioning the channel is a single call regardless of the offset, whereas skipping through an InputStream may require several
+     * reads when many small Content Claims are packed into the same Resource Claim.
+     */
+    private FileChannel openPositionedChannel(final ContentClaim claim) throws IOException {
+        final FileChannel channel = openChannel(claim);
+        if (claim.getOffset() > 0L) {
+            try {
+                final long resourceClaimBytes = channel.size();
+                if (claim.getOffset() > resourceClaimBytes) {
+                    final Path path = getPath(claim, false);
+                    throw new ContentNotFoundException(claim, "Content Claim has an offset of " + claim.getOffset() + " but Resource Claim " + path + " is only " + resourceClaimBytes + " bytes");
+                }
+
+                channel.position(claim.getOffset());
+            } catch (final IOException | RuntimeException e) {
+                closeQuietly(channel);
+                throw e;
+            }
         }
+
+        return channel;
     }
 
     @Override
@@ -657,7 +984,8 @@ public class FileSystemRepository implements ContentRepository {
 
             final long modulatedSectionIndex = currentIndex % SECTIONS_PER_CONTAINER;
             final String section = String.valueOf(modulatedSectionIndex).intern();
-            final String claimId = System.currentTimeMillis() + "-" + currentIndex;
+            final ContentCompressionCodec codec = containerCompressionCodecs.get(containerName);
+            final String claimId = System.currentTimeMillis() + "-" + currentIndex + (codec == null ? "" : "." + codec.getName());
 
             resourceClaim = resourceClaimManager.newResourceClaim(containerName, section, claimId, lossTolerant, true);
             resourceOffset = 0L;
@@ -673,7 +1001,10 @@ public class FileSystemRepository implements ContentRepository {
                 throw new IOException("Could not determine file to write to for " + resourceClaim);
             }
             final File file = resourceClaimPath.toFile();
-            ByteCountingOutputStream claimStream = new SynchronizedByteCountingOutputStream(new FileOutputStream(file, true), file.length());
+            final AsyncContentWriter asyncWriter = asyncWriters.get(containerName);
+            final OutputStream fileOut = asyncWriter == null ? new FileOutputStream(file, true) : asyncWriter.open(resourceClaimPath);
+            final OutputStream claimOut = codec == null ? fileOut : new BlockCompressingOutputStream(fileOut, codec, compressionStatistics.get(containerName));
+            ByteCountingOutputStream claimStream = new SynchronizedByteCountingOutputStream(claimOut, file.length());
             writableClaimStreams.put(resourceClaim, claimStream);
 
             incrementClaimantCount(resourceClaim, true);
@@ -743,6 +1074,15 @@ public class FileSystemRepository implements ContentRepository {
             }
         }
 
+        final Path coldTierPath = getColdTierPath(claim);
+        if (coldTierPath != null) {
+            final File coldTierFile = coldTierPath.toFile();
+            if (!coldTierFile.delete() && coldTierFile.exists()) {
+                LOG.warn("Unable to delete {} at path {}", claim, coldTierPath);
+                return false;
+            }
+        }
+
         return true;
     }
 
@@ -765,6 +1105,69 @@ public class FileSystemRepository implements ContentRepository {
     }
 
 
+    @Override
+    public boolean isContentDeduplicationEnabled() {
+        return contentDeduplicationIndex != null;
+    }
+
+    @Override
+    public ContentClaim deduplicate(final ContentClaim claim, final byte[] contentDigest) throws IOException {
+        if (contentDeduplicationIndex == null || claim == null || claim.getLength() < minDeduplicatedClaimBytes) {
+            return claim;
+        }
+
+        final ContentClaim existingClaim = contentDeduplicationIndex.get(contentDigest, claim.getLength());
+        if (existingClaim != null && incrementClaimantCountIfReferenced(existingClaim.getResourceClaim())) {
+            contentDeduplicationIndex.recordDeduplicated(claim.getLength());
+            LOG.debug("Content of {} is identical to content of {}; referencing existing content", claim, existingClaim);
+            return existingClaim;
+        }
+
+        // Other FlowFiles may reference the content as soon as it is indexed, so it must be readable, and durable if required, first
+        final ByteCountingOutputStream claimStream = writableClaimStreams.get(claim.getResourceClaim());
+        if (claimStream != null) {
+            if (alwaysSync) {
+                sync(claimStream);
+            } else {
+                claimStream.flush();
+            }
+        }
+
+        contentDeduplicationIndex.put(contentDigest, claim);
+        return claim;
+    }
+
+    /**
+     * Increments the claimant count of the given Resource Claim only if it is currently referenced. A Resource Claim that is not referenced
+     * may already be queued for archival or destruction, so its content cannot be relied upon.
+     */
+    private boolean incrementClaimantCountIfReferenced(final ResourceClaim resourceClaim) {
+        // The Resource Claim Manager synchronizes on the Resource Claim when updating its claimant count, so the count cannot be
+        // decremented to 0 between checking it and incrementing it
+        synchronized (resourceClaim) {
+            if (resourceClaimManager.getClaimantCount(resourceClaim) <= 0) {
+                return false;
+            }
+
+            resourceClaimManager.incrementClaimantCount(resourceClaim);
+            return true;
+        }
+    }
+
+    /**
+     * @return the number of Content Claims whose content was replaced by a reference to identical content, or 0 if deduplication is disabled
+     */
+    public long getDeduplicatedClaimCount() {
+        return contentDeduplicationIndex == null ? 0L : contentDeduplicationIndex.getDeduplicatedClaimCount();
+    }
+
+    /**
+     * @return the number of bytes of content that were replaced by a reference to identical content, or 0 if deduplication is disabled
+     */
+    public long getDeduplicatedBytes() {
+        return contentDeduplicationIndex == null ? 0L : contentDeduplicationIndex.getDeduplicatedBytes();
+    }
+
     @Override
     public long importFrom(final Path content, final ContentClaim claim) throws IOException {
         try (final InputStream in = Files.newInputStream(content, StandardOpenOption.READ)) {
@@ -789,14 +1192,7 @@ public class FileSystemRepository implements ContentRepository {
             return 0L;
         }
 
-        try (final InputStream in = read(claim);
-             final FileOutputStream fos = new FileOutputStream(destination.toFile(), append)) {
-            final long copied = StreamUtils.copy(in, fos);
-            if (alwaysSync) {
-                fos.getFD().sync();
-            }
-            return copied;
-        }
+        return transferTo(claim, destination, append, 0L, size(claim), false);
     }
 
     @Override
@@ -818,17 +1214,70 @@ public class FileSystemRepository implements ContentRepository {
 
         }
 
-        try (final InputStream in = read(claim);
-             final FileOutputStream fos = new FileOutputStream(destination.toFile(), append)) {
-            if (offset > 0) {
-                StreamUtils.skip(in, offset);
+        if (length > claimSize - offset) {
+            throw new EOFException("Attempted to copy " + length + " bytes starting at offset " + offset + " but claim size is only " + claimSize + " bytes");
+        }
+
+        return transferTo(claim, destination, append, offset, length, true);
+    }
+
+    /**
+     * Copies the requested range of the given claim to the destination file using {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+     * so that the operating system is able to copy the data without moving it through the JVM heap.
+     *
+     * @param requireFullLength whether or not an EOFException should be thrown if fewer than <code>length</code> bytes are available
+     * @return the number of bytes copied
+     */
+    private long transferTo(final ContentClaim claim, final Path destination, final boolean append, final long offset, final long length, final boolean requireFullLength) throws IOException {
+        final OpenOption[] openOptions = append
+            ? new OpenOption[] {StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND}
+            : new OpenOption[] {StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING};
+
+        if (getCompressionCodec(claim.getResourceClaim()) != null) {
+            // Compressed content must be decompressed by the JVM, so it cannot be copied by the operating system
+            try (final InputStream source = openContentStream(claim);
+                 final FileChannel target = FileChannel.open(destination, openOptions)) {
+
+                StreamUtils.skip(source, offset);
+                final OutputStream out = Channels.newOutputStream(target);
+                final byte[] buffer = new byte[8192];
+                long copied = 0L;
+                int len;
+                while (copied < length && (len = source.read(buffer, 0, (int) Math.min(length - copied, buffer.length))) > 0) {
+                    out.write(buffer, 0, len);
+                    copied += len;
+                }
+
+                return completeTransfer(target, copied, length, requireFullLength);
             }
-            StreamUtils.copy(in, fos, length);
-            if (alwaysSync) {
-                fos.getFD().sync();
+        }
+
+        try (final FileChannel source = openChannel(claim);
+             final FileChannel target = FileChannel.open(destination, openOptions)) {
+
+            final long start = claim.getOffset() + offset;
+            long copied = 0L;
+            while (copied < length) {
+                final long transferred = source.transferTo(start + copied, length - copied, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                copied += transferred;
             }
-            return length;
+
+            return completeTransfer(target, copied, length, requireFullLength);
+        }
+    }
+
+    private long completeTransfer(final FileChannel target, final long copied, final long length, final boolean requireFullLength) throws IOException {
+        if (requireFullLength && copied < length) {
+            throw new EOFException("Attempted to copy " + length + " bytes but only " + copied + " bytes were available");
+        }
+
+        if (alwaysSync) {
+            target.force(true);
         }
+        return copied;
     }
 
     @Override
@@ -875,6 +1324,12 @@ public class FileSystemRepository implements ContentRepository {
 
         // see javadocs for claim.getLength() as to why we do this.
         if (claim.getLength() < 0) {
+            if (getCompressionCodec(claim.getResourceClaim()) != null) {
+                try (final FileChannel channel = openChannel(claim)) {
+                    return getCompressedBlockIndex(claim.getResourceClaim()).getLogicalLength(channel) - claim.getOffset();
+                }
+            }
+
             return Files.size(getPath(claim, true)) - claim.getOffset();
         }
 
@@ -888,6 +1343,11 @@ public class FileSystemRepository implements ContentRepository {
             return 0L;
         }
 
+        final Path coldTierPath = getColdTierPath(claim);
+        if (coldTierPath != null && !Files.exists(path) && Files.exists(coldTierPath)) {
+            return Files.size(coldTierPath);
+        }
+
         return Files.size(path);
     }
 
@@ -906,29 +1366,12 @@ public class FileSystemRepository implements ContentRepository {
             return new ByteArrayInputStream(new byte[0]);
         }
 
-        final InputStream fis = getInputStream(claim);
-        if (claim.getOffset() > 0L) {
-            try {
-                StreamUtils.skip(fis, claim.getOffset());
-            } catch (final EOFException eof) {
-                closeQuietly(fis);
-
-                final Path path = getPath(claim, false);
-                final long resourceClaimBytes;
-                try {
-                    resourceClaimBytes = Files.size(path);
-                } catch (final IOException e) {
-                    throw new ContentNotFoundException(claim, "Content Claim has an offset of " + claim.getOffset()
-                            + " but Resource Claim has fewer than this many bytes (actual length of the resource claim could not be determined)");
-                }
-
-                throw new ContentNotFoundException(claim, "Content Claim has an offset of " + claim.getOffset() + " but Resource Claim " + path + " is only " + resourceClaimBytes + " bytes");
-            } catch (final IOException ioe) {
-                closeQuietly(fis);
-                throw ioe;
-            }
+        if (contentClaimCache != null && contentClaimCache.isCacheable(claim.getLength())) {
+            return new ByteArrayInputStream(readCacheable(claim));
         }
 
+        final InputStream fis = openContentStream(claim);
+
         // A claim length of -1 indicates that the claim is still being written to and we don't know
         // the length. In this case, we don't limit the Input Stream. If the Length has been populated, though,
         // it is possible that the Length could then be extended. However, we do want to avoid ever allowing the
@@ -944,65 +1387,265 @@ public class FileSystemRepository implements ContentRepository {
         }
     }
 
-    private void closeQuietly(final Closeable closeable) {
-        if (closeable == null) {
-            return;
-        }
-
-        try {
-            closeable.close();
-        } catch (final IOException ioe) {
-            LOG.warn("Failed to close {}", closeable, ioe);
+    private byte[] readCacheable(final ContentClaim claim) throws IOException {
+        final byte[] cached = contentClaimCache.get(claim);
+        if (cached != null) {
+            return cached;
         }
-    }
 
-    @Override
-    public OutputStream write(final ContentClaim claim) throws IOException {
-        return write(claim, false);
+        final byte[] content = readContent(claim, (int) claim.getLength());
+        cacheContent(claim, content);
+        return content;
     }
 
-    private OutputStream write(final ContentClaim claim, final boolean append) {
-        StandardContentClaim scc = validateContentClaimForWriting(claim);
-
-        ByteCountingOutputStream claimStream = writableClaimStreams.get(scc.getResourceClaim());
-        final int initialLength = append ? (int) Math.max(0, scc.getLength()) : 0;
-
-        final ByteCountingOutputStream bcos = claimStream;
-
-        final OutputStream out = new ContentRepositoryOutputStream(scc, bcos, initialLength);
-
-        LOG.debug("Writing to {}", out);
-        if (LOG.isTraceEnabled()) {
-            LOG.trace("Stack trace: ", new RuntimeException("Stack Trace for writing to " + out));
+    private byte[] readContent(final ContentClaim claim, final int length) throws IOException {
+        if (getCompressionCodec(claim.getResourceClaim()) != null) {
+            try (final InputStream in = openContentStream(claim)) {
+                final byte[] content = in.readNBytes(length);
+                if (content.length < length) {
+                    throw new EOFException("Expected " + length + " bytes for " + claim + " but only " + content.length + " bytes were available");
+                }
+                return content;
+            }
         }
 
-        return out;
-    }
-
-    public static StandardContentClaim validateContentClaimForWriting(ContentClaim claim) {
-        if (claim == null) {
-            throw new NullPointerException("ContentClaim cannot be null");
+        try (final FileChannel channel = openPositionedChannel(claim)) {
+            return readFully(channel, claim, length).array();
         }
+    }
 
-        if (!(claim instanceof StandardContentClaim)) {
-            // we know that we will only create Content Claims that are of type StandardContentClaim, so if we get anything
-            // else, just throw an Exception because it is not valid for this Repository
-            throw new IllegalArgumentException("Cannot write to " + claim + " because that Content Claim does belong to this Content Repository");
+    private void cacheContent(final ContentClaim claim, final byte[] content) {
+        // Content of a Resource Claim that no longer has any claimants is about to be archived or destroyed, so there is no value in caching it
+        if (resourceClaimManager == null || resourceClaimManager.getClaimantCount(claim.getResourceClaim()) > 0) {
+            contentClaimCache.put(claim, content);
         }
+    }
 
-        if (claim.getLength() > 0) {
-            throw new IllegalArgumentException("Cannot write to " + claim + " because it has already been written to.");
+    private ByteBuffer readFully(final FileChannel channel, final ContentClaim claim, final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Expected " + length + " bytes for " + claim + " but only " + buffer.position() + " bytes were available");
+            }
         }
+        return buffer.flip();
+    }
 
-        return (StandardContentClaim) claim;
+    /**
+     * @return the number of reads that were served from the content read cache, or 0 if the cache is disabled
+     */
+    public long getContentReadCacheHitCount() {
+        return contentClaimCache == null ? 0L : contentClaimCache.getHitCount();
     }
 
-    @Override
+    /**
+     * @return the number of reads of cacheable Content Claims that were not served from the content read cache, or 0 if the cache is disabled
+     */
+    public long getContentReadCacheMissCount() {
+        return contentClaimCache == null ? 0L : contentClaimCache.getMissCount();
+    }
+
+    /**
+     * @return the number of bytes of content currently held by the content read cache
+     */
+    public long getContentReadCacheSize() {
+        return contentClaimCache == null ? 0L : contentClaimCache.getCachedBytes();
+    }
+
+    public boolean isContentReadCacheEnabled() {
+        return contentClaimCache != null;
+    }
+
+    /**
+     * @param containerName the name of the container
+     * @return the name of the codec used to compress content written to the given container, or <code>null</code> if content is not compressed
+     */
+    public String getCompressionCodecName(final String containerName) {
+        final ContentCompressionCodec codec = containerCompressionCodecs.get(containerName);
+        return codec == null ? null : codec.getName();
+    }
+
+    /**
+     * @param containerName the name of the container
+     * @return the ratio of the number of bytes of content compressed for the given container to the number of bytes written to disk for it,
+     * or 1.0 if no content has been compressed
+     */
+    public double getCompressionRatio(final String containerName) {
+        final CompressionStatistics statistics = compressionStatistics.get(containerName);
+        return statistics == null ? 1.0D : statistics.getCompressionRatio();
+    }
+
+    /**
+     * @param containerName the name of the container
+     * @return the number of bytes of content that have been compressed for the given container since the repository was created
+     */
+    public long getCompressedContentBytes(final String containerName) {
+        final CompressionStatistics statistics = compressionStatistics.get(containerName);
+        return statistics == null ? 0L : statistics.getUncompressedBytesWritten();
+    }
+
+    /**
+     * @param containerName the name of the container
+     * @return the total number of nanoseconds spent compressing content for the given container since the repository was created
+     */
+    public long getCompressionNanos(final String containerName) {
+        final CompressionStatistics statistics = compressionStatistics.get(containerName);
+        return statistics == null ? 0L : statistics.getCompressionNanos();
+    }
+
+    /**
+     * @param containerName the name of the container
+     * @return the total number of nanoseconds spent decompressing content from the given container since the repository was created
+     */
+    public long getDecompressionNanos(final String containerName) {
+        final CompressionStatistics statistics = compressionStatistics.get(containerName);
+        return statistics == null ? 0L : statistics.getDecompressionNanos();
+    }
+
+    /**
+     * @param containerName the name of the container
+     * @return <code>true</code> if content of the given container is migrated to a cold tier, <code>false</code> otherwise
+     */
+    public boolean isColdTierConfigured(final String containerName) {
+        return coldTiers.containsKey(containerName);
+    }
+
+    /**
+     * @param containerName the name of the container
+     * @return the number of bytes that are available in the cold tier of the given container, or 0 if the container has no cold tier
+     */
+    public long getColdTierUsableSpace(final String containerName) {
+        final ColdTier coldTier = coldTiers.get(containerName);
+        return coldTier == null ? 0L : FileUtils.getContainerUsableSpace(coldTier.getPath());
+    }
+
+    /**
+     * @param containerName the name of the container
+     * @return the total number of bytes that the cold tier of the given container can hold, or 0 if the container has no cold tier
+     */
+    public long getColdTierCapacity(final String containerName) {
+        final ColdTier coldTier = coldTiers.get(containerName);
+        return coldTier == null ? 0L : FileUtils.getContainerCapacity(coldTier.getPath());
+    }
+
+    /**
+     * @param containerName the name of the container
+     * @return the number of Resource Claims that have been migrated to the cold tier of the given container since the repository was started
+     */
+    public long getColdTierMigratedClaimCount(final String containerName) {
+        final ColdTier coldTier = coldTiers.get(containerName);
+        return coldTier == null ? 0L : coldTier.getMigratedClaimCount();
+    }
+
+    /**
+     * @param containerName the name of the container
+     * @return the number of bytes that have been migrated to the cold tier of the given container since the repository was started
+     */
+    public long getColdTierMigratedBytes(final String containerName) {
+        final ColdTier coldTier = coldTiers.get(containerName);
+        return coldTier == null ? 0L : coldTier.getMigratedBytes();
+    }
+
+    @Override
+    public ByteBuffer readBuffer(final ContentClaim claim) throws IOException {
+        if (claim == null) {
+            return ByteBuffer.allocate(0).asReadOnlyBuffer();
+        }
+
+        final long claimSize = size(claim);
+        if (claimSize > Integer.MAX_VALUE) {
+            throw new IOException("Cannot provide a ByteBuffer for " + claim + " because its length of " + claimSize + " bytes exceeds the maximum size of a ByteBuffer");
+        }
+
+        if (contentClaimCache != null && contentClaimCache.isCacheable(claim.getLength())) {
+            return ByteBuffer.wrap(readCacheable(claim)).asReadOnlyBuffer();
+        }
+
+        // Compressed content cannot be mapped into memory, as the bytes in the file are not the bytes of the content
+        if (getCompressionCodec(claim.getResourceClaim()) != null) {
+            return ByteBuffer.wrap(readContent(claim, (int) claimSize)).asReadOnlyBuffer();
+        }
+
+        try (final FileChannel channel = openPositionedChannel(claim)) {
+            // Mapping a region of a file has a fixed cost that outweighs copying the bytes for small claims
+            if (claimSize < MIN_MEMORY_MAPPED_BYTES) {
+                return readFully(channel, claim, (int) claimSize).asReadOnlyBuffer();
+            }
+
+            // The mapping remains valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, claim.getOffset(), claimSize);
+        }
+    }
+
+    private void closeQuietly(final Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+
+        try {
+            closeable.close();
+        } catch (final IOException ioe) {
+            LOG.warn("Failed to close {}", closeable, ioe);
+        }
+    }
+
+    @Override
+    public OutputStream write(final ContentClaim claim) throws IOException {
+        return write(claim, false);
+    }
+
+    private OutputStream write(final ContentClaim claim, final boolean append) {
+        StandardContentClaim scc = validateContentClaimForWriting(claim);
+
+        ByteCountingOutputStream claimStream = writableClaimStreams.get(scc.getResourceClaim());
+        final int initialLength = append ? (int) Math.max(0, scc.getLength()) : 0;
+
+        final ByteCountingOutputStream bcos = claimStream;
+
+        final OutputStream out = new ContentRepositoryOutputStream(scc, bcos, initialLength);
+
+        LOG.debug("Writing to {}", out);
+        if (LOG.isTraceEnabled()) {
+            LOG.trace("Stack trace: ", new RuntimeException("Stack Trace for writing to " + out));
+        }
+
+        return out;
+    }
+
+    public static StandardContentClaim validateContentClaimForWriting(ContentClaim claim) {
+        if (claim == null) {
+            throw new NullPointerException("ContentClaim cannot be null");
+        }
+
+        if (!(claim instanceof StandardContentClaim)) {
+            // we know that we will only create Content Claims that are of type StandardContentClaim, so if we get anything
+            // else, just throw an Exception because it is not valid for this Repository
+            throw new IllegalArgumentException("Cannot write to " + claim + " because that Content Claim does belong to this Content Repository");
+        }
+
+        if (claim.getLength() > 0) {
+            throw new IllegalArgumentException("Cannot write to " + claim + " because it has already been written to.");
+        }
+
+        return (StandardContentClaim) claim;
+    }
+
+    @Override
     public void purge() {
+        if (contentClaimCache != null) {
+            contentClaimCache.clear();
+        }
+        if (contentDeduplicationIndex != null) {
+            contentDeduplicationIndex.clear();
+        }
+
         // delete all content from repositories
         for (final Path path : containers.values()) {
             FileUtils.deleteFilesInDir(path.toFile(), null, LOG, true);
         }
+        for (final ColdTier coldTier : coldTiers.values()) {
+            FileUtils.deleteFilesInDir(coldTier.getPath().toFile(), null, LOG, true);
+        }
 
         for (final Path path : containers.values()) {
             if (!Files.exists(path)) {
@@ -1103,6 +1746,11 @@ public class FileSystemRepository implements ContentRepository {
             return true;
         }
 
+        final Path coldTierPath = getColdTierPath(contentClaim.getResourceClaim());
+        if (coldTierPath != null && Files.exists(coldTierPath)) {
+            return true;
+        }
+
         return Files.exists(getArchivePath(contentClaim.getResourceClaim()));
     }
 
@@ -1121,6 +1769,13 @@ public class FileSystemRepository implements ContentRepository {
             return false;
         }
 
+        // Content that has been migrated to the cold tier is removed rather than archived
+        final Path coldTierPath = getColdTierPath(claim);
+        if (coldTierPath != null && !Files.exists(curPath) && Files.deleteIfExists(coldTierPath)) {
+            LOG.debug("Removed {} from cold tier", claim);
+            return false;
+        }
+
         final boolean archived = archive(curPath);
         LOG.debug("Successfully moved {} to archive", claim);
         return archived;
@@ -1135,6 +1790,11 @@ public class FileSystemRepository implements ContentRepository {
             return false;
         }
 
+        if (contentClaimCache != null) {
+            contentClaimCache.invalidate(claim);
+        }
+        compressedBlockIndexes.remove(claim);
+
         // If the claim count is decremented to 0 (<= 0 as a 'defensive programming' strategy), ensure that
         // we close the stream if there is one. There may be a stream open if create() is called and then
         // claimant count is removed without writing to the claim (or more specifically, without closing the
@@ -1177,9 +1837,52 @@ public class FileSystemRepository implements ContentRepository {
         }
 
         Files.move(curPath, archivePath);
+        indexArchivedFile(archivePath);
         return true;
     }
 
+    private void indexArchivedFile(final Path archivePath) {
+        // Archived files are located at <container>/<section>/archive/<resource claim id>
+        final Path sectionPath = archivePath.getParent().getParent();
+        final Path containerPath = sectionPath.getParent();
+        for (final Map.Entry<String, Path> entry : containers.entrySet()) {
+            if (!entry.getValue().equals(containerPath)) {
+                continue;
+            }
+
+            try {
+                final int section = Integer.parseInt(sectionPath.getFileName().toString());
+                final ArchiveIndex.ArchivedFile archivedFile = new ArchiveIndex.ArchivedFile(archivePath.getFileName().toString(), Files.size(archivePath), getLastModTime(archivePath));
+                archiveIndexes.get(entry.getKey()).add(section, archivedFile);
+            } catch (final NumberFormatException | IOException e) {
+                // The file will be indexed when its section of the archive is next scanned
+                LOG.debug("Unable to index archived file {}", archivePath, e);
+            }
+            return;
+        }
+    }
+
+    /**
+     * Returns how far archive cleanup is lagging behind the configured maximum retention period, which is the amount of time by which the oldest
+     * archived file has outlived the retention period.
+     *
+     * @param containerName the name of the container
+     * @return the number of milliseconds by which archive cleanup is lagging, or 0 if no archived file has outlived the retention period
+     */
+    public long getArchiveCleanupLagMillis(final String containerName) {
+        final ArchiveIndex archiveIndex = archiveIndexes.get(containerName);
+        if (archiveIndex == null || !archiveData) {
+            return 0L;
+        }
+
+        final long oldestLastModTime = archiveIndex.getOldestLastModTime();
+        if (oldestLastModTime < 0) {
+            return 0L;
+        }
+
+        return Math.max(0L, System.currentTimeMillis() - maxArchiveMillis - oldestLastModTime);
+    }
+
     private long getLastModTime(final File file) {
         // the content claim identifier is created by concatenating System.currentTimeMillis(), "-", and a one-up number.
         // However, it used to be just a one-up number. As a result, we can check for the timestamp and if present use it.
@@ -1201,23 +1904,8 @@ public class FileSystemRepository implements ContentRepository {
         return getLastModTime(file.toFile());
     }
 
-    private boolean deleteBasedOnTimestamp(final BlockingQueue<ArchiveInfo> fileQueue, final long removalTimeThreshold) throws IOException {
-        // check next file's last mod time.
-        final ArchiveInfo nextFile = fileQueue.peek();
-        if (nextFile == null) {
-            // Continue on to queue up the files, in case the next file must be destroyed based on time.
-            return false;
-        }
-
-        // If the last mod time indicates that it should be removed, just continue loop.
-        final long oldestArchiveDate = getLastModTime(nextFile.toPath());
-        return (oldestArchiveDate <= removalTimeThreshold);
-    }
-
     private void destroyExpiredArchives(final String containerName, final Path container) throws IOException {
         archiveExpirationLog.debug("Destroying Expired Archives for Container {}", containerName);
-        final List<ArchiveInfo> notYetExceedingThreshold = new ArrayList<>();
-        long removalTimeThreshold = System.currentTimeMillis() - maxArchiveMillis;
 
         // determine how much space we must have in order to stop deleting old data
         final Long minRequiredSpace = minUsableContainerBytesForArchive.get(containerName);
@@ -1226,147 +1914,71 @@ public class FileSystemRepository implements ContentRepository {
             return;
         }
 
-        final long usableSpace = getContainerUsableSpace(containerName);
         final ContainerState containerState = containerStateMap.get(containerName);
+        final ArchiveIndex archiveIndex = archiveIndexes.get(containerName);
+        final StopWatch stopWatch = new StopWatch(true);
 
-        // First, delete files from our queue
-        final long startNanos = System.nanoTime();
-        final long toFree = minRequiredSpace - usableSpace;
-        final BlockingQueue<ArchiveInfo> fileQueue = archivedFiles.get(containerName);
-        if (archiveExpirationLog.isDebugEnabled()) {
-            if (toFree < 0) {
-                archiveExpirationLog.debug("Currently {} bytes free for Container {}; requirement is {} byte free, so no need to free space until an additional {} bytes are used",
-                        usableSpace, containerName, minRequiredSpace, Math.abs(toFree));
-            } else {
-                archiveExpirationLog.debug("Currently {} bytes free for Container {}; requirement is {} byte free, so need to free {} bytes",
-                        usableSpace, containerName, minRequiredSpace, toFree);
-            }
-        }
-
-        ArchiveInfo toDelete;
-        int deleteCount = 0;
-        long freed = 0L;
-        while ((toDelete = fileQueue.peek()) != null) {
-            try {
-                final long fileSize = toDelete.getSize();
-
-                removalTimeThreshold = System.currentTimeMillis() - maxArchiveMillis;
-
-                // we use fileQueue.peek above instead of fileQueue.poll() because we don't always want to
-                // remove the head of the queue. Instead, we want to remove it only if we plan to delete it.
-                // In order to accomplish this, we just peek at the head and check if it should be deleted.
-                // If so, then we call poll() to remove it
-                if (freed < toFree || getLastModTime(toDelete.toPath()) < removalTimeThreshold) {
-                    toDelete = fileQueue.poll(); // remove the head of the queue, which is already stored in 'toDelete'
-                    if (toDelete == null) {
-                        continue;
-                    }
-
-                    Files.deleteIfExists(toDelete.toPath());
-                    containerState.decrementArchiveCount();
-                    LOG.debug("Deleted archived ContentClaim with ID {} from Container {} because the archival size was exceeding the max configured size", toDelete.getName(), containerName);
-                    freed += fileSize;
-                    deleteCount++;
-                }
-
-                // If we've freed up enough space, we're done... unless the next file needs to be destroyed based on time.
-                if (freed >= toFree) {
-                    // If the last mod time indicates that it should be removed, just continue loop.
-                    if (deleteBasedOnTimestamp(fileQueue, removalTimeThreshold)) {
-                        archiveExpirationLog.debug("Freed enough space ({} bytes freed, needed to free {} bytes) but will continue to expire data based on timestamp", freed, toFree);
-                        continue;
+        // Expire data based on timestamp. The sections of the container are independent of one another, so they are split among several
+        // tasks that run in parallel. Any section that has no indexed files is rescanned first, so that files unknown to the index are found.
+        final long removalTimeThreshold = System.currentTimeMillis() - maxArchiveMillis;
+        final AtomicLong expiredFilesDeleted = new AtomicLong(0L);
+        final AtomicLong expiredBytesDeleted = new AtomicLong(0L);
+        final AtomicLong sectionsScanned = new AtomicLong(0L);
+        final List<Callable<Void>> sectionTasks = new ArrayList<>(ARCHIVE_CLEANUP_THREADS);
+        for (int i = 0; i < ARCHIVE_CLEANUP_THREADS; i++) {
+            final int firstSection = i;
+            sectionTasks.add(() -> {
+                for (int section = firstSection; section < SECTIONS_PER_CONTAINER; section += ARCHIVE_CLEANUP_THREADS) {
+                    if (archiveIndex.isEmpty(section) && scanArchiveSection(container, section, archiveIndex)) {
+                        sectionsScanned.incrementAndGet();
                     }
 
-                    archiveExpirationLog.debug("Freed enough space ({} bytes freed, needed to free {} bytes). Finished expiring data", freed, toFree);
-
-                    final ArchiveInfo archiveInfo = fileQueue.peek();
-                    final long oldestArchiveDate = archiveInfo == null ? System.currentTimeMillis() : getLastModTime(archiveInfo.toPath());
-
-                    // Otherwise, we're done. Return the last mod time of the oldest file in the container's archive.
-                    final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
-                    if (deleteCount > 0) {
-                        LOG.info("Deleted {} files from archive for Container {}; oldest Archive Date is now {}; container cleanup took {} millis",
-                                deleteCount, containerName, new Date(oldestArchiveDate), millis);
-                    } else {
-                        LOG.debug("Deleted {} files from archive for Container {}; oldest Archive Date is now {}; container cleanup took {} millis",
-                                deleteCount, containerName, new Date(oldestArchiveDate), millis);
+                    ArchiveIndex.ArchivedFile expired;
+                    while ((expired = archiveIndex.pollExpired(section, removalTimeThreshold)) != null) {
+                        if (deleteArchivedFile(containerName, container, section, expired, containerState)) {
+                            expiredFilesDeleted.incrementAndGet();
+                            expiredBytesDeleted.addAndGet(expired.size());
+                            LOG.debug("Deleted archived ContentClaim with ID {} from Container {} because it was older than the configured max archival duration", expired.name(), containerName);
+                        }
                     }
-
-                    return;
                 }
-            } catch (final IOException ioe) {
-                LOG.warn("Failed to delete {} from archive", toDelete, ioe);
-            }
+                return null;
+            });
         }
 
-        // Go through each container and grab the archived data into a List
-        archiveExpirationLog.debug("Searching for more archived data to expire");
-        final StopWatch stopWatch = new StopWatch(true);
-        final AtomicLong expiredFilesDeleted = new AtomicLong(0L);
-        final AtomicLong expiredBytesDeleted = new AtomicLong(0L);
-        for (int i = 0; i < SECTIONS_PER_CONTAINER; i++) {
-            final Path sectionContainer = container.resolve(String.valueOf(i));
-            final Path archive = sectionContainer.resolve("archive");
-            if (!Files.exists(archive)) {
-                continue;
-            }
-
-            try {
-                final long timestampThreshold = removalTimeThreshold;
-
-                Files.walkFileTree(archive, new SimpleFileVisitor<>() {
-                    @Override
-                    public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
-                        if (attrs.isDirectory()) {
-                            return FileVisitResult.CONTINUE;
-                        }
-
-                        final long lastModTime = getLastModTime(file);
-                        if (lastModTime < timestampThreshold) {
-                            try {
-                                expiredFilesDeleted.incrementAndGet();
-                                expiredBytesDeleted.addAndGet(file.toFile().length());
-
-                                Files.deleteIfExists(file);
-                                containerState.decrementArchiveCount();
-                                LOG.debug("Deleted archived ContentClaim with ID {} from Container {} because it was older than the configured max archival duration",
-                                        file.toFile().getName(), containerName);
-                            } catch (final IOException ioe) {
-                                LOG.warn("Failed to remove archived ContentClaim with ID {} from Container {}", file.toFile().getName(), containerName, ioe);
-                            }
-                        } else if (usableSpace < minRequiredSpace) {
-                            notYetExceedingThreshold.add(new ArchiveInfo(container, file, attrs.size(), lastModTime));
-                        }
-
-                        return FileVisitResult.CONTINUE;
-                    }
-                });
-            } catch (final IOException ioe) {
-                LOG.warn("Failed to cleanup archived files in {}", archive, ioe);
+        try {
+            for (final Future<Void> future : archiveCleanupExecutor.invokeAll(sectionTasks)) {
+                future.get();
             }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Interrupted while cleaning up archive for Container {}", containerName);
+            return;
+        } catch (final ExecutionException e) {
+            LOG.warn("Failed to cleanup archived files for Container {}", containerName, e.getCause());
         }
         final long deleteExpiredMillis = stopWatch.getElapsed(TimeUnit.MILLISECONDS);
 
-        // Sort the list according to last modified time
-        notYetExceedingThreshold.sort(Comparator.comparing(ArchiveInfo::getLastModTime));
-
-        final long sortRemainingMillis = stopWatch.getElapsed(TimeUnit.MILLISECONDS) - deleteExpiredMillis;
-
-        // Delete the oldest data
-        archiveExpirationLog.debug("Deleting data based on timestamp");
+        // Delete the oldest data until enough space has been freed
+        final long usableSpace = getPrimaryUsableSpace(containerName);
         int archiveFilesDeleted = 0;
         long archiveBytesDeleted = 0L;
-        for (final ArchiveInfo archiveInfo : notYetExceedingThreshold) {
-            try {
-                final Path path = archiveInfo.toPath();
-                Files.deleteIfExists(path);
-                containerState.decrementArchiveCount();
-                archiveBytesDeleted += archiveInfo.getSize();
-                LOG.debug("Deleted archived ContentClaim with ID {} from Container {} because the archival size was exceeding the max configured size", archiveInfo.getName(), containerName);
+        if (usableSpace < minRequiredSpace) {
+            archiveExpirationLog.debug("Currently {} bytes free for Container {}; requirement is {} byte free, so need to free {} bytes",
+                    usableSpace, containerName, minRequiredSpace, minRequiredSpace - usableSpace);
+
+            ArchiveIndex.IndexedFile oldest;
+            while ((oldest = archiveIndex.pollOldest()) != null) {
+                if (!deleteArchivedFile(containerName, container, oldest.section(), oldest.file(), containerState)) {
+                    continue;
+                }
+
+                archiveBytesDeleted += oldest.file().size();
+                LOG.debug("Deleted archived ContentClaim with ID {} from Container {} because the archival size was exceeding the max configured size", oldest.file().name(), containerName);
 
                 // Check if we've freed enough space every 25 files that we destroy
                 if (++archiveFilesDeleted % 25 == 0) {
-                    if (getContainerUsableSpace(containerName) > minRequiredSpace) { // check if we can stop now
+                    if (getPrimaryUsableSpace(containerName) > minRequiredSpace) { // check if we can stop now
                         LOG.debug("Finished cleaning up archive for Container {}", containerName);
                         break;
                     }
@@ -1376,38 +1988,71 @@ public class FileSystemRepository implements ContentRepository {
                 // FlowFiles and also have the nifi.content.claim.max.appendable.size property set to a low value. In such a case, this
                 // process may block processors from performing their job. As a result, we want to periodically log something to let
                 // users know what is going on, so that the system doesn't appear to just completely freeze up periodically.
-                if (archiveFilesDeleted % 25_000 == 0 && archiveFilesDeleted > 0) {
+                if (archiveFilesDeleted % 25_000 == 0) {
                     LOG.info("So far in this iteration, successfully deleted {} files ({}) from archive because the Content Repository size was exceeding the max configured size. Will continue " +
-                                    "deleting files from the archive until the usage drops below the threshold or until all {} archived files have been removed",
-                            archiveFilesDeleted, FormatUtils.formatDataSize(archiveBytesDeleted), notYetExceedingThreshold.size());
+                                    "deleting files from the archive until the usage drops below the threshold or until all {} indexed archived files have been removed",
+                            archiveFilesDeleted, FormatUtils.formatDataSize(archiveBytesDeleted), archiveIndex.size());
                 }
-            } catch (final IOException ioe) {
-                LOG.warn("Failed to delete {} from archive", archiveInfo, ioe);
             }
         }
+        final long deleteOldestMillis = stopWatch.getElapsed(TimeUnit.MILLISECONDS) - deleteExpiredMillis;
 
-        // Remove the first 'counter' elements from the list because those were removed.
-        notYetExceedingThreshold.subList(0, archiveFilesDeleted).clear();
-        LOG.info("Successfully deleted {} files ({}) from archive", (archiveFilesDeleted + expiredFilesDeleted.get()), FormatUtils.formatDataSize(archiveBytesDeleted + expiredBytesDeleted.get()));
+        final long totalFilesDeleted = archiveFilesDeleted + expiredFilesDeleted.get();
+        final long lagMillis = getArchiveCleanupLagMillis(containerName);
+        if (totalFilesDeleted > 0) {
+            LOG.info("Successfully deleted {} files ({}) from archive for Container {}; {} archived files remain indexed; cleanup lag is {} millis",
+                    totalFilesDeleted, FormatUtils.formatDataSize(archiveBytesDeleted + expiredBytesDeleted.get()), containerName, archiveIndex.size(), lagMillis);
+        }
 
-        final long deleteOldestMillis = stopWatch.getElapsed(TimeUnit.MILLISECONDS) - sortRemainingMillis - deleteExpiredMillis;
+        LOG.debug("Archive cleanup for Container {}: scanned {} sections, {} archived files indexed, cleanup lag = {} ms, delete expired = {} ms, delete oldest = {} ms",
+                containerName, sectionsScanned.get(), archiveIndex.size(), lagMillis, deleteExpiredMillis, deleteOldestMillis);
+    }
 
-        long oldestContainerArchive;
-        if (notYetExceedingThreshold.isEmpty()) {
-            oldestContainerArchive = System.currentTimeMillis();
-        } else {
-            oldestContainerArchive = notYetExceedingThreshold.get(0).getLastModTime();
+    /**
+     * Lists the archive directory of the given section and adds each of the files found to the index.
+     *
+     * @return <code>true</code> if the section has an archive directory that was scanned, <code>false</code> otherwise
+     */
+    private boolean scanArchiveSection(final Path container, final int section, final ArchiveIndex archiveIndex) {
+        final Path archive = container.resolve(String.valueOf(section)).resolve(ARCHIVE_DIR_NAME);
+        if (!Files.exists(archive)) {
+            return false;
         }
 
-        // Queue up the files in the order that they should be destroyed so that we don't have to scan the directories for a while.
-        for (final ArchiveInfo toEnqueue : notYetExceedingThreshold.subList(0, Math.min(100000, notYetExceedingThreshold.size()))) {
-            fileQueue.offer(toEnqueue);
+        try {
+            Files.walkFileTree(archive, Collections.emptySet(), 1, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                    if (attrs.isDirectory()) {
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    final ArchiveIndex.ArchivedFile archivedFile = new ArchiveIndex.ArchivedFile(file.getFileName().toString(), attrs.size(), getLastModTime(file.toFile()));
+                    // If the index is full, stop scanning. The remaining files will be found when the section is next scanned.
+                    return archiveIndex.add(section, archivedFile) ? FileVisitResult.CONTINUE : FileVisitResult.TERMINATE;
+                }
+            });
+        } catch (final IOException ioe) {
+            LOG.warn("Failed to scan archived files in {}", archive, ioe);
         }
 
-        final long cleanupMillis = stopWatch.getElapsed(TimeUnit.MILLISECONDS) - deleteOldestMillis - sortRemainingMillis - deleteExpiredMillis;
-        LOG.debug("Oldest Archive Date for Container {} is {}; delete expired = {} ms, sort remaining = {} ms, delete oldest = {} ms, cleanup = {} ms",
-                containerName, new Date(oldestContainerArchive), deleteExpiredMillis, sortRemainingMillis, deleteOldestMillis, cleanupMillis);
-        return;
+        return true;
+    }
+
+    private boolean deleteArchivedFile(final String containerName, final Path container, final int section, final ArchiveIndex.ArchivedFile archivedFile,
+                                       final ContainerState containerState) {
+        final Path path = container.resolve(String.valueOf(section)).resolve(ARCHIVE_DIR_NAME).resolve(archivedFile.name());
+        try {
+            // A file may be indexed more than once if it was archived while its section was being scanned, so only count it if it was actually deleted
+            if (Files.deleteIfExists(path)) {
+                containerState.decrementArchiveCount();
+                return true;
+            }
+        } catch (final IOException ioe) {
+            LOG.warn("Failed to remove archived ContentClaim with ID {} from Container {}", archivedFile.name(), containerName, ioe);
+        }
+
+        return false;
     }
 
     private class ArchiveOrDestroyDestructableClaims implements Runnable {
@@ -1474,67 +2119,217 @@ public class FileSystemRepository implements ContentRepository {
         }
     }
 
-    private static class ArchiveInfo {
+    private class DestroyExpiredArchiveClaims implements Runnable {
 
+        private final String containerName;
         private final Path containerPath;
-        private final String relativePath;
-        private final String name;
-        private final long size;
-        private final long lastModTime;
 
-        public ArchiveInfo(final Path containerPath, final Path path, final long size, final long lastModTime) {
+        private DestroyExpiredArchiveClaims(final String containerName, final Path containerPath) {
+            this.containerName = containerName;
             this.containerPath = containerPath;
-            this.relativePath = containerPath.relativize(path).toString();
-            this.name = path.toFile().getName();
-            this.size = size;
-            this.lastModTime = lastModTime;
         }
 
-        public String getName() {
-            return name;
+        @Override
+        public void run() {
+            try {
+                Thread.currentThread().setName("Cleanup Archive for " + containerName);
+                try {
+                    destroyExpiredArchives(containerName, containerPath);
+
+                    final ContainerState containerState = containerStateMap.get(containerName);
+                    containerState.signalCreationReady(); // indicate that we've finished cleaning up the archive.
+                } catch (final IOException ioe) {
+                    LOG.error("Failed to cleanup archive for container {}", containerName, ioe);
+                }
+            } catch (final Throwable t) {
+                LOG.error("Failed to cleanup archive for container {}", containerName, t);
+            }
+        }
+    }
+
+    // Visible for testing
+    void migrateToColdTier(final String containerName) throws IOException {
+        final Path containerPath = containers.get(containerName);
+        final ColdTier coldTier = coldTiers.get(containerName);
+
+        // Once the container is fuller than configured, the oldest content is migrated until enough space is freed, regardless of its age
+        final long capacity = FileUtils.getContainerCapacity(containerPath);
+        final long usedBytes = capacity - FileUtils.getContainerUsableSpace(containerPath);
+        long bytesToFree = usedBytes - (long) (capacity * coldTierMigrationUsageRatio);
+        final long now = System.currentTimeMillis();
+        final long maxLastModified = now - coldTierMigrationAgeMillis;
+
+        // Content that was modified very recently is never migrated, as the stream that wrote it may still be in the process of being closed
+        final long maxCandidateLastModified = bytesToFree > 0 ? now - MIN_COLD_TIER_MIGRATION_AGE_MILLIS : maxLastModified;
+        final List<MigrationCandidate> candidates = findMigrationCandidates(containerName, containerPath, maxCandidateLastModified);
+        candidates.sort(Comparator.comparingLong(MigrationCandidate::lastModified));
+
+        final long start = System.nanoTime();
+        int migratedCount = 0;
+        long migratedBytes = 0L;
+        for (final MigrationCandidate candidate : candidates) {
+            if (candidate.lastModified() > maxLastModified && bytesToFree <= 0) {
+                break;
+            }
+
+            try {
+                if (migrateToColdTier(candidate, coldTier)) {
+                    migratedCount++;
+                    migratedBytes += candidate.length();
+                    bytesToFree -= candidate.length();
+                    coldTier.recordMigration(candidate.length());
+                }
+            } catch (final IOException ioe) {
+                LOG.warn("Failed to migrate {} to the cold tier of container {}", candidate.resourceClaim(), containerName, ioe);
+            }
+        }
+
+        if (migratedCount > 0) {
+            LOG.info("Migrated {} Resource Claims ({} bytes) to the cold tier of container {} in {} millis", migratedCount, migratedBytes, containerName,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    private List<MigrationCandidate> findMigrationCandidates(final String containerName, final Path containerPath, final long maxLastModified) {
+        final List<MigrationCandidate> candidates = new ArrayList<>();
+
+        for (int i = 0; i < SECTIONS_PER_CONTAINER; i++) {
+            final String sectionName = String.valueOf(i);
+            final File[] files = containerPath.resolve(sectionName).toFile().listFiles();
+            if (files == null) {
+                continue;
+            }
+
+            for (final File file : files) {
+                final long lastModified = file.lastModified();
+                if (lastModified > maxLastModified || ARCHIVE_DIR_NAME.equals(file.getName())) {
+                    continue;
+                }
+
+                // Only content that is referenced and can no longer be appended to is migrated. A Resource Claim is frozen only once its stream
+                // is closed. Content that is no longer referenced is left for the destructable claims to be archived or removed.
+                final ResourceClaim resourceClaim = resourceClaimManager.getResourceClaim(containerName, sectionName, file.getName());
+                if (resourceClaim == null || resourceClaim.isWritable() || resourceClaimManager.getClaimantCount(resourceClaim) <= 0) {
+                    continue;
+                }
+
+                candidates.add(new MigrationCandidate(resourceClaim, file.toPath(), lastModified, file.length()));
+            }
         }
 
-        public long getSize() {
-            return size;
+        return candidates;
+    }
+
+    /**
+     * Copies the content of a Resource Claim to the cold tier and then removes it from the container. The Resource Claim itself is unchanged,
+     * as reads of content that is not found in the container fall back to the cold tier.
+     *
+     * @return <code>true</code> if the content was migrated, <code>false</code> if the Resource Claim was archived or removed while it was being copied
+     */
+    private boolean migrateToColdTier(final MigrationCandidate candidate, final ColdTier coldTier) throws IOException {
+        final ResourceClaim resourceClaim = candidate.resourceClaim();
+        final Path coldTierPath = coldTier.getPath().resolve(resourceClaim.getSection()).resolve(resourceClaim.getId());
+        final Path migratingPath = coldTierPath.resolveSibling(resourceClaim.getId() + COLD_TIER_MIGRATION_SUFFIX);
+
+        try {
+            Files.copy(candidate.path(), migratingPath, StandardCopyOption.REPLACE_EXISTING);
+            if (Files.size(migratingPath) != candidate.length()) {
+                LOG.debug("Will not migrate {} to cold tier because its content changed while it was being copied", resourceClaim);
+                Files.delete(migratingPath);
+                return false;
+            }
+
+            // The copy must be durable before the original is removed
+            try (final FileChannel channel = FileChannel.open(migratingPath, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+
+            Files.move(migratingPath, coldTierPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException ioe) {
+            Files.deleteIfExists(migratingPath);
+            throw ioe;
         }
 
-        public long getLastModTime() {
-            return lastModTime;
+        // If the content was archived or removed while it was being copied, the copy is not needed. Likewise, if the original cannot be removed,
+        // the copy is removed so that the content is not held in both tiers.
+        final boolean removed;
+        try {
+            removed = Files.deleteIfExists(candidate.path());
+        } catch (final IOException ioe) {
+            Files.deleteIfExists(coldTierPath);
+            throw ioe;
         }
 
-        public Path toPath() {
-            return containerPath.resolve(relativePath);
+        if (!removed) {
+            Files.deleteIfExists(coldTierPath);
         }
+
+        return removed;
     }
 
-    private class DestroyExpiredArchiveClaims implements Runnable {
+    private class MigrateToColdTier implements Runnable {
 
         private final String containerName;
-        private final Path containerPath;
 
-        private DestroyExpiredArchiveClaims(final String containerName, final Path containerPath) {
+        private MigrateToColdTier(final String containerName) {
             this.containerName = containerName;
-            this.containerPath = containerPath;
         }
 
         @Override
         public void run() {
             try {
-                Thread.currentThread().setName("Cleanup Archive for " + containerName);
-                try {
-                    destroyExpiredArchives(containerName, containerPath);
-
-                    final ContainerState containerState = containerStateMap.get(containerName);
-                    containerState.signalCreationReady(); // indicate that we've finished cleaning up the archive.
-                } catch (final IOException ioe) {
-                    LOG.error("Failed to cleanup archive for container {}", containerName, ioe);
-                }
+                migrateToColdTier(containerName);
             } catch (final Throwable t) {
-                LOG.error("Failed to cleanup archive for container {}", containerName, t);
+                LOG.error("Failed to migrate content of container {} to its cold tier", containerName, t);
             }
         }
     }
 
+    private record MigrationCandidate(ResourceClaim resourceClaim, Path path, long lastModified, long length) {
+    }
+
+    /**
+     * The slower, larger storage that the content of a container is migrated to once it is no longer recently written
+     */
+    private static class ColdTier {
+
+        private final AtomicLong migratedClaimCount = new AtomicLong(0L);
+        private final AtomicLong migratedBytes = new AtomicLong(0L);
+
+        private volatile Path path;
+        private volatile boolean separateFileStore = true;
+
+        private ColdTier(final Path path) {
+            this.path = path;
+        }
+
+        private void initialize(final Path realPath, final boolean separateFileStore) {
+            this.path = realPath;
+            this.separateFileStore = separateFileStore;
+        }
+
+        private Path getPath() {
+            return path;
+        }
+
+        private boolean isSeparateFileStore() {
+            return separateFileStore;
+        }
+
+        private void recordMigration(final long bytes) {
+            migratedClaimCount.incrementAndGet();
+            migratedBytes.addAndGet(bytes);
+        }
+
+        private long getMigratedClaimCount() {
+            return migratedClaimCount.get();
+        }
+
+        private long getMigratedBytes() {
+            return migratedBytes.get();
+        }
+    }
+
     private class ContainerState {
 
         private final String containerName;
@@ -1577,7 +2372,7 @@ public class FileSystemRepository implements ContentRepository {
             final boolean calculateUsed = (used == 0L) || System.currentTimeMillis() > checkUsedCutoffTimestamp;
             if (calculateUsed) {
                 try {
-                    final long free = getContainerUsableSpace(containerName);
+                    final long free = getPrimaryUsableSpace(containerName);
                     used = capacity - free;
                     bytesUsed = used;
 
@@ -1589,7 +2384,7 @@ public class FileSystemRepository implements ContentRepository {
                     // this doesn't get updated, so the amount of data archived just grows and grows, eventually leading
                     // to running out of disk space.
                     checkUsedCutoffTimestamp = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1L);
-                } catch (final IOException e) {
+                } catch (final Exception e) {
                     checkUsedCutoffTimestamp = 0L;
                     LOG.warn("Failed to determine how much disk space is available for container {}", containerName, e);
                     return false;
@@ -1633,7 +2428,7 @@ public class FileSystemRepository implements ContentRepository {
             try {
                 long free = 0;
                 try {
-                    free = getContainerUsableSpace(containerName);
+                    free = getPrimaryUsableSpace(containerName);
                     bytesUsed = capacity - free;
                     checkUsedCutoffTimestamp = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1L);
                 } catch (final Exception e) {
@@ -1748,6 +2543,21 @@ public class FileSystemRepository implements ContentRepository {
 
 
 
+    private void sync(final ByteCountingOutputStream claimStream) throws IOException {
+        OutputStream wrapped = claimStream.getWrappedStream();
+        if (wrapped instanceof BlockCompressingOutputStream compressingStream) {
+            // Write the current block before syncing the stream that the blocks are written to
+            compressingStream.flush();
+            wrapped = compressingStream.getWrappedStream();
+        }
+
+        if (wrapped instanceof AsyncContentWriter.ClaimOutputStream asyncStream) {
+            asyncStream.sync();
+        } else {
+            ((FileOutputStream) wrapped).getFD().sync();
+        }
+    }
+
     protected class ContentRepositoryOutputStream extends ContentClaimOutputStream {
         protected StandardContentClaim scc;
 
@@ -1757,6 +2567,7 @@ public class FileSystemRepository implements ContentRepository {
         private long bytesWritten;
         protected boolean recycle;
         protected boolean closed;
+        private ByteArrayOutputStream cacheCapture;
 
         public ContentRepositoryOutputStream(StandardContentClaim scc, ByteCountingOutputStream bcos, int initialLength) {
             this.scc = scc;
@@ -1765,6 +2576,26 @@ public class FileSystemRepository implements ContentRepository {
             bytesWritten = 0L;
             recycle = true;
             closed = false;
+            cacheCapture = createCacheCapture();
+        }
+
+        private ByteArrayOutputStream createCacheCapture() {
+            // Capture the content of new claims as they are written so that reads immediately following the write can be served from the cache
+            return contentClaimCache == null || initialLength > 0 ? null : new ByteArrayOutputStream();
+        }
+
+        private boolean isCaptureForCache(final int len) {
+            if (cacheCapture == null) {
+                return false;
+            }
+
+            // Stop capturing once the claim is too large to be cached
+            if (cacheCapture.size() + len > contentClaimCache.getMaxClaimBytes()) {
+                cacheCapture = null;
+                return false;
+            }
+
+            return true;
         }
 
         @Override
@@ -1787,6 +2618,9 @@ public class FileSystemRepository implements ContentRepository {
 
             bytesWritten++;
             scc.setLength(bytesWritten + initialLength);
+            if (isCaptureForCache(1)) {
+                cacheCapture.write(b);
+            }
         }
 
         @Override
@@ -1804,6 +2638,9 @@ public class FileSystemRepository implements ContentRepository {
 
             bytesWritten += b.length;
             scc.setLength(bytesWritten + initialLength);
+            if (isCaptureForCache(b.length)) {
+                cacheCapture.write(b, 0, b.length);
+            }
         }
 
         @Override
@@ -1822,6 +2659,9 @@ public class FileSystemRepository implements ContentRepository {
             bytesWritten += len;
 
             scc.setLength(bytesWritten + initialLength);
+            if (isCaptureForCache(len)) {
+                cacheCapture.write(b, off, len);
+            }
         }
 
         @Override
@@ -1842,7 +2682,10 @@ public class FileSystemRepository implements ContentRepository {
             closed = true;
 
             if (alwaysSync) {
-                ((FileOutputStream) bcos.getWrappedStream()).getFD().sync();
+                sync(bcos);
+            } else {
+                // Ensure that any content that is written asynchronously is visible to readers before the stream is considered closed
+                bcos.flush();
             }
 
             if (scc.getLength() < 0) {
@@ -1850,6 +2693,8 @@ public class FileSystemRepository implements ContentRepository {
                 scc.setLength(0L);
             }
 
+            cacheCapturedContent();
+
             // if we've not yet hit the threshold for appending to a resource claim, add the claim
             // to the writableClaimQueue so that the Resource Claim can be used again when create()
             // is called. In this case, we don't have to actually close the file stream. Instead, we
@@ -1902,12 +2747,21 @@ public class FileSystemRepository implements ContentRepository {
 
         @Override
         public synchronized ContentClaim newContentClaim() throws IOException {
+            cacheCapturedContent();
             scc = new StandardContentClaim(scc.getResourceClaim(), scc.getOffset() + Math.max(0, scc.getLength()));
             initialLength = 0;
             bytesWritten = 0L;
+            cacheCapture = createCacheCapture();
             incrementClaimaintCount(scc);
             return scc;
         }
+
+        private void cacheCapturedContent() {
+            if (cacheCapture != null && cacheCapture.size() > 0 && cacheCapture.size() == scc.getLength()) {
+                cacheContent(scc, cacheCapture.toByteArray());
+            }
+            cacheCapture = null;
+        }
     }
 
 }
@@ -28,12 +28,26 @@ import java.util.concurrent.atomic.AtomicLong;
 public class StandardRepositoryContext extends AbstractRepositoryContext implements RepositoryContext {
 
     private final long maxAppendableClaimBytes;
+    private final ProvenanceEventSampler provenanceEventSampler;
 
     public StandardRepositoryContext(final Connectable connectable, final AtomicLong connectionIndex, final ContentRepository contentRepository, final FlowFileRepository flowFileRepository,
                                      final FlowFileEventRepository flowFileEventRepository, final CounterRepository counterRepository, final ProvenanceEventRepository provenanceRepository,
                                      final StateManager stateManager, final long maxAppendableClaimBytes) {
+        this(connectable, connectionIndex, contentRepository, flowFileRepository, flowFileEventRepository, counterRepository, provenanceRepository, stateManager,
+            maxAppendableClaimBytes, ProvenanceEventSampler.RETAIN_ALL);
+    }
+
+    public StandardRepositoryContext(final Connectable connectable, final AtomicLong connectionIndex, final ContentRepository contentRepository, final FlowFileRepository flowFileRepository,
+                                     final FlowFileEventRepository flowFileEventRepository, final CounterRepository counterRepository, final ProvenanceEventRepository provenanceRepository,
+                                     final StateManager stateManager, final long maxAppendableClaimBytes, final ProvenanceEventSampler provenanceEventSampler) {
         super(connectable, connectionIndex, contentRepository, flowFileRepository, flowFileEventRepository, counterRepository, provenanceRepository, stateManager);
         this.maxAppendableClaimBytes = maxAppendableClaimBytes;
+        this.provenanceEventSampler = provenanceEventSampler;
+    }
+
+    @Override
+    public ProvenanceEventSampler getProvenanceEventSampler() {
+        return provenanceEventSampler;
     }
 
     @Override
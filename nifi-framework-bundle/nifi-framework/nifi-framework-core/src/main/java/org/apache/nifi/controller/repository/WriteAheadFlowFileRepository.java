@@ -25,6 +25,7 @@ import org.apache.nifi.flowfile.attributes.CoreAttributes;
 import org.apache.nifi.repository.schema.FieldCache;
 import org.apache.nifi.util.FormatUtils;
 import org.apache.nifi.util.NiFiProperties;
+import org.apache.nifi.wali.PartitionedSequentialAccessWriteAheadLog;
 import org.apache.nifi.wali.SequentialAccessWriteAheadLog;
 import org.apache.nifi.wali.SnapshotCapture;
 import org.slf4j.Logger;
@@ -36,6 +37,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -78,16 +80,29 @@ import java.util.stream.Collectors;
  * choose instead to not sync to disk for every write but instead sync only when
  * we checkpoint.
  * </p>
+ *
+ * <p>
+ * When <code>nifi.flowfile.repository.always.sync</code> is <code>true</code>, the
+ * <code>nifi.flowfile.repository.always.sync.group.commit.window</code> property may
+ * be used to coalesce the syncs of concurrent updates into a single sync. Each
+ * update then waits only until the batch that it belongs to is durable.
+ * </p>
  */
 public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncListener {
     static final String FLOWFILE_REPOSITORY_DIRECTORY_PREFIX = "nifi.flowfile.repository.directory";
     private static final String RETAIN_ORPHANED_FLOWFILES = "nifi.flowfile.repository.retain.orphaned.flowfiles";
     private static final String FLOWFILE_REPO_CACHE_SIZE = "nifi.flowfile.repository.wal.cache.characters";
+    private static final String FLOWFILE_REPO_PARTITIONS = "nifi.flowfile.repository.wal.partitions";
+    private static final String FLOWFILE_REPO_GROUP_COMMIT_WINDOW = "nifi.flowfile.repository.always.sync.group.commit.window";
+    private static final String FLOWFILE_REPO_PARALLEL_SNAPSHOT_RECOVERY = "nifi.flowfile.repository.snapshot.parallel.recovery";
 
     static final String SEQUENTIAL_ACCESS_WAL = "org.apache.nifi.wali.SequentialAccessWriteAheadLog";
     static final String ENCRYPTED_SEQUENTIAL_ACCESS_WAL = "org.apache.nifi.wali.EncryptedSequentialAccessWriteAheadLog";
+    static final String PARTITIONED_SEQUENTIAL_ACCESS_WAL = "org.apache.nifi.wali.PartitionedSequentialAccessWriteAheadLog";
     private static final String DEFAULT_WAL_IMPLEMENTATION = SEQUENTIAL_ACCESS_WAL;
     private static final int DEFAULT_CACHE_SIZE = 10_000_000;
+    private static final int DEFAULT_PARTITIONS = 4;
+    private static final int RESTORE_BATCH_SIZE = 10_000;
 
     private final String walImplementation;
     protected final NiFiProperties nifiProperties;
@@ -103,6 +118,9 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
     private final List<File> flowFileRepositoryPaths = new ArrayList<>();
     private final ScheduledExecutorService checkpointExecutor;
     private final int maxCharactersToCache;
+    private final int partitionCount;
+    private final Duration groupCommitWindow;
+    private final boolean parallelSnapshotRecovery;
 
     private volatile Collection<SerializedRepositoryRecord> recoveredRecords = null;
     private final Set<ResourceClaim> orphanedResourceClaims = Collections.synchronizedSet(new HashSet<>());
@@ -149,6 +167,9 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         nifiProperties = null;
         retainOrphanedFlowFiles = true;
         maxCharactersToCache = 0;
+        partitionCount = 0;
+        groupCommitWindow = null;
+        parallelSnapshotRecovery = false;
     }
 
     public WriteAheadFlowFileRepository(final NiFiProperties nifiProperties) {
@@ -165,10 +186,32 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         }
         this.walImplementation = writeAheadLogImpl;
         this.maxCharactersToCache = nifiProperties.getIntegerProperty(FLOWFILE_REPO_CACHE_SIZE, DEFAULT_CACHE_SIZE);
+        this.partitionCount = nifiProperties.getIntegerProperty(FLOWFILE_REPO_PARTITIONS, DEFAULT_PARTITIONS);
+
+        // Group commit is only meaningful when every update is synced to disk, so it is enabled only if always.sync is true and a window is configured.
+        final String groupCommitWindowValue = nifiProperties.getProperty(FLOWFILE_REPO_GROUP_COMMIT_WINDOW);
+        if (alwaysSync && StringUtils.isNotBlank(groupCommitWindowValue)) {
+            final long windowNanos = (long) FormatUtils.getPreciseTimeDuration(groupCommitWindowValue.trim(), TimeUnit.NANOSECONDS);
+            this.groupCommitWindow = Duration.ofNanos(windowNanos);
+        } else {
+            this.groupCommitWindow = null;
+        }
+        this.parallelSnapshotRecovery = Boolean.parseBoolean(nifiProperties.getProperty(FLOWFILE_REPO_PARALLEL_SNAPSHOT_RECOVERY, "false"));
 
         final String directoryName = nifiProperties.getProperty(FLOWFILE_REPOSITORY_DIRECTORY_PREFIX);
         flowFileRepositoryPaths.add(new File(directoryName));
 
+        // The Partitioned Write-Ahead Log is able to spread its partitions across additional directories, which are
+        // configured using properties of the form nifi.flowfile.repository.directory.<name>
+        if (PARTITIONED_SEQUENTIAL_ACCESS_WAL.equals(walImplementation)) {
+            nifiProperties.getPropertyKeys().stream()
+                .filter(propertyName -> propertyName.startsWith(FLOWFILE_REPOSITORY_DIRECTORY_PREFIX + "."))
+                .sorted()
+                .map(nifiProperties::getProperty)
+                .filter(StringUtils::isNotBlank)
+                .forEach(additionalDirectory -> flowFileRepositoryPaths.add(new File(additionalDirectory.trim())));
+        }
+
         checkpointDelayMillis = FormatUtils.getTimeDuration(nifiProperties.getFlowFileRepositoryCheckpointInterval(), TimeUnit.MILLISECONDS);
 
         checkpointExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
@@ -205,7 +248,14 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         // The specified implementation can be plaintext or encrypted; the only difference is the serde factory
         if (walImplementation.equals(SEQUENTIAL_ACCESS_WAL) || walImplementation.equals(ENCRYPTED_SEQUENTIAL_ACCESS_WAL)) {
             // TODO: May need to instantiate ESAWAL for clarity?
-            wal = new SequentialAccessWriteAheadLog<>(flowFileRepositoryPaths.get(0), serdeFactory, this);
+            wal = new SequentialAccessWriteAheadLog<>(flowFileRepositoryPaths.get(0), serdeFactory, this, groupCommitWindow, parallelSnapshotRecovery);
+        } else if (walImplementation.equals(PARTITIONED_SEQUENTIAL_ACCESS_WAL)) {
+            if (partitionCount < 1) {
+                throw new IllegalStateException("Cannot create Write-Ahead Log because the configured property '" + FLOWFILE_REPO_PARTITIONS + "' has an invalid value of '"
+                    + partitionCount + "'. Please update nifi.properties to indicate a positive number of partitions.");
+            }
+
+            wal = new PartitionedSequentialAccessWriteAheadLog<>(flowFileRepositoryPaths, partitionCount, serdeFactory, this, groupCommitWindow, parallelSnapshotRecovery);
         } else {
             throw new IllegalStateException("Cannot create Write-Ahead Log because the configured property '" + NiFiProperties.FLOWFILE_REPOSITORY_WAL_IMPLEMENTATION +
                     "' has an invalid value of '" + walImplementation + "'. Please update nifi.properties to indicate a valid value for this property.");
@@ -233,7 +283,7 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
     public Map<ResourceClaim, Set<ResourceClaimReference>> findResourceClaimReferences(final Set<ResourceClaim> resourceClaims, final FlowFileSwapManager swapManager) {
         final Map<ResourceClaim, Set<ResourceClaimReference>> references = new HashMap<>();
 
-        final SnapshotCapture<SerializedRepositoryRecord> snapshot = ((SequentialAccessWriteAheadLog<SerializedRepositoryRecord>) wal).captureSnapshot();
+        final SnapshotCapture<SerializedRepositoryRecord> snapshot = captureSnapshot();
         for (final SerializedRepositoryRecord repositoryRecord : snapshot.getRecords().values()) {
             final ContentClaim contentClaim = repositoryRecord.getContentClaim();
             if (contentClaim == null) {
@@ -269,6 +319,14 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         return references;
     }
 
+    private SnapshotCapture<SerializedRepositoryRecord> captureSnapshot() {
+        if (wal instanceof PartitionedSequentialAccessWriteAheadLog<SerializedRepositoryRecord> partitionedWal) {
+            return partitionedWal.captureSnapshot();
+        }
+
+        return ((SequentialAccessWriteAheadLog<SerializedRepositoryRecord>) wal).captureSnapshot();
+    }
+
     private ResourceClaimReference createResourceClaimReference(final String swapLocation, final String queueIdentifier) {
         return new ResourceClaimReference() {
             @Override
@@ -745,6 +803,9 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
             queueMap.put(queue.getIdentifier(), queue);
         }
 
+        // FlowFiles are restored to their queues in batches, which is significantly less expensive than enqueuing them one at a time.
+        final long restoreStart = System.nanoTime();
+        final Map<FlowFileQueue, List<FlowFileRecord>> queueBatches = new HashMap<>();
         final List<SerializedRepositoryRecord> dropRecords = new ArrayList<>();
         int numFlowFilesMissingQueue = 0;
         long maxId = 0;
@@ -802,16 +863,30 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
                 claimManager.incrementClaimantCount(claim.getResourceClaim());
             }
 
-            flowFileQueue.put(record.getFlowFileRecord());
+            final List<FlowFileRecord> batch = queueBatches.computeIfAbsent(flowFileQueue, queue -> new ArrayList<>());
+            batch.add(record.getFlowFileRecord());
+            if (batch.size() >= RESTORE_BATCH_SIZE) {
+                flowFileQueue.putAll(batch);
+                batch.clear();
+            }
         }
 
+        queueBatches.forEach((queue, batch) -> {
+            if (!batch.isEmpty()) {
+                queue.putAll(batch);
+            }
+        });
+
         // If recoveredRecords has been populated it need to be nulled out now because it is no longer useful and can be garbage collected.
         recoveredRecords = null;
 
         // Set the AtomicLong to 1 more than the max ID so that calls to #getNextFlowFileSequence() will
         // return the appropriate number.
         flowFileSequenceGenerator.set(maxId + 1);
-        logger.info("Successfully restored {} FlowFiles and {} Swap Files", recordList.size() - numFlowFilesMissingQueue, recoveredSwapLocations.size());
+        final long restoreMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - restoreStart);
+        final int restoredFlowFiles = recordList.size() - numFlowFilesMissingQueue;
+        logger.info("Successfully restored {} FlowFiles and {} Swap Files in {} milliseconds ({} FlowFiles/second)", restoredFlowFiles, recoveredSwapLocations.size(), restoreMillis,
+            restoreMillis == 0 ? restoredFlowFiles : restoredFlowFiles * 1000L / restoreMillis);
         if (numFlowFilesMissingQueue > 0) {
             logger.warn("On recovery, found {} FlowFiles whose queues no longer exists.", numFlowFilesMissingQueue);
         }
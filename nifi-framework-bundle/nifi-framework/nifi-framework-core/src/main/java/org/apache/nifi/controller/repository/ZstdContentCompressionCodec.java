@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.util.Native;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A {@link ContentCompressionCodec} that uses the Zstandard algorithm at its fastest standard level. Each block is compressed as
+ * a single Zstandard frame, so no compression context needs to be retained between blocks.
+ */
+public class ZstdContentCompressionCodec implements ContentCompressionCodec {
+    public static final String NAME = "zstd";
+
+    private static final int COMPRESSION_LEVEL = 1;
+
+    /**
+     * @return <code>true</code> if the native Zstandard library can be loaded on this platform, <code>false</code> otherwise
+     */
+    public static boolean isAvailable() {
+        try {
+            Native.load();
+            return Native.isLoaded();
+        } catch (final Throwable t) {
+            return false;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(final byte[] data, final int offset, final int length) {
+        final byte[] compressed = new byte[Math.toIntExact(Zstd.compressBound(length))];
+        final long compressedLength = Zstd.compressByteArray(compressed, 0, compressed.length, data, offset, length, COMPRESSION_LEVEL);
+        if (Zstd.isError(compressedLength)) {
+            throw new IllegalStateException("Failed to compress block: " + Zstd.getErrorName(compressedLength));
+        }
+
+        return Arrays.copyOf(compressed, (int) compressedLength);
+    }
+
+    @Override
+    public void decompress(final byte[] compressed, final int compressedLength, final byte[] destination, final int length) throws IOException {
+        final long decompressedLength = Zstd.decompressByteArray(destination, 0, length, compressed, 0, compressedLength);
+        if (Zstd.isError(decompressedLength)) {
+            throw new IOException("Compressed block is corrupt: " + Zstd.getErrorName(decompressedLength));
+        }
+        if (decompressedLength != length) {
+            throw new IOException("Compressed block ended after " + decompressedLength + " bytes but expected " + length + " bytes");
+        }
+    }
+}
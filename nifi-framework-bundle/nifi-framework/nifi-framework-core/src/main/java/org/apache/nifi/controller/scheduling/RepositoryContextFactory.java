@@ -23,6 +23,7 @@ import org.apache.nifi.controller.repository.ContentRepository;
 import org.apache.nifi.controller.repository.CounterRepository;
 import org.apache.nifi.controller.repository.FlowFileEventRepository;
 import org.apache.nifi.controller.repository.FlowFileRepository;
+import org.apache.nifi.controller.repository.ProvenanceEventSampler;
 import org.apache.nifi.controller.repository.RepositoryContext;
 import org.apache.nifi.controller.repository.StandardRepositoryContext;
 import org.apache.nifi.provenance.ProvenanceRepository;
@@ -38,11 +39,12 @@ public class RepositoryContextFactory {
     private final ProvenanceRepository provenanceRepo;
     private final StateManagerProvider stateManagerProvider;
     private final long maxAppendableClaimBytes;
+    private final ProvenanceEventSampler provenanceEventSampler;
 
     public RepositoryContextFactory(final ContentRepository contentRepository, final FlowFileRepository flowFileRepository,
             final FlowFileEventRepository flowFileEventRepository, final CounterRepository counterRepository,
             final ProvenanceRepository provenanceRepository, final StateManagerProvider stateManagerProvider,
-            final long maxAppendableClaimBytes) {
+            final long maxAppendableClaimBytes, final ProvenanceEventSampler provenanceEventSampler) {
 
         this.contentRepo = contentRepository;
         this.flowFileRepo = flowFileRepository;
@@ -51,11 +53,13 @@ public class RepositoryContextFactory {
         this.provenanceRepo = provenanceRepository;
         this.stateManagerProvider = stateManagerProvider;
         this.maxAppendableClaimBytes = maxAppendableClaimBytes;
+        this.provenanceEventSampler = provenanceEventSampler;
     }
 
     public RepositoryContext newProcessContext(final Connectable connectable, final AtomicLong connectionIndex) {
         final StateManager stateManager = stateManagerProvider.getStateManager(connectable.getIdentifier());
-        return new StandardRepositoryContext(connectable, connectionIndex, contentRepo, flowFileRepo, flowFileEventRepo, counterRepo, provenanceRepo, stateManager, maxAppendableClaimBytes);
+        return new StandardRepositoryContext(connectable, connectionIndex, contentRepo, flowFileRepo, flowFileEventRepo, counterRepo, provenanceRepo, stateManager, maxAppendableClaimBytes,
+            provenanceEventSampler);
     }
 
     public ContentRepository getContentRepository() {
@@ -26,6 +26,7 @@ import org.apache.nifi.components.state.StateManager;
 import org.apache.nifi.components.state.StateManagerProvider;
 import org.apache.nifi.components.validation.ValidationStatus;
 import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.connectable.Connection;
 import org.apache.nifi.connectable.Funnel;
 import org.apache.nifi.connectable.Port;
 import org.apache.nifi.controller.AbstractPort;
@@ -38,6 +39,8 @@ import org.apache.nifi.controller.ScheduledState;
 import org.apache.nifi.controller.SchedulingAgentCallback;
 import org.apache.nifi.controller.StandardProcessorNode;
 import org.apache.nifi.controller.exception.ProcessorInstantiationException;
+import org.apache.nifi.controller.flow.FlowManager;
+import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.repository.scheduling.ConnectableProcessContext;
 import org.apache.nifi.controller.service.ControllerServiceNode;
 import org.apache.nifi.controller.service.ControllerServiceProvider;
@@ -615,6 +618,35 @@ public final class StandardProcessScheduler implements ProcessScheduler {
         service.notifyPrimaryNodeChanged(primaryNodeState);
     }
 
+    @Override
+    public void onFlowFilesQueued(final FlowFileQueue queue) {
+        final Connection connection = getConnection(queue);
+        if (connection != null) {
+            notifyWorkAvailable(connection.getDestination());
+        }
+    }
+
+    @Override
+    public void onBackPressureReleased(final FlowFileQueue queue) {
+        final Connection connection = getConnection(queue);
+        if (connection != null) {
+            notifyWorkAvailable(connection.getSource());
+        }
+    }
+
+    private Connection getConnection(final FlowFileQueue queue) {
+        // A Connection's FlowFile Queue has the same identifier as the Connection
+        final FlowManager flowManager = flowController.getFlowManager();
+        return flowManager == null ? null : flowManager.getConnection(queue.getIdentifier());
+    }
+
+    private void notifyWorkAvailable(final Connectable connectable) {
+        final SchedulingAgent agent = getSchedulingAgent(connectable);
+        if (agent != null) {
+            agent.onEvent(connectable);
+        }
+    }
+
     @Override
     public void onProcessorRemoved(final ProcessorNode procNode) {
         lifecycleStateManager.removeLifecycleState(procNode.getIdentifier());
@@ -17,8 +17,12 @@
 package org.apache.nifi.controller.scheduling;
 
 import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.connectable.Connection;
+import org.apache.nifi.controller.ComponentNode;
 import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.ProcessorNode;
 import org.apache.nifi.controller.ReportingTaskNode;
+import org.apache.nifi.controller.Triggerable;
 import org.apache.nifi.controller.tasks.ConnectableTask;
 import org.apache.nifi.controller.tasks.InvocationResult;
 import org.apache.nifi.controller.tasks.ReportingTaskWrapper;
@@ -28,12 +32,28 @@ import org.apache.nifi.util.NiFiProperties;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent {
     private final long noWorkYieldNanos;
+    private final Set<String> virtualThreadComponentTypes;
+    private final ExecutorService virtualThreadExecutor;
+    private final int maxChainLength;
+
+    // The tasks of the components that may be triggered directly by the thread that triggered the upstream component
+    private final ConcurrentMap<Connectable, ConnectableTask> chainableTasks = new ConcurrentHashMap<>();
+
+    // For each component that is waiting out the bored yield duration, the action that wakes up each of its waiting concurrent tasks, keyed by task
+    private final ConcurrentMap<Connectable, Map<Object, Runnable>> wakeUpActions = new ConcurrentHashMap<>();
 
     public TimerDrivenSchedulingAgent(final FlowController flowController, final FlowEngine flowEngine, final RepositoryContextFactory contextFactory,
                                       final NiFiProperties nifiProperties) {
@@ -45,11 +65,23 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
         } catch (final IllegalArgumentException e) {
             throw new RuntimeException("Failed to create SchedulingAgent because the " + NiFiProperties.BORED_YIELD_DURATION + " property is set to an invalid time duration: " + boredYieldDuration);
         }
+
+        virtualThreadComponentTypes = nifiProperties.getTimerDrivenVirtualThreadsComponentTypes();
+        if (nifiProperties.isTimerDrivenVirtualThreadsEnabled()) {
+            virtualThreadExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Timer-Driven Virtual Thread-", 1).factory());
+        } else {
+            virtualThreadExecutor = null;
+        }
+
+        maxChainLength = nifiProperties.getTimerDrivenRunToCompletionMaxChainLength();
     }
 
     @Override
     public void shutdown() {
         flowEngine.shutdown();
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdown();
+        }
     }
 
     @Override
@@ -67,8 +99,13 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
 
     @Override
     public void doSchedule(final Connectable connectable, final LifecycleState scheduleState) {
+        if (isTriggeredOnVirtualThreads(connectable)) {
+            scheduleOnVirtualThreads(connectable, scheduleState);
+            return;
+        }
+
         final List<ScheduledFuture<?>> futures = new ArrayList<>();
-        final ConnectableTask connectableTask = new ConnectableTask(this, connectable, flowController, contextFactory, scheduleState);
+        final ConnectableTask connectableTask = createConnectableTask(connectable, scheduleState);
 
         for (int i = 0; i < connectable.getMaxConcurrentTasks(); i++) {
             // Determine the task to run and create it.
@@ -92,6 +129,131 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
         logger.info("Scheduled {} to run with {} threads", connectable, connectable.getMaxConcurrentTasks());
     }
 
+    private ConnectableTask createConnectableTask(final Connectable connectable, final LifecycleState scheduleState) {
+        if (maxChainLength <= 0) {
+            return new ConnectableTask(this, connectable, flowController, contextFactory, scheduleState);
+        }
+
+        // The component may also be triggered by the threads of upstream components, so it must not be triggered when all of its concurrent tasks are already active
+        final ConnectableTask connectableTask = new ConnectableTask(this, connectable, flowController, contextFactory, scheduleState, true);
+        chainableTasks.put(connectable, connectableTask);
+        return connectableTask;
+    }
+
+    /**
+     * Triggers the Processors downstream of the given component on the current thread, one after another, for as long as FlowFiles are queued for them,
+     * so that a chain of Processors can run to completion without waiting for the scheduled run of each Processor.
+     *
+     * @param connectable the component that was just triggered
+     */
+    private void triggerChainedComponents(final Connectable connectable) {
+        Connectable upstream = connectable;
+        for (int i = 0; i < maxChainLength; i++) {
+            final ConnectableTask chainedTask = getChainedTask(upstream);
+            if (chainedTask == null) {
+                return;
+            }
+
+            final Connectable chained = chainedTask.getConnectable();
+            try {
+                if (chainedTask.invoke().isYield()) {
+                    return;
+                }
+            } catch (final Throwable t) {
+                logger.error("Failed to trigger {} after triggering {}", chained, upstream, t);
+                return;
+            }
+
+            upstream = chained;
+        }
+    }
+
+    /**
+     * Returns the task of a Processor that has FlowFiles queued by the given component and that can be triggered on the current thread. Such a Processor
+     * is in the same Process Group as the given component, has no other incoming connections, is triggered on the same kind of thread as the given component
+     * and has a Run Schedule of 0 seconds. A Processor with any other Run Schedule is not chained, as that would trigger it sooner than its Run Schedule allows.
+     */
+    private ConnectableTask getChainedTask(final Connectable connectable) {
+        if (maxChainLength <= 0) {
+            return null;
+        }
+
+        for (final Connection connection : connectable.getConnections()) {
+            final Connectable destination = connection.getDestination();
+            if (destination == connectable || !(destination instanceof ProcessorNode) || destination.getProcessGroup() != connectable.getProcessGroup()) {
+                continue;
+            }
+            if (destination.getIncomingConnections().size() != 1 || isTriggeredOnVirtualThreads(destination) != isTriggeredOnVirtualThreads(connectable)) {
+                continue;
+            }
+            // A Run Schedule of 0 seconds is stored as the minimum scheduling period
+            if (destination.getSchedulingPeriod(TimeUnit.NANOSECONDS) > Triggerable.MINIMUM_SCHEDULING_NANOS) {
+                continue;
+            }
+            if (connection.getFlowFileQueue().isActiveQueueEmpty()) {
+                continue;
+            }
+
+            final ConnectableTask chainedTask = chainableTasks.get(destination);
+            if (chainedTask != null) {
+                return chainedTask;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Determines whether the given component is to be triggered on virtual threads rather than on the threads of the Timer Driven thread pool
+     *
+     * @param connectable the component
+     * @return <code>true</code> if virtual threads are enabled and either no component types were configured or the component's type was configured
+     */
+    boolean isTriggeredOnVirtualThreads(final Connectable connectable) {
+        if (virtualThreadExecutor == null) {
+            return false;
+        }
+        if (virtualThreadComponentTypes.isEmpty() || virtualThreadComponentTypes.contains(connectable.getComponentType())) {
+            return true;
+        }
+
+        return connectable instanceof ComponentNode componentNode && virtualThreadComponentTypes.contains(componentNode.getCanonicalClassName());
+    }
+
+    private void scheduleOnVirtualThreads(final Connectable connectable, final LifecycleState scheduleState) {
+        final ConnectableTask connectableTask = createConnectableTask(connectable, scheduleState);
+
+        // Each concurrent task is a chain of invocations on virtual threads, so the component never has more than its
+        // configured number of concurrent tasks running at once. The Timer Driven thread pool is used only to wait out
+        // the scheduling period or a yield and then hand off to a new virtual thread. Holding the lock on the schedule state
+        // ensures that no trigger can replace its future before the futures have been established.
+        synchronized (scheduleState) {
+            final List<ScheduledFuture<?>> futures = new ArrayList<>();
+            for (int i = 0; i < connectable.getMaxConcurrentTasks(); i++) {
+                final VirtualThreadTrigger trigger = new VirtualThreadTrigger(connectableTask, scheduleState);
+                trigger.future = flowEngine.schedule(trigger, 0L, TimeUnit.NANOSECONDS);
+                futures.add(trigger.future);
+            }
+
+            scheduleState.setFutures(futures);
+        }
+
+        logger.info("Scheduled {} to run with {} concurrent tasks on virtual threads", connectable, connectable.getMaxConcurrentTasks());
+    }
+
+    private long getNextDelayNanos(final Connectable connectable, final InvocationResult invocationResult) {
+        final long schedulingNanos = connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS);
+        final long yieldMillis = connectable.getYieldExpiration() - System.currentTimeMillis();
+        if (yieldMillis > 0) {
+            return Math.max(schedulingNanos, TimeUnit.MILLISECONDS.toNanos(yieldMillis));
+        }
+        if (noWorkYieldNanos > 0L && invocationResult.isYield()) {
+            return Math.max(schedulingNanos, noWorkYieldNanos);
+        }
+
+        return schedulingNanos;
+    }
+
     private Runnable createTrigger(final ConnectableTask connectableTask, final LifecycleState scheduleState, final AtomicReference<ScheduledFuture<?>> futureRef) {
         final Connectable connectable = connectableTask.getConnectable();
         final Runnable yieldDetectionRunnable = new Runnable() {
@@ -102,6 +264,8 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
                 final InvocationResult invocationResult = connectableTask.invoke();
                 if (invocationResult.isYield()) {
                     logger.debug("Yielding {} due to {}", connectable, invocationResult.getYieldExplanation());
+                } else {
+                    triggerChainedComponents(connectable);
                 }
 
                 // If the component is yielded, cancel its future and re-submit it to run again
@@ -134,23 +298,26 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
                     }
                 } else if (noWorkYieldNanos > 0L && invocationResult.isYield()) {
                     // Component itself didn't yield but there was no work to do, so the framework will choose
-                    // to yield the component automatically for a short period of time.
-                    final ScheduledFuture<?> scheduledFuture = futureRef.get();
-                    if (scheduledFuture == null) {
-                        return;
-                    }
+                    // to yield the component automatically for a short period of time. The futureRef is read while holding
+                    // the lock on the ScheduleState because waking the component up replaces the future while holding that lock.
+                    synchronized (scheduleState) {
+                        final ScheduledFuture<?> scheduledFuture = futureRef.get();
+                        if (scheduledFuture == null) {
+                            return;
+                        }
 
-                    // If we are able to cancel the future, create a new one and update the ScheduleState so that it has
-                    // an accurate accounting of which futures are outstanding; we must then also update the futureRef
-                    // so that we can do this again the next time that the component is yielded.
-                    if (scheduledFuture.cancel(false)) {
-                        synchronized (scheduleState) {
-                            if (scheduleState.isScheduled()) {
-                                final ScheduledFuture<?> newFuture = flowEngine.scheduleWithFixedDelay(this, noWorkYieldNanos,
-                                    connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+                        // If we are able to cancel the future, create a new one and update the ScheduleState so that it has
+                        // an accurate accounting of which futures are outstanding; we must then also update the futureRef
+                        // so that we can do this again the next time that the component is yielded.
+                        if (scheduledFuture.cancel(false) && scheduleState.isScheduled()) {
+                            final ScheduledFuture<?> newFuture = flowEngine.scheduleWithFixedDelay(this, noWorkYieldNanos,
+                                connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
 
-                                scheduleState.replaceFuture(scheduledFuture, newFuture);
-                                futureRef.set(newFuture);
+                            scheduleState.replaceFuture(scheduledFuture, newFuture);
+                            futureRef.set(newFuture);
+
+                            if (isWokenWhenWorkAvailable(connectable)) {
+                                registerWakeUp(connectable, this, () -> wakeUp(this, connectable, scheduleState, futureRef, newFuture));
                             }
                         }
                     }
@@ -161,8 +328,124 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
         return yieldDetectionRunnable;
     }
 
+    /**
+     * Determines whether a component that is waiting out the bored yield duration should be triggered as soon as FlowFiles are queued for it
+     * or back pressure is released. This is not done if the component's run schedule is not shorter than the bored yield duration, because
+     * waking the component would then trigger it sooner than its run schedule allows.
+     */
+    private boolean isWokenWhenWorkAvailable(final Connectable connectable) {
+        return connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS) < noWorkYieldNanos;
+    }
+
+    private void registerWakeUp(final Connectable connectable, final Object task, final Runnable wakeUpAction) {
+        // Registering can race with onEvent() removing the actions for the component, in which case the action is not run until the next event.
+        // This is safe, because the task still runs once the bored yield duration has elapsed.
+        wakeUpActions.computeIfAbsent(connectable, key -> new ConcurrentHashMap<>()).put(task, wakeUpAction);
+    }
+
+    private void wakeUp(final Runnable trigger, final Connectable connectable, final LifecycleState scheduleState,
+                        final AtomicReference<ScheduledFuture<?>> futureRef, final ScheduledFuture<?> boredFuture) {
+        synchronized (scheduleState) {
+            // Do nothing if the task was already rescheduled or is running now.
+            if (!scheduleState.isScheduled() || futureRef.get() != boredFuture || boredFuture.getDelay(TimeUnit.NANOSECONDS) <= 0L) {
+                return;
+            }
+
+            if (boredFuture.cancel(false)) {
+                final long schedulingNanos = connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS);
+                final ScheduledFuture<?> newFuture = flowEngine.scheduleWithFixedDelay(trigger, 0L, schedulingNanos, TimeUnit.NANOSECONDS);
+                scheduleState.replaceFuture(boredFuture, newFuture);
+                futureRef.set(newFuture);
+            }
+        }
+    }
+
+    /**
+     * A single concurrent task of a component that is triggered on virtual threads. When run by the Timer Driven thread pool,
+     * it hands off to a new virtual thread, which invokes the component and then schedules the next invocation.
+     */
+    private class VirtualThreadTrigger implements Runnable {
+        private final ConnectableTask connectableTask;
+        private final LifecycleState scheduleState;
+
+        // guarded by scheduleState
+        private ScheduledFuture<?> future;
+
+        private VirtualThreadTrigger(final ConnectableTask connectableTask, final LifecycleState scheduleState) {
+            this.connectableTask = connectableTask;
+            this.scheduleState = scheduleState;
+        }
+
+        @Override
+        public void run() {
+            try {
+                virtualThreadExecutor.execute(this::invoke);
+            } catch (final RejectedExecutionException e) {
+                logger.debug("Will not trigger {} because virtual threads are no longer accepting tasks", connectableTask.getConnectable());
+            }
+        }
+
+        private void invoke() {
+            final Connectable connectable = connectableTask.getConnectable();
+
+            long delayNanos = connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS);
+            boolean bored = false;
+            try {
+                final InvocationResult invocationResult = connectableTask.invoke();
+                if (invocationResult.isYield()) {
+                    logger.debug("Yielding {} due to {}", connectable, invocationResult.getYieldExplanation());
+                } else {
+                    triggerChainedComponents(connectable);
+                }
+
+                delayNanos = getNextDelayNanos(connectable, invocationResult);
+                bored = invocationResult.isYield() && connectable.getYieldExpiration() <= System.currentTimeMillis() && isWokenWhenWorkAvailable(connectable);
+            } catch (final Throwable t) {
+                logger.error("Failed to trigger {}", connectable, t);
+            } finally {
+                scheduleNext(delayNanos, bored);
+            }
+        }
+
+        private void scheduleNext(final long delayNanos, final boolean wakeWhenWorkAvailable) {
+            synchronized (scheduleState) {
+                if (!scheduleState.isScheduled()) {
+                    return;
+                }
+
+                if (delayNanos <= 0L) {
+                    // Start a new virtual thread rather than looping, so that other virtual threads waiting for a carrier thread get a turn
+                    run();
+                    return;
+                }
+
+                final ScheduledFuture<?> newFuture = flowEngine.schedule(this, delayNanos, TimeUnit.NANOSECONDS);
+                scheduleState.replaceFuture(future, newFuture);
+                future = newFuture;
+
+                if (wakeWhenWorkAvailable) {
+                    registerWakeUp(connectableTask.getConnectable(), this, () -> wakeUp(newFuture));
+                }
+            }
+        }
+
+        private void wakeUp(final ScheduledFuture<?> boredFuture) {
+            synchronized (scheduleState) {
+                // Do nothing if the task was already rescheduled or is running now.
+                if (!scheduleState.isScheduled() || future != boredFuture || boredFuture.getDelay(TimeUnit.NANOSECONDS) <= 0L || !boredFuture.cancel(false)) {
+                    return;
+                }
+
+                scheduleNext(connectableTask.getConnectable().getSchedulingPeriod(TimeUnit.NANOSECONDS), false);
+            }
+        }
+    }
+
     @Override
     public void doUnschedule(final Connectable connectable, final LifecycleState lifecycleState) {
+        wakeUpActions.remove(connectable);
+        chainableTasks.remove(connectable);
+
         for (final ScheduledFuture<?> future : lifecycleState.getFutures()) {
             // stop scheduling to run but do not interrupt currently running tasks.
             future.cancel(false);
@@ -181,8 +464,18 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
         logger.info("Stopped scheduling {} to run", taskNode.getReportingTask());
     }
 
+    /**
+     * Wakes up any concurrent tasks of the given component that are waiting out the bored yield duration, because FlowFiles were queued for the component
+     * or back pressure was released on one of its outgoing connections.
+     *
+     * @param connectable the component that may have work to do
+     */
     @Override
     public void onEvent(final Connectable connectable) {
+        final Map<Object, Runnable> actions = wakeUpActions.remove(connectable);
+        if (actions != null) {
+            actions.values().forEach(Runnable::run);
+        }
     }
 
     @Override
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.swap;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
+import org.apache.nifi.controller.repository.SwapContents;
+import org.apache.nifi.controller.repository.SwapSummary;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardContentClaim;
+import org.apache.nifi.repository.schema.FieldCache;
+import org.apache.nifi.repository.schema.NoOpFieldCache;
+import org.apache.nifi.repository.schema.Record;
+import org.apache.nifi.repository.schema.RecordSchema;
+import org.apache.nifi.repository.schema.SchemaRecordReader;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.nifi.controller.swap.SwapEncoding.readSignedVarLong;
+import static org.apache.nifi.controller.swap.SwapEncoding.readString;
+import static org.apache.nifi.controller.swap.SwapEncoding.readVarInt;
+import static org.apache.nifi.controller.swap.SwapEncoding.readVarLong;
+
+/**
+ * Deserializes swap files that were written by the {@link CompressedSwapSerializer}
+ */
+public class CompressedSwapDeserializer implements SwapDeserializer {
+    private final FieldCache fieldCache;
+
+    public CompressedSwapDeserializer() {
+        this(new NoOpFieldCache());
+    }
+
+    public CompressedSwapDeserializer(final FieldCache fieldCache) {
+        this.fieldCache = fieldCache;
+    }
+
+    @Override
+    public SwapContents deserializeFlowFiles(final DataInputStream in, final String swapLocation, final FlowFileQueue queue, final ResourceClaimManager claimManager) throws IOException {
+        final int codec = readHeader(in, swapLocation);
+        final SwapSummary swapSummary = readSummary(in, claimManager);
+
+        final DataInputStream body = new DataInputStream(SwapEncoding.wrapInputStream(codec, in));
+        final List<FlowFileRecord> flowFiles = readFlowFiles(body, claimManager);
+        return new StandardSwapContents(swapSummary, flowFiles);
+    }
+
+    @Override
+    public SwapSummary getSwapSummary(final DataInputStream in, final String swapLocation, final ResourceClaimManager claimManager) throws IOException {
+        readHeader(in, swapLocation);
+        return readSummary(in, claimManager);
+    }
+
+    private int readHeader(final DataInputStream in, final String swapLocation) throws IOException {
+        final int encodingVersion = in.readInt();
+        if (encodingVersion > SwapEncoding.ENCODING_VERSION) {
+            throw new IOException("Cannot read Swap File " + swapLocation + " because it was written with encoding version " + encodingVersion
+                + " but this version of NiFi only supports up to encoding version " + SwapEncoding.ENCODING_VERSION);
+        }
+
+        return in.readUnsignedByte();
+    }
+
+    private SwapSummary readSummary(final DataInputStream in, final ResourceClaimManager claimManager) throws IOException {
+        final RecordSchema summarySchema = RecordSchema.readFrom(in);
+        final Record summaryRecord = SchemaRecordReader.fromSchema(summarySchema, fieldCache).readRecord(in);
+        if (summaryRecord == null) {
+            throw new IOException("Swap File ended before the Swap Summary could be read");
+        }
+
+        return SwapSummaryFieldMap.getSwapSummary(summaryRecord, claimManager);
+    }
+
+    private List<FlowFileRecord> readFlowFiles(final DataInputStream in, final ResourceClaimManager claimManager) throws IOException {
+        final String[] dictionary = new String[readVarInt(in)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString(in);
+        }
+
+        final ResourceClaim[] claimTable = new ResourceClaim[readVarInt(in)];
+        for (int i = 0; i < claimTable.length; i++) {
+            final String container = dictionary[readVarInt(in)];
+            final String section = dictionary[readVarInt(in)];
+            final String identifier = dictionary[readVarInt(in)];
+            final boolean lossTolerant = in.readBoolean();
+
+            // Preserve the existing Resource Claim, if the Resource Claim Manager already has one, in order to honor its determination of
+            // whether or not the claim is writable.
+            ResourceClaim resourceClaim = claimManager.getResourceClaim(container, section, identifier);
+            if (resourceClaim == null) {
+                resourceClaim = claimManager.newResourceClaim(container, section, identifier, lossTolerant, false);
+            }
+            claimTable[i] = resourceClaim;
+        }
+
+        final int flowFileCount = readVarInt(in);
+        final long[] ids = readDeltas(in, flowFileCount);
+        final long[] entryDates = readDeltas(in, flowFileCount);
+        final long[] lineageStartDates = readDeltas(in, flowFileCount);
+        final long[] lineageStartIndices = readDeltas(in, flowFileCount);
+        final long[] queueDates = readDeltas(in, flowFileCount);
+        final long[] queueDateIndices = readDeltas(in, flowFileCount);
+
+        final List<StandardFlowFileRecord.Builder> builders = new ArrayList<>(flowFileCount);
+        for (int i = 0; i < flowFileCount; i++) {
+            final StandardFlowFileRecord.Builder builder = new StandardFlowFileRecord.Builder()
+                .id(ids[i])
+                .entryDate(entryDates[i])
+                .lineageStart(lineageStartDates[i], lineageStartIndices[i])
+                .lastQueued(queueDates[i], queueDateIndices[i])
+                .size(readVarLong(in));
+
+            final int claimReference = readVarInt(in);
+            if (claimReference != CompressedSwapSerializer.NO_CONTENT_CLAIM) {
+                final StandardContentClaim contentClaim = new StandardContentClaim(claimTable[claimReference - 1], readVarLong(in));
+                contentClaim.setLength(readSignedVarLong(in));
+                builder.contentClaim(contentClaim);
+                builder.contentClaimOffset(readVarLong(in));
+            }
+
+            builders.add(builder);
+        }
+
+        final List<FlowFileRecord> flowFiles = new ArrayList<>(flowFileCount);
+        for (final StandardFlowFileRecord.Builder builder : builders) {
+            final int attributeCount = readVarInt(in);
+            final Map<String, String> attributes = new HashMap<>((int) (attributeCount / 0.75f) + 1);
+            for (int i = 0; i < attributeCount; i++) {
+                final String key = dictionary[readVarInt(in)];
+                final int valueReference = readVarInt(in);
+
+                final String value = switch (valueReference) {
+                    case CompressedSwapSerializer.LITERAL_REFERENCE -> readString(in);
+                    case CompressedSwapSerializer.NULL_REFERENCE -> null;
+                    default -> dictionary[valueReference - CompressedSwapSerializer.FIRST_DICTIONARY_REFERENCE];
+                };
+                attributes.put(key, value);
+            }
+
+            flowFiles.add(builder.addAttributes(attributes).build());
+        }
+
+        return flowFiles;
+    }
+
+    private long[] readDeltas(final DataInputStream in, final int count) throws IOException {
+        final long[] values = new long[count];
+        long previous = 0L;
+        for (int i = 0; i < count; i++) {
+            previous += readSignedVarLong(in);
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    public static String getSerializationName() {
+        return CompressedSwapSerializer.SERIALIZATION_NAME;
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.swap;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.SwapSummary;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.repository.schema.Record;
+import org.apache.nifi.repository.schema.RecordSchema;
+import org.apache.nifi.repository.schema.SchemaRecordWriter;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.nifi.controller.swap.SwapEncoding.writeSignedVarLong;
+import static org.apache.nifi.controller.swap.SwapEncoding.writeString;
+import static org.apache.nifi.controller.swap.SwapEncoding.writeVarInt;
+import static org.apache.nifi.controller.swap.SwapEncoding.writeVarLong;
+
+/**
+ * <p>
+ * Serializes FlowFiles to a swap file in a column-oriented layout that is far more compact than that of the {@link SchemaSwapSerializer}.
+ * The Swap Summary is written first, using the same schema as the {@link SchemaSwapSerializer}, so that it can be read without reading
+ * the FlowFiles. The FlowFiles follow, compressed using Zstandard, as:
+ * </p>
+ *
+ * <ul>
+ * <li>A dictionary of Strings, holding every attribute name, every attribute value that is shared by more than one FlowFile, and the
+ * container, section, and identifier of each Resource Claim</li>
+ * <li>A table of the distinct Resource Claims that are referenced, each as references into the dictionary</li>
+ * <li>The identifiers, entry dates, lineage start dates and indices, and queue dates and indices of all FlowFiles, each column written as
+ * the differences between consecutive values</li>
+ * <li>The size and Content Claim of each FlowFile</li>
+ * <li>The attributes of each FlowFile, as references into the dictionary or as literal values for those that are unique to the FlowFile</li>
+ * </ul>
+ */
+public class CompressedSwapSerializer implements SwapSerializer {
+    static final String SERIALIZATION_NAME = "Compressed Swap Serialization";
+
+    // An attribute value is written as a reference: either a literal value follows, the value is null, or the value is in the dictionary
+    // at the index given by the reference minus FIRST_DICTIONARY_REFERENCE
+    static final int LITERAL_REFERENCE = 0;
+    static final int NULL_REFERENCE = 1;
+    static final int FIRST_DICTIONARY_REFERENCE = 2;
+    static final int NO_CONTENT_CLAIM = 0;
+
+    private final int codec;
+
+    public CompressedSwapSerializer() {
+        this(SwapEncoding.getPreferredCodec());
+    }
+
+    CompressedSwapSerializer(final int codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public void serializeFlowFiles(final List<FlowFileRecord> toSwap, final FlowFileQueue queue, final String swapLocation, final OutputStream out) throws IOException {
+        final DataOutputStream dos = new DataOutputStream(out);
+        dos.writeInt(SwapEncoding.ENCODING_VERSION);
+        dos.writeByte(codec);
+
+        writeSummary(toSwap, queue, dos);
+
+        try (final DataOutputStream body = new DataOutputStream(SwapEncoding.wrapOutputStream(codec, dos))) {
+            writeFlowFiles(toSwap, body);
+        }
+        out.flush();
+    }
+
+    private void writeSummary(final List<FlowFileRecord> toSwap, final FlowFileQueue queue, final DataOutputStream out) throws IOException {
+        long contentSize = 0L;
+        long maxFlowFileId = -1L;
+        Long minLastQueueDate = null;
+        long totalLastQueueDate = 0L;
+        final List<ResourceClaim> resourceClaims = new ArrayList<>();
+        for (final FlowFileRecord flowFile : toSwap) {
+            contentSize += flowFile.getSize();
+            maxFlowFileId = Math.max(maxFlowFileId, flowFile.getId());
+            totalLastQueueDate += flowFile.getLastQueueDate();
+            minLastQueueDate = minLastQueueDate == null ? flowFile.getLastQueueDate() : Long.min(minLastQueueDate, flowFile.getLastQueueDate());
+
+            final ContentClaim contentClaim = flowFile.getContentClaim();
+            if (contentClaim != null) {
+                resourceClaims.add(contentClaim.getResourceClaim());
+            }
+        }
+
+        final RecordSchema summarySchema = SwapSchema.SWAP_SUMMARY_SCHEMA_V3;
+        final SwapSummary swapSummary = new StandardSwapSummary(new QueueSize(toSwap.size(), contentSize), maxFlowFileId, resourceClaims, minLastQueueDate, totalLastQueueDate);
+        final Record summaryRecord = new SwapSummaryFieldMap(swapSummary, queue.getIdentifier(), summarySchema);
+
+        summarySchema.writeTo(out);
+        new SchemaRecordWriter().writeRecord(summaryRecord, out);
+    }
+
+    private void writeFlowFiles(final List<FlowFileRecord> toSwap, final DataOutputStream out) throws IOException {
+        // Attribute values are only added to the dictionary if they are shared by more than one FlowFile, because unique values such
+        // as UUIDs and filenames would only make the dictionary larger.
+        final Map<String, Integer> valueCounts = new HashMap<>();
+        for (final FlowFileRecord flowFile : toSwap) {
+            for (final String value : flowFile.getAttributes().values()) {
+                if (value != null) {
+                    valueCounts.merge(value, 1, Integer::sum);
+                }
+            }
+        }
+
+        final Map<String, Integer> dictionary = new LinkedHashMap<>();
+        final Map<ResourceClaim, Integer> claimTable = new LinkedHashMap<>();
+        for (final FlowFileRecord flowFile : toSwap) {
+            for (final Map.Entry<String, String> entry : flowFile.getAttributes().entrySet()) {
+                dictionary.putIfAbsent(entry.getKey(), dictionary.size());
+
+                final String value = entry.getValue();
+                if (value != null && valueCounts.get(value) > 1) {
+                    dictionary.putIfAbsent(value, dictionary.size());
+                }
+            }
+
+            final ContentClaim contentClaim = flowFile.getContentClaim();
+            if (contentClaim != null) {
+                final ResourceClaim resourceClaim = contentClaim.getResourceClaim();
+                if (!claimTable.containsKey(resourceClaim)) {
+                    claimTable.put(resourceClaim, claimTable.size());
+                    dictionary.putIfAbsent(resourceClaim.getContainer(), dictionary.size());
+                    dictionary.putIfAbsent(resourceClaim.getSection(), dictionary.size());
+                    dictionary.putIfAbsent(resourceClaim.getId(), dictionary.size());
+                }
+            }
+        }
+
+        writeVarInt(out, dictionary.size());
+        for (final String value : dictionary.keySet()) {
+            writeString(out, value);
+        }
+
+        writeVarInt(out, claimTable.size());
+        for (final ResourceClaim resourceClaim : claimTable.keySet()) {
+            writeVarInt(out, dictionary.get(resourceClaim.getContainer()));
+            writeVarInt(out, dictionary.get(resourceClaim.getSection()));
+            writeVarInt(out, dictionary.get(resourceClaim.getId()));
+            out.writeBoolean(resourceClaim.isLossTolerant());
+        }
+
+        writeVarInt(out, toSwap.size());
+        writeDeltas(toSwap, FlowFileRecord::getId, out);
+        writeDeltas(toSwap, FlowFileRecord::getEntryDate, out);
+        writeDeltas(toSwap, FlowFileRecord::getLineageStartDate, out);
+        writeDeltas(toSwap, FlowFileRecord::getLineageStartIndex, out);
+        writeDeltas(toSwap, FlowFileRecord::getLastQueueDate, out);
+        writeDeltas(toSwap, FlowFileRecord::getQueueDateIndex, out);
+
+        for (final FlowFileRecord flowFile : toSwap) {
+            writeVarLong(out, flowFile.getSize());
+
+            final ContentClaim contentClaim = flowFile.getContentClaim();
+            if (contentClaim == null) {
+                writeVarInt(out, NO_CONTENT_CLAIM);
+                continue;
+            }
+
+            writeVarInt(out, claimTable.get(contentClaim.getResourceClaim()) + 1);
+            writeVarLong(out, contentClaim.getOffset());
+            writeSignedVarLong(out, contentClaim.getLength());
+            writeVarLong(out, flowFile.getContentClaimOffset());
+        }
+
+        for (final FlowFileRecord flowFile : toSwap) {
+            final Map<String, String> attributes = flowFile.getAttributes();
+            writeVarInt(out, attributes.size());
+            for (final Map.Entry<String, String> entry : attributes.entrySet()) {
+                writeVarInt(out, dictionary.get(entry.getKey()));
+
+                final String value = entry.getValue();
+                final Integer valueIndex = value == null ? null : dictionary.get(value);
+                if (value == null) {
+                    writeVarInt(out, NULL_REFERENCE);
+                } else if (valueIndex == null) {
+                    writeVarInt(out, LITERAL_REFERENCE);
+                    writeString(out, value);
+                } else {
+                    writeVarInt(out, valueIndex + FIRST_DICTIONARY_REFERENCE);
+                }
+            }
+        }
+    }
+
+    private void writeDeltas(final List<FlowFileRecord> toSwap, final LongField field, final DataOutputStream out) throws IOException {
+        long previous = 0L;
+        for (final FlowFileRecord flowFile : toSwap) {
+            final long value = field.get(flowFile);
+            writeSignedVarLong(out, value - previous);
+            previous = value;
+        }
+    }
+
+    @Override
+    public String getSerializationName() {
+        return SERIALIZATION_NAME;
+    }
+
+    private interface LongField {
+        long get(FlowFileRecord flowFile);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.swap;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import org.apache.nifi.controller.repository.ZstdContentCompressionCodec;
+import org.apache.nifi.stream.io.NonCloseableOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xerial.snappy.SnappyInputStream;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Constants and primitive encodings that are shared by the {@link CompressedSwapSerializer} and {@link CompressedSwapDeserializer}.
+ */
+final class SwapEncoding {
+    private static final Logger logger = LoggerFactory.getLogger(SwapEncoding.class);
+
+    static final int ENCODING_VERSION = 1;
+
+    static final int CODEC_NONE = 0;
+    // Swap files are no longer written using Snappy, but those that were can still be read
+    static final int CODEC_SNAPPY = 1;
+    static final int CODEC_ZSTD = 2;
+
+    private static final int ZSTD_COMPRESSION_LEVEL = 1;
+
+    private static volatile Boolean zstdAvailable;
+
+    private SwapEncoding() {
+    }
+
+    /**
+     * @return the codec to use for newly written swap files. Zstandard relies on a native library, so if that library cannot be loaded on this
+     * platform, swap files are written without compression rather than failing to be written at all.
+     */
+    static int getPreferredCodec() {
+        Boolean available = zstdAvailable;
+        if (available == null) {
+            available = ZstdContentCompressionCodec.isAvailable();
+            if (!available) {
+                logger.warn("Zstandard compression is not available on this platform; swap files will not be compressed");
+            }
+
+            zstdAvailable = available;
+        }
+
+        return available ? CODEC_ZSTD : CODEC_NONE;
+    }
+
+    /**
+     * Wraps the given stream so that data written to the returned stream is compressed using the given codec. The returned stream must be closed
+     * in order to complete the compressed data, and closing it does not close the given stream.
+     */
+    static OutputStream wrapOutputStream(final int codec, final OutputStream out) throws IOException {
+        final OutputStream nonCloseable = new NonCloseableOutputStream(out);
+        return switch (codec) {
+            case CODEC_NONE -> nonCloseable;
+            case CODEC_ZSTD -> new ZstdOutputStream(nonCloseable, ZSTD_COMPRESSION_LEVEL);
+            default -> throw new IOException("Unsupported swap file compression codec " + codec);
+        };
+    }
+
+    static InputStream wrapInputStream(final int codec, final InputStream in) throws IOException {
+        return switch (codec) {
+            case CODEC_NONE -> in;
+            case CODEC_SNAPPY -> new SnappyInputStream(in);
+            case CODEC_ZSTD -> new ZstdInputStream(in);
+            default -> throw new IOException("Unknown swap file compression codec " + codec);
+        };
+    }
+
+    static void writeVarLong(final DataOutput out, final long value) throws IOException {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            out.writeByte((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        out.writeByte((int) remaining);
+    }
+
+    static long readVarLong(final DataInput in) throws IOException {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Swap file contains a malformed variable-length integer");
+    }
+
+    static void writeSignedVarLong(final DataOutput out, final long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long readSignedVarLong(final DataInput in) throws IOException {
+        final long encoded = readVarLong(in);
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+
+    static void writeVarInt(final DataOutput out, final int value) throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    static int readVarInt(final DataInput in) throws IOException {
+        final long value = readVarLong(in);
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("Swap file contains an integer value of " + value + ", which is out of range");
+        }
+        return (int) value;
+    }
+
+    static void writeString(final DataOutput out, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(final DataInput in) throws IOException {
+        final byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -77,11 +77,24 @@ public class ConnectableTask {
     private final AtomicLong invocations = new AtomicLong(0L);
     private volatile SampledMetrics sampledMetrics = new SampledMetrics();
     private final int perfTrackingNthIteration;
+    private final boolean limitActiveThreads;
 
     public ConnectableTask(final SchedulingAgent schedulingAgent, final Connectable connectable,
                            final FlowController flowController, final RepositoryContextFactory contextFactory, final LifecycleState lifecycleState) {
+        this(schedulingAgent, connectable, flowController, contextFactory, lifecycleState, false);
+    }
+
+    /**
+     * Creates a task for the given component, optionally ensuring that the component never has more active threads than its max concurrent tasks
+     *
+     * @param limitActiveThreads whether or not the task should skip triggering the component when the component already has as many active threads as its
+     *            max concurrent tasks. This is necessary when the component may be triggered by threads other than the ones that are scheduled for it.
+     */
+    public ConnectableTask(final SchedulingAgent schedulingAgent, final Connectable connectable, final FlowController flowController,
+                           final RepositoryContextFactory contextFactory, final LifecycleState lifecycleState, final boolean limitActiveThreads) {
 
         this.schedulingAgent = schedulingAgent;
+        this.limitActiveThreads = limitActiveThreads;
         this.connectable = connectable;
         this.lifecycleState = lifecycleState;
         this.numRelationships = connectable.getRelationships().size();
@@ -228,7 +241,14 @@ public class ConnectableTask {
         }
 
         final ActiveProcessSessionFactory activeSessionFactory = new WeakHashMapProcessSessionFactory(sessionFactory);
-        lifecycleState.incrementActiveThreadCount(activeSessionFactory);
+        if (limitActiveThreads) {
+            if (!lifecycleState.tryIncrementActiveThreadCount(activeSessionFactory, connectable.getMaxConcurrentTasks())) {
+                logger.debug("Will not trigger {} because it already has {} active threads", connectable, connectable.getMaxConcurrentTasks());
+                return InvocationResult.DO_NOT_YIELD;
+            }
+        } else {
+            lifecycleState.incrementActiveThreadCount(activeSessionFactory);
+        }
 
         final long startNanos = System.nanoTime();
         final long finishIfBackpressureEngaged = startNanos + (batchNanos / 25L);
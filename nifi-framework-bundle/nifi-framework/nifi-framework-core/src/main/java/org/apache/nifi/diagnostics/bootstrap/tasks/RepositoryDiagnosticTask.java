@@ -18,18 +18,22 @@ package org.apache.nifi.diagnostics.bootstrap.tasks;
 
 import org.apache.nifi.controller.FlowController;
 import org.apache.nifi.controller.repository.ContentRepository;
+import org.apache.nifi.controller.repository.FileSystemRepository;
 import org.apache.nifi.controller.repository.FlowFileRepository;
+import org.apache.nifi.controller.repository.ProvenanceEventSampler;
 import org.apache.nifi.controller.scheduling.RepositoryContextFactory;
 import org.apache.nifi.controller.status.ProcessGroupStatus;
 import org.apache.nifi.diagnostics.DiagnosticTask;
 import org.apache.nifi.diagnostics.DiagnosticsDumpElement;
 import org.apache.nifi.diagnostics.StandardDiagnosticsDumpElement;
+import org.apache.nifi.provenance.ProvenanceIndexingDiagnostics;
 import org.apache.nifi.provenance.ProvenanceRepository;
 import org.apache.nifi.util.FormatUtils;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class RepositoryDiagnosticTask implements DiagnosticTask {
     private final FlowController flowController;
@@ -66,6 +70,8 @@ public class RepositoryDiagnosticTask implements DiagnosticTask {
             details.add("Failed to gather details about Provenance Repository");
         }
 
+        captureDiagnostics(flowController.getProvenanceEventSampler(), details);
+
         return new StandardDiagnosticsDumpElement("NiFi Repositories", details);
     }
 
@@ -84,6 +90,41 @@ public class RepositoryDiagnosticTask implements DiagnosticTask {
             details.add("Content Repository <" + containerName + "> Usable Space: " + FormatUtils.formatDataSize(repository.getContainerUsableSpace(containerName)));
         }
 
+        if (repository instanceof FileSystemRepository fileSystemRepository) {
+            for (final String containerName : repository.getContainerNames()) {
+                final long archiveCleanupLagMillis = fileSystemRepository.getArchiveCleanupLagMillis(containerName);
+                details.add("Content Repository <" + containerName + "> Archive Cleanup Lag: " + FormatUtils.formatHoursMinutesSeconds(archiveCleanupLagMillis, TimeUnit.MILLISECONDS));
+
+                final String codecName = fileSystemRepository.getCompressionCodecName(containerName);
+                if (codecName != null) {
+                    details.add(String.format("Content Repository <%s> Compression: codec %s, %s compressed, ratio %.2f, compression CPU time %d millis, decompression CPU time %d millis",
+                        containerName, codecName, FormatUtils.formatDataSize(fileSystemRepository.getCompressedContentBytes(containerName)),
+                        fileSystemRepository.getCompressionRatio(containerName),
+                        TimeUnit.NANOSECONDS.toMillis(fileSystemRepository.getCompressionNanos(containerName)),
+                        TimeUnit.NANOSECONDS.toMillis(fileSystemRepository.getDecompressionNanos(containerName))));
+                }
+
+                if (fileSystemRepository.isColdTierConfigured(containerName)) {
+                    details.add(String.format("Content Repository <%s> Cold Tier: %s usable of %s, %d Resource Claims (%s) migrated",
+                        containerName, FormatUtils.formatDataSize(fileSystemRepository.getColdTierUsableSpace(containerName)),
+                        FormatUtils.formatDataSize(fileSystemRepository.getColdTierCapacity(containerName)),
+                        fileSystemRepository.getColdTierMigratedClaimCount(containerName),
+                        FormatUtils.formatDataSize(fileSystemRepository.getColdTierMigratedBytes(containerName))));
+                }
+            }
+
+            if (fileSystemRepository.isContentReadCacheEnabled()) {
+                details.add("Content Read Cache Size: " + FormatUtils.formatDataSize(fileSystemRepository.getContentReadCacheSize()));
+                details.add("Content Read Cache Hits: " + fileSystemRepository.getContentReadCacheHitCount());
+                details.add("Content Read Cache Misses: " + fileSystemRepository.getContentReadCacheMissCount());
+            }
+
+            if (fileSystemRepository.isContentDeduplicationEnabled()) {
+                details.add("Content Deduplicated Claims: " + fileSystemRepository.getDeduplicatedClaimCount());
+                details.add("Content Deduplicated Size: " + FormatUtils.formatDataSize(fileSystemRepository.getDeduplicatedBytes()));
+            }
+        }
+
         details.add("Bytes Read (Last 5 mins): " + FormatUtils.formatDataSize(status.getBytesRead()));
         details.add("Bytes Written (Last 5 mins): " + FormatUtils.formatDataSize(status.getBytesWritten()));
     }
@@ -95,6 +136,21 @@ public class RepositoryDiagnosticTask implements DiagnosticTask {
             details.add("Provenance Repository <" + containerName + "> Storage Capacity: " + FormatUtils.formatDataSize(repository.getContainerCapacity(containerName)));
             details.add("Provenance Repository <" + containerName + "> Usable Space: " + FormatUtils.formatDataSize(repository.getContainerUsableSpace(containerName)));
         }
+
+        for (final ProvenanceIndexingDiagnostics indexingDiagnostics : repository.getIndexingDiagnostics()) {
+            details.add(String.format("Provenance Repository <%s> Indexing: %d events pending, Event ID lag %d, %d events indexed, %d events deferred, %d events dropped",
+                indexingDiagnostics.getPartitionName(), indexingDiagnostics.getPendingEventCount(), indexingDiagnostics.getEventIdLag(),
+                indexingDiagnostics.getEventsIndexed(), indexingDiagnostics.getEventsDeferred(), indexingDiagnostics.getEventsDropped()));
+        }
+    }
+
+    private void captureDiagnostics(final ProvenanceEventSampler sampler, final List<String> details) {
+        if (!sampler.hasRules()) {
+            return;
+        }
+
+        details.add("Provenance Events Dropped by Sampling Rules: " + sampler.getDroppedEventCount() + " " + sampler.getDroppedEventCounts());
+        details.add("Provenance Events Retained by Sampling Rules: " + sampler.getSampledEventCount() + " " + sampler.getSampledEventCounts());
     }
 
 }
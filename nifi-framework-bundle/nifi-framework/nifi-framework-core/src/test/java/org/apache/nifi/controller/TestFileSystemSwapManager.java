@@ -23,11 +23,16 @@ import org.apache.nifi.controller.repository.SwapContents;
 import org.apache.nifi.controller.repository.SwapManagerInitializationContext;
 import org.apache.nifi.controller.repository.claim.ResourceClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.swap.CompressedSwapDeserializer;
+import org.apache.nifi.controller.swap.SchemaSwapDeserializer;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.stream.io.StreamUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -40,15 +45,18 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class TestFileSystemSwapManager {
@@ -157,6 +165,76 @@ public class TestFileSystemSwapManager {
         assertEquals(10000, contents.getFlowFiles().size());
     }
 
+    @Test
+    public void testAsyncSwapOutAndPrefetchedSwapIn() throws Exception {
+        final FlowFileQueue flowFileQueue = mock(FlowFileQueue.class);
+        when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+
+        final FlowFileRepository flowFileRepo = mock(FlowFileRepository.class);
+        when(flowFileRepo.isValidSwapLocationSuffix(anyString())).thenReturn(true);
+        final FileSystemSwapManager swapManager = createSwapManager(flowFileRepo, 2);
+
+        final List<FlowFileRecord> flowFileRecords = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            flowFileRecords.add(new MockFlowFileRecord(i));
+        }
+
+        final String swapLocation = swapManager.swapOutAsync(flowFileRecords, flowFileQueue, "partition-1").get(10, TimeUnit.SECONDS);
+        verify(flowFileRepo).swapFlowFilesOut(flowFileRecords, flowFileQueue, swapLocation);
+        assertEquals(List.of(swapLocation), swapManager.recoverSwapLocations(flowFileQueue, "partition-1"));
+
+        swapManager.prefetch(swapLocation, flowFileQueue);
+        final SwapContents contents = swapManager.swapIn(swapLocation, flowFileQueue);
+        assertEquals(10000, contents.getFlowFiles().size());
+        assertFalse(new File(swapLocation).exists());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void testSwapFileSerialization(final boolean compressSwapFiles) throws IOException {
+        final FlowFileQueue flowFileQueue = mock(FlowFileQueue.class);
+        when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+
+        final FlowFileRepository flowFileRepo = mock(FlowFileRepository.class);
+        when(flowFileRepo.isValidSwapLocationSuffix(anyString())).thenReturn(true);
+        final FileSystemSwapManager swapManager = createSwapManager(flowFileRepo, 0, compressSwapFiles);
+
+        final List<FlowFileRecord> flowFileRecords = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            flowFileRecords.add(new MockFlowFileRecord(i));
+        }
+
+        final String swapLocation = swapManager.swapOut(flowFileRecords, flowFileQueue, null);
+
+        // Unless compression is enabled, swap files must remain readable by earlier versions of NiFi
+        final String expectedSerializationName = compressSwapFiles ? CompressedSwapDeserializer.getSerializationName() : SchemaSwapDeserializer.getSerializationName();
+        try (final DataInputStream in = new DataInputStream(new FileInputStream(swapLocation))) {
+            in.skipNBytes(4);
+            assertEquals(expectedSerializationName, in.readUTF());
+        }
+
+        final SwapContents contents = swapManager.swapIn(swapLocation, flowFileQueue);
+        assertEquals(10000, contents.getFlowFiles().size());
+    }
+
+    @Test
+    public void testSwapOutAsyncAfterShutdown() throws Exception {
+        final FlowFileQueue flowFileQueue = mock(FlowFileQueue.class);
+        when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+
+        final FlowFileRepository flowFileRepo = mock(FlowFileRepository.class);
+        final FileSystemSwapManager swapManager = createSwapManager(flowFileRepo, 2);
+        swapManager.shutdown();
+
+        final List<FlowFileRecord> flowFileRecords = List.of(new MockFlowFileRecord(1));
+        final CompletableFuture<String> swapLocationFuture = swapManager.swapOutAsync(flowFileRecords, flowFileQueue, "partition-1");
+        assertTrue(swapLocationFuture.isDone());
+
+        final String swapLocation = swapLocationFuture.get();
+        verify(flowFileRepo).swapFlowFilesOut(flowFileRecords, flowFileQueue, swapLocation);
+        assertTrue(new File(swapLocation).exists());
+    }
+
     private FileSystemSwapManager createSwapManager() {
         final FlowFileRepository flowFileRepo = mock(FlowFileRepository.class);
         return createSwapManager(flowFileRepo);
@@ -166,7 +244,15 @@ public class TestFileSystemSwapManager {
     public Path temporaryFolder;
 
     private FileSystemSwapManager createSwapManager(final FlowFileRepository flowFileRepo) {
-        final FileSystemSwapManager swapManager = new FileSystemSwapManager(temporaryFolder);
+        return createSwapManager(flowFileRepo, 0);
+    }
+
+    private FileSystemSwapManager createSwapManager(final FlowFileRepository flowFileRepo, final int asyncThreads) {
+        return createSwapManager(flowFileRepo, asyncThreads, false);
+    }
+
+    private FileSystemSwapManager createSwapManager(final FlowFileRepository flowFileRepo, final int asyncThreads, final boolean compressSwapFiles) {
+        final FileSystemSwapManager swapManager = new FileSystemSwapManager(temporaryFolder, asyncThreads, compressSwapFiles);
         final ResourceClaimManager resourceClaimManager = new NopResourceClaimManager();
         swapManager.initialize(new SwapManagerInitializationContext() {
             @Override
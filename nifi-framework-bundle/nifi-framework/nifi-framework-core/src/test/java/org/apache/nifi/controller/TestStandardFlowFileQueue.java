@@ -25,6 +25,7 @@ import org.apache.nifi.controller.queue.ListFlowFileState;
 import org.apache.nifi.controller.queue.ListFlowFileStatus;
 import org.apache.nifi.controller.queue.QueueSize;
 import org.apache.nifi.controller.queue.StandardFlowFileQueue;
+import org.apache.nifi.controller.repository.CompactFlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
 import org.apache.nifi.processor.FlowFileFilter;
@@ -44,11 +45,13 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -152,12 +155,15 @@ public class TestStandardFlowFileQueue {
 
         // queue is still full because FlowFile has not yet been acknowledged.
         assertTrue(queue.isFull());
+        Mockito.verify(scheduler, Mockito.times(10)).onFlowFilesQueued(queue);
+        Mockito.verify(scheduler, Mockito.never()).onBackPressureReleased(queue);
         queue.acknowledge(polled);
 
         // FlowFile has been acknowledged; queue should no longer be full.
         assertFalse(queue.isFull());
         assertFalse(queue.isEmpty());
         assertFalse(queue.isActiveQueueEmpty());
+        Mockito.verify(scheduler).onBackPressureReleased(queue);
     }
 
     @Test
@@ -612,4 +618,26 @@ public class TestStandardFlowFileQueue {
 
         assertEquals(500, now - queue.getMinLastQueueDate());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCompactFlowFiles() {
+        queue = new StandardFlowFileQueue("id", flowFileRepo, provRepo, scheduler, swapManager, null, 100, "0 sec", 0L, "0 B", true);
+
+        for (int i = 0; i < 250; i++) {
+            queue.put(new MockFlowFileRecord(Map.of("index", String.valueOf(i)), 1L));
+        }
+
+        assertEquals(250, queue.size().getObjectCount());
+
+        final Set<String> indices = new HashSet<>();
+        FlowFileRecord flowFile;
+        while ((flowFile = queue.poll(new HashSet<>())) != null) {
+            assertInstanceOf(CompactFlowFileRecord.class, flowFile);
+            indices.add(flowFile.getAttribute("index"));
+            queue.acknowledge(flowFile);
+        }
+
+        assertEquals(250, indices.size());
+        assertTrue(queue.isEmpty());
+    }
+}
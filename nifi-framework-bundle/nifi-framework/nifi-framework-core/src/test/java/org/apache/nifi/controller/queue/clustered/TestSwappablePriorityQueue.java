@@ -24,11 +24,13 @@ import org.apache.nifi.controller.queue.DropFlowFileRequest;
 import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.queue.PollStrategy;
 import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.queue.SwapDiagnostics;
 import org.apache.nifi.controller.queue.SwappablePriorityQueue;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.flowfile.FlowFilePrioritizer;
+import org.apache.nifi.prioritizer.FirstInFirstOutPrioritizer;
 import org.apache.nifi.processor.FlowFileFilter;
 import org.apache.nifi.util.StringUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -45,6 +47,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -793,4 +798,190 @@ public class TestSwappablePriorityQueue {
         assertEquals(totalNow - totalQueueDate, queue.getTotalQueuedDuration(now));
         assertEquals(minQueueDate, queue.getMinLastQueueDate());
     }
+
+    @Test
+    @Timeout(60)
+    public void testConcurrentPutAndPollWithFirstInFirstOutPrioritizer() throws InterruptedException {
+        queue.setPriorities(List.of(new FirstInFirstOutPrioritizer()));
+
+        final int threadCount = 4;
+        final int flowFilesPerThread = 10_000;
+        final int totalFlowFiles = threadCount * flowFilesPerThread;
+
+        final Set<Long> polledIds = ConcurrentHashMap.newKeySet();
+        final AtomicInteger polledCount = new AtomicInteger(0);
+        final List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < threadCount; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < flowFilesPerThread; i++) {
+                    queue.put(new MockFlowFileRecord(1L));
+                }
+            }));
+
+            threads.add(new Thread(() -> {
+                while (polledCount.get() < totalFlowFiles) {
+                    final FlowFileRecord polled = queue.poll(new HashSet<>(), 0L);
+                    if (polled == null) {
+                        Thread.yield();
+                        continue;
+                    }
+
+                    polledIds.add(polled.getId());
+                    polledCount.incrementAndGet();
+                    queue.acknowledge(polled);
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(totalFlowFiles, polledCount.get());
+        assertEquals(totalFlowFiles, polledIds.size());
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.getFlowFileQueueSize().getActiveCount());
+        assertEquals(0, queue.getFlowFileQueueSize().getUnacknowledgedCount());
+    }
+
+    @Test
+    public void testPenalizedFlowFileNotPolledBeforeUnpenalizedWithFirstInFirstOutPrioritizer() {
+        queue.setPriorities(List.of(new FirstInFirstOutPrioritizer()));
+
+        final MockFlowFileRecord penalized = new MockFlowFileRecord(1L);
+        penalized.setPenaltyExpiration(System.currentTimeMillis() + 60_000L);
+        queue.put(penalized);
+
+        final MockFlowFileRecord unpenalized = new MockFlowFileRecord(1L);
+        queue.put(unpenalized);
+
+        assertEquals(2, queue.size().getObjectCount());
+        assertEquals(unpenalized, queue.poll(new HashSet<>(), 0L));
+        assertNull(queue.poll(new HashSet<>(), 0L));
+        assertEquals(penalized, queue.poll(new HashSet<>(), 0L, PollStrategy.ALL_FLOWFILES));
+        assertEquals(2, queue.getFlowFileQueueSize().getUnacknowledgedCount());
+    }
+
+    @Test
+    public void testSwapOutCompletedInBackground() {
+        final DeferredSwapManager deferredSwapManager = new DeferredSwapManager();
+        queue = new SwappablePriorityQueue(deferredSwapManager, 10000, eventReporter, flowFileQueue, dropAction, "local");
+
+        for (int i = 0; i < 30000; i++) {
+            queue.put(new MockFlowFileRecord(i));
+        }
+
+        assertEquals(30000, queue.size().getObjectCount());
+        assertEquals(2, queue.getFlowFileQueueSize().getSwapFileCount());
+        assertEquals(2, queue.getSwapDiagnostics().getPendingSwapOutCount());
+        assertEquals(0, deferredSwapManager.swapOutCalledCount);
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        final Set<Long> polledSizes = new HashSet<>();
+        queue.poll(10000, expiredRecords, 0L).forEach(flowFile -> polledSizes.add(flowFile.getSize()));
+        assertEquals(10000, polledSizes.size());
+
+        deferredSwapManager.completeSwapOuts();
+        while (polledSizes.size() < 30000) {
+            final List<FlowFileRecord> polled = queue.poll(10000, expiredRecords, 0L);
+            assertFalse(polled.isEmpty());
+            polled.forEach(flowFile -> polledSizes.add(flowFile.getSize()));
+        }
+
+        assertTrue(queue.isActiveQueueEmpty());
+        assertEquals(0, queue.getFlowFileQueueSize().getSwapFileCount());
+
+        final SwapDiagnostics swapDiagnostics = queue.getSwapDiagnostics();
+        assertEquals(0, swapDiagnostics.getPendingSwapOutCount());
+        assertEquals(2, swapDiagnostics.getSwapOutCount());
+        assertEquals(2, swapDiagnostics.getSwapInCount());
+        assertTrue(swapDiagnostics.getSwapInNanos() >= swapDiagnostics.getMaxSwapInNanos());
+    }
+
+    @Test
+    public void testSwapOutFailureInBackgroundRequeuesFlowFiles() {
+        final DeferredSwapManager deferredSwapManager = new DeferredSwapManager();
+        queue = new SwappablePriorityQueue(deferredSwapManager, 10000, eventReporter, flowFileQueue, dropAction, "local");
+
+        for (int i = 0; i < 20000; i++) {
+            queue.put(new MockFlowFileRecord(i));
+        }
+
+        assertEquals(1, queue.getSwapDiagnostics().getPendingSwapOutCount());
+        deferredSwapManager.failSwapOuts();
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        int polledCount = queue.poll(10000, expiredRecords, 0L).size();
+        while (polledCount < 20000) {
+            final List<FlowFileRecord> polled = queue.poll(10000, expiredRecords, 0L);
+            assertFalse(polled.isEmpty());
+            polledCount += polled.size();
+        }
+
+        assertEquals(0, queue.getFlowFileQueueSize().getSwapFileCount());
+        assertEquals(0, queue.getFlowFileQueueSize().getSwappedCount());
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    @Timeout(30)
+    public void testPollWaitsForSwapOutWithoutHoldingLock() throws InterruptedException {
+        final DeferredSwapManager deferredSwapManager = new DeferredSwapManager();
+        queue = new SwappablePriorityQueue(deferredSwapManager, 10000, eventReporter, flowFileQueue, dropAction, "local");
+
+        for (int i = 0; i < 20000; i++) {
+            queue.put(new MockFlowFileRecord(i));
+        }
+
+        assertEquals(10000, queue.poll(10000, new HashSet<>(), 0L).size());
+        assertEquals(1, queue.getSwapDiagnostics().getPendingSwapOutCount());
+
+        final AtomicInteger polledCount = new AtomicInteger(-1);
+        final Thread pollThread = new Thread(() -> polledCount.set(queue.poll(10000, new HashSet<>(), 0L).size()));
+        pollThread.start();
+
+        while (pollThread.getState() != Thread.State.WAITING) {
+            Thread.sleep(10L);
+        }
+
+        // The polling thread is waiting for the swap file to be written, but it must not prevent other threads from using the queue
+        queue.put(new MockFlowFileRecord(20000));
+        assertEquals(10001, queue.size().getObjectCount() - queue.getFlowFileQueueSize().getUnacknowledgedCount());
+        assertEquals(-1, polledCount.get());
+
+        deferredSwapManager.completeSwapOuts();
+        pollThread.join();
+        assertEquals(10000, polledCount.get());
+    }
+
+    private static class DeferredSwapManager extends MockSwapManager {
+        private final List<Runnable> deferredSwapOuts = new ArrayList<>();
+        private final List<CompletableFuture<String>> deferredFutures = new ArrayList<>();
+
+        @Override
+        public CompletableFuture<String> swapOutAsync(final List<FlowFileRecord> flowFiles, final FlowFileQueue flowFileQueue, final String partitionName) {
+            final CompletableFuture<String> future = new CompletableFuture<>();
+            deferredFutures.add(future);
+            deferredSwapOuts.add(() -> {
+                try {
+                    future.complete(swapOut(flowFiles, flowFileQueue, partitionName));
+                } catch (final IOException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            return future;
+        }
+
+        void completeSwapOuts() {
+            deferredSwapOuts.forEach(Runnable::run);
+            deferredSwapOuts.clear();
+        }
+
+        void failSwapOuts() {
+            deferredFutures.forEach(future -> future.completeExceptionally(new IOException("Intentional Unit Test IOException")));
+            deferredSwapOuts.clear();
+        }
+    }
 }
@@ -88,6 +88,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -1066,6 +1067,30 @@ public class StandardProcessSessionIT {
         assertEquals(5, onQueue.getSize());
     }
 
+    @Test
+    public void testIdenticalContentDeduplicated() {
+        contentRepo.deduplicationEnabled = true;
+
+        final FlowFile written = session.write(session.create(), out -> out.write("hello, world".getBytes(StandardCharsets.UTF_8)));
+        final FlowFile imported = session.importFrom(new ByteArrayInputStream("hello, world".getBytes(StandardCharsets.UTF_8)), session.create());
+        final FlowFile different = session.write(session.create(), out -> out.write("goodbye".getBytes(StandardCharsets.UTF_8)));
+
+        final ContentClaim writtenClaim = ((FlowFileRecord) written).getContentClaim();
+        assertEquals(writtenClaim, ((FlowFileRecord) imported).getContentClaim());
+        assertNotEquals(writtenClaim, ((FlowFileRecord) different).getContentClaim());
+        assertEquals(2, contentRepo.getClaimantCount(writtenClaim));
+
+        session.transfer(List.of(written, imported, different), new Relationship.Builder().name("A").build());
+        session.commit();
+        assertEquals(2, contentRepo.getExistingClaims().size());
+
+        final Set<ContentClaim> queuedClaims = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            queuedClaims.add(flowFileQueue.poll(Collections.emptySet()).getContentClaim());
+        }
+        assertEquals(2, queuedClaims.size());
+    }
+
     @Test
     public void testWriteZeroBytesGivesNoContentClaim() throws IOException {
         assertEquals(0, contentRepo.getExistingClaims().size());
@@ -2029,6 +2054,28 @@ public class StandardProcessSessionIT {
         assertEquals(ProvenanceEventType.ATTRIBUTES_MODIFIED, event.getEventType());
     }
 
+    @Test
+    public void testSuppressedEventsNotRegistered() throws IOException {
+        final ProvenanceEventSampler sampler = ProvenanceEventSampler.fromRules("ATTRIBUTES_MODIFIED=0");
+        final StandardRepositoryContext samplingContext = new StandardRepositoryContext(connectable, new AtomicLong(0L), contentRepo, flowFileRepo,
+            flowFileEventRepository, counterRepository, provenanceRepo, stateManager, 50_000L, sampler);
+        final StandardProcessSession samplingSession = new StandardProcessSession(samplingContext, () -> false, new NopPerformanceTracker());
+
+        final FlowFileRecord flowFile = new StandardFlowFileRecord.Builder()
+                .id(1L)
+                .addAttribute("uuid", "000000000000-0000-0000-0000-00000000")
+                .build();
+        this.flowFileQueue.put(flowFile);
+
+        FlowFile existingFlowFile = samplingSession.get();
+        existingFlowFile = samplingSession.putAttribute(existingFlowFile, "attr", "a");
+        samplingSession.transfer(existingFlowFile, new Relationship.Builder().name("A").build());
+        samplingSession.commit();
+
+        assertTrue(provenanceRepo.getEvents(0L, 10000).isEmpty());
+        assertEquals(1L, sampler.getDroppedEventCount());
+    }
+
     @Test
     public void testReadFromInputStream() throws IOException {
         FlowFile flowFile = session.create();
@@ -3131,6 +3178,8 @@ public class StandardProcessSessionIT {
         private final AtomicLong claimsRemoved = new AtomicLong(0L);
         private ResourceClaimManager claimManager;
         private boolean disableRead = false;
+        private boolean deduplicationEnabled = false;
+        private final Map<String, ContentClaim> claimsByDigest = new HashMap<>();
 
         private final ConcurrentMap<ContentClaim, AtomicInteger> claimantCounts = new ConcurrentHashMap<>();
 
@@ -3256,6 +3305,22 @@ public class StandardProcessSessionIT {
             return null;
         }
 
+        @Override
+        public boolean isContentDeduplicationEnabled() {
+            return deduplicationEnabled;
+        }
+
+        @Override
+        public ContentClaim deduplicate(final ContentClaim claim, final byte[] contentDigest) {
+            final ContentClaim existingClaim = claimsByDigest.putIfAbsent(HexFormat.of().formatHex(contentDigest), claim);
+            if (existingClaim == null) {
+                return claim;
+            }
+
+            claimantCounts.get(existingClaim).incrementAndGet();
+            return existingClaim;
+        }
+
 
         private Path getPath(final ContentClaim contentClaim) {
             final ResourceClaim claim = contentClaim.getResourceClaim();
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.ArchiveIndex.ArchivedFile;
+import org.apache.nifi.controller.repository.ArchiveIndex.IndexedFile;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestArchiveIndex {
+
+    @Test
+    public void testPollExpired() {
+        final ArchiveIndex index = new ArchiveIndex(4, 100);
+        index.add(1, new ArchivedFile("c", 10, 300L));
+        index.add(1, new ArchivedFile("a", 10, 100L));
+        index.add(1, new ArchivedFile("b", 10, 200L));
+
+        assertEquals("a", index.pollExpired(1, 250L).name());
+        assertEquals("b", index.pollExpired(1, 250L).name());
+        assertNull(index.pollExpired(1, 250L));
+        assertNull(index.pollExpired(2, 250L));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testPollOldestAcrossSections() {
+        final ArchiveIndex index = new ArchiveIndex(4, 100);
+        index.add(0, new ArchivedFile("b", 10, 200L));
+        index.add(3, new ArchivedFile("a", 10, 100L));
+        index.add(2, new ArchivedFile("c", 10, 300L));
+        assertEquals(100L, index.getOldestLastModTime());
+
+        final IndexedFile first = index.pollOldest();
+        assertEquals(3, first.section());
+        assertEquals("a", first.file().name());
+        assertEquals("b", index.pollOldest().file().name());
+        assertEquals("c", index.pollOldest().file().name());
+        assertNull(index.pollOldest());
+        assertEquals(-1L, index.getOldestLastModTime());
+        assertTrue(index.isEmpty(0));
+    }
+
+    @Test
+    public void testMaxIndexedFiles() {
+        final ArchiveIndex index = new ArchiveIndex(2, 2);
+        assertTrue(index.add(0, new ArchivedFile("a", 10, 100L)));
+        assertTrue(index.add(1, new ArchivedFile("b", 10, 200L)));
+        assertFalse(index.add(1, new ArchivedFile("c", 10, 300L)));
+        assertEquals(2, index.size());
+
+        index.pollOldest();
+        assertTrue(index.add(1, new ArchivedFile("c", 10, 300L)));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Timeout(30)
+public class TestAsyncContentWriter {
+    @TempDir
+    private Path tempDir;
+
+    private ExecutorService executor;
+    private AsyncContentWriter writer;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+        writer = new AsyncContentWriter("default", 64 * 1024);
+        executor.submit(writer);
+    }
+
+    @AfterEach
+    public void shutdown() {
+        writer.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testFlushWritesContent() throws IOException {
+        final Path path = tempDir.resolve("claim");
+        try (final OutputStream out = writer.open(path)) {
+            out.write("Hello".getBytes(StandardCharsets.UTF_8));
+            out.write(' ');
+            out.flush();
+            assertEquals("Hello ", Files.readString(path));
+
+            out.write("World".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals("Hello World", Files.readString(path));
+        assertEquals(0, writer.getPendingBytes());
+    }
+
+    @Test
+    public void testAppendsToExistingFile() throws IOException {
+        final Path path = tempDir.resolve("claim");
+        Files.writeString(path, "Hello");
+
+        try (final AsyncContentWriter.ClaimOutputStream out = writer.open(path)) {
+            out.write(" World".getBytes(StandardCharsets.UTF_8));
+            out.sync();
+            assertEquals("Hello World", Files.readString(path));
+        }
+    }
+
+    @Test
+    public void testContentLargerThanMaxPending() throws IOException {
+        final byte[] data = new byte[1024 * 1024];
+        new Random().nextBytes(data);
+
+        final Path firstPath = tempDir.resolve("first");
+        final Path secondPath = tempDir.resolve("second");
+        try (final OutputStream first = writer.open(firstPath);
+             final OutputStream second = writer.open(secondPath)) {
+            for (int i = 0; i < data.length; i += 1000) {
+                final int length = Math.min(1000, data.length - i);
+                first.write(data, i, length);
+                second.write(data, i, length);
+            }
+        }
+
+        assertArrayEquals(data, Files.readAllBytes(firstPath));
+        assertArrayEquals(data, Files.readAllBytes(secondPath));
+    }
+
+    @Test
+    public void testWriteAfterStopFails() throws IOException {
+        final OutputStream out = writer.open(tempDir.resolve("claim"));
+        writer.stop();
+
+        // Content smaller than a single chunk is written by the flushing thread, but larger content must be handed off to the writer
+        out.write(1);
+        out.flush();
+        assertThrows(IOException.class, () -> out.write(new byte[1024 * 1024]));
+        assertThrows(IOException.class, () -> writer.open(tempDir.resolve("other")));
+    }
+
+    @Test
+    public void testWriteAfterCloseFails() throws IOException {
+        final OutputStream out = writer.open(tempDir.resolve("claim"));
+        out.close();
+
+        assertThrows(IOException.class, () -> out.write(1));
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestCompressedBlockIndex {
+    private final ContentCompressionCodec codec = new DeflateContentCompressionCodec();
+    private final CompressionStatistics statistics = new CompressionStatistics();
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    public void testReadFromLogicalOffsets() throws IOException {
+        final byte[] content = "The quick brown fox jumps over the lazy dog. ".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+        final Path file = write(content);
+        assertTrue(Files.size(file) < content.length);
+
+        final CompressedBlockIndex index = new CompressedBlockIndex();
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertEquals(content.length, index.getLogicalLength(channel));
+            assertEquals((content.length + BlockCompressingOutputStream.MAX_BLOCK_SIZE - 1) / BlockCompressingOutputStream.MAX_BLOCK_SIZE, index.getBlockCount());
+            assertNull(index.locate(channel, content.length + 1));
+        }
+
+        for (final int offset : new int[] {0, 1, BlockCompressingOutputStream.MAX_BLOCK_SIZE - 1, BlockCompressingOutputStream.MAX_BLOCK_SIZE, 200_000, content.length}) {
+            assertArrayEquals(Arrays.copyOfRange(content, offset, content.length), read(file, index, offset));
+        }
+
+        assertTrue(statistics.getCompressionRatio() > 1.0D);
+        assertEquals(content.length, statistics.getUncompressedBytesWritten());
+    }
+
+    @Test
+    public void testIncompressibleContentStoredUncompressed() throws IOException {
+        final byte[] content = new byte[100_000];
+        new Random(1L).nextBytes(content);
+        final Path file = write(content);
+
+        final int blocks = 2;
+        assertEquals(content.length + (long) blocks * BlockCompressingOutputStream.HEADER_LENGTH, Files.size(file));
+        assertArrayEquals(Arrays.copyOfRange(content, 70_000, content.length), read(file, new CompressedBlockIndex(), 70_000));
+    }
+
+    @Test
+    public void testFlushEndsBlock() throws IOException {
+        final Path file = tempDir.resolve("flushed");
+        final CompressedBlockIndex index = new CompressedBlockIndex();
+
+        try (final OutputStream out = new BlockCompressingOutputStream(new FileOutputStream(file.toFile()), codec, statistics);
+             final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            out.write("Hello".getBytes(StandardCharsets.UTF_8));
+            assertEquals(0, index.getLogicalLength(channel));
+
+            out.flush();
+            assertEquals(5, index.getLogicalLength(channel));
+
+            out.write(", World".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            assertEquals(12, index.getLogicalLength(channel));
+            assertEquals(2, index.getBlockCount());
+        }
+
+        assertEquals(", World", new String(read(file, index, 5), StandardCharsets.UTF_8));
+        assertEquals("World", new String(read(file, index, 7), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testIncompleteBlockIgnored() throws IOException {
+        final byte[] content = "Hello World".repeat(100).getBytes(StandardCharsets.UTF_8);
+        final Path file = write(content);
+
+        // Simulate a block whose header has been written but whose content has not
+        Files.write(file, new byte[] {0, 0, 0, 10, 0, 0, 0, 10, 1, 2}, StandardOpenOption.APPEND);
+
+        final CompressedBlockIndex index = new CompressedBlockIndex();
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertEquals(content.length, index.getLogicalLength(channel));
+        }
+        assertArrayEquals(content, read(file, index, 0));
+    }
+
+    private Path write(final byte[] content) throws IOException {
+        final Path file = tempDir.resolve("content");
+        try (final OutputStream out = new BlockCompressingOutputStream(new FileOutputStream(file.toFile()), codec, statistics)) {
+            // Write in uneven chunks so that writes span blocks
+            for (int offset = 0; offset < content.length; offset += 10_000) {
+                out.write(content, offset, Math.min(10_000, content.length - offset));
+            }
+        }
+        return file;
+    }
+
+    private byte[] read(final Path file, final CompressedBlockIndex index, final long logicalOffset) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        final CompressedBlockIndex.BlockPosition position = index.locate(channel, logicalOffset);
+        try (final InputStream in = new BlockDecompressingInputStream(channel, codec, statistics, position.physicalOffset(), logicalOffset - position.logicalOffset())) {
+            return in.readAllBytes();
+        }
+    }
+}
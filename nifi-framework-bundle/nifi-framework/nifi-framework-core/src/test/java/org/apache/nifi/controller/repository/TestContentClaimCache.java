@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.StandardContentClaim;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TestContentClaimCache {
+    private StandardResourceClaimManager claimManager;
+    private ContentClaimCache cache;
+
+    @BeforeEach
+    public void setup() {
+        claimManager = new StandardResourceClaimManager();
+        cache = new ContentClaimCache(10, 4);
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        final StandardContentClaim claim = createClaim("1", 0L, 3);
+
+        assertNull(cache.get(claim));
+        assertEquals(1, cache.getMissCount());
+
+        cache.put(claim, new byte[] {1, 2, 3});
+        assertArrayEquals(new byte[] {1, 2, 3}, cache.get(claim));
+        assertEquals(1, cache.getHitCount());
+
+        // A claim with a different length at the same offset must not be served the cached content
+        assertNull(cache.get(createClaim("1", 0L, 2)));
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testClaimsLargerThanMaxNotCached() {
+        final StandardContentClaim claim = createClaim("1", 0L, 5);
+        cache.put(claim, new byte[5]);
+
+        assertNull(cache.get(claim));
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        final StandardContentClaim first = createClaim("1", 0L, 4);
+        final StandardContentClaim second = createClaim("1", 4L, 4);
+        final StandardContentClaim third = createClaim("2", 0L, 4);
+
+        cache.put(first, new byte[4]);
+        cache.put(second, new byte[4]);
+        assertNotNull(cache.get(first));
+
+        cache.put(third, new byte[4]);
+        assertEquals(8, cache.getCachedBytes());
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertNotNull(cache.get(third));
+    }
+
+    @Test
+    public void testInvalidateResourceClaim() {
+        final StandardContentClaim first = createClaim("1", 0L, 2);
+        final StandardContentClaim second = createClaim("1", 2L, 2);
+        final StandardContentClaim third = createClaim("2", 0L, 2);
+
+        cache.put(first, new byte[2]);
+        cache.put(second, new byte[2]);
+        cache.put(third, new byte[2]);
+
+        cache.invalidate(first.getResourceClaim());
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(2, cache.getCachedBytes());
+        assertNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertNotNull(cache.get(third));
+    }
+
+    private StandardContentClaim createClaim(final String id, final long offset, final long length) {
+        final ResourceClaim resourceClaim = claimManager.newResourceClaim("container", "section", id, false, false);
+        final StandardContentClaim claim = new StandardContentClaim(resourceClaim, offset);
+        claim.setLength(length);
+        return claim;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.StandardContentClaim;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TestContentDeduplicationIndex {
+    private final StandardResourceClaimManager claimManager = new StandardResourceClaimManager();
+
+    @Test
+    public void testGetRequiresMatchingDigestAndLength() {
+        final ContentDeduplicationIndex index = new ContentDeduplicationIndex(10);
+        final ContentClaim claim = createClaim("1", 0L, 100L);
+        index.put(new byte[] {1, 2, 3}, claim);
+
+        assertEquals(claim, index.get(new byte[] {1, 2, 3}, 100L));
+        assertNull(index.get(new byte[] {1, 2, 3}, 99L));
+        assertNull(index.get(new byte[] {1, 2, 4}, 100L));
+    }
+
+    @Test
+    public void testIndexedClaimUnaffectedByLaterWrites() {
+        final ContentDeduplicationIndex index = new ContentDeduplicationIndex(10);
+        final StandardContentClaim claim = createClaim("1", 0L, 100L);
+        index.put(new byte[] {1}, claim);
+
+        claim.setLength(200L);
+        final ContentClaim indexed = index.get(new byte[] {1}, 100L);
+        assertNotSame(claim, indexed);
+        assertEquals(100L, indexed.getLength());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        final ContentDeduplicationIndex index = new ContentDeduplicationIndex(2);
+        index.put(new byte[] {1}, createClaim("1", 0L, 10L));
+        index.put(new byte[] {2}, createClaim("2", 0L, 10L));
+        index.get(new byte[] {1}, 10L);
+        index.put(new byte[] {3}, createClaim("3", 0L, 10L));
+
+        assertEquals(2, index.size());
+        assertNull(index.get(new byte[] {2}, 10L));
+        assertEquals("1", index.get(new byte[] {1}, 10L).getResourceClaim().getId());
+    }
+
+    private StandardContentClaim createClaim(final String id, final long offset, final long length) {
+        final ResourceClaim resourceClaim = claimManager.newResourceClaim("container", "section", id, false, false);
+        final StandardContentClaim claim = new StandardContentClaim(resourceClaim, offset);
+        claim.setLength(length);
+        return claim;
+    }
+}
@@ -33,25 +33,32 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.api.condition.DisabledOnOs;
 import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -65,6 +72,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -224,6 +233,30 @@ public class TestFileSystemRepository {
         }
     }
 
+    @Test
+    public void testArchiveCleanupLag() throws IOException, InterruptedException {
+        final Map<String, String> propertyOverrides = new HashMap<>();
+        propertyOverrides.put(NiFiProperties.CONTENT_ARCHIVE_MAX_RETENTION_PERIOD, "1 sec");
+        propertyOverrides.put(NiFiProperties.CONTENT_ARCHIVE_CLEANUP_FREQUENCY, "1 hour");
+        propertyOverrides.put(NiFiProperties.CONTENT_ARCHIVE_MAX_USAGE_PERCENTAGE, "99%");
+        propertyOverrides.put(NiFiProperties.MAX_APPENDABLE_CLAIM_SIZE, "1 B");
+        recreateRepositoryWithPropertyOverrides(propertyOverrides);
+
+        final ContentClaim claim = repository.create(false);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write("Hello".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(0, repository.decrementClaimantCount(claim));
+
+        final String containerName = claim.getResourceClaim().getContainer();
+        assertEquals(0L, repository.getArchiveCleanupLagMillis(containerName));
+        assertTrue(repository.archive(claim.getResourceClaim()));
+
+        // The archived file is indexed when it is archived, so its lag is known without scanning the archive directories
+        Thread.sleep(1500L);
+        assertTrue(repository.getArchiveCleanupLagMillis(containerName) > 0);
+    }
+
     private void recreateRepositoryWithPropertyOverrides(final Map<String, String> propertyOverrides) throws IOException {
         repository.shutdown();
         nifiProperties = NiFiProperties.createBasicNiFiProperties(TestFileSystemRepository.class.getResource("/conf/nifi.properties").getFile(), propertyOverrides);
@@ -582,6 +615,71 @@ public class TestFileSystemRepository {
         assertArrayEquals(doubleExpected, Files.readAllBytes(outPath));
     }
 
+    @Test
+    public void testExportToFileWithOffset() throws IOException {
+        final ContentClaim firstClaim = repository.create(false);
+        try (final OutputStream out = repository.write(firstClaim)) {
+            out.write("first".getBytes(StandardCharsets.UTF_8));
+        }
+
+        final ContentClaim secondClaim = repository.create(false);
+        try (final OutputStream out = repository.write(secondClaim)) {
+            out.write("hello world".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(firstClaim.getResourceClaim(), secondClaim.getResourceClaim());
+        assertTrue(secondClaim.getOffset() > 0);
+
+        final Path outPath = new File("target/testExportToFileWithOffset").toPath();
+        Files.deleteIfExists(outPath);
+
+        assertEquals(5, repository.exportTo(secondClaim, outPath, false, 6, 5));
+        assertEquals("world", Files.readString(outPath));
+
+        assertThrows(EOFException.class, () -> repository.exportTo(secondClaim, outPath, false, 6, 6));
+    }
+
+    @Test
+    public void testReadBuffer() throws IOException {
+        final ContentClaim firstClaim = repository.create(false);
+        try (final OutputStream out = repository.write(firstClaim)) {
+            out.write("first".getBytes(StandardCharsets.UTF_8));
+        }
+
+        final ContentClaim secondClaim = repository.create(false);
+        try (final OutputStream out = repository.write(secondClaim)) {
+            out.write("hello world".getBytes(StandardCharsets.UTF_8));
+        }
+
+        final ByteBuffer buffer = repository.readBuffer(secondClaim);
+        assertTrue(buffer.isReadOnly());
+        assertEquals("hello world", StandardCharsets.UTF_8.decode(buffer).toString());
+        assertEquals(0, repository.readBuffer(null).remaining());
+    }
+
+    @Test
+    public void testReadBufferMemoryMapped() throws IOException {
+        final byte[] data = new byte[256 * 1024];
+        new Random().nextBytes(data);
+
+        final ContentClaim firstClaim = repository.create(false);
+        try (final OutputStream out = repository.write(firstClaim)) {
+            out.write("first".getBytes(StandardCharsets.UTF_8));
+        }
+
+        final ContentClaim secondClaim = repository.create(false);
+        try (final OutputStream out = repository.write(secondClaim)) {
+            out.write(data);
+        }
+
+        final ByteBuffer buffer = repository.readBuffer(secondClaim);
+        assertTrue(buffer.isDirect());
+        assertTrue(buffer.isReadOnly());
+
+        final byte[] mapped = new byte[buffer.remaining()];
+        buffer.get(mapped);
+        assertArrayEquals(data, mapped);
+    }
+
     @Test
     public void testSize() throws IOException {
         final ContentClaim claim = repository.create(true);
@@ -680,6 +778,302 @@ public class TestFileSystemRepository {
         assertArrayEquals(data, Files.readAllBytes(path));
     }
 
+    @Test
+    public void testContentReadCache() throws IOException {
+        // Use a small max appendable size so that the Resource Claim is no longer in use once its stream is closed
+        recreateRepositoryWithPropertyOverrides(Map.of(NiFiProperties.CONTENT_READ_CACHE_SIZE, "1 MB", NiFiProperties.MAX_APPENDABLE_CLAIM_SIZE, "1 B"));
+        assertTrue(repository.isContentReadCacheEnabled());
+
+        final ContentClaim claim = repository.create(false);
+        final byte[] data = "Hello Cache".getBytes(StandardCharsets.UTF_8);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write(data);
+        }
+        assertEquals(data.length, repository.getContentReadCacheSize());
+
+        for (int i = 0; i < 3; i++) {
+            try (final InputStream in = repository.read(claim)) {
+                assertArrayEquals(data, in.readAllBytes());
+            }
+        }
+        assertEquals(3, repository.getContentReadCacheHitCount());
+        assertEquals(0, repository.getContentReadCacheMissCount());
+
+        assertEquals(0, repository.decrementClaimantCount(claim));
+        assertTrue(repository.remove(claim));
+        assertEquals(0, repository.getContentReadCacheSize());
+    }
+
+    @Test
+    public void testContentReadCacheDoesNotCacheLargeClaims() throws IOException {
+        recreateRepositoryWithPropertyOverrides(Map.of(NiFiProperties.CONTENT_READ_CACHE_SIZE, "1 MB", NiFiProperties.CONTENT_READ_CACHE_MAX_CLAIM_SIZE, "8 B"));
+
+        final ContentClaim claim = repository.create(false);
+        final byte[] data = "Hello Cache".getBytes(StandardCharsets.UTF_8);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write(data);
+        }
+
+        try (final InputStream in = repository.read(claim)) {
+            assertArrayEquals(data, in.readAllBytes());
+        }
+        assertEquals(0, repository.getContentReadCacheSize());
+        assertEquals(0, repository.getContentReadCacheHitCount());
+        assertEquals(0, repository.getContentReadCacheMissCount());
+    }
+
+    @Test
+    public void testAsyncWrite() throws IOException {
+        recreateRepositoryWithPropertyOverrides(Map.of(NiFiProperties.CONTENT_ASYNC_WRITE_ENABLED, "true", "nifi.content.repository.always.sync", "true"));
+
+        final List<ContentClaim> claims = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final ContentClaim claim = repository.create(false);
+            try (final OutputStream out = repository.write(claim)) {
+                out.write(("Hello " + i).getBytes(StandardCharsets.UTF_8));
+            }
+            claims.add(claim);
+        }
+
+        for (int i = 0; i < claims.size(); i++) {
+            try (final InputStream in = repository.read(claims.get(i))) {
+                assertEquals("Hello " + i, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {DeflateContentCompressionCodec.NAME, ZstdContentCompressionCodec.NAME})
+    public void testCompressedContent(final String codecName) throws IOException {
+        recreateRepositoryWithPropertyOverrides(Map.of(NiFiProperties.CONTENT_COMPRESSION_CODEC, codecName,
+            NiFiProperties.MAX_APPENDABLE_CLAIM_SIZE, "1 MB"));
+
+        final List<ContentClaim> claims = new ArrayList<>();
+        final List<byte[]> contents = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            // Vary the size of the content so that claims both fit within and span compressed blocks
+            final byte[] content = ("Hello World " + i + "\n").repeat(i * i * 50 + 1).getBytes(StandardCharsets.UTF_8);
+            final ContentClaim claim = repository.create(false);
+            try (final OutputStream out = repository.write(claim)) {
+                out.write(content);
+            }
+            claims.add(claim);
+            contents.add(content);
+        }
+
+        for (int i = 0; i < claims.size(); i++) {
+            final ContentClaim claim = claims.get(i);
+            final byte[] content = contents.get(i);
+            assertTrue(claim.getResourceClaim().getId().endsWith("." + codecName));
+            assertEquals(content.length, repository.size(claim));
+
+            try (final InputStream in = repository.read(claim)) {
+                assertArrayEquals(content, in.readAllBytes());
+            }
+
+            final ByteBuffer buffer = repository.readBuffer(claim);
+            final byte[] bufferContent = new byte[buffer.remaining()];
+            buffer.get(bufferContent);
+            assertArrayEquals(content, bufferContent);
+
+            final Path exported = rootFile.toPath().resolve("exported-" + i);
+            final long offset = content.length / 3;
+            final long length = content.length / 2;
+            assertEquals(length, repository.exportTo(claim, exported, false, offset, length));
+            assertArrayEquals(Arrays.copyOfRange(content, (int) offset, (int) (offset + length)), Files.readAllBytes(exported));
+        }
+
+        final ContentClaim lastClaim = claims.getLast();
+        final long logicalBytes = lastClaim.getOffset() + lastClaim.getLength();
+        assertTrue(Files.size(repository.getPath(lastClaim, true)) < logicalBytes);
+
+        final String containerName = lastClaim.getResourceClaim().getContainer();
+        assertEquals(codecName, repository.getCompressionCodecName(containerName));
+        assertTrue(repository.getCompressionRatio(containerName) > 1.0D);
+        assertTrue(repository.getCompressedContentBytes(containerName) > 0);
+    }
+
+    @Test
+    public void testCompressedContentReadableWhenCompressionDisabled() throws IOException {
+        recreateRepositoryWithPropertyOverrides(Map.of(NiFiProperties.CONTENT_COMPRESSION_CODEC, DeflateContentCompressionCodec.NAME));
+
+        final ContentClaim claim = repository.create(false);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write("Hello World".repeat(1000).getBytes(StandardCharsets.UTF_8));
+        }
+
+        final FileSystemRepository uncompressedRepository = new FileSystemRepository(NiFiProperties.createBasicNiFiProperties(
+            TestFileSystemRepository.class.getResource("/conf/nifi.properties").getFile()));
+        try {
+            uncompressedRepository.initialize(new StandardContentRepositoryContext(claimManager, EventReporter.NO_OP));
+            assertNull(uncompressedRepository.getCompressionCodecName(claim.getResourceClaim().getContainer()));
+
+            try (final InputStream in = uncompressedRepository.read(claim)) {
+                assertEquals("Hello World".repeat(1000), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        } finally {
+            uncompressedRepository.shutdown();
+        }
+    }
+
+    @Test
+    public void testUnknownCompressionCodec() {
+        assertThrows(RuntimeException.class, () -> recreateRepositoryWithPropertyOverrides(Map.of(NiFiProperties.CONTENT_COMPRESSION_CODEC, "unknown")));
+    }
+
+    @Test
+    public void testDeduplicate() throws IOException, NoSuchAlgorithmException {
+        recreateRepositoryWithPropertyOverrides(Map.of(NiFiProperties.CONTENT_DEDUPLICATION_ENABLED, "true", NiFiProperties.CONTENT_DEDUPLICATION_MIN_CLAIM_SIZE, "5 B"));
+        assertTrue(repository.isContentDeduplicationEnabled());
+
+        final byte[] content = "Hello World".getBytes(StandardCharsets.UTF_8);
+        final byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+
+        final ContentClaim original = repository.create(false);
+        try (final OutputStream out = repository.write(original)) {
+            out.write(content);
+        }
+        assertSame(original, repository.deduplicate(original, digest));
+
+        final ContentClaim duplicate = repository.create(false);
+        try (final OutputStream out = repository.write(duplicate)) {
+            out.write(content);
+        }
+
+        final int claimantCount = repository.getClaimantCount(original);
+        final ContentClaim deduplicated = repository.deduplicate(duplicate, digest);
+        assertEquals(original, deduplicated);
+        assertEquals(claimantCount + 1, repository.getClaimantCount(original));
+        assertEquals(1, repository.getDeduplicatedClaimCount());
+        assertEquals(content.length, repository.getDeduplicatedBytes());
+
+        try (final InputStream in = repository.read(deduplicated)) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+
+        // Content that is smaller than the minimum size is not deduplicated
+        final ContentClaim small = repository.create(false);
+        try (final OutputStream out = repository.write(small)) {
+            out.write(content, 0, 4);
+        }
+        assertSame(small, repository.deduplicate(small, MessageDigest.getInstance("SHA-256").digest(Arrays.copyOf(content, 4))));
+    }
+
+    @Test
+    public void testDeduplicateIgnoresUnreferencedContent() throws IOException, NoSuchAlgorithmException {
+        recreateRepositoryWithPropertyOverrides(Map.of(NiFiProperties.CONTENT_DEDUPLICATION_ENABLED, "true", NiFiProperties.CONTENT_DEDUPLICATION_MIN_CLAIM_SIZE, "1 B",
+            NiFiProperties.MAX_APPENDABLE_CLAIM_SIZE, "1 B"));
+
+        final byte[] content = "Hello World".getBytes(StandardCharsets.UTF_8);
+        final byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+
+        final ContentClaim original = repository.create(false);
+        try (final OutputStream out = repository.write(original)) {
+            out.write(content);
+        }
+        repository.deduplicate(original, digest);
+        assertEquals(0, repository.decrementClaimantCount(original));
+
+        final ContentClaim duplicate = repository.create(false);
+        try (final OutputStream out = repository.write(duplicate)) {
+            out.write(content);
+        }
+
+        // The original content may be destroyed at any time, so it must not be referenced again
+        assertSame(duplicate, repository.deduplicate(duplicate, digest));
+        assertEquals(0, repository.getDeduplicatedClaimCount());
+    }
+
+    @Test
+    public void testColdTierMigration() throws IOException {
+        final File coldTierFile = new File("target/content_repository_cold");
+        if (coldTierFile.exists()) {
+            DiskUtils.deleteRecursively(coldTierFile);
+        }
+        recreateRepositoryWithPropertyOverrides(Map.of(NiFiProperties.CONTENT_COLD_TIER_DIRECTORY_PREFIX + "default", coldTierFile.getPath(),
+            NiFiProperties.CONTENT_COLD_TIER_MIGRATION_AGE, "10 mins", NiFiProperties.CONTENT_COLD_TIER_MIGRATION_USAGE_PERCENTAGE, "99%",
+            NiFiProperties.MAX_APPENDABLE_CLAIM_SIZE, "1 B"));
+        assertTrue(repository.isColdTierConfigured("default"));
+
+        final byte[] oldContent = "Old Content".getBytes(StandardCharsets.UTF_8);
+        final ContentClaim oldClaim = repository.create(false);
+        try (final OutputStream out = repository.write(oldClaim)) {
+            out.write(oldContent);
+        }
+
+        final ContentClaim recentClaim = repository.create(false);
+        try (final OutputStream out = repository.write(recentClaim)) {
+            out.write("Recent Content".getBytes(StandardCharsets.UTF_8));
+        }
+
+        final Path oldPath = repository.getPath(oldClaim, true);
+        final Path recentPath = repository.getPath(recentClaim, true);
+        assertTrue(oldPath.toFile().setLastModified(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(20)));
+
+        repository.migrateToColdTier("default");
+
+        // Only the content that is older than the migration age is migrated, and it remains readable from the cold tier
+        assertFalse(Files.exists(oldPath));
+        assertEquals(recentPath, repository.getPath(recentClaim, true));
+        final Path coldTierPath = repository.getPath(oldClaim, true);
+        assertTrue(coldTierPath.startsWith(coldTierFile.toPath().toRealPath()));
+        assertTrue(repository.isAccessible(oldClaim));
+        assertEquals(oldContent.length, repository.size(oldClaim));
+        assertEquals(oldContent.length, repository.size(oldClaim.getResourceClaim()));
+        try (final InputStream in = repository.read(oldClaim)) {
+            assertArrayEquals(oldContent, in.readAllBytes());
+        }
+        assertEquals(1, repository.getColdTierMigratedClaimCount("default"));
+        assertEquals(oldContent.length, repository.getColdTierMigratedBytes("default"));
+        assertTrue(repository.getColdTierCapacity("default") > 0);
+
+        // Content in the cold tier is removed rather than archived once it is no longer referenced
+        assertEquals(0, repository.decrementClaimantCount(oldClaim));
+        assertFalse(repository.archive(oldClaim.getResourceClaim()));
+        assertFalse(Files.exists(coldTierPath));
+        assertFalse(repository.isAccessible(oldClaim));
+    }
+
+    @Test
+    public void testColdTierMigrationUnderPressure() throws IOException {
+        final File coldTierFile = new File("target/content_repository_cold");
+        if (coldTierFile.exists()) {
+            DiskUtils.deleteRecursively(coldTierFile);
+        }
+
+        // A usage percentage of 0% means that the container is always under pressure, so content is migrated regardless of its age
+        recreateRepositoryWithPropertyOverrides(Map.of(NiFiProperties.CONTENT_COLD_TIER_DIRECTORY_PREFIX + "default", coldTierFile.getPath(),
+            NiFiProperties.CONTENT_COLD_TIER_MIGRATION_AGE, "10 mins", NiFiProperties.CONTENT_COLD_TIER_MIGRATION_USAGE_PERCENTAGE, "0%",
+            NiFiProperties.MAX_APPENDABLE_CLAIM_SIZE, "1 B"));
+
+        final byte[] content = "Hello World".getBytes(StandardCharsets.UTF_8);
+        final ContentClaim claim = repository.create(false);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write(content);
+        }
+
+        final Path hotPath = repository.getPath(claim, true);
+        assertTrue(hotPath.toFile().setLastModified(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1)));
+        repository.migrateToColdTier("default");
+
+        assertFalse(Files.exists(hotPath));
+        try (final InputStream in = repository.read(claim)) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+
+        // Removing the claim removes its content from the cold tier
+        final Path coldTierPath = repository.getPath(claim, true);
+        assertEquals(0, repository.decrementClaimantCount(claim));
+        assertTrue(repository.remove(claim));
+        assertFalse(Files.exists(coldTierPath));
+    }
+
+    @Test
+    public void testColdTierForUnknownContainer() {
+        assertThrows(RuntimeException.class, () -> recreateRepositoryWithPropertyOverrides(Map.of(NiFiProperties.CONTENT_COLD_TIER_DIRECTORY_PREFIX + "unknown",
+            "target/content_repository_cold")));
+    }
+
     @Test
     public void testRemoveWhileWritingToClaim() throws IOException {
         final ContentClaim claim = repository.create(false);
@@ -76,7 +76,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 
@@ -613,12 +613,25 @@ public class TestWriteAheadFlowFileRepository {
 
     @Test
     public void testRestartWithOneRecord() throws IOException {
+        verifyRestartWithOneRecord(niFiProperties);
+    }
+
+    @Test
+    public void testRestartWithOneRecordUsingPartitionedWriteAheadLog() throws IOException {
+        final NiFiProperties partitionedProperties = NiFiProperties.createBasicNiFiProperties(TestWriteAheadFlowFileRepository.class.getResource("/conf/nifi.properties").getFile(),
+            Map.of(NiFiProperties.FLOWFILE_REPOSITORY_WAL_IMPLEMENTATION, WriteAheadFlowFileRepository.PARTITIONED_SEQUENTIAL_ACCESS_WAL,
+                "nifi.flowfile.repository.wal.partitions", "3"));
+
+        verifyRestartWithOneRecord(partitionedProperties);
+    }
+
+    private void verifyRestartWithOneRecord(final NiFiProperties properties) throws IOException {
         final Path path = Paths.get("target/test-repo");
         if (Files.exists(path)) {
             FileUtils.deleteFile(path.toFile(), true);
         }
 
-        final WriteAheadFlowFileRepository repo = new WriteAheadFlowFileRepository(niFiProperties);
+        final WriteAheadFlowFileRepository repo = new WriteAheadFlowFileRepository(properties);
         repo.initialize(new StandardResourceClaimManager());
 
         final TestQueueProvider queueProvider = new TestQueueProvider();
@@ -632,9 +645,9 @@ public class TestWriteAheadFlowFileRepository {
         final FlowFileQueue queue = Mockito.mock(FlowFileQueue.class);
         when(queue.getIdentifier()).thenReturn("1234");
         doAnswer((Answer<Object>) invocation -> {
-            flowFileCollection.add((FlowFileRecord) invocation.getArguments()[0]);
+            flowFileCollection.addAll(invocation.getArgument(0));
             return null;
-        }).when(queue).put(any(FlowFileRecord.class));
+        }).when(queue).putAll(anyCollection());
 
         when(connection.getFlowFileQueue()).thenReturn(queue);
 
@@ -669,7 +682,7 @@ public class TestWriteAheadFlowFileRepository {
         repo.close();
 
         // restore
-        final WriteAheadFlowFileRepository repo2 = new WriteAheadFlowFileRepository(niFiProperties);
+        final WriteAheadFlowFileRepository repo2 = new WriteAheadFlowFileRepository(properties);
         repo2.initialize(new StandardResourceClaimManager());
         repo2.loadFlowFiles(queueProvider);
 
@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+import org.apache.nifi.components.state.StateManagerProvider;
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.connectable.Connection;
+import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.ProcessorNode;
+import org.apache.nifi.controller.ScheduledState;
+import org.apache.nifi.controller.Triggerable;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.status.FlowFileAvailability;
+import org.apache.nifi.engine.FlowEngine;
+import org.apache.nifi.groups.ProcessGroup;
+import org.apache.nifi.nar.ExtensionManager;
+import org.apache.nifi.processor.ProcessContext;
+import org.apache.nifi.processor.ProcessSessionFactory;
+import org.apache.nifi.processor.Processor;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TestTimerDrivenSchedulingAgent {
+
+    @Test
+    public void testVirtualThreadsDisabledByDefault() {
+        final TimerDrivenSchedulingAgent agent = createAgent(Collections.emptyMap(), mock(FlowEngine.class));
+        assertFalse(agent.isTriggeredOnVirtualThreads(mock(Connectable.class)));
+    }
+
+    @Test
+    public void testVirtualThreadsForAllComponents() {
+        final TimerDrivenSchedulingAgent agent = createAgent(Map.of(NiFiProperties.TIMER_DRIVEN_VIRTUAL_THREADS_ENABLED, "true"), mock(FlowEngine.class));
+        try {
+            assertTrue(agent.isTriggeredOnVirtualThreads(mock(Connectable.class)));
+        } finally {
+            agent.shutdown();
+        }
+    }
+
+    @Test
+    public void testVirtualThreadsForConfiguredComponentTypes() {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put(NiFiProperties.TIMER_DRIVEN_VIRTUAL_THREADS_ENABLED, "true");
+        properties.put(NiFiProperties.TIMER_DRIVEN_VIRTUAL_THREADS_COMPONENT_TYPES, "InvokeHTTP, org.apache.nifi.processors.aws.s3.PutS3Object");
+        final TimerDrivenSchedulingAgent agent = createAgent(properties, mock(FlowEngine.class));
+
+        try {
+            assertTrue(agent.isTriggeredOnVirtualThreads(createProcessor("InvokeHTTP", "org.apache.nifi.processors.standard.InvokeHTTP")));
+            assertTrue(agent.isTriggeredOnVirtualThreads(createProcessor("PutS3Object", "org.apache.nifi.processors.aws.s3.PutS3Object")));
+            assertFalse(agent.isTriggeredOnVirtualThreads(createProcessor("UpdateAttribute", "org.apache.nifi.processors.attributes.UpdateAttribute")));
+        } finally {
+            agent.shutdown();
+        }
+    }
+
+    @Test
+    public void testScheduleOnVirtualThreadsCreatesOneTriggerPerConcurrentTask() {
+        final FlowEngine flowEngine = mock(FlowEngine.class);
+        final List<ScheduledFuture<?>> scheduledFutures = new ArrayList<>();
+        when(flowEngine.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class))).thenAnswer(invocation -> {
+            final ScheduledFuture<?> future = mock(ScheduledFuture.class);
+            scheduledFutures.add(future);
+            return future;
+        });
+
+        final TimerDrivenSchedulingAgent agent = createAgent(Map.of(NiFiProperties.TIMER_DRIVEN_VIRTUAL_THREADS_ENABLED, "true"), flowEngine);
+        try {
+            final Connectable connectable = mock(Connectable.class);
+            when(connectable.getIdentifier()).thenReturn("component-1");
+            when(connectable.getRelationships()).thenReturn(Collections.emptySet());
+            when(connectable.getMaxConcurrentTasks()).thenReturn(3);
+
+            final LifecycleState lifecycleState = new LifecycleState("component-1");
+            agent.schedule(connectable, lifecycleState);
+
+            verify(flowEngine, times(3)).schedule(any(Runnable.class), eq(0L), eq(TimeUnit.NANOSECONDS));
+            verify(flowEngine, times(0)).scheduleWithFixedDelay(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+            assertEquals(3, scheduledFutures.size());
+            assertEquals(Set.copyOf(scheduledFutures), lifecycleState.getFutures());
+
+            agent.unschedule(connectable, lifecycleState);
+            for (final ScheduledFuture<?> future : scheduledFutures) {
+                verify(future).cancel(false);
+            }
+        } finally {
+            agent.shutdown();
+        }
+    }
+
+    @Test
+    @Timeout(30)
+    public void testBoredComponentWokenWhenWorkAvailable() throws InterruptedException {
+        verifyBoredComponentWokenWhenWorkAvailable(Collections.emptyMap());
+    }
+
+    @Test
+    @Timeout(30)
+    public void testBoredComponentOnVirtualThreadsWokenWhenWorkAvailable() throws InterruptedException {
+        verifyBoredComponentWokenWhenWorkAvailable(Map.of(NiFiProperties.TIMER_DRIVEN_VIRTUAL_THREADS_ENABLED, "true"));
+    }
+
+    private void verifyBoredComponentWokenWhenWorkAvailable(final Map<String, String> additionalProperties) throws InterruptedException {
+        final Map<String, String> properties = new HashMap<>(additionalProperties);
+        properties.put(NiFiProperties.BORED_YIELD_DURATION, "1 hour");
+
+        final FlowEngine flowEngine = new FlowEngine(1, "Unit Test", true);
+        final TimerDrivenSchedulingAgent agent = createAgent(properties, flowEngine);
+        try {
+            // The component always has an incoming connection with nothing queued, so every invocation finds no work to do
+            final AtomicInteger invocations = new AtomicInteger();
+            final Connectable connectable = mock(Connectable.class);
+            when(connectable.getIdentifier()).thenReturn("component-1");
+            when(connectable.getRelationships()).thenReturn(Collections.emptySet());
+            when(connectable.getMaxConcurrentTasks()).thenReturn(1);
+            when(connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS)).thenReturn(1L);
+            when(connectable.hasIncomingConnection()).thenReturn(true);
+            when(connectable.isTriggerWhenEmpty()).thenAnswer(invocation -> {
+                invocations.incrementAndGet();
+                return false;
+            });
+
+            final FlowFileQueue flowFileQueue = mock(FlowFileQueue.class);
+            when(flowFileQueue.getFlowFileAvailability()).thenReturn(FlowFileAvailability.ACTIVE_QUEUE_EMPTY);
+            final Connection connection = mock(Connection.class);
+            when(connection.getSource()).thenReturn(mock(Connectable.class));
+            when(connection.getFlowFileQueue()).thenReturn(flowFileQueue);
+            when(connectable.getIncomingConnections()).thenReturn(List.of(connection));
+
+            final LifecycleState lifecycleState = new LifecycleState("component-1");
+            agent.schedule(connectable, lifecycleState);
+            waitForInvocations(invocations, 1);
+
+            // Waking the component triggers it again rather than waiting out the bored yield duration
+            Thread.sleep(100L);
+            assertEquals(1, invocations.get());
+            agent.onEvent(connectable);
+            waitForInvocations(invocations, 2);
+
+            agent.unschedule(connectable, lifecycleState);
+            agent.onEvent(connectable);
+            Thread.sleep(100L);
+            assertEquals(2, invocations.get());
+        } finally {
+            agent.shutdown();
+        }
+    }
+
+    @Test
+    public void testDownstreamProcessorTriggeredOnSameThread() throws Exception {
+        verifyChainedProcessorTriggered(Map.of(NiFiProperties.TIMER_DRIVEN_RUN_TO_COMPLETION_MAX_CHAIN_LENGTH, "1"), Triggerable.MINIMUM_SCHEDULING_NANOS, true);
+    }
+
+    @Test
+    public void testDownstreamProcessorNotTriggeredOnSameThreadByDefault() throws Exception {
+        verifyChainedProcessorTriggered(Collections.emptyMap(), Triggerable.MINIMUM_SCHEDULING_NANOS, false);
+    }
+
+    @Test
+    public void testDownstreamProcessorWithRunScheduleNotTriggeredOnSameThread() throws Exception {
+        verifyChainedProcessorTriggered(Map.of(NiFiProperties.TIMER_DRIVEN_RUN_TO_COMPLETION_MAX_CHAIN_LENGTH, "1"), TimeUnit.SECONDS.toNanos(1), false);
+    }
+
+    private void verifyChainedProcessorTriggered(final Map<String, String> properties, final long downstreamSchedulingNanos, final boolean chainingExpected) throws Exception {
+        final FlowEngine flowEngine = mock(FlowEngine.class);
+        final TimerDrivenSchedulingAgent agent = createAgent(properties, flowEngine);
+
+        final ProcessGroup processGroup = mock(ProcessGroup.class);
+        final ProcessorNode upstream = createSchedulableProcessor("upstream", processGroup);
+        final ProcessorNode downstream = createSchedulableProcessor("downstream", processGroup);
+        when(downstream.getSchedulingPeriod(TimeUnit.NANOSECONDS)).thenReturn(downstreamSchedulingNanos);
+
+        final FlowFileQueue flowFileQueue = mock(FlowFileQueue.class);
+        when(flowFileQueue.getFlowFileAvailability()).thenReturn(FlowFileAvailability.FLOWFILE_AVAILABLE);
+        when(flowFileQueue.isActiveQueueEmpty()).thenReturn(false);
+        final Connection connection = mock(Connection.class);
+        when(connection.getSource()).thenReturn(upstream);
+        when(connection.getDestination()).thenReturn(downstream);
+        when(connection.getFlowFileQueue()).thenReturn(flowFileQueue);
+
+        when(upstream.getConnections()).thenReturn(Set.of(connection));
+        when(downstream.hasIncomingConnection()).thenReturn(true);
+        when(downstream.getIncomingConnections()).thenReturn(List.of(connection));
+
+        agent.schedule(downstream, new LifecycleState("downstream"));
+        agent.schedule(upstream, new LifecycleState("upstream"));
+
+        // Run the upstream Processor's task; the downstream Processor's own task is never run
+        final ArgumentCaptor<Runnable> triggerCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(flowEngine, times(2)).scheduleWithFixedDelay(triggerCaptor.capture(), anyLong(), anyLong(), any(TimeUnit.class));
+        triggerCaptor.getAllValues().get(1).run();
+
+        verify(upstream).onTrigger(any(ProcessContext.class), any(ProcessSessionFactory.class));
+        if (chainingExpected) {
+            verify(downstream).onTrigger(any(ProcessContext.class), any(ProcessSessionFactory.class));
+        } else {
+            verify(downstream, never()).onTrigger(any(ProcessContext.class), any(ProcessSessionFactory.class));
+        }
+    }
+
+    private ProcessorNode createSchedulableProcessor(final String identifier, final ProcessGroup processGroup) {
+        final ProcessorNode processorNode = mock(ProcessorNode.class);
+        when(processorNode.getIdentifier()).thenReturn(identifier);
+        when(processorNode.getRelationships()).thenReturn(Collections.emptySet());
+        when(processorNode.getMaxConcurrentTasks()).thenReturn(1);
+        when(processorNode.getSchedulingPeriod(TimeUnit.NANOSECONDS)).thenReturn(1L);
+        when(processorNode.getScheduledState()).thenReturn(ScheduledState.RUNNING);
+        when(processorNode.getProcessGroup()).thenReturn(processGroup);
+        when(processorNode.getRunnableComponent()).thenReturn(mock(Processor.class));
+        return processorNode;
+    }
+
+    private void waitForInvocations(final AtomicInteger invocations, final int expected) throws InterruptedException {
+        while (invocations.get() < expected) {
+            Thread.sleep(10L);
+        }
+    }
+
+    private ProcessorNode createProcessor(final String componentType, final String className) {
+        final ProcessorNode processorNode = mock(ProcessorNode.class);
+        when(processorNode.getComponentType()).thenReturn(componentType);
+        when(processorNode.getCanonicalClassName()).thenReturn(className);
+        return processorNode;
+    }
+
+    private TimerDrivenSchedulingAgent createAgent(final Map<String, String> properties, final FlowEngine flowEngine) {
+        final FlowController flowController = mock(FlowController.class);
+        when(flowController.getStateManagerProvider()).thenReturn(mock(StateManagerProvider.class));
+        when(flowController.getExtensionManager()).thenReturn(mock(ExtensionManager.class));
+        final RepositoryContextFactory contextFactory = mock(RepositoryContextFactory.class, RETURNS_DEEP_STUBS);
+        final NiFiProperties nifiProperties = NiFiProperties.createBasicNiFiProperties(null, properties);
+        return new TimerDrivenSchedulingAgent(flowController, flowEngine, contextFactory, nifiProperties);
+    }
+}
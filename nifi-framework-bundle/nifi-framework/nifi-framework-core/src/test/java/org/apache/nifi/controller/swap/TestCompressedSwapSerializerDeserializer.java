@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.swap;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.SwapContents;
+import org.apache.nifi.controller.repository.SwapSummary;
+import org.apache.nifi.controller.repository.ZstdContentCompressionCodec;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.flowfile.FlowFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class TestCompressedSwapSerializerDeserializer {
+    private static final String SWAP_LOCATION = "target/testCompressed.swap";
+
+    private ResourceClaimManager resourceClaimManager;
+    private FlowFileQueue flowFileQueue;
+
+    @BeforeEach
+    public void setup() {
+        MockFlowFile.resetIdGenerator();
+        resourceClaimManager = new StandardResourceClaimManager();
+        flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        Mockito.when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+    }
+
+    @Test
+    public void testRoundTripSerializeDeserializeSummary() throws IOException {
+        final ContentClaim sharedClaim = MockFlowFile.createContentClaim("shared", resourceClaimManager);
+        final List<FlowFileRecord> toSwap = createFlowFiles(10000, sharedClaim);
+        final byte[] serialized = serialize(new CompressedSwapSerializer(), toSwap);
+
+        final SwapSummary swapSummary;
+        try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(serialized))) {
+            swapSummary = new CompressedSwapDeserializer().getSwapSummary(in, SWAP_LOCATION, resourceClaimManager);
+        }
+
+        assertEquals(10000, swapSummary.getQueueSize().getObjectCount());
+        assertEquals(toSwap.stream().mapToLong(FlowFile::getSize).sum(), swapSummary.getQueueSize().getByteCount());
+        assertEquals(9999, swapSummary.getMaxFlowFileId().intValue());
+        assertEquals((Long) toSwap.stream().mapToLong(FlowFile::getLastQueueDate).sum(), swapSummary.getTotalLastQueueDate());
+        assertEquals((Long) toSwap.stream().mapToLong(FlowFile::getLastQueueDate).min().getAsLong(), swapSummary.getMinLastQueueDate());
+
+        final List<ResourceClaim> resourceClaims = swapSummary.getResourceClaims();
+        assertFalse(resourceClaims.stream().anyMatch(claim -> claim == null));
+        assertEquals(5001, new HashSet<>(resourceClaims).size());
+    }
+
+    @Test
+    public void testRoundTripSerializeDeserializeFullSwapFile() throws IOException {
+        final ContentClaim sharedClaim = MockFlowFile.createContentClaim("shared", resourceClaimManager);
+        final List<FlowFileRecord> toSwap = createFlowFiles(10000, sharedClaim);
+
+        verifyRoundTrip(toSwap, serialize(new CompressedSwapSerializer(), toSwap));
+        verifyRoundTrip(toSwap, serialize(new CompressedSwapSerializer(SwapEncoding.CODEC_NONE), toSwap));
+    }
+
+    @Test
+    public void testRoundTripZstdCompressed() throws IOException {
+        assumeTrue(ZstdContentCompressionCodec.isAvailable(), "Zstandard native library is not available");
+        assertEquals(SwapEncoding.CODEC_ZSTD, SwapEncoding.getPreferredCodec());
+
+        final ContentClaim sharedClaim = MockFlowFile.createContentClaim("shared", resourceClaimManager);
+        final List<FlowFileRecord> toSwap = createFlowFiles(10000, sharedClaim);
+
+        final byte[] compressed = serialize(new CompressedSwapSerializer(SwapEncoding.CODEC_ZSTD), toSwap);
+        final byte[] uncompressed = serialize(new CompressedSwapSerializer(SwapEncoding.CODEC_NONE), toSwap);
+        assertTrue(compressed.length < uncompressed.length,
+            "Zstandard swap file was " + compressed.length + " bytes but uncompressed swap file was " + uncompressed.length + " bytes");
+        verifyRoundTrip(toSwap, compressed);
+    }
+
+    @Test
+    public void testCompressedFileSmallerThanSchemaFile() throws IOException {
+        final ContentClaim sharedClaim = MockFlowFile.createContentClaim("shared", resourceClaimManager);
+        final List<FlowFileRecord> toSwap = createFlowFiles(10000, sharedClaim);
+
+        final byte[] schemaSerialized = serialize(new SchemaSwapSerializer(), toSwap);
+        final byte[] compressedSerialized = serialize(new CompressedSwapSerializer(), toSwap);
+        assertTrue(compressedSerialized.length < schemaSerialized.length,
+            "Compressed swap file was " + compressedSerialized.length + " bytes but Schema swap file was " + schemaSerialized.length + " bytes");
+    }
+
+    private List<FlowFileRecord> createFlowFiles(final int count, final ContentClaim sharedClaim) {
+        final List<FlowFileRecord> flowFiles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final Map<String, String> attributes = new HashMap<>();
+            attributes.put("i", String.valueOf(i));
+            attributes.put("path", "./");
+            attributes.put("group", "group-" + (i % 10));
+
+            final FlowFileRecord flowFile;
+            if (i % 2 == 0) {
+                flowFile = new MockFlowFile(attributes, i, resourceClaimManager);
+            } else if (i % 1000 == 1) {
+                flowFile = new MockFlowFile(attributes, i, (ContentClaim) null);
+            } else {
+                flowFile = new MockFlowFile(attributes, i, sharedClaim);
+            }
+            flowFiles.add(flowFile);
+        }
+        return flowFiles;
+    }
+
+    private byte[] serialize(final SwapSerializer serializer, final List<FlowFileRecord> toSwap) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        serializer.serializeFlowFiles(toSwap, flowFileQueue, SWAP_LOCATION, baos);
+        return baos.toByteArray();
+    }
+
+    private void verifyRoundTrip(final List<FlowFileRecord> expected, final byte[] serialized) throws IOException {
+        final SwapContents contents;
+        try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(serialized))) {
+            contents = new CompressedSwapDeserializer().deserializeFlowFiles(in, SWAP_LOCATION, flowFileQueue, resourceClaimManager);
+        }
+
+        final List<FlowFileRecord> flowFiles = contents.getFlowFiles();
+        assertEquals(expected.size(), flowFiles.size());
+        assertEquals(expected.size(), contents.getSummary().getQueueSize().getObjectCount());
+
+        ResourceClaim sharedResourceClaim = null;
+        for (int i = 0; i < expected.size(); i++) {
+            final FlowFileRecord original = expected.get(i);
+            final FlowFileRecord restored = flowFiles.get(i);
+
+            assertEquals(original.getId(), restored.getId());
+            assertEquals(original.getSize(), restored.getSize());
+            assertEquals(original.getEntryDate(), restored.getEntryDate());
+            assertEquals(original.getLineageStartDate(), restored.getLineageStartDate());
+            assertEquals(original.getLastQueueDate(), restored.getLastQueueDate());
+            assertEquals(original.getAttributes(), restored.getAttributes());
+
+            final ContentClaim originalClaim = original.getContentClaim();
+            final ContentClaim restoredClaim = restored.getContentClaim();
+            if (originalClaim == null) {
+                assertNull(restoredClaim);
+                continue;
+            }
+
+            assertEquals(original.getContentClaimOffset(), restored.getContentClaimOffset());
+            assertEquals(originalClaim.getOffset(), restoredClaim.getOffset());
+            assertEquals(originalClaim.getLength(), restoredClaim.getLength());
+            assertEquals(originalClaim.getResourceClaim(), restoredClaim.getResourceClaim());
+
+            if (originalClaim.getResourceClaim().getId().equals("shared")) {
+                if (sharedResourceClaim == null) {
+                    sharedResourceClaim = restoredClaim.getResourceClaim();
+                }
+                assertSame(sharedResourceClaim, restoredClaim.getResourceClaim());
+            }
+        }
+    }
+}
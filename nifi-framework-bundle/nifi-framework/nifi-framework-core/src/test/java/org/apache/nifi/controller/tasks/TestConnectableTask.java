@@ -24,6 +24,7 @@ import org.apache.nifi.connectable.Connection;
 import org.apache.nifi.connectable.Funnel;
 import org.apache.nifi.controller.FlowController;
 import org.apache.nifi.controller.ProcessorNode;
+import org.apache.nifi.controller.ScheduledState;
 import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.repository.FlowFileEventRepository;
 import org.apache.nifi.controller.repository.RepositoryContext;
@@ -32,6 +33,7 @@ import org.apache.nifi.controller.scheduling.LifecycleState;
 import org.apache.nifi.controller.scheduling.RepositoryContextFactory;
 import org.apache.nifi.controller.scheduling.SchedulingAgent;
 import org.apache.nifi.controller.status.FlowFileAvailability;
+import org.apache.nifi.nar.ExtensionManager;
 import org.apache.nifi.processor.Processor;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -42,6 +44,7 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
@@ -50,8 +53,13 @@ public class TestConnectableTask {
 
 
     private ConnectableTask createTask(final Connectable connectable) {
+        return createTask(connectable, new LifecycleState(connectable.getIdentifier()), false);
+    }
+
+    private ConnectableTask createTask(final Connectable connectable, final LifecycleState scheduleState, final boolean limitActiveThreads) {
         final FlowController flowController = Mockito.mock(FlowController.class);
         Mockito.when(flowController.getStateManagerProvider()).thenReturn(Mockito.mock(StateManagerProvider.class));
+        Mockito.when(flowController.getExtensionManager()).thenReturn(Mockito.mock(ExtensionManager.class));
 
         final RepositoryContext repoContext = Mockito.mock(StandardRepositoryContext.class);
         Mockito.when(repoContext.getFlowFileEventRepository()).thenReturn(Mockito.mock(FlowFileEventRepository.class));
@@ -59,10 +67,31 @@ public class TestConnectableTask {
         final RepositoryContextFactory contextFactory = Mockito.mock(RepositoryContextFactory.class);
         Mockito.when(contextFactory.newProcessContext(Mockito.any(Connectable.class), Mockito.any(AtomicLong.class))).thenReturn(repoContext);
 
-        final LifecycleState scheduleState = new LifecycleState(connectable.getIdentifier());
-
         return new ConnectableTask(Mockito.mock(SchedulingAgent.class), connectable,
-                flowController, contextFactory, scheduleState);
+                flowController, contextFactory, scheduleState, limitActiveThreads);
+    }
+
+    @Test
+    public void testLimitActiveThreads() {
+        final ProcessorNode procNode = Mockito.mock(ProcessorNode.class);
+        Mockito.when(procNode.getIdentifier()).thenReturn("123");
+        Mockito.when(procNode.getRunnableComponent()).thenReturn(Mockito.mock(Processor.class));
+        Mockito.when(procNode.getScheduledState()).thenReturn(ScheduledState.RUNNING);
+        Mockito.when(procNode.getMaxConcurrentTasks()).thenReturn(1);
+
+        final LifecycleState scheduleState = new LifecycleState("123");
+        scheduleState.setScheduled(true);
+        final ConnectableTask task = createTask(procNode, scheduleState, true);
+
+        // The only concurrent task is already active, so the Processor must not be triggered again
+        scheduleState.incrementActiveThreadCount(null);
+        assertFalse(task.invoke().isYield());
+        Mockito.verify(procNode, Mockito.never()).onTrigger(Mockito.any(), Mockito.any());
+
+        scheduleState.decrementActiveThreadCount();
+        assertFalse(task.invoke().isYield());
+        Mockito.verify(procNode).onTrigger(Mockito.any(), Mockito.any());
+        assertEquals(0, scheduleState.getActiveThreadCount());
     }
 
     @Test
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>
+ * Assigns a small integer identifier to each distinct FlowFile attribute key so that the key can be stored as that identifier
+ * rather than as a String in each {@link CompactFlowFileRecord}. The number of keys that may be registered is bounded so that
+ * flows that generate an unbounded number of distinct attribute keys cannot exhaust the heap. Once the dictionary is full,
+ * unregistered keys are stored inline by the records that use them.
+ * </p>
+ *
+ * <b>Thread Safe</b>
+ */
+final class AttributeKeyDictionary {
+    static final int NOT_REGISTERED = -1;
+    private static final int MAX_KEYS = 16_384;
+    private static final AttributeKeyDictionary INSTANCE = new AttributeKeyDictionary(MAX_KEYS);
+
+    private final ConcurrentMap<String, Integer> identifiers = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<String> keys;
+    private int registeredCount = 0; // guarded by synchronizing on this
+
+    AttributeKeyDictionary(final int maxKeys) {
+        this.keys = new AtomicReferenceArray<>(maxKeys);
+    }
+
+    static AttributeKeyDictionary getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the identifier of the given key, registering the key if it has not yet been registered
+     *
+     * @param key the attribute key
+     * @return the identifier of the key, or {@link #NOT_REGISTERED} if the dictionary is full and the key was not already registered
+     */
+    int register(final String key) {
+        final Integer existing = identifiers.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        synchronized (this) {
+            final Integer registered = identifiers.get(key);
+            if (registered != null) {
+                return registered;
+            }
+
+            if (registeredCount >= keys.length()) {
+                return NOT_REGISTERED;
+            }
+
+            final int identifier = registeredCount++;
+            keys.set(identifier, key);
+            identifiers.put(key, identifier);
+            return identifier;
+        }
+    }
+
+    /**
+     * @param key the attribute key
+     * @return the identifier of the key, or {@link #NOT_REGISTERED} if the key has not been registered
+     */
+    int getIdentifier(final String key) {
+        final Integer identifier = identifiers.get(key);
+        return identifier == null ? NOT_REGISTERED : identifier;
+    }
+
+    /**
+     * @param identifier the identifier of a registered key
+     * @return the key with the given identifier
+     */
+    String getKey(final int identifier) {
+        return keys.get(identifier);
+    }
+}
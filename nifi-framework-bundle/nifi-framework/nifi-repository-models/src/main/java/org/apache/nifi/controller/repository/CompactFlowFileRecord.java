@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.commons.lang3.builder.CompareToBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * A FlowFileRecord that holds its attributes in a single byte array rather than in a Map of Strings. Attribute keys are stored
+ * as identifiers assigned by a shared {@link AttributeKeyDictionary} and attribute values are stored as UTF-8 bytes. Attributes
+ * are decoded only when they are requested. This significantly reduces the amount of heap that is required to hold a FlowFile
+ * that is sitting in a queue, at the cost of decoding its attributes each time that they are accessed.
+ * </p>
+ *
+ * <b>Immutable - Thread Safe</b>
+ */
+public final class CompactFlowFileRecord implements FlowFile, FlowFileRecord {
+    private static final int INLINE_KEY = 0;
+
+    private final long id;
+    private final long entryDate;
+    private final long lineageStartDate;
+    private final long lineageStartIndex;
+    private final long size;
+    private final long penaltyExpirationMs;
+    private final byte[] encodedAttributes;
+    private final ContentClaim claim;
+    private final long claimOffset;
+    private final long lastQueueDate;
+    private final long queueDateIndex;
+
+    private CompactFlowFileRecord(final FlowFileRecord flowFile, final byte[] encodedAttributes) {
+        this.id = flowFile.getId();
+        this.entryDate = flowFile.getEntryDate();
+        this.lineageStartDate = flowFile.getLineageStartDate();
+        this.lineageStartIndex = flowFile.getLineageStartIndex();
+        this.size = flowFile.getSize();
+        this.penaltyExpirationMs = flowFile.getPenaltyExpirationMillis();
+        this.encodedAttributes = encodedAttributes;
+        this.claim = flowFile.getContentClaim();
+        this.claimOffset = flowFile.getContentClaimOffset();
+        this.lastQueueDate = flowFile.getLastQueueDate();
+        this.queueDateIndex = flowFile.getQueueDateIndex();
+    }
+
+    /**
+     * Creates a compact representation of the given FlowFile. If the given FlowFile is already compact, it is returned as-is.
+     *
+     * @param flowFile the FlowFile to compact
+     * @return a compact representation of the FlowFile
+     */
+    public static CompactFlowFileRecord fromFlowFile(final FlowFileRecord flowFile) {
+        if (flowFile instanceof CompactFlowFileRecord compact) {
+            return compact;
+        }
+
+        return new CompactFlowFileRecord(flowFile, encode(flowFile.getAttributes(), AttributeKeyDictionary.getInstance()));
+    }
+
+    static byte[] encode(final Map<String, String> attributes, final AttributeKeyDictionary dictionary) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(attributes.size() * 24);
+        writeVarInt(attributes.size(), out);
+
+        for (final Map.Entry<String, String> entry : attributes.entrySet()) {
+            final int keyIdentifier = dictionary.register(entry.getKey());
+            if (keyIdentifier == AttributeKeyDictionary.NOT_REGISTERED) {
+                writeVarInt(INLINE_KEY, out);
+                writeString(entry.getKey(), out);
+            } else {
+                writeVarInt(keyIdentifier + 1, out);
+            }
+
+            writeString(entry.getValue(), out);
+        }
+
+        return out.toByteArray();
+    }
+
+    static String decodeAttribute(final byte[] encoded, final String key, final AttributeKeyDictionary dictionary) {
+        final int keyIdentifier = dictionary.getIdentifier(key);
+        final byte[] keyBytes = keyIdentifier == AttributeKeyDictionary.NOT_REGISTERED ? key.getBytes(StandardCharsets.UTF_8) : null;
+
+        final int[] position = {0};
+        final int attributeCount = readVarInt(encoded, position);
+        for (int i = 0; i < attributeCount; i++) {
+            final int keyReference = readVarInt(encoded, position);
+
+            final boolean matches;
+            if (keyReference == INLINE_KEY) {
+                final int keyLength = readVarInt(encoded, position);
+                matches = keyBytes != null && keyLength == keyBytes.length && regionEquals(encoded, position[0], keyBytes);
+                position[0] += keyLength;
+            } else {
+                matches = keyReference - 1 == keyIdentifier;
+            }
+
+            final int valueLength = readVarInt(encoded, position);
+            if (matches) {
+                return new String(encoded, position[0], valueLength, StandardCharsets.UTF_8);
+            }
+
+            position[0] += valueLength;
+        }
+
+        return null;
+    }
+
+    static Map<String, String> decodeAttributes(final byte[] encoded, final AttributeKeyDictionary dictionary) {
+        final int[] position = {0};
+        final int attributeCount = readVarInt(encoded, position);
+        final Map<String, String> attributes = new HashMap<>(attributeCount * 4 / 3 + 1);
+        for (int i = 0; i < attributeCount; i++) {
+            final int keyReference = readVarInt(encoded, position);
+            final String key = keyReference == INLINE_KEY ? readString(encoded, position) : dictionary.getKey(keyReference - 1);
+            attributes.put(key, readString(encoded, position));
+        }
+
+        return attributes;
+    }
+
+    static Map<String, String> decodeAttributes(final CompactFlowFileRecord flowFile) {
+        return decodeAttributes(flowFile.encodedAttributes, AttributeKeyDictionary.getInstance());
+    }
+
+    private static boolean regionEquals(final byte[] encoded, final int offset, final byte[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (encoded[offset + i] != expected[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static void writeString(final String value, final ByteArrayOutputStream out) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length, out);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(final byte[] encoded, final int[] position) {
+        final int length = readVarInt(encoded, position);
+        final String value = new String(encoded, position[0], length, StandardCharsets.UTF_8);
+        position[0] += length;
+        return value;
+    }
+
+    private static void writeVarInt(final int value, final ByteArrayOutputStream out) {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.write((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+
+        out.write(remaining);
+    }
+
+    private static int readVarInt(final byte[] encoded, final int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = encoded[position[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        return value;
+    }
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public long getEntryDate() {
+        return entryDate;
+    }
+
+    @Override
+    public long getLineageStartDate() {
+        return lineageStartDate;
+    }
+
+    @Override
+    public Long getLastQueueDate() {
+        return lastQueueDate;
+    }
+
+    @Override
+    public boolean isPenalized() {
+        return penaltyExpirationMs > 0 && penaltyExpirationMs > System.currentTimeMillis();
+    }
+
+    @Override
+    public String getAttribute(final String key) {
+        if (key == null) {
+            return null;
+        }
+
+        return decodeAttribute(encodedAttributes, key, AttributeKeyDictionary.getInstance());
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public Map<String, String> getAttributes() {
+        return Collections.unmodifiableMap(decodeAttributes(encodedAttributes, AttributeKeyDictionary.getInstance()));
+    }
+
+    @Override
+    public ContentClaim getContentClaim() {
+        return claim;
+    }
+
+    @Override
+    public long getContentClaimOffset() {
+        return claimOffset;
+    }
+
+    @Override
+    public long getLineageStartIndex() {
+        return lineageStartIndex;
+    }
+
+    @Override
+    public long getQueueDateIndex() {
+        return queueDateIndex;
+    }
+
+    @Override
+    public long getPenaltyExpirationMillis() {
+        return penaltyExpirationMs;
+    }
+
+    /**
+     * @return the number of bytes that are used to hold the encoded attributes of this FlowFile
+     */
+    public int getEncodedAttributesLength() {
+        return encodedAttributes.length;
+    }
+
+    @Override
+    public int compareTo(final FlowFile other) {
+        return new CompareToBuilder().append(id, other.getId()).toComparison();
+    }
+
+    /**
+     * A CompactFlowFileRecord is equal to any other FlowFileRecord with the same identifier, as it is a different representation of the same FlowFile.
+     */
+    @Override
+    public boolean equals(final Object other) {
+        if (other == null) {
+            return false;
+        }
+        if (this == other) {
+            return true;
+        }
+        // Must accept exactly the same types as StandardFlowFileRecord.equals() so that equality remains symmetric
+        if (!(other instanceof CompactFlowFileRecord) && !(other instanceof StandardFlowFileRecord)) {
+            return false;
+        }
+        final FlowFile otherRecord = (FlowFile) other;
+        return id == otherRecord.getId();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder(7, 13).append(id).toHashCode();
+    }
+
+    @Override
+    public String toString() {
+        final ToStringBuilder builder = new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE);
+        builder.append("uuid", getAttribute(CoreAttributes.UUID.key()));
+        builder.append("claim", claim == null ? "" : claim.toString());
+        builder.append("offset", claimOffset);
+        builder.append("name", getAttribute(CoreAttributes.FILENAME.key())).append("size", size);
+        return builder.toString();
+    }
+}
@@ -147,7 +147,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
         if (this == other) {
             return true;
         }
-        if (!(other instanceof StandardFlowFileRecord)) {
+        if (!(other instanceof StandardFlowFileRecord) && !(other instanceof CompactFlowFileRecord)) {
             return false;
         }
         final FlowFile otherRecord = (FlowFile) other;
@@ -326,8 +326,14 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
             // a Processor that continually calls session.append() for instance will have a FlowFile whose attributes
             // Map is wrapped thousands of times until it hits a StackOverflowError. We want the getter to return
             // UnmodifiableMap, though, so that Processors cannot directly modify that Map.
-            bAttributes = specFlowFile instanceof StandardFlowFileRecord ? ((StandardFlowFileRecord) specFlowFile).attributes : specFlowFile.getAttributes();
-            bAttributesCopied = false;
+            // A CompactFlowFileRecord decodes a new Map each time that its attributes are requested, so there is no need to copy it again.
+            if (specFlowFile instanceof CompactFlowFileRecord compactFlowFile) {
+                bAttributes = CompactFlowFileRecord.decodeAttributes(compactFlowFile);
+                bAttributesCopied = true;
+            } else {
+                bAttributes = specFlowFile instanceof StandardFlowFileRecord ? ((StandardFlowFileRecord) specFlowFile).attributes : specFlowFile.getAttributes();
+                bAttributesCopied = false;
+            }
             bClaim = specFlowFile.getContentClaim();
             bClaimOffset = specFlowFile.getContentClaimOffset();
             bLastQueueDate = specFlowFile.getLastQueueDate();
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.StandardContentClaim;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaim;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestCompactFlowFileRecord {
+
+    @Test
+    public void testFieldsAndAttributesRetained() {
+        final ContentClaim claim = new StandardContentClaim(new StandardResourceClaim(null, "container", "section", "1", false), 10L);
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("uuid", UUID.randomUUID().toString());
+        attributes.put("filename", "file.txt");
+        attributes.put("empty", "");
+        attributes.put("unicode", "é中文");
+
+        final FlowFileRecord original = new StandardFlowFileRecord.Builder()
+            .id(42L)
+            .entryDate(1000L)
+            .lineageStart(2000L, 3L)
+            .penaltyExpirationTime(4000L)
+            .size(500L)
+            .contentClaim(claim)
+            .contentClaimOffset(20L)
+            .lastQueued(5000L, 6L)
+            .addAttributes(attributes)
+            .build();
+
+        final CompactFlowFileRecord compact = CompactFlowFileRecord.fromFlowFile(original);
+        assertEquals(42L, compact.getId());
+        assertEquals(1000L, compact.getEntryDate());
+        assertEquals(2000L, compact.getLineageStartDate());
+        assertEquals(3L, compact.getLineageStartIndex());
+        assertEquals(4000L, compact.getPenaltyExpirationMillis());
+        assertEquals(500L, compact.getSize());
+        assertSame(claim, compact.getContentClaim());
+        assertEquals(20L, compact.getContentClaimOffset());
+        assertEquals(5000L, compact.getLastQueueDate());
+        assertEquals(6L, compact.getQueueDateIndex());
+
+        assertEquals(attributes, compact.getAttributes());
+        for (final Map.Entry<String, String> entry : attributes.entrySet()) {
+            assertEquals(entry.getValue(), compact.getAttribute(entry.getKey()));
+        }
+        assertNull(compact.getAttribute("missing"));
+
+        assertEquals(original, compact);
+        assertEquals(compact, original);
+        assertEquals(original.hashCode(), compact.hashCode());
+        assertSame(compact, CompactFlowFileRecord.fromFlowFile(compact));
+    }
+
+    @Test
+    public void testEqualitySymmetric() {
+        final FlowFileRecord original = new StandardFlowFileRecord.Builder().id(7L).build();
+        final FlowFileRecord compact = CompactFlowFileRecord.fromFlowFile(original);
+        final FlowFileRecord other = mock(FlowFileRecord.class);
+        when(other.getId()).thenReturn(7L);
+
+        assertEquals(original, compact);
+        assertEquals(compact, original);
+        assertEquals(original.hashCode(), compact.hashCode());
+        assertEquals(compact, CompactFlowFileRecord.fromFlowFile(original));
+
+        assertNotEquals(original, other);
+        assertNotEquals(compact, other);
+        assertNotEquals(compact, CompactFlowFileRecord.fromFlowFile(new StandardFlowFileRecord.Builder().id(8L).build()));
+    }
+
+    @Test
+    public void testBuilderFromCompactFlowFile() {
+        final FlowFileRecord original = new StandardFlowFileRecord.Builder()
+            .id(1L)
+            .addAttribute("abc", "xyz")
+            .build();
+
+        final FlowFileRecord updated = new StandardFlowFileRecord.Builder()
+            .fromFlowFile(CompactFlowFileRecord.fromFlowFile(original))
+            .addAttribute("hello", "world")
+            .build();
+
+        assertEquals("xyz", updated.getAttribute("abc"));
+        assertEquals("world", updated.getAttribute("hello"));
+        assertEquals(1L, updated.getId());
+    }
+
+    @Test
+    public void testKeysStoredInlineWhenDictionaryFull() {
+        final AttributeKeyDictionary dictionary = new AttributeKeyDictionary(2);
+        final Map<String, String> attributes = new HashMap<>();
+        for (int i = 0; i < 5; i++) {
+            attributes.put("key-" + i, "value-" + i);
+        }
+
+        final byte[] encoded = CompactFlowFileRecord.encode(attributes, dictionary);
+        assertEquals(attributes, CompactFlowFileRecord.decodeAttributes(encoded, dictionary));
+        for (final Map.Entry<String, String> entry : attributes.entrySet()) {
+            assertEquals(entry.getValue(), CompactFlowFileRecord.decodeAttribute(encoded, entry.getKey(), dictionary));
+        }
+        assertNull(CompactFlowFileRecord.decodeAttribute(encoded, "key-5", dictionary));
+    }
+
+    @Test
+    public void testEncodingSmallerThanValues() {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("path", "./");
+        attributes.put("filename", "data.json");
+
+        final byte[] encoded = CompactFlowFileRecord.encode(attributes, new AttributeKeyDictionary(16));
+        assertTrue(encoded.length < 20);
+    }
+}
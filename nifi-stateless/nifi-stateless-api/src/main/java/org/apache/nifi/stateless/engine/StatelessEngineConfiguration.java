@@ -58,6 +58,15 @@ public interface StatelessEngineConfiguration {
      */
     Optional<File> getContentRepositoryDirectory();
 
+    /**
+     * @return a String representing the maximum amount of memory outside of the Java heap to use for storing FlowFile Content (e.g., 512 MB), or <code>null</code>
+     * if content is not to be stored outside of the heap. Content that does not fit within this amount of memory is stored in the Content Repository Directory,
+     * or in a directory within the Working Directory if no Content Repository Directory is configured.
+     */
+    default String getContentRepositoryOffHeapSize() {
+        return null;
+    }
+
     /**
      * @return the definition needed to create an SSL Context that can be used for interacting with a Nexus Repository or retrieving a flow from the Flow Registry, etc.
      * This SSL Context will NOT be made available to extensions running in the dataflow.
@@ -55,6 +55,7 @@ import org.apache.nifi.nar.ExtensionDiscoveringManager;
 import org.apache.nifi.nar.NarClassLoaders;
 import org.apache.nifi.parameter.ParameterContextManager;
 import org.apache.nifi.parameter.StandardParameterContextManager;
+import org.apache.nifi.processor.DataUnit;
 import org.apache.nifi.provenance.IdentifierLookup;
 import org.apache.nifi.provenance.ProvenanceRepository;
 import org.apache.nifi.python.DisabledPythonBridge;
@@ -79,6 +80,7 @@ import org.apache.nifi.stateless.engine.StatelessNodeTypeProvider;
 import org.apache.nifi.stateless.engine.StatelessProcessContextFactory;
 import org.apache.nifi.stateless.engine.StatelessProvenanceAuthorizableFactory;
 import org.apache.nifi.stateless.repository.ByteArrayContentRepository;
+import org.apache.nifi.stateless.repository.OffHeapContentRepository;
 import org.apache.nifi.stateless.repository.RepositoryContextFactory;
 import org.apache.nifi.stateless.repository.StatelessFileSystemContentRepository;
 import org.apache.nifi.stateless.repository.StatelessFlowFileRepository;
@@ -337,6 +339,13 @@ public class StandardStatelessDataflowFactory implements StatelessDataflowFactor
 
     private ContentRepository createContentRepository(final StatelessEngineConfiguration engineConfiguration) {
         final Optional<File> contentRepoStorageDirectory = engineConfiguration.getContentRepositoryDirectory();
+        final String offHeapSize = engineConfiguration.getContentRepositoryOffHeapSize();
+        if (offHeapSize != null && !offHeapSize.isBlank()) {
+            final long maxOffHeapBytes = DataUnit.parseDataSize(offHeapSize.trim(), DataUnit.B).longValue();
+            final File overflowDirectory = contentRepoStorageDirectory.orElseGet(() -> new File(engineConfiguration.getWorkingDirectory(), "content_repository"));
+            return new OffHeapContentRepository(maxOffHeapBytes, new StatelessFileSystemContentRepository(overflowDirectory));
+        }
+
         if (contentRepoStorageDirectory.isPresent()) {
             return new StatelessFileSystemContentRepository(contentRepoStorageDirectory.get());
         } else {
@@ -0,0 +1,623 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.stateless.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.nifi.controller.repository.ContentRepository;
+import org.apache.nifi.controller.repository.ContentRepositoryContext;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.stream.io.StreamUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A Content Repository that stores content outside of the Java heap, in direct memory that is allocated in slabs and handed out in fixed-size blocks.
+ * Slabs are retained and their blocks reused once the repository is purged, so large transactions neither grow the heap nor cause repeated allocation.
+ * Content that does not fit within the configured amount of memory is written to an overflow Content Repository instead.
+ */
+public class OffHeapContentRepository implements ContentRepository {
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapContentRepository.class);
+    private static final String CONTAINER = "off-heap";
+    private static final String SECTION = "off-heap";
+
+    static final int BLOCK_SIZE = 16 * 1024;
+    static final int SLAB_SIZE = 1024 * 1024;
+    private static final int BLOCKS_PER_SLAB = SLAB_SIZE / BLOCK_SIZE;
+
+    private final ContentRepository overflowRepository;
+    private final int maxBlocks;
+    private final ByteBuffer[] slabs;
+    private final int[] freeBlocks;
+    private int freeBlockCount;
+    private int allocatedBlockCount;
+    private ResourceClaimManager resourceClaimManager;
+
+    /**
+     * @param maxOffHeapBytes the maximum number of bytes of direct memory to use for storing content
+     * @param overflowRepository the Content Repository to write content to once the direct memory has been used
+     */
+    public OffHeapContentRepository(final long maxOffHeapBytes, final ContentRepository overflowRepository) {
+        this.overflowRepository = Objects.requireNonNull(overflowRepository, "Overflow Content Repository required");
+        this.maxBlocks = (int) Math.min(maxOffHeapBytes / BLOCK_SIZE, Integer.MAX_VALUE - BLOCKS_PER_SLAB);
+        this.slabs = new ByteBuffer[(maxBlocks + BLOCKS_PER_SLAB - 1) / BLOCKS_PER_SLAB];
+        this.freeBlocks = new int[maxBlocks];
+    }
+
+    @Override
+    public void initialize(final ContentRepositoryContext context) throws IOException {
+        resourceClaimManager = context.getResourceClaimManager();
+        overflowRepository.initialize(context);
+        logger.info("Initialized Off-Heap Content Repository with capacity of {} bytes", (long) maxBlocks * BLOCK_SIZE);
+    }
+
+    @Override
+    public void shutdown() {
+        overflowRepository.shutdown();
+
+        // Release the slabs so that their memory can be reclaimed
+        synchronized (this) {
+            Arrays.fill(slabs, null);
+            freeBlockCount = 0;
+            allocatedBlockCount = 0;
+        }
+    }
+
+    @Override
+    public Set<String> getContainerNames() {
+        return Collections.singleton(CONTAINER);
+    }
+
+    @Override
+    public long getContainerCapacity(final String containerName) {
+        return (long) maxBlocks * BLOCK_SIZE;
+    }
+
+    @Override
+    public synchronized long getContainerUsableSpace(final String containerName) {
+        return (long) (maxBlocks - allocatedBlockCount + freeBlockCount) * BLOCK_SIZE;
+    }
+
+    @Override
+    public String getContainerFileStoreName(final String containerName) {
+        return CONTAINER;
+    }
+
+    /**
+     * @return the number of bytes of direct memory that have been allocated for slabs
+     */
+    public synchronized long getAllocatedSlabBytes() {
+        long allocated = 0L;
+        for (final ByteBuffer slab : slabs) {
+            if (slab != null) {
+                allocated += slab.capacity();
+            }
+        }
+
+        return allocated;
+    }
+
+    /**
+     * @return the block to write to, or -1 if all blocks are in use
+     */
+    private synchronized int allocateBlock() {
+        if (freeBlockCount > 0) {
+            return freeBlocks[--freeBlockCount];
+        }
+
+        if (allocatedBlockCount >= maxBlocks) {
+            return -1;
+        }
+
+        final int block = allocatedBlockCount++;
+        final int slabIndex = block / BLOCKS_PER_SLAB;
+        if (slabs[slabIndex] == null) {
+            final int blocksInSlab = Math.min(BLOCKS_PER_SLAB, maxBlocks - slabIndex * BLOCKS_PER_SLAB);
+            slabs[slabIndex] = ByteBuffer.allocateDirect(blocksInSlab * BLOCK_SIZE);
+        }
+
+        return block;
+    }
+
+    private synchronized void releaseBlocks(final int[] blocks, final int count) {
+        for (int i = 0; i < count; i++) {
+            freeBlocks[freeBlockCount++] = blocks[i];
+        }
+    }
+
+    private ByteBuffer getSlab(final int block) {
+        return slabs[block / BLOCKS_PER_SLAB];
+    }
+
+    private static int getSlabOffset(final int block) {
+        return (block % BLOCKS_PER_SLAB) * BLOCK_SIZE;
+    }
+
+    @Override
+    public ContentClaim create(final boolean lossTolerant) {
+        final ContentClaim contentClaim = new OffHeapContentClaim();
+        resourceClaimManager.incrementClaimantCount(contentClaim.getResourceClaim());
+        return contentClaim;
+    }
+
+    @Override
+    public int incrementClaimaintCount(final ContentClaim claim) {
+        if (claim == null) {
+            return 0;
+        }
+
+        return resourceClaimManager.incrementClaimantCount(claim.getResourceClaim());
+    }
+
+    @Override
+    public int getClaimantCount(final ContentClaim claim) {
+        if (claim == null) {
+            return 0;
+        }
+
+        return resourceClaimManager.getClaimantCount(claim.getResourceClaim());
+    }
+
+    @Override
+    public int decrementClaimantCount(final ContentClaim claim) {
+        if (claim == null) {
+            return 0;
+        }
+
+        return resourceClaimManager.decrementClaimantCount(claim.getResourceClaim());
+    }
+
+    @Override
+    public boolean remove(final ContentClaim claim) {
+        return true;
+    }
+
+    @Override
+    public ContentClaim clone(final ContentClaim original, final boolean lossTolerant) throws IOException {
+        final ContentClaim clone = create(lossTolerant);
+        try (final InputStream in = read(original);
+             final OutputStream out = write(clone)) {
+            StreamUtils.copy(in, out);
+        }
+
+        return clone;
+    }
+
+    @Override
+    public long importFrom(final Path content, final ContentClaim claim) throws IOException {
+        try (final InputStream in = Files.newInputStream(content, StandardOpenOption.READ)) {
+            return importFrom(in, claim);
+        }
+    }
+
+    @Override
+    public long importFrom(final InputStream content, final ContentClaim claim) throws IOException {
+        try (final OutputStream out = write(claim)) {
+            return StreamUtils.copy(content, out);
+        }
+    }
+
+    @Override
+    public long exportTo(final ContentClaim claim, final Path destination, final boolean append) throws IOException {
+        final OpenOption[] openOptions = append ? new StandardOpenOption[] {StandardOpenOption.CREATE, StandardOpenOption.APPEND} :
+            new StandardOpenOption[] {StandardOpenOption.CREATE};
+
+        try (final OutputStream out = Files.newOutputStream(destination, openOptions)) {
+            return exportTo(claim, out);
+        }
+    }
+
+    @Override
+    public long exportTo(final ContentClaim claim, final Path destination, final boolean append, final long offset, final long length) throws IOException {
+        final OpenOption[] openOptions = append ? new StandardOpenOption[] {StandardOpenOption.CREATE, StandardOpenOption.APPEND} :
+            new StandardOpenOption[] {StandardOpenOption.CREATE};
+
+        try (final OutputStream out = Files.newOutputStream(destination, openOptions)) {
+            return exportTo(claim, out, offset, length);
+        }
+    }
+
+    @Override
+    public long exportTo(final ContentClaim claim, final OutputStream destination) throws IOException {
+        try (final InputStream in = read(claim)) {
+            return StreamUtils.copy(in, destination);
+        }
+    }
+
+    @Override
+    public long exportTo(final ContentClaim claim, final OutputStream destination, final long offset, final long length) throws IOException {
+        try (final InputStream in = read(claim)) {
+            StreamUtils.skip(in, offset);
+            StreamUtils.copy(in, destination, length);
+        }
+
+        return length;
+    }
+
+    @Override
+    public long size(final ContentClaim claim) {
+        return claim.getLength();
+    }
+
+    @Override
+    public long size(final ResourceClaim claim) {
+        return 0;
+    }
+
+    @Override
+    public InputStream read(final ContentClaim claim) throws IOException {
+        if (claim == null) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        return verifyClaim(claim).getResourceClaim().read();
+    }
+
+    @Override
+    public InputStream read(final ResourceClaim claim) throws IOException {
+        if (claim == null) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        if (!(claim instanceof OffHeapResourceClaim)) {
+            throw new IllegalArgumentException("Cannot access Resource Claim " + claim + " because the Resource Claim does not belong to this Content Repository");
+        }
+
+        return ((OffHeapResourceClaim) claim).read();
+    }
+
+    @Override
+    public OutputStream write(final ContentClaim claim) throws IOException {
+        return verifyClaim(claim).getResourceClaim().writeTo();
+    }
+
+    private OffHeapContentClaim verifyClaim(final ContentClaim claim) {
+        Objects.requireNonNull(claim);
+        if (!(claim instanceof OffHeapContentClaim)) {
+            throw new IllegalArgumentException("Cannot access Content Claim " + claim + " because the Content Claim does not belong to this Content Repository");
+        }
+
+        return (OffHeapContentClaim) claim;
+    }
+
+    /**
+     * Returns all blocks to the pool without releasing the slabs that hold them, so that the next transaction reuses the same memory.
+     */
+    @Override
+    public void purge() {
+        synchronized (this) {
+            freeBlockCount = 0;
+            allocatedBlockCount = 0;
+        }
+
+        overflowRepository.purge();
+        resourceClaimManager.purge();
+    }
+
+    @Override
+    public void cleanup() {
+        purge();
+    }
+
+    @Override
+    public boolean isAccessible(final ContentClaim contentClaim) {
+        return false;
+    }
+
+    private class OffHeapContentClaim implements ContentClaim {
+        private final OffHeapResourceClaim resourceClaim = new OffHeapResourceClaim();
+
+        @Override
+        public OffHeapResourceClaim getResourceClaim() {
+            return resourceClaim;
+        }
+
+        @Override
+        public long getOffset() {
+            return 0;
+        }
+
+        @Override
+        public long getLength() {
+            return resourceClaim.getLength();
+        }
+
+        @Override
+        public int compareTo(final ContentClaim o) {
+            return resourceClaim.compareTo(o.getResourceClaim());
+        }
+
+        @Override
+        public int hashCode() {
+            return resourceClaim.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return this == obj;
+        }
+    }
+
+    private class OffHeapResourceClaim implements ResourceClaim {
+        private static final AtomicLong idCounter = new AtomicLong(0L);
+        private final String id = String.valueOf(idCounter.getAndIncrement());
+
+        // Written once, when the stream that writes the content is closed
+        private volatile int[] blocks;
+        private volatile long length;
+        private volatile ContentClaim overflowClaim;
+        private volatile boolean written;
+        private boolean writeStarted;
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String getContainer() {
+            return CONTAINER;
+        }
+
+        @Override
+        public String getSection() {
+            return SECTION;
+        }
+
+        @Override
+        public boolean isLossTolerant() {
+            return true;
+        }
+
+        @Override
+        public boolean isWritable() {
+            return !written;
+        }
+
+        @Override
+        public boolean isInUse() {
+            return true;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public synchronized OutputStream writeTo() throws IOException {
+            if (writeStarted) {
+                throw new IOException("Cannot write to " + this + " because it has already been written to.");
+            }
+
+            writeStarted = true;
+            return new OffHeapOutputStream(this);
+        }
+
+        public InputStream read() throws IOException {
+            if (!written) {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+
+            if (overflowClaim != null) {
+                return overflowRepository.read(overflowClaim);
+            }
+
+            return new OffHeapInputStream(blocks, length);
+        }
+
+        private void complete(final int[] blocks, final long length, final ContentClaim overflowClaim) {
+            this.blocks = blocks;
+            this.length = length;
+            this.overflowClaim = overflowClaim;
+            this.written = true;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            final OffHeapResourceClaim that = (OffHeapResourceClaim) o;
+            return Objects.equals(id, that.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return id.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "OffHeapResourceClaim[id=" + id + "]";
+        }
+    }
+
+    /**
+     * Writes content into blocks of direct memory. Once no more blocks are available, the content written so far is copied to the
+     * overflow repository, the blocks are returned to the pool, and the rest of the content is written to the overflow repository.
+     */
+    private class OffHeapOutputStream extends OutputStream {
+        private final OffHeapResourceClaim resourceClaim;
+        private final List<Integer> blocks = new ArrayList<>();
+        private final byte[] singleByte = new byte[1];
+        private int blockOffset = BLOCK_SIZE;
+        private long length;
+        private ContentClaim overflowClaim;
+        private OutputStream overflowStream;
+        private boolean closed;
+
+        private OffHeapOutputStream(final OffHeapResourceClaim resourceClaim) {
+            this.resourceClaim = resourceClaim;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            singleByte[0] = (byte) b;
+            write(singleByte, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (closed) {
+                throw new IOException("Stream is closed");
+            }
+
+            int written = 0;
+            while (written < len) {
+                if (overflowStream != null) {
+                    overflowStream.write(b, off + written, len - written);
+                    length += len - written;
+                    return;
+                }
+
+                if (blockOffset == BLOCK_SIZE && !nextBlock()) {
+                    continue;
+                }
+
+                final int block = blocks.getLast();
+                final int toWrite = Math.min(len - written, BLOCK_SIZE - blockOffset);
+                getSlab(block).put(getSlabOffset(block) + blockOffset, b, off + written, toWrite);
+                blockOffset += toWrite;
+                written += toWrite;
+                length += toWrite;
+            }
+        }
+
+        /**
+         * @return <code>true</code> if a block was allocated, <code>false</code> if the content now overflows to the overflow repository
+         */
+        private boolean nextBlock() throws IOException {
+            final int block = allocateBlock();
+            if (block >= 0) {
+                blocks.add(block);
+                blockOffset = 0;
+                return true;
+            }
+
+            logger.debug("Off-Heap Content Repository is full; writing {} to overflow Content Repository", resourceClaim);
+            overflowClaim = overflowRepository.create(true);
+            overflowStream = overflowRepository.write(overflowClaim);
+            try (final InputStream in = new OffHeapInputStream(toArray(), length)) {
+                StreamUtils.copy(in, overflowStream);
+            }
+
+            releaseBlocks(toArray(), blocks.size());
+            blocks.clear();
+            return false;
+        }
+
+        private int[] toArray() {
+            return blocks.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (overflowStream != null) {
+                overflowStream.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            if (overflowStream != null) {
+                overflowStream.close();
+            }
+
+            resourceClaim.complete(toArray(), length, overflowClaim);
+        }
+    }
+
+    private class OffHeapInputStream extends InputStream {
+        private final int[] blocks;
+        private final long length;
+        private long position;
+
+        private OffHeapInputStream(final int[] blocks, final long length) {
+            this.blocks = blocks;
+            this.length = length;
+        }
+
+        @Override
+        public int read() {
+            if (position >= length) {
+                return -1;
+            }
+
+            final int block = blocks[(int) (position / BLOCK_SIZE)];
+            final int value = getSlab(block).get(getSlabOffset(block) + (int) (position % BLOCK_SIZE)) & 0xFF;
+            position++;
+            return value;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (len == 0) {
+                return 0;
+            }
+
+            if (position >= length) {
+                return -1;
+            }
+
+            final int blockOffset = (int) (position % BLOCK_SIZE);
+            final int toRead = (int) Math.min(Math.min(len, BLOCK_SIZE - blockOffset), length - position);
+            final int block = blocks[(int) (position / BLOCK_SIZE)];
+            getSlab(block).get(getSlabOffset(block) + blockOffset, b, off, toRead);
+            position += toRead;
+            return toRead;
+        }
+
+        @Override
+        public long skip(final long n) {
+            final long skipped = Math.max(0L, Math.min(n, length - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, length - position);
+        }
+    }
+}
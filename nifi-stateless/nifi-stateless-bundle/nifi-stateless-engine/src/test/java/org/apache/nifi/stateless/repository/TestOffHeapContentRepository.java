@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.stateless.repository;
+
+import org.apache.nifi.controller.repository.ContentRepositoryContext;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.events.EventReporter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestOffHeapContentRepository {
+    private static final int MAX_OFF_HEAP_BYTES = 4 * OffHeapContentRepository.BLOCK_SIZE;
+
+    private final File overflowDirectory = new File("target/test-off-heap-overflow-repository");
+    private OffHeapContentRepository repository;
+
+    private final ContentRepositoryContext contentRepositoryContext = new ContentRepositoryContext() {
+        @Override
+        public ResourceClaimManager getResourceClaimManager() {
+            return new StandardResourceClaimManager();
+        }
+
+        @Override
+        public EventReporter getEventReporter() {
+            return EventReporter.NO_OP;
+        }
+    };
+
+    @BeforeEach
+    public void setup() throws IOException {
+        repository = new OffHeapContentRepository(MAX_OFF_HEAP_BYTES, new StatelessFileSystemContentRepository(overflowDirectory));
+        repository.initialize(contentRepositoryContext);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        repository.shutdown();
+    }
+
+    @Test
+    public void testWriteThenRead() throws IOException {
+        // Span multiple blocks, and write a single byte so that the content does not end on a block boundary
+        final byte[] contents = randomBytes(OffHeapContentRepository.BLOCK_SIZE * 2 + 100);
+        final ContentClaim claim = write(contents);
+
+        assertEquals(contents.length, claim.getLength());
+        assertEquals(contents.length, repository.size(claim));
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(contents, read(claim));
+        }
+
+        try (final InputStream in = repository.read(claim)) {
+            assertEquals(OffHeapContentRepository.BLOCK_SIZE + 10, in.skip(OffHeapContentRepository.BLOCK_SIZE + 10));
+            assertArrayEquals(Arrays.copyOfRange(contents, OffHeapContentRepository.BLOCK_SIZE + 10, contents.length), in.readAllBytes());
+        }
+
+        assertEquals(MAX_OFF_HEAP_BYTES - 3L * OffHeapContentRepository.BLOCK_SIZE, repository.getContainerUsableSpace("off-heap"));
+        assertEquals(0, countOverflowFiles());
+    }
+
+    @Test
+    public void testOverflow() throws IOException {
+        final byte[] firstContents = randomBytes(OffHeapContentRepository.BLOCK_SIZE * 3);
+        final ContentClaim firstClaim = write(firstContents);
+
+        // The second content does not fit within the remaining block, so it is written to the overflow repository
+        final byte[] secondContents = randomBytes(OffHeapContentRepository.BLOCK_SIZE * 2 + 1);
+        final ContentClaim secondClaim = write(secondContents);
+
+        assertEquals(secondContents.length, secondClaim.getLength());
+        assertArrayEquals(firstContents, read(firstClaim));
+        assertArrayEquals(secondContents, read(secondClaim));
+        assertEquals(1, countOverflowFiles());
+
+        // The blocks that were written before overflowing are returned to the pool
+        assertEquals(OffHeapContentRepository.BLOCK_SIZE, repository.getContainerUsableSpace("off-heap"));
+    }
+
+    @Test
+    public void testPurgeReusesSlabs() throws IOException {
+        write(randomBytes(MAX_OFF_HEAP_BYTES));
+        assertEquals(0, repository.getContainerUsableSpace("off-heap"));
+        final long allocatedSlabBytes = repository.getAllocatedSlabBytes();
+
+        repository.purge();
+        assertEquals(MAX_OFF_HEAP_BYTES, repository.getContainerUsableSpace("off-heap"));
+
+        final byte[] contents = randomBytes(MAX_OFF_HEAP_BYTES);
+        final ContentClaim claim = write(contents);
+        assertArrayEquals(contents, read(claim));
+        assertEquals(allocatedSlabBytes, repository.getAllocatedSlabBytes());
+        assertEquals(0, countOverflowFiles());
+    }
+
+    @Test
+    public void testOverwriteFailsBeforeClosingOutputStream() throws IOException {
+        final ContentClaim claim = repository.create(true);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write("Hello, World!".getBytes());
+            assertThrows(IOException.class, () -> repository.write(claim));
+        }
+    }
+
+    private ContentClaim write(final byte[] contents) throws IOException {
+        final ContentClaim claim = repository.create(true);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write(contents[0]);
+            out.write(contents, 1, contents.length - 1);
+        }
+
+        return claim;
+    }
+
+    private byte[] read(final ContentClaim claim) throws IOException {
+        try (final InputStream in = repository.read(claim)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private int countOverflowFiles() {
+        final File[] files = overflowDirectory.listFiles();
+        assertNotNull(files);
+        return files.length;
+    }
+
+    private static byte[] randomBytes(final int length) {
+        final byte[] bytes = new byte[length];
+        new Random().nextBytes(bytes);
+        return bytes;
+    }
+}